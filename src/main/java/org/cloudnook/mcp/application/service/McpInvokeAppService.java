@@ -1,19 +1,29 @@
 package org.cloudnook.mcp.application.service;
 
+import io.modelcontextprotocol.spec.McpError;
 import io.modelcontextprotocol.spec.McpSchema;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.cloudnook.mcp.domain.log.model.McpInvokeContext;
 import org.cloudnook.mcp.domain.log.model.McpInvokeLog;
+import org.cloudnook.mcp.domain.log.model.McpInvokeLogPage;
+import org.cloudnook.mcp.domain.log.model.McpInvokeLogQuery;
 import org.cloudnook.mcp.domain.log.repository.McpInvokeLogRepository;
+import org.cloudnook.mcp.domain.log.service.McpInvokeLogPublisher;
+import org.cloudnook.mcp.domain.invoke.repository.McpCatalogCache;
+import org.cloudnook.mcp.domain.invoke.service.McpCircuitBreaker;
+import org.cloudnook.mcp.domain.invoke.service.McpConcurrencyLimiter;
+import org.cloudnook.mcp.domain.invoke.service.McpInvokeCoalescer;
 import org.cloudnook.mcp.domain.invoke.service.McpInvokeDomainService;
 import org.cloudnook.mcp.domain.metrics.service.McpMetricsDomainService;
+import org.cloudnook.mcp.domain.routing.ServerLoadTracker;
 import org.cloudnook.mcp.infrastructure.utils.GeneratorUtil;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
 import java.time.Instant;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * MCP Invoke 应用服务
@@ -23,7 +33,12 @@ import java.util.Map;
  * 1. 编排多个 Domain 服务
  * 2. invoke（发出请求）
  * 3. metrics（记录指标）
- * 4. log（记录日志）
+ * 4. log（提交日志，异步批量写入）
+ * 5. cache（列表查询优先读取目录缓存）
+ * 6. coalesce（相同的并发请求合并为一个上游请求）
+ * 7. history（按条件查询调用历史）
+ * 8. limit（按上游延迟自适应限制每个服务实例的并发，超出时快速拒绝）
+ * 9. circuit（按失败率熔断服务实例，熔断期间快速失败）
  *
  * 两个入口都会调用此服务：
  * - Inspector（调试入口）：直接指定 serverId
@@ -39,7 +54,13 @@ public class McpInvokeAppService {
 
     private final McpInvokeDomainService mcpInvokeDomainService;
     private final McpMetricsDomainService mcpMetricsDomainService;
+    private final McpInvokeLogPublisher mcpInvokeLogPublisher;
     private final McpInvokeLogRepository mcpInvokeLogRepository;
+    private final ServerLoadTracker serverLoadTracker;
+    private final McpCatalogCache mcpCatalogCache;
+    private final McpInvokeCoalescer mcpInvokeCoalescer;
+    private final McpConcurrencyLimiter mcpConcurrencyLimiter;
+    private final McpCircuitBreaker mcpCircuitBreaker;
 
     // ==================== 列表查询 ====================
 
@@ -65,9 +86,7 @@ public class McpInvokeAppService {
                 null
         );
 
-        return mcpInvokeDomainService.listTools(serverId)
-                .doOnSuccess(result -> recordSuccess(context, result))
-                .doOnError(error -> recordFailure(context, error));
+        return invokeCatalog(context, () -> mcpInvokeDomainService.listTools(serverId));
     }
 
     /**
@@ -92,9 +111,7 @@ public class McpInvokeAppService {
                 null
         );
 
-        return mcpInvokeDomainService.listResources(serverId)
-                .doOnSuccess(result -> recordSuccess(context, result))
-                .doOnError(error -> recordFailure(context, error));
+        return invokeCatalog(context, () -> mcpInvokeDomainService.listResources(serverId));
     }
 
     /**
@@ -119,9 +136,7 @@ public class McpInvokeAppService {
                 null
         );
 
-        return mcpInvokeDomainService.listPrompts(serverId)
-                .doOnSuccess(result -> recordSuccess(context, result))
-                .doOnError(error -> recordFailure(context, error));
+        return invokeCatalog(context, () -> mcpInvokeDomainService.listPrompts(serverId));
     }
 
     // ==================== 资源调用 ====================
@@ -143,8 +158,32 @@ public class McpInvokeAppService {
             McpInvokeLog.InvokeSource source,
             String clientId
     ) {
-        log.info("Invoke: 调用 Tool - serverId={}, toolName={}, source={}, clientId={}",
-                serverId, toolName, source, clientId);
+        return callTool(serverId, toolName, arguments, source, clientId, null, 1);
+    }
+
+    /**
+     * 调用 Tool（失败重试的一次尝试）
+     *
+     * @param serverId  服务ID
+     * @param toolName  Tool名称
+     * @param arguments 调用参数
+     * @param source    调用来源
+     * @param clientId  客户端ID（可选，仅ROUTER来源）
+     * @param callId    调用ID，各次尝试共用（为 null 时生成新的调用ID）
+     * @param attempt   第几次尝试（从 1 开始）
+     * @return Tool 调用结果
+     */
+    public Mono<McpSchema.CallToolResult> callTool(
+            String serverId,
+            String toolName,
+            Map<String, Object> arguments,
+            McpInvokeLog.InvokeSource source,
+            String clientId,
+            String callId,
+            int attempt
+    ) {
+        log.info("Invoke: 调用 Tool - serverId={}, toolName={}, source={}, clientId={}, attempt={}",
+                serverId, toolName, source, clientId, attempt);
 
         McpInvokeContext context = buildCallContext(
                 serverId,
@@ -154,10 +193,12 @@ public class McpInvokeAppService {
                 source,
                 clientId
         );
+        if (callId != null) {
+            context.setCallId(callId);
+        }
+        context.setAttempt(attempt);
 
-        return mcpInvokeDomainService.callTool(serverId, toolName, arguments)
-                .doOnSuccess(result -> recordSuccess(context, result))
-                .doOnError(error -> recordFailure(context, error));
+        return invoke(context, () -> mcpInvokeDomainService.callTool(serverId, toolName, arguments));
     }
 
     /**
@@ -184,9 +225,7 @@ public class McpInvokeAppService {
                 null
         );
 
-        return mcpInvokeDomainService.readResource(serverId, resourceUri)
-                .doOnSuccess(result -> recordSuccess(context, result))
-                .doOnError(error -> recordFailure(context, error));
+        return invoke(context, () -> mcpInvokeDomainService.readResource(serverId, resourceUri));
     }
 
     /**
@@ -215,12 +254,87 @@ public class McpInvokeAppService {
                 null
         );
 
-        return mcpInvokeDomainService.getPrompt(serverId, promptName, arguments)
+        return invoke(context, () -> mcpInvokeDomainService.getPrompt(serverId, promptName, arguments));
+    }
+
+    // ==================== 调用历史 ====================
+
+    /**
+     * 查询调用历史
+     *
+     * @param query 查询条件
+     * @return 分页结果（最新的在前）
+     */
+    public McpInvokeLogPage queryHistory(McpInvokeLogQuery query) {
+        return mcpInvokeLogRepository.query(query);
+    }
+
+    /**
+     * 清空调用历史
+     */
+    public void clearHistory() {
+        log.info("Invoke: 清空调用历史");
+        mcpInvokeLogRepository.clear();
+    }
+
+    // ==================== 私有方法 ====================
+
+    /**
+     * 执行调用
+     * 相同的并发请求合并为一个上游请求；上游请求先经过熔断器和自适应并发限制，
+     * 订阅时登记进行中请求，结束（成功、失败或取消）时释放并上报延迟
+     * 每个调用方各自记录指标和日志
+     */
+    private <T> Mono<T> invoke(McpInvokeContext context, Supplier<Mono<T>> call) {
+        String serverId = context.getServerId();
+        Supplier<Mono<T>> upstream = () -> mcpCircuitBreaker.execute(serverId,
+                () -> mcpConcurrencyLimiter.execute(serverId, () -> {
+                    long startNanos = System.nanoTime();
+                    serverLoadTracker.onStart(serverId);
+                    return Mono.defer(call)
+                            .doOnSuccess(result -> serverLoadTracker.recordLatency(serverId, System.nanoTime() - startNanos))
+                            .doOnError(error -> {
+                                long elapsed = System.nanoTime() - startNanos;
+                                if (isBackendFailure(error)) {
+                                    serverLoadTracker.recordFailure(serverId, elapsed);
+                                } else {
+                                    serverLoadTracker.recordLatency(serverId, elapsed);
+                                }
+                            })
+                            .doFinally(signal -> serverLoadTracker.onComplete(serverId));
+                }));
+        return mcpInvokeCoalescer.execute(context, upstream)
                 .doOnSuccess(result -> recordSuccess(context, result))
                 .doOnError(error -> recordFailure(context, error));
     }
 
-    // ==================== 私有方法 ====================
+    /**
+     * 判断失败是否来自服务实例本身
+     * 后端正常返回的 JSON-RPC 业务错误（参数错误、方法或资源不存在等）按普通延迟样本计入负载追踪
+     */
+    private static boolean isBackendFailure(Throwable error) {
+        if (error instanceof McpError mcpError && mcpError.getJsonRpcError() != null) {
+            Integer code = mcpError.getJsonRpcError().code();
+            return code == null || code == McpSchema.ErrorCodes.INTERNAL_ERROR;
+        }
+        return true;
+    }
+
+    /**
+     * 执行目录查询
+     * 命中缓存时直接返回并标记为缓存命中（仍记录指标和日志），未命中时访问后端并写入缓存
+     */
+    private <T> Mono<T> invokeCatalog(McpInvokeContext context, Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            T cached = mcpCatalogCache.get(context.getServerId(), context.getType());
+            if (cached != null) {
+                context.setCacheHit(true);
+                recordSuccess(context, cached);
+                return Mono.just(cached);
+            }
+            return invoke(context, () -> mcpCatalogCache.load(context.getServerId(), context.getType(), call));
+        });
+    }
 
     /**
      * 记录成功调用
@@ -229,9 +343,8 @@ public class McpInvokeAppService {
         // 记录监控指标
         mcpMetricsDomainService.recordSuccess(context, result);
 
-        // 记录调用日志
-        McpInvokeLog log = buildInvokeLog(context, result, null);
-        mcpInvokeLogRepository.add(log);
+        // 提交调用日志（响应结果在后台线程序列化）
+        mcpInvokeLogPublisher.publish(context, result, null);
     }
 
     /**
@@ -241,9 +354,8 @@ public class McpInvokeAppService {
         // 记录监控指标
         mcpMetricsDomainService.recordFailure(context, error);
 
-        // 记录调用日志
-        McpInvokeLog log = buildInvokeLog(context, null, error.getMessage());
-        mcpInvokeLogRepository.add(log);
+        // 提交调用日志
+        mcpInvokeLogPublisher.publish(context, null, error.getMessage());
     }
 
     /**
@@ -266,37 +378,7 @@ public class McpInvokeAppService {
                 .source(source)
                 .clientId(clientId)
                 .startTime(Instant.now())
-                .build();
-    }
-
-    /**
-     * 构建调用记录
-     */
-    private McpInvokeLog buildInvokeLog(
-            McpInvokeContext context,
-            Object result,
-            String errorMessage
-    ) {
-        long durationMs = Instant.now().toEpochMilli() - context.getStartTime().toEpochMilli();
-
-        String responseJson = null;
-        if (result != null) {
-            responseJson = result.toString();
-        }
-
-        return McpInvokeLog.builder()
-                .callId(context.getCallId())
-                .source(context.getSource())
-                .serverId(context.getServerId())
-                .type(context.getType())
-                .targetName(context.getTargetName())
-                .arguments(context.getArguments())
-                .response(responseJson)
-                .status(errorMessage == null ? McpInvokeLog.InvokeStatus.SUCCESS : McpInvokeLog.InvokeStatus.FAILURE)
-                .errorMessage(errorMessage)
-                .durationMs(durationMs)
-                .timestamp(context.getStartTime())
-                .clientId(context.getClientId())
+                .startNanos(System.nanoTime())
                 .build();
     }
 }
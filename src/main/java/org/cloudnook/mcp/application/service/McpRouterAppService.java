@@ -3,15 +3,21 @@ package org.cloudnook.mcp.application.service;
 import io.modelcontextprotocol.spec.McpSchema;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.cloudnook.mcp.domain.invoke.service.McpRequestHedger;
+import org.cloudnook.mcp.domain.invoke.service.McpRetryBudget;
 import org.cloudnook.mcp.domain.log.model.McpInvokeLog;
 import org.cloudnook.mcp.domain.routing.LoadBalanceStrategy;
 import org.cloudnook.mcp.domain.server.model.McpServer;
 import org.cloudnook.mcp.domain.server.service.McpRegister;
+import org.cloudnook.mcp.infrastructure.common.exception.BusinessException;
+import org.cloudnook.mcp.infrastructure.utils.GeneratorUtil;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * MCP Router 应用服务
@@ -20,6 +26,8 @@ import java.util.Map;
  * 核心功能：
  * 1. 根据负载均衡策略选择 serverId
  * 2. 调用 McpInvokeAppService 执行具体操作
+ * 3. 幂等的读取和列表调用可选对冲：主实例超过分位延迟未返回时向另一个实例发出对冲请求
+ * 4. Tool 调用遇到可重试的失败时换一个实例重试，受服务名维度的重试预算约束
  *
  * @Author: the-way
  * @Date: 2026-01-13
@@ -32,6 +40,8 @@ public class McpRouterAppService {
     private final McpInvokeAppService mcpInvokeAppService;
     private final McpRegister mcpRegister;
     private final LoadBalanceStrategy loadBalanceStrategy;
+    private final McpRequestHedger mcpRequestHedger;
+    private final McpRetryBudget mcpRetryBudget;
 
     // ==================== 列表查询（不经过路由，直接返回所有服务的信息）====================
 
@@ -44,19 +54,20 @@ public class McpRouterAppService {
         log.info("Router: 查询 Tools 列表 - serverName={}", serverName);
 
         // 获取服务的所有实例
-        List<String> serverIds = mcpRegister.getServerIdsByName(serverName);
-        if (serverIds == null || serverIds.isEmpty()) {
+        List<McpServer> servers = mcpRegister.getServersByName(serverName);
+        if (servers == null || servers.isEmpty()) {
             log.error("服务不存在: {}", serverName);
             return Mono.error(new RuntimeException("服务不存在: " + serverName));
         }
 
         // 简化处理：使用第一个实例
-        String serverId = serverIds.get(0);
+        String serverId = servers.get(0).getId();
 
-        return mcpInvokeAppService.listTools(
-                serverId,
-                McpInvokeLog.InvokeSource.ROUTER
-        );
+        return mcpRequestHedger.execute(serverId, hedgeTarget(servers, serverId),
+                id -> mcpInvokeAppService.listTools(
+                        id,
+                        McpInvokeLog.InvokeSource.ROUTER
+                ));
     }
 
     /**
@@ -65,18 +76,19 @@ public class McpRouterAppService {
     public Mono<McpSchema.ListResourcesResult> listResources(String serverName) {
         log.info("Router: 查询 Resources 列表 - serverName={}", serverName);
 
-        List<String> serverIds = mcpRegister.getServerIdsByName(serverName);
-        if (serverIds == null || serverIds.isEmpty()) {
+        List<McpServer> servers = mcpRegister.getServersByName(serverName);
+        if (servers == null || servers.isEmpty()) {
             log.error("服务不存在: {}", serverName);
             return Mono.error(new RuntimeException("服务不存在: " + serverName));
         }
 
-        String serverId = serverIds.get(0);
+        String serverId = servers.get(0).getId();
 
-        return mcpInvokeAppService.listResources(
-                serverId,
-                McpInvokeLog.InvokeSource.ROUTER
-        );
+        return mcpRequestHedger.execute(serverId, hedgeTarget(servers, serverId),
+                id -> mcpInvokeAppService.listResources(
+                        id,
+                        McpInvokeLog.InvokeSource.ROUTER
+                ));
     }
 
     /**
@@ -85,18 +97,19 @@ public class McpRouterAppService {
     public Mono<McpSchema.ListPromptsResult> listPrompts(String serverName) {
         log.info("Router: 查询 Prompts 列表 - serverName={}", serverName);
 
-        List<String> serverIds = mcpRegister.getServerIdsByName(serverName);
-        if (serverIds == null || serverIds.isEmpty()) {
+        List<McpServer> servers = mcpRegister.getServersByName(serverName);
+        if (servers == null || servers.isEmpty()) {
             log.error("服务不存在: {}", serverName);
             return Mono.error(new RuntimeException("服务不存在: " + serverName));
         }
 
-        String serverId = serverIds.get(0);
+        String serverId = servers.get(0).getId();
 
-        return mcpInvokeAppService.listPrompts(
-                serverId,
-                McpInvokeLog.InvokeSource.ROUTER
-        );
+        return mcpRequestHedger.execute(serverId, hedgeTarget(servers, serverId),
+                id -> mcpInvokeAppService.listPrompts(
+                        id,
+                        McpInvokeLog.InvokeSource.ROUTER
+                ));
     }
 
     // ==================== 资源调用（经过负载均衡）====================
@@ -126,20 +139,29 @@ public class McpRouterAppService {
             return Mono.error(new RuntimeException("服务不存在: " + serverName));
         }
 
-        // 2. 根据负载均衡策略选择服务实例
+        // 2. 根据负载均衡策略选择服务实例（跳过熔断中的实例）
         McpServer selectedServer = loadBalanceStrategy.select(servers);
+        if (selectedServer == null) {
+            log.warn("服务实例均已熔断: {}", serverName);
+            return Mono.error(new BusinessException("503", "服务无可用实例: " + serverName));
+        }
         String serverId = selectedServer.getId();
 
         log.info("Router: 选择服务实例 - serverName={}, serverId={}", serverName, serverId);
 
-        // 3. 调用统一的能力服务
-        return mcpInvokeAppService.callTool(
-                serverId,
-                toolName,
-                arguments,
-                McpInvokeLog.InvokeSource.ROUTER,  // 标记为路由来源
-                clientId
-        );
+        // 3. 调用统一的能力服务，可重试的失败换实例重试（各次尝试共用 callId）
+        if (!mcpRetryBudget.isEnabled() || servers.size() < 2) {
+            return mcpInvokeAppService.callTool(
+                    serverId,
+                    toolName,
+                    arguments,
+                    McpInvokeLog.InvokeSource.ROUTER,  // 标记为路由来源
+                    clientId
+            );
+        }
+        mcpRetryBudget.onRequest(serverName);
+        return callToolAttempt(serverName, servers, selectedServer, toolName, arguments, clientId,
+                GeneratorUtil.generateInvocationId(), 1);
     }
 
     /**
@@ -162,13 +184,18 @@ public class McpRouterAppService {
         }
 
         McpServer selectedServer = loadBalanceStrategy.select(servers);
+        if (selectedServer == null) {
+            log.warn("服务实例均已熔断: {}", serverName);
+            return Mono.error(new BusinessException("503", "服务无可用实例: " + serverName));
+        }
         String serverId = selectedServer.getId();
 
-        return mcpInvokeAppService.readResource(
-                serverId,
-                resourceUri,
-                McpInvokeLog.InvokeSource.ROUTER
-        );
+        return mcpRequestHedger.execute(serverId, hedgeTarget(servers, serverId),
+                id -> mcpInvokeAppService.readResource(
+                        id,
+                        resourceUri,
+                        McpInvokeLog.InvokeSource.ROUTER
+                ));
     }
 
     /**
@@ -193,13 +220,91 @@ public class McpRouterAppService {
         }
 
         McpServer selectedServer = loadBalanceStrategy.select(servers);
+        if (selectedServer == null) {
+            log.warn("服务实例均已熔断: {}", serverName);
+            return Mono.error(new BusinessException("503", "服务无可用实例: " + serverName));
+        }
         String serverId = selectedServer.getId();
 
-        return mcpInvokeAppService.getPrompt(
-                serverId,
-                promptName,
-                arguments,
-                McpInvokeLog.InvokeSource.ROUTER
-        );
+        return mcpRequestHedger.execute(serverId, hedgeTarget(servers, serverId),
+                id -> mcpInvokeAppService.getPrompt(
+                        id,
+                        promptName,
+                        arguments,
+                        McpInvokeLog.InvokeSource.ROUTER
+                ));
+    }
+
+    // ==================== 私有方法 ====================
+
+    /**
+     * 执行一次 Tool 调用尝试，失败且可重试时从尚未尝试的实例中重新选择
+     *
+     * @param candidates 尚未尝试过的实例（包含本次选中的实例）
+     * @param selected   本次选中的实例
+     * @param attempt    第几次尝试（从 1 开始）
+     */
+    private Mono<McpSchema.CallToolResult> callToolAttempt(
+            String serverName,
+            List<McpServer> candidates,
+            McpServer selected,
+            String toolName,
+            Map<String, Object> arguments,
+            String clientId,
+            String callId,
+            int attempt
+    ) {
+        return mcpInvokeAppService.callTool(
+                        selected.getId(),
+                        toolName,
+                        arguments,
+                        McpInvokeLog.InvokeSource.ROUTER,
+                        clientId,
+                        callId,
+                        attempt
+                )
+                .onErrorResume(error -> {
+                    if (attempt >= mcpRetryBudget.getMaxAttempts() || !mcpRetryBudget.isRetryable(error)) {
+                        return Mono.error(error);
+                    }
+                    List<McpServer> remaining = new ArrayList<>(candidates.size() - 1);
+                    for (McpServer server : candidates) {
+                        if (!server.getId().equals(selected.getId())) {
+                            remaining.add(server);
+                        }
+                    }
+                    McpServer next = remaining.isEmpty() ? null : loadBalanceStrategy.select(remaining);
+                    if (next == null) {
+                        return Mono.error(error);
+                    }
+                    if (!mcpRetryBudget.tryAcquireRetry(serverName)) {
+                        log.warn("Router: 重试预算不足，放弃重试 - serverName={}, callId={}", serverName, callId);
+                        return Mono.error(error);
+                    }
+
+                    log.warn("Router: 调用失败，换实例重试 - serverName={}, callId={}, failed={}, next={}, attempt={}, error={}",
+                            serverName, callId, selected.getId(), next.getId(), attempt + 1, error.getMessage());
+                    return callToolAttempt(serverName, remaining, next, toolName, arguments, clientId, callId, attempt + 1);
+                });
+    }
+
+    /**
+     * 对冲实例的选择：取实例列表中主实例的下一个实例
+     * 只在对冲真正发出时选择，且不经过负载均衡策略，不影响轮询等策略的状态
+     *
+     * @return 对冲实例的选择，未启用对冲或没有其他实例时返回 null
+     */
+    private Supplier<String> hedgeTarget(List<McpServer> servers, String primaryId) {
+        if (!mcpRequestHedger.isEnabled() || servers.size() < 2) {
+            return null;
+        }
+        return () -> {
+            for (int i = 0; i < servers.size(); i++) {
+                if (servers.get(i).getId().equals(primaryId)) {
+                    return servers.get((i + 1) % servers.size()).getId();
+                }
+            }
+            return null;
+        };
     }
 }
@@ -2,20 +2,30 @@ package org.cloudnook.mcp.application.service;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.cloudnook.mcp.domain.invoke.model.McpConcurrencyLimitStats;
+import org.cloudnook.mcp.domain.invoke.service.McpBulkhead;
+import org.cloudnook.mcp.domain.invoke.service.McpCircuitBreaker;
+import org.cloudnook.mcp.domain.invoke.service.McpConcurrencyLimiter;
 import org.cloudnook.mcp.domain.metrics.model.McpServerMetrics;
+import org.cloudnook.mcp.domain.metrics.service.McpMetricsExporter;
+import org.cloudnook.mcp.domain.routing.McpOutlierDetector;
 import org.cloudnook.mcp.domain.server.model.McpServer;
 import org.cloudnook.mcp.domain.server.model.McpServerStatus;
+import org.cloudnook.mcp.domain.metrics.repository.McpDimensionMetricsRepository;
 import org.cloudnook.mcp.domain.metrics.repository.McpMetricsRepository;
 import org.cloudnook.mcp.domain.server.service.McpRegister;
 import org.cloudnook.mcp.domain.server.service.McpServerDomainService;
 import org.cloudnook.mcp.infrastructure.common.result.Result;
 import org.cloudnook.mcp.infrastructure.utils.GeneratorUtil;
+import org.cloudnook.mcp.interfaces.dto.monitor.DimensionMetricsVO;
 import org.cloudnook.mcp.interfaces.dto.monitor.ServerDetailVO;
 import org.cloudnook.mcp.interfaces.dto.monitor.ServerMonitorSummaryVO;
 import org.cloudnook.mcp.interfaces.dto.server.McpServerRegisterReq;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.List;
 
 /**
@@ -43,10 +53,44 @@ public class McpServerAppService {
      */
     private McpRegister mcpRegister;
 
+    /**
+     * MCP 维度监控指标仓储
+     */
+    private McpDimensionMetricsRepository dimensionMetricsRepository;
+
+    /**
+     * MCP 监控指标导出
+     */
+    private McpMetricsExporter metricsExporter;
+
+    /**
+     * 并发隔离
+     */
+    private McpBulkhead mcpBulkhead;
+
+    /**
+     * 自适应并发限制
+     */
+    private McpConcurrencyLimiter mcpConcurrencyLimiter;
+
+    /**
+     * 熔断器
+     */
+    private McpCircuitBreaker mcpCircuitBreaker;
+
+    /**
+     * 离群检测
+     */
+    private McpOutlierDetector mcpOutlierDetector;
+
     /**
      * 注册服务
      */
     public Mono<Result<McpServer>> registerServer(McpServerRegisterReq request) {
+        if (request.getBulkhead() != null) {
+            request.getBulkhead().validate();
+        }
+
         // 1. 根据 name 和 endpoint 计算 serverId
         String serverId = GeneratorUtil.generateServerId(request.getName(), request.getEndpoint());
 
@@ -61,6 +105,7 @@ public class McpServerAppService {
                 .transportType(request.getTransportType())
                 .endpoint(request.getEndpoint())
                 .version(request.getVersion()) // 添加版本号
+                .bulkhead(request.getBulkhead())
                 .status(McpServerStatus.ACTIVE).build();
 
         // 3. 注册到注册中心
@@ -103,7 +148,12 @@ public class McpServerAppService {
         return allServers.stream()
                 .map(server -> {
                     McpServerMetrics metrics = metricsRepository.getServerMetrics(server.getId());
-                    return ServerMonitorSummaryVO.from(server, metrics);
+                    ServerMonitorSummaryVO summary = ServerMonitorSummaryVO.from(server, metrics);
+                    McpConcurrencyLimitStats limit = mcpConcurrencyLimiter.getStats(server.getId());
+                    summary.setConcurrencyLimit(limit != null ? limit.getLimit() : null);
+                    summary.setCircuitState(mcpCircuitBreaker.getState(server.getId()));
+                    summary.setEjected(mcpOutlierDetector.isEjected(server.getId()));
+                    return summary;
                 })
                 .toList();
     }
@@ -137,7 +187,52 @@ public class McpServerAppService {
         McpServerMetrics metrics = metricsRepository.getServerMetrics(serverId);
 
         // 3. 组装详情VO
-        return ServerDetailVO.from(server, metrics);
+        ServerDetailVO detail = ServerDetailVO.from(server, metrics);
+        detail.setBulkhead(mcpBulkhead.getStats(serverId));
+        detail.setConcurrencyLimit(mcpConcurrencyLimiter.getStats(serverId));
+        detail.setCircuitBreaker(mcpCircuitBreaker.getStats(serverId));
+        detail.setOutlier(mcpOutlierDetector.getStats(serverId));
+        return detail;
     }
-}
 
+    /**
+     * 获取服务访问最多的目标（tool/resource/prompt）监控数据
+     *
+     * @param serverId 服务ID
+     * @param limit    返回数量
+     * @return 按请求数降序排列的目标指标
+     */
+    public List<DimensionMetricsVO> getTopTargets(String serverId, int limit) {
+        return dimensionMetricsRepository.getTopTargets(serverId, limit).stream()
+                .map(DimensionMetricsVO::from)
+                .toList();
+    }
+
+    /**
+     * 获取访问最多的客户端监控数据
+     *
+     * @param limit 返回数量
+     * @return 按请求数降序排列的客户端指标
+     */
+    public List<DimensionMetricsVO> getTopClients(int limit) {
+        return dimensionMetricsRepository.getTopClients(limit).stream()
+                .map(DimensionMetricsVO::from)
+                .toList();
+    }
+
+    /**
+     * 导出监控指标（OpenMetrics）
+     *
+     * @param writer 输出
+     */
+    public void exportMetrics(Writer writer) throws IOException {
+        metricsExporter.export(writer);
+    }
+
+    /**
+     * 监控指标导出格式的响应类型
+     */
+    public String getMetricsContentType() {
+        return metricsExporter.contentType();
+    }
+}
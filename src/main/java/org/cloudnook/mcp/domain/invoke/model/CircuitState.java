@@ -0,0 +1,10 @@
+package org.cloudnook.mcp.domain.invoke.model;
+
+/**
+ * 熔断器状态
+ */
+public enum CircuitState {
+    CLOSED,     // 关闭：正常放行，统计失败率
+    OPEN,       // 打开：直接拒绝，等待冷却
+    HALF_OPEN   // 半开：放行少量探测调用，全部成功后关闭，任一失败重新打开
+}
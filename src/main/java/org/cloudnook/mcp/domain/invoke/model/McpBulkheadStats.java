@@ -0,0 +1,46 @@
+package org.cloudnook.mcp.domain.invoke.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 服务实例并发隔离（bulkhead）状态快照
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class McpBulkheadStats {
+
+    /**
+     * 最大并发调用数，0 表示不限制
+     */
+    private int maxConcurrency;
+
+    /**
+     * 最大排队数
+     */
+    private int maxQueueSize;
+
+    /**
+     * 进行中的调用数
+     */
+    private int inFlight;
+
+    /**
+     * 排队等待的调用数
+     */
+    private int queueDepth;
+
+    /**
+     * 排队已满被拒绝的调用数
+     */
+    private long rejected;
+
+    /**
+     * 排队超时被拒绝的调用数
+     */
+    private long timedOut;
+}
@@ -0,0 +1,53 @@
+package org.cloudnook.mcp.domain.invoke.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * 服务实例熔断器状态快照
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class McpCircuitBreakerStats {
+
+    /**
+     * 当前状态
+     */
+    private CircuitState state;
+
+    /**
+     * 统计窗口内的调用数
+     */
+    private long windowCalls;
+
+    /**
+     * 统计窗口内的失败数
+     */
+    private long windowFailures;
+
+    /**
+     * 统计窗口内的失败率（0-1）
+     */
+    private double failureRate;
+
+    /**
+     * 最近一次打开的时间（从未打开为 null）
+     */
+    private Instant openedAt;
+
+    /**
+     * 打开状态下被拒绝的调用数
+     */
+    private long rejected;
+
+    /**
+     * 打开次数
+     */
+    private long openCount;
+}
@@ -0,0 +1,41 @@
+package org.cloudnook.mcp.domain.invoke.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 服务实例自适应并发限制状态快照
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class McpConcurrencyLimitStats {
+
+    /**
+     * 限制算法（GRADIENT / AIMD）
+     */
+    private String algorithm;
+
+    /**
+     * 当前并发限制
+     */
+    private int limit;
+
+    /**
+     * 进行中的调用数
+     */
+    private int inFlight;
+
+    /**
+     * 超过限制被拒绝的调用数
+     */
+    private long rejected;
+
+    /**
+     * 长期基准延迟（毫秒，GRADIENT 算法）
+     */
+    private Double baselineLatencyMs;
+}
@@ -0,0 +1,41 @@
+package org.cloudnook.mcp.domain.invoke.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 对冲请求统计快照（全局）
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class McpHedgeStats {
+
+    /**
+     * 可对冲的请求数（存在对冲目标且主实例有可靠的分位延迟）
+     */
+    private long requests;
+
+    /**
+     * 已发出的对冲请求数
+     */
+    private long hedged;
+
+    /**
+     * 对冲请求先返回并被采用的次数
+     */
+    private long hedgeWins;
+
+    /**
+     * 对冲请求结果未被采用的次数（主请求先返回或都失败）
+     */
+    private long wasted;
+
+    /**
+     * 到达对冲时间但预算不足未发出的次数
+     */
+    private long budgetExhausted;
+}
@@ -0,0 +1,41 @@
+package org.cloudnook.mcp.domain.invoke.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 服务名维度的重试统计快照
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class McpRetryStats {
+
+    /**
+     * 服务名称
+     */
+    private String serverName;
+
+    /**
+     * 经过重试预算的请求数
+     */
+    private long requests;
+
+    /**
+     * 已发出的重试数
+     */
+    private long retries;
+
+    /**
+     * 可重试但预算不足而放弃的次数
+     */
+    private long budgetExhausted;
+
+    /**
+     * 当前剩余的重试额度
+     */
+    private double budgetRemaining;
+}
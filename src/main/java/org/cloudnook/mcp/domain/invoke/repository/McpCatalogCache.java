@@ -0,0 +1,53 @@
+package org.cloudnook.mcp.domain.invoke.repository;
+
+import org.cloudnook.mcp.domain.log.model.McpInvokeLog;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Supplier;
+
+/**
+ * MCP 能力目录缓存接口
+ * 缓存服务实例的 Tools、Resources、Prompts 列表，避免每次列表查询都访问后端
+ *
+ * 失效方式：
+ * - 服务端推送 notifications/tools|resources|prompts/list_changed 时失效对应目录
+ * - 失败后重连、服务端信息（名称、版本）变化或服务注销时失效该实例的全部目录
+ * - TTL 兜底过期
+ */
+public interface McpCatalogCache {
+
+    /**
+     * 获取缓存的目录
+     *
+     * @param serverId 服务ID
+     * @param type     目录类型（TOOL_LIST/RESOURCE_LIST/PROMPT_LIST）
+     * @return 缓存的目录，未命中或已过期时返回 null
+     */
+    <T> T get(String serverId, McpInvokeLog.InvokeType type);
+
+    /**
+     * 从后端加载目录并写入缓存
+     * 加载期间目录被失效时，加载结果只返回给调用方，不写入缓存
+     *
+     * @param serverId 服务ID
+     * @param type     目录类型
+     * @param loader   后端加载逻辑
+     * @return 加载结果
+     */
+    <T> Mono<T> load(String serverId, McpInvokeLog.InvokeType type, Supplier<Mono<T>> loader);
+
+    /**
+     * 失效服务实例的某类目录
+     *
+     * @param serverId 服务ID
+     * @param type     目录类型
+     */
+    void invalidate(String serverId, McpInvokeLog.InvokeType type);
+
+    /**
+     * 失效服务实例的全部目录
+     *
+     * @param serverId 服务ID
+     */
+    void invalidateAll(String serverId);
+}
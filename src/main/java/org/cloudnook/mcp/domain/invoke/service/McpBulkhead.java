@@ -0,0 +1,49 @@
+package org.cloudnook.mcp.domain.invoke.service;
+
+import org.cloudnook.mcp.domain.invoke.model.McpBulkheadStats;
+import org.cloudnook.mcp.domain.server.model.McpServer;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Supplier;
+
+/**
+ * MCP 服务实例并发隔离（bulkhead）接口
+ * 限制每个 serverId 同时进行中的调用数，超出部分进入有界队列等待，队列已满或等待超时时快速拒绝
+ *
+ * 说明：
+ * - 拒绝时返回错误码 4291 的 RejectedException，不会向上游发出请求
+ * - 调用结束（成功、失败或取消）后释放名额，直接交给队首的等待者
+ */
+public interface McpBulkhead {
+
+    /**
+     * 在服务实例的并发名额内执行调用
+     *
+     * @param serverId 服务ID
+     * @param call     上游请求
+     * @return 调用结果
+     */
+    <T> Mono<T> execute(String serverId, Supplier<Mono<T>> call);
+
+    /**
+     * 按服务注册信息创建或更新隔离配置（服务注册时调用）
+     *
+     * @param server 服务信息
+     */
+    void configure(McpServer server);
+
+    /**
+     * 移除服务实例的隔离状态（服务注销时调用）
+     *
+     * @param serverId 服务ID
+     */
+    void remove(String serverId);
+
+    /**
+     * 获取服务实例的隔离状态
+     *
+     * @param serverId 服务ID
+     * @return 状态快照，未知实例返回 null
+     */
+    McpBulkheadStats getStats(String serverId);
+}
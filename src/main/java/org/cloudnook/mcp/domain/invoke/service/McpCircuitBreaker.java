@@ -0,0 +1,59 @@
+package org.cloudnook.mcp.domain.invoke.service;
+
+import org.cloudnook.mcp.domain.invoke.model.CircuitState;
+import org.cloudnook.mcp.domain.invoke.model.McpCircuitBreakerStats;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Supplier;
+
+/**
+ * MCP 服务实例熔断器接口
+ * 按滑动时间窗口内的失败率在 关闭 -> 打开 -> 半开 之间切换，打开期间直接拒绝调用，不等待后端超时
+ *
+ * 说明：
+ * - 拒绝时返回错误码 503 的 BusinessException
+ * - 网关自身的限流拒绝（429）和调用方参数类错误（JSON-RPC 非内部错误）不计入失败
+ * - 路由选择实例时通过 {@link #isCallPermitted(String)} 跳过已打开的实例
+ */
+public interface McpCircuitBreaker {
+
+    /**
+     * 经过熔断器执行调用，并记录调用结果
+     *
+     * @param serverId 服务ID
+     * @param call     上游请求
+     * @return 调用结果
+     */
+    <T> Mono<T> execute(String serverId, Supplier<Mono<T>> call);
+
+    /**
+     * 判断当前是否允许调用（不改变状态），供路由过滤实例
+     *
+     * @param serverId 服务ID
+     * @return 关闭、冷却已结束的打开状态、半开且有探测名额时返回 true
+     */
+    boolean isCallPermitted(String serverId);
+
+    /**
+     * 获取当前状态
+     *
+     * @param serverId 服务ID
+     * @return 熔断器状态，尚无调用的实例为 CLOSED
+     */
+    CircuitState getState(String serverId);
+
+    /**
+     * 移除服务实例的熔断状态（服务注销时调用）
+     *
+     * @param serverId 服务ID
+     */
+    void remove(String serverId);
+
+    /**
+     * 获取服务实例的熔断器状态
+     *
+     * @param serverId 服务ID
+     * @return 状态快照，尚无调用的实例返回 null
+     */
+    McpCircuitBreakerStats getStats(String serverId);
+}
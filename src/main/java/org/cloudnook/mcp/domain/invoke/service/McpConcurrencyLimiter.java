@@ -0,0 +1,51 @@
+package org.cloudnook.mcp.domain.invoke.service;
+
+import org.cloudnook.mcp.domain.invoke.model.McpConcurrencyLimitStats;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Supplier;
+
+/**
+ * MCP 服务实例自适应并发限制接口
+ * 按每次上游调用的往返延迟自动调整每个 serverId 允许的进行中调用数，超过当前限制的调用立即拒绝
+ *
+ * 说明：
+ * - 与并发隔离（bulkhead）的固定上限配合：自适应限制在前快速削峰，固定上限兜底
+ * - 拒绝时返回错误码 429 的 BusinessException，不排队
+ * - 延迟样本在并发隔离之内测量并通过 {@link #onSample} 上报，不含排队和连接租用的等待
+ */
+public interface McpConcurrencyLimiter {
+
+    /**
+     * 在服务实例的当前并发限制内执行调用，调用结束（成功、失败或取消）时释放名额
+     *
+     * @param serverId 服务ID
+     * @param call     上游请求
+     * @return 调用结果
+     */
+    <T> Mono<T> execute(String serverId, Supplier<Mono<T>> call);
+
+    /**
+     * 上报一次上游请求的往返延迟样本
+     *
+     * @param serverId 服务ID
+     * @param rttNanos 请求发出到响应的时间（纳秒）
+     * @param error    请求失败时的异常，成功时为 null
+     */
+    void onSample(String serverId, long rttNanos, Throwable error);
+
+    /**
+     * 移除服务实例的限制状态（服务注销时调用）
+     *
+     * @param serverId 服务ID
+     */
+    void remove(String serverId);
+
+    /**
+     * 获取服务实例的限制状态
+     *
+     * @param serverId 服务ID
+     * @return 状态快照，尚无调用的实例返回 null
+     */
+    McpConcurrencyLimitStats getStats(String serverId);
+}
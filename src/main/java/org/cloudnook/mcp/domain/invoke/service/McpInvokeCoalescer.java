@@ -0,0 +1,27 @@
+package org.cloudnook.mcp.domain.invoke.service;
+
+import org.cloudnook.mcp.domain.log.model.McpInvokeContext;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Supplier;
+
+/**
+ * MCP 请求合并（single-flight）接口
+ * 相同的并发请求（serverId、调用类型、目标名称、参数均相同）共享同一个上游请求
+ *
+ * 说明：
+ * - 仅合并进行中的请求，上游结束后立即移除，不缓存结果
+ * - 每个调用方仍使用各自的调用上下文，分别记录指标和日志
+ */
+public interface McpInvokeCoalescer {
+
+    /**
+     * 执行请求，存在相同的进行中请求时复用其结果
+     * 复用时会将上下文标记为已合并
+     *
+     * @param context 调用上下文
+     * @param call    上游请求
+     * @return 调用结果
+     */
+    <T> Mono<T> execute(McpInvokeContext context, Supplier<Mono<T>> call);
+}
@@ -0,0 +1,47 @@
+package org.cloudnook.mcp.domain.invoke.service;
+
+import org.cloudnook.mcp.domain.invoke.model.McpHedgeStats;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * MCP 对冲请求接口
+ * 幂等的读取和列表调用先发往主实例，超过主实例的分位延迟仍未返回时向另一个实例发出对冲请求，
+ * 采用先成功返回的结果并取消另一个
+ *
+ * 说明：
+ * - 对冲请求受全局预算约束（按可对冲请求数的比例积累额度），预算不足时只等待主请求
+ * - 主请求在对冲前失败时直接返回错误，不把对冲当作重试
+ * - 两个请求都失败时返回主请求的错误
+ */
+public interface McpRequestHedger {
+
+    /**
+     * 是否启用对冲
+     */
+    boolean isEnabled();
+
+    /**
+     * 执行可对冲的调用
+     *
+     * @param primaryId   主实例 serverId
+     * @param hedgeTarget 对冲实例 serverId 的选择，只在真正发出对冲时调用；为 null 或返回 null 时不对冲
+     * @param call        按 serverId 发出请求
+     * @return 先成功返回的结果
+     */
+    <T> Mono<T> execute(String primaryId, Supplier<String> hedgeTarget, Function<String, Mono<T>> call);
+
+    /**
+     * 清除实例的对冲延迟缓存（服务注销时调用）
+     *
+     * @param serverId 服务ID
+     */
+    void remove(String serverId);
+
+    /**
+     * 获取对冲统计
+     */
+    McpHedgeStats getStats();
+}
@@ -0,0 +1,63 @@
+package org.cloudnook.mcp.domain.invoke.service;
+
+import org.cloudnook.mcp.domain.invoke.model.McpRetryStats;
+
+/**
+ * MCP 重试策略与预算接口
+ * 判断失败是否可换实例重试，并按服务名维护令牌桶预算，后端整体故障时重试量不超过请求量的固定比例
+ *
+ * 说明：
+ * - 可重试：能确定请求未发出的失败——连接被拒绝、发送时会话不存在、实例熔断中、连接池重连中
+ * - 默认不重试：请求发出后的传输错误和后端 5xx（请求可能已执行，可配置开启）
+ * - 不重试：超时、JSON-RPC 业务错误、网关限流和并发隔离拒绝
+ */
+public interface McpRetryBudget {
+
+    /**
+     * 是否启用重试
+     */
+    boolean isEnabled();
+
+    /**
+     * 最多尝试次数（含首次）
+     */
+    int getMaxAttempts();
+
+    /**
+     * 判断失败是否可重试
+     *
+     * @param error 调用失败的异常
+     * @return 可换实例重试时返回 true
+     */
+    boolean isRetryable(Throwable error);
+
+    /**
+     * 记录一个请求，为服务名积累重试额度
+     *
+     * @param serverName 服务名称
+     */
+    void onRequest(String serverName);
+
+    /**
+     * 取出一次重试的额度
+     *
+     * @param serverName 服务名称
+     * @return 预算不足时返回 false
+     */
+    boolean tryAcquireRetry(String serverName);
+
+    /**
+     * 清除服务名的预算（服务名下最后一个实例注销时调用）
+     *
+     * @param serverName 服务名称
+     */
+    void remove(String serverName);
+
+    /**
+     * 获取服务名的重试统计
+     *
+     * @param serverName 服务名称
+     * @return 重试统计，尚无请求时返回 null
+     */
+    McpRetryStats getStats(String serverName);
+}
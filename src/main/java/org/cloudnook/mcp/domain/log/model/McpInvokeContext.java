@@ -56,4 +56,25 @@ public class McpInvokeContext {
      * 开始时间
      */
     private Instant startTime;
+
+    /**
+     * 开始时间（System.nanoTime，用于计算纳秒级延迟）
+     */
+    private long startNanos;
+
+    /**
+     * 是否命中网关缓存（未访问后端）
+     */
+    private boolean cacheHit;
+
+    /**
+     * 是否与相同的进行中请求合并（复用其上游结果）
+     */
+    private boolean coalesced;
+
+    /**
+     * 第几次尝试（从 1 开始，Router 失败重试时递增，callId 不变）
+     */
+    @Builder.Default
+    private int attempt = 1;
 }
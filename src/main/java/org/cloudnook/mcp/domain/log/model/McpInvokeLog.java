@@ -61,10 +61,20 @@ public class McpInvokeLog {
     private Map<String, Object> arguments;
 
     /**
-     * 响应结果（JSON格式）
+     * 响应结果（紧凑 JSON，按记录配置可能为空或被截断）
      */
     private String response;
 
+    /**
+     * 响应 JSON 的 SHA-256（仅 HASH 记录方式）
+     */
+    private String responseHash;
+
+    /**
+     * 响应是否被截断
+     */
+    private Boolean responseTruncated;
+
     /**
      * 调用状态
      */
@@ -80,6 +90,16 @@ public class McpInvokeLog {
      */
     private Long durationMs;
 
+    /**
+     * 是否命中网关缓存（未访问后端）
+     */
+    private Boolean cacheHit;
+
+    /**
+     * 是否与相同的进行中请求合并（复用其上游结果）
+     */
+    private Boolean coalesced;
+
     /**
      * 调用时间
      */
@@ -90,6 +110,11 @@ public class McpInvokeLog {
      */
     private String clientId;
 
+    /**
+     * 第几次尝试（从 1 开始），失败重试的各次尝试共用同一个 callId
+     */
+    private Integer attempt;
+
     /**
      * 调用来源枚举
      */
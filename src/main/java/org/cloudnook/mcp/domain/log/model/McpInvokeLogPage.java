@@ -0,0 +1,28 @@
+package org.cloudnook.mcp.domain.log.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * MCP Invoke 调用日志分页结果
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class McpInvokeLogPage {
+
+    /**
+     * 调用日志（最新的在前）
+     */
+    private List<McpInvokeLog> items;
+
+    /**
+     * 下一页游标，没有更多记录时为 null
+     */
+    private Long nextCursor;
+}
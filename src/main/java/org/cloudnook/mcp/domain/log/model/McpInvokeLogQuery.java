@@ -0,0 +1,69 @@
+package org.cloudnook.mcp.domain.log.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * MCP Invoke 调用日志查询条件
+ * 所有过滤条件均可选，多个条件同时生效（AND）
+ *
+ * 分页方式：
+ * - 游标：传入上一页返回的 nextCursor，从该位置继续向更旧的记录查询，翻页代价与页码无关
+ * - 页码：未传游标时按 page * size 跳过，仅用于兼容
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class McpInvokeLogQuery {
+
+    /**
+     * 服务ID
+     */
+    private String serverId;
+
+    /**
+     * 调用来源
+     */
+    private McpInvokeLog.InvokeSource source;
+
+    /**
+     * 目标名称（Tool 名称、Resource URI、Prompt 名称）
+     */
+    private String targetName;
+
+    /**
+     * 调用状态
+     */
+    private McpInvokeLog.InvokeStatus status;
+
+    /**
+     * 调用时间下限（包含）
+     */
+    private Instant from;
+
+    /**
+     * 调用时间上限（不包含）
+     */
+    private Instant to;
+
+    /**
+     * 游标（上一页返回的 nextCursor），为空时从最新的记录开始
+     */
+    private Long cursor;
+
+    /**
+     * 页码（从0开始，仅在未传游标时使用）
+     */
+    private int page;
+
+    /**
+     * 每页大小
+     */
+    @Builder.Default
+    private int size = 20;
+}
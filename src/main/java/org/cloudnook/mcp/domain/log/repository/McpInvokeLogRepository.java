@@ -1,6 +1,8 @@
 package org.cloudnook.mcp.domain.log.repository;
 
 import org.cloudnook.mcp.domain.log.model.McpInvokeLog;
+import org.cloudnook.mcp.domain.log.model.McpInvokeLogPage;
+import org.cloudnook.mcp.domain.log.model.McpInvokeLogQuery;
 
 import java.util.List;
 
@@ -20,6 +22,13 @@ public interface McpInvokeLogRepository {
      */
     void add(McpInvokeLog log);
 
+    /**
+     * 批量添加调用日志
+     *
+     * @param logs 调用日志（按发生顺序，最后一条为最新）
+     */
+    void addAll(List<McpInvokeLog> logs);
+
     /**
      * 获取所有调用日志
      *
@@ -56,6 +65,15 @@ public interface McpInvokeLogRepository {
      */
     List<McpInvokeLog> getPageByServerId(String serverId, int page, int size);
 
+    /**
+     * 按组合条件查询调用日志
+     * 通过服务ID、来源、目标名称、状态、时间的索引定位，不扫描全部日志
+     *
+     * @param query 查询条件
+     * @return 分页结果（最新的在前）
+     */
+    McpInvokeLogPage query(McpInvokeLogQuery query);
+
     /**
      * 清空调用日志
      */
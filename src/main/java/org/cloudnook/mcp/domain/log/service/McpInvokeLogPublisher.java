@@ -0,0 +1,23 @@
+package org.cloudnook.mcp.domain.log.service;
+
+import org.cloudnook.mcp.domain.log.model.McpInvokeContext;
+
+/**
+ * MCP Invoke 调用日志发布接口
+ * 调用结束时提交日志，由实现决定何时、以何种方式写入日志仓储
+ *
+ * 说明：
+ * - 在响应线程上调用，实现不得阻塞或执行耗时操作（如序列化响应结果）
+ * - 过载时允许按配置的策略丢弃日志，不影响调用本身
+ */
+public interface McpInvokeLogPublisher {
+
+    /**
+     * 提交一次调用的日志
+     *
+     * @param context      调用上下文
+     * @param result       调用结果（失败时为 null）
+     * @param errorMessage 错误信息（成功时为 null）
+     */
+    void publish(McpInvokeContext context, Object result, String errorMessage);
+}
@@ -0,0 +1,95 @@
+package org.cloudnook.mcp.domain.metrics.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.cloudnook.mcp.domain.log.model.McpInvokeLog;
+
+/**
+ * 维度监控指标
+ * 按 (serverId, 调用类型, 目标名称) 或 clientId 统计的调用指标快照
+ *
+ * 说明：
+ * - 每个维度只跟踪访问最多的 Top-K 个键，超出时淘汰计数最小的键（Space-Saving）
+ * - 新键继承被淘汰键的计数作为排序权重，rankCount - totalRequests 即为高估上限
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class McpDimensionMetrics {
+
+    // ========== 维度 ==========
+
+    /**
+     * 服务ID（客户端维度为 null）
+     */
+    private String serverId;
+
+    /**
+     * 调用类型（客户端维度为 null）
+     */
+    private McpInvokeLog.InvokeType type;
+
+    /**
+     * 目标名称（toolName/resourceUri/promptName，客户端维度为 null）
+     */
+    private String targetName;
+
+    /**
+     * 客户端ID（目标维度为 null）
+     */
+    private String clientId;
+
+    // ========== 请求指标 ==========
+
+    /**
+     * 排序权重（Top-K 估计计数，包含继承的计数）
+     */
+    private Long rankCount;
+
+    /**
+     * 开始跟踪以来的请求数
+     */
+    private Long totalRequests;
+
+    /**
+     * 开始跟踪以来的失败请求数
+     */
+    private Long failedRequests;
+
+    // ========== 延迟指标 ==========
+
+    /**
+     * 平均延迟（毫秒）
+     */
+    private Double avgLatency;
+
+    /**
+     * P50 延迟（毫秒）
+     */
+    private Double p50Latency;
+
+    /**
+     * P90 延迟（毫秒）
+     */
+    private Double p90Latency;
+
+    /**
+     * P99 延迟（毫秒）
+     */
+    private Double p99Latency;
+
+    /**
+     * 计算成功率
+     *
+     * @return 成功率百分比（0-100）
+     */
+    public double getSuccessRate() {
+        if (totalRequests == null || totalRequests == 0) {
+            return 0.0;
+        }
+        return ((totalRequests - failedRequests) * 100.0) / totalRequests;
+    }
+}
@@ -0,0 +1,58 @@
+package org.cloudnook.mcp.domain.metrics.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * 服务实例离群检测状态快照
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class McpOutlierStats {
+
+    /**
+     * 当前是否被摘除
+     */
+    private boolean ejected;
+
+    /**
+     * 摘除原因：LATENCY / ERROR_RATE（未被摘除时为最近一次摘除的原因）
+     */
+    private String reason;
+
+    /**
+     * 摘除截止时间
+     */
+    private Instant ejectedUntil;
+
+    /**
+     * 当前摘除倍数（连续摘除时递增，决定下一次摘除时长）
+     */
+    private int ejectionMultiplier;
+
+    /**
+     * 累计摘除次数
+     */
+    private long ejections;
+
+    /**
+     * 最近一次检测时窗口内的平均延迟（毫秒）
+     */
+    private Double windowLatencyMs;
+
+    /**
+     * 最近一次检测时窗口内的错误率（0-1）
+     */
+    private Double windowErrorRate;
+
+    /**
+     * 最近一次检测时组内的平均延迟中位数（毫秒）
+     */
+    private Double groupMedianLatencyMs;
+}
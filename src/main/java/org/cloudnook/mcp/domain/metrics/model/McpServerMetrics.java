@@ -11,6 +11,7 @@ import java.time.Instant;
 /**
  * 服务监控指标实体
  * 独立存储服务的监控数据，与服务信息解耦
+ * 由指标仓储在读取时生成的快照，修改快照不会影响仓储中的数据
  *
  * @Author: the-way
  * @Date: 2026-01-13
@@ -48,6 +49,16 @@ public class McpServerMetrics {
      */
     private Long failedRequests;
 
+    /**
+     * 缓存命中数（由网关目录缓存直接返回，计入成功请求，不计入延迟指标）
+     */
+    private Long cacheHits;
+
+    /**
+     * 网关拒绝数（限流、并发隔离、熔断等，不计入请求数和失败率）
+     */
+    private Long rejectedRequests;
+
     // ========== 延迟指标 ==========
 
     /**
@@ -65,6 +76,55 @@ public class McpServerMetrics {
      */
     private Long maxLatency;
 
+    /**
+     * P50 延迟（毫秒）
+     */
+    private Double p50Latency;
+
+    /**
+     * P90 延迟（毫秒）
+     */
+    private Double p90Latency;
+
+    /**
+     * P99 延迟（毫秒）
+     */
+    private Double p99Latency;
+
+    /**
+     * P99.9 延迟（毫秒）
+     */
+    private Double p999Latency;
+
+    // ========== 窗口指标 ==========
+
+    /**
+     * 最近 1 分钟（健康状态、成功率、失败率基于该窗口）
+     */
+    private WindowStats window1m;
+
+    /**
+     * 最近 5 分钟
+     */
+    private WindowStats window5m;
+
+    /**
+     * 最近 15 分钟
+     */
+    private WindowStats window15m;
+
+    // ========== 连接指标 ==========
+
+    /**
+     * 重连成功次数
+     */
+    private Long reconnectCount;
+
+    /**
+     * 最近一次连接失败时间
+     */
+    private Instant lastFailureTime;
+
     // ========== 时间指标 ==========
 
     /**
@@ -83,38 +143,32 @@ public class McpServerMetrics {
     private Long uptime;
 
     /**
-     * 计算成功率
+     * 计算成功率（最近 1 分钟）
      *
      * @return 成功率百分比（0-100）
      */
     public double getSuccessRate() {
-        if (totalRequests == null || totalRequests == 0) {
-            return 0.0;
-        }
-        return (successRequests * 100.0) / totalRequests;
+        return window1m != null ? window1m.getSuccessRate() : 0.0;
     }
 
     /**
-     * 计算失败率
+     * 计算失败率（最近 1 分钟）
      *
      * @return 失败率百分比（0-100）
      */
     public double getFailureRate() {
-        if (totalRequests == null || totalRequests == 0) {
-            return 0.0;
-        }
-        return (failedRequests * 100.0) / totalRequests;
+        return window1m != null ? window1m.getFailureRate() : 0.0;
     }
 
     /**
      * 计算健康状态
-     * 基于成功率和平均延迟判断
+     * 基于最近 1 分钟的成功率和平均延迟判断，早期故障不会永久影响健康状态，新故障也能及时反映
      *
      * @return 健康状态
      */
     public HealthStatus getHealthStatus() {
-        // 新注册或无数据，判断是否有心跳记录
-        if (totalRequests == null || totalRequests == 0) {
+        // 最近无请求，判断是否有心跳记录
+        if (window1m == null || window1m.getRequests() == 0) {
             // 如果有心跳记录且是最近的（1分钟内），认为是健康的
             if (lastHeartbeat != null) {
                 long secondsSinceHeartbeat = Instant.now().getEpochSecond() - lastHeartbeat.getEpochSecond();
@@ -126,7 +180,7 @@ public class McpServerMetrics {
         }
 
         double successRate = getSuccessRate();
-        double avgLatency = this.avgLatency != null ? this.avgLatency : 0.0;
+        double avgLatency = window1m.getAvgLatency() != null ? window1m.getAvgLatency() : 0.0;
 
         // 不健康：成功率 < 80% 或 延迟 > 500ms
         if (successRate < 80.0 || avgLatency > 500) {
@@ -141,4 +195,49 @@ public class McpServerMetrics {
         // 健康
         return HealthStatus.HEALTHY;
     }
+
+    /**
+     * 时间窗口统计（不含缓存命中）
+     */
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class WindowStats {
+
+        /**
+         * 请求数
+         */
+        private long requests;
+
+        /**
+         * 失败请求数
+         */
+        private long failedRequests;
+
+        /**
+         * 平均延迟（毫秒）
+         */
+        private Double avgLatency;
+
+        /**
+         * 成功率百分比（0-100）
+         */
+        public double getSuccessRate() {
+            if (requests == 0) {
+                return 0.0;
+            }
+            return ((requests - failedRequests) * 100.0) / requests;
+        }
+
+        /**
+         * 失败率百分比（0-100）
+         */
+        public double getFailureRate() {
+            if (requests == 0) {
+                return 0.0;
+            }
+            return (failedRequests * 100.0) / requests;
+        }
+    }
 }
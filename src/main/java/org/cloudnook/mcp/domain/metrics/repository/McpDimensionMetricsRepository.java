@@ -0,0 +1,58 @@
+package org.cloudnook.mcp.domain.metrics.repository;
+
+import org.cloudnook.mcp.domain.log.model.McpInvokeLog;
+import org.cloudnook.mcp.domain.metrics.model.McpDimensionMetrics;
+
+import java.util.List;
+
+/**
+ * MCP 维度监控指标仓储接口
+ * 按目标（serverId + 调用类型 + 目标名称）和客户端统计调用指标，键的数量有上限（Top-K）
+ */
+public interface McpDimensionMetricsRepository {
+
+    /**
+     * 记录目标维度的请求
+     *
+     * @param serverId     服务ID
+     * @param type         调用类型
+     * @param targetName   目标名称
+     * @param latencyNanos 延迟（纳秒）
+     * @param success      是否成功
+     */
+    void recordTarget(String serverId, McpInvokeLog.InvokeType type, String targetName, long latencyNanos, boolean success);
+
+    /**
+     * 记录客户端维度的请求
+     *
+     * @param clientId     客户端ID
+     * @param latencyNanos 延迟（纳秒）
+     * @param success      是否成功
+     */
+    void recordClient(String clientId, long latencyNanos, boolean success);
+
+    /**
+     * 获取服务访问最多的目标
+     *
+     * @param serverId 服务ID
+     * @param limit    返回数量
+     * @return 按请求数降序排列的目标指标
+     */
+    List<McpDimensionMetrics> getTopTargets(String serverId, int limit);
+
+    /**
+     * 获取访问最多的客户端
+     *
+     * @param limit 返回数量
+     * @return 按请求数降序排列的客户端指标
+     */
+    List<McpDimensionMetrics> getTopClients(int limit);
+
+    /**
+     * 移除服务的目标维度指标
+     * 服务注销时调用
+     *
+     * @param serverId 服务ID
+     */
+    void removeTargets(String serverId);
+}
@@ -27,10 +27,26 @@ public interface McpMetricsRepository {
      * 每次 MCP 调用时调用
      *
      * @param serverId 服务ID
-     * @param latency  延迟（毫秒）
-     * @param success  是否成功
+     * @param latencyNanos 延迟（纳秒）
+     * @param success      是否成功
      */
-    void recordRequest(String serverId, long latency, boolean success);
+    void recordRequest(String serverId, long latencyNanos, boolean success);
+
+    /**
+     * 记录缓存命中
+     * 命中网关缓存的请求计入请求数，但不访问后端，因此不更新延迟指标
+     *
+     * @param serverId 服务ID
+     */
+    void recordCacheHit(String serverId);
+
+    /**
+     * 记录网关拒绝
+     * 被网关拒绝的请求没有到达后端，不计入请求数、失败数和时间窗口，避免限流反过来拉低健康状态
+     *
+     * @param serverId 服务ID
+     */
+    void recordRejection(String serverId);
 
     /**
      * 更新心跳时间
@@ -40,6 +56,20 @@ public interface McpMetricsRepository {
      */
     void updateHeartbeat(String serverId);
 
+    /**
+     * 记录连接失败（初始化失败或会话中断）
+     *
+     * @param serverId 服务ID
+     */
+    void recordConnectionFailure(String serverId);
+
+    /**
+     * 记录一次重连成功
+     *
+     * @param serverId 服务ID
+     */
+    void recordReconnect(String serverId);
+
     /**
      * 获取服务监控数据
      *
@@ -25,6 +25,7 @@ public interface McpMetricsDomainService {
 
     /**
      * 记录失败的 MCP 调用
+     * 网关拒绝（未到达后端）只计入拒绝数，不计入失败请求
      *
      * @param context 监控上下文
      * @param error 异常信息
@@ -0,0 +1,23 @@
+package org.cloudnook.mcp.domain.metrics.service;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * MCP 监控指标导出接口
+ * 将网关指标以文本格式（如 OpenMetrics）写出，供 Prometheus 等监控系统抓取
+ */
+public interface McpMetricsExporter {
+
+    /**
+     * 导出格式对应的响应类型
+     */
+    String contentType();
+
+    /**
+     * 写出所有指标
+     *
+     * @param writer 输出
+     */
+    void export(Writer writer) throws IOException;
+}
@@ -0,0 +1,30 @@
+package org.cloudnook.mcp.domain.routing;
+
+import org.cloudnook.mcp.domain.invoke.service.McpCircuitBreaker;
+import org.cloudnook.mcp.domain.server.model.McpServer;
+
+import java.util.List;
+
+/**
+ * 熔断感知的负载均衡策略
+ * 选择前过滤掉熔断中的实例，全部熔断时不选择任何实例
+ */
+public class CircuitBreakerLoadBalanceStrategy extends FilteringLoadBalanceStrategy {
+
+    private final McpCircuitBreaker mcpCircuitBreaker;
+
+    public CircuitBreakerLoadBalanceStrategy(LoadBalanceStrategy delegate, McpCircuitBreaker mcpCircuitBreaker) {
+        super(delegate);
+        this.mcpCircuitBreaker = mcpCircuitBreaker;
+    }
+
+    @Override
+    protected boolean accept(McpServer server) {
+        return mcpCircuitBreaker.isCallPermitted(server.getId());
+    }
+
+    @Override
+    protected McpServer selectWhenAllFiltered(List<McpServer> servers) {
+        return null;
+    }
+}
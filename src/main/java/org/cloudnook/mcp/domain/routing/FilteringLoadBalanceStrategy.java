@@ -0,0 +1,67 @@
+package org.cloudnook.mcp.domain.routing;
+
+import org.cloudnook.mcp.domain.server.model.McpServer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 过滤实例的负载均衡策略基类
+ * 包装实际策略，选择前过滤掉不可用的实例；没有实例被过滤时直接使用原列表，不产生额外分配
+ */
+public abstract class FilteringLoadBalanceStrategy implements LoadBalanceStrategy {
+
+    private final LoadBalanceStrategy delegate;
+
+    protected FilteringLoadBalanceStrategy(LoadBalanceStrategy delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public McpServer select(List<McpServer> servers) {
+        if (servers == null || servers.isEmpty()) {
+            return delegate.select(servers);
+        }
+
+        List<McpServer> available = null;
+        for (int i = 0; i < servers.size(); i++) {
+            McpServer server = servers.get(i);
+            boolean accepted = accept(server);
+            if (!accepted && available == null) {
+                available = new ArrayList<>(servers.subList(0, i));
+            } else if (accepted && available != null) {
+                available.add(server);
+            }
+        }
+
+        if (available == null) {
+            return delegate.select(servers);
+        }
+        if (available.isEmpty()) {
+            return selectWhenAllFiltered(servers);
+        }
+        return delegate.select(available);
+    }
+
+    @Override
+    public String getStrategyName() {
+        return delegate.getStrategyName();
+    }
+
+    /**
+     * 实例是否可参与选择
+     */
+    protected abstract boolean accept(McpServer server);
+
+    /**
+     * 全部实例被过滤时的选择
+     *
+     * @param servers 原候选列表
+     * @return 被选中的实例，返回 null 表示无可用实例
+     */
+    protected abstract McpServer selectWhenAllFiltered(List<McpServer> servers);
+
+    protected LoadBalanceStrategy getDelegate() {
+        return delegate;
+    }
+}
@@ -0,0 +1,63 @@
+package org.cloudnook.mcp.domain.routing;
+
+import lombok.extern.slf4j.Slf4j;
+import org.cloudnook.mcp.domain.server.model.McpServer;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 最少进行中请求（Least Outstanding Requests）负载均衡策略
+ * 选择当前进行中请求数最少的服务实例，慢实例积压的请求越多，分到的新请求越少
+ */
+@Slf4j
+public class LeastRequestsLoadBalanceStrategy implements LoadBalanceStrategy {
+
+    private final ServerLoadTracker serverLoadTracker;
+
+    /**
+     * 扫描起点，负载相同时轮流选择，避免总是命中第一个实例
+     */
+    private final AtomicInteger offset = new AtomicInteger(0);
+
+    public LeastRequestsLoadBalanceStrategy(ServerLoadTracker serverLoadTracker) {
+        this.serverLoadTracker = serverLoadTracker;
+    }
+
+    @Override
+    public McpServer select(List<McpServer> servers) {
+        if (servers == null || servers.isEmpty()) {
+            log.warn("No servers available for least requests selection");
+            return null;
+        }
+
+        // 只有一个实例时直接返回
+        if (servers.size() == 1) {
+            return servers.get(0);
+        }
+
+        int size = servers.size();
+        int start = Math.abs(offset.getAndIncrement() % size);
+
+        McpServer selectedServer = null;
+        int minInFlight = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            McpServer server = servers.get((start + i) % size);
+            int inFlight = serverLoadTracker.getInFlight(server.getId());
+            if (inFlight < minInFlight) {
+                minInFlight = inFlight;
+                selectedServer = server;
+            }
+        }
+
+        log.debug("Least requests selected server: serverId={}, inFlight={}",
+                selectedServer.getId(), minInFlight);
+
+        return selectedServer;
+    }
+
+    @Override
+    public String getStrategyName() {
+        return "LEAST_REQUESTS";
+    }
+}
@@ -0,0 +1,38 @@
+package org.cloudnook.mcp.domain.routing;
+
+import org.cloudnook.mcp.domain.metrics.model.McpOutlierStats;
+
+/**
+ * MCP 服务实例离群检测接口
+ * 周期性地在同名服务的实例之间比较窗口内的平均延迟和错误率，明显偏离组内中位数的实例被临时摘除，
+ * 摘除期间路由不再选择该实例
+ *
+ * 说明：
+ * - 同一实例连续被摘除时摘除时长递增，恢复正常后逐步回落
+ * - 每组被摘除的实例数不超过配置的比例，避免把流量集中到少数实例上
+ */
+public interface McpOutlierDetector {
+
+    /**
+     * 判断实例当前是否被摘除
+     *
+     * @param serverId 服务ID
+     * @return 被摘除时返回 true
+     */
+    boolean isEjected(String serverId);
+
+    /**
+     * 清除实例的检测状态（服务注销时调用）
+     *
+     * @param serverId 服务ID
+     */
+    void remove(String serverId);
+
+    /**
+     * 获取实例的检测状态
+     *
+     * @param serverId 服务ID
+     * @return 检测状态，尚未参与检测时返回 null
+     */
+    McpOutlierStats getStats(String serverId);
+}
@@ -0,0 +1,29 @@
+package org.cloudnook.mcp.domain.routing;
+
+import org.cloudnook.mcp.domain.server.model.McpServer;
+
+import java.util.List;
+
+/**
+ * 离群摘除感知的负载均衡策略
+ * 选择前过滤掉被摘除的实例；摘除比例有上限，全部被摘除时（如实例在检测后下线）退回原列表选择
+ */
+public class OutlierEjectionLoadBalanceStrategy extends FilteringLoadBalanceStrategy {
+
+    private final McpOutlierDetector mcpOutlierDetector;
+
+    public OutlierEjectionLoadBalanceStrategy(LoadBalanceStrategy delegate, McpOutlierDetector mcpOutlierDetector) {
+        super(delegate);
+        this.mcpOutlierDetector = mcpOutlierDetector;
+    }
+
+    @Override
+    protected boolean accept(McpServer server) {
+        return !mcpOutlierDetector.isEjected(server.getId());
+    }
+
+    @Override
+    protected McpServer selectWhenAllFiltered(List<McpServer> servers) {
+        return getDelegate().select(servers);
+    }
+}
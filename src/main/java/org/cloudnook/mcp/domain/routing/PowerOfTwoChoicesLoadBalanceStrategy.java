@@ -0,0 +1,63 @@
+package org.cloudnook.mcp.domain.routing;
+
+import lombok.extern.slf4j.Slf4j;
+import org.cloudnook.mcp.domain.server.model.McpServer;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * P2C（Power of Two Choices）负载均衡策略
+ * 随机抽取两个服务实例，选择负载得分（EWMA 延迟 × (进行中请求数 + 1)）更低的一个
+ *
+ * 相比轮询，慢实例的得分会迅速升高而被避开，从而降低尾延迟；
+ * 相比全量扫描，每次只比较两个实例，避免所有请求同时涌向同一个“最优”实例
+ */
+@Slf4j
+public class PowerOfTwoChoicesLoadBalanceStrategy implements LoadBalanceStrategy {
+
+    private final ServerLoadTracker serverLoadTracker;
+
+    public PowerOfTwoChoicesLoadBalanceStrategy(ServerLoadTracker serverLoadTracker) {
+        this.serverLoadTracker = serverLoadTracker;
+    }
+
+    @Override
+    public McpServer select(List<McpServer> servers) {
+        if (servers == null || servers.isEmpty()) {
+            log.warn("No servers available for p2c selection");
+            return null;
+        }
+
+        // 只有一个实例时直接返回
+        if (servers.size() == 1) {
+            return servers.get(0);
+        }
+
+        // 随机抽取两个不同的实例
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int size = servers.size();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+
+        McpServer firstServer = servers.get(first);
+        McpServer secondServer = servers.get(second);
+        double firstScore = serverLoadTracker.getLoadScore(firstServer.getId());
+        double secondScore = serverLoadTracker.getLoadScore(secondServer.getId());
+
+        McpServer selectedServer = firstScore <= secondScore ? firstServer : secondServer;
+
+        log.debug("P2C selected server: serverId={}, candidates=[{}:{}, {}:{}]",
+                selectedServer.getId(), firstServer.getId(), firstScore, secondServer.getId(), secondScore);
+
+        return selectedServer;
+    }
+
+    @Override
+    public String getStrategyName() {
+        return "P2C_EWMA";
+    }
+}
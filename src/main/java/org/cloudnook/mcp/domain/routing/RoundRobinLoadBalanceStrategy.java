@@ -2,7 +2,6 @@ package org.cloudnook.mcp.domain.routing;
 
 import lombok.extern.slf4j.Slf4j;
 import org.cloudnook.mcp.domain.server.model.McpServer;
-import org.springframework.stereotype.Component;
 
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -12,7 +11,6 @@ import java.util.concurrent.atomic.AtomicInteger;
  * 按顺序依次选择每个服务实例，实现请求的平均分配
  */
 @Slf4j
-@Component
 public class RoundRobinLoadBalanceStrategy implements LoadBalanceStrategy {
 
     private final AtomicInteger index = new AtomicInteger(0);
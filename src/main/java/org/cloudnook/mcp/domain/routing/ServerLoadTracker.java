@@ -0,0 +1,172 @@
+package org.cloudnook.mcp.domain.routing;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 服务实例负载追踪
+ * 记录每个 serverId 当前正在进行中的请求数和 EWMA 延迟，供负载均衡策略读取
+ *
+ * 调用方在订阅时调用 {@link #onStart(String)}，在成功、失败或取消时调用 {@link #onComplete(String)}，
+ * 成功时通过 {@link #recordLatency(String, long)} 上报延迟，失败时通过 {@link #recordFailure(String, long)} 上报惩罚延迟，
+ * 快速失败的实例（连接被拒绝等）不会因为延迟低而被更多选中
+ *
+ * 状态独立于 McpMemoryMetrics，全部使用原子变量维护，路由读取时无需加锁
+ */
+@Component
+public class ServerLoadTracker {
+
+    /**
+     * EWMA 平滑因子，与监控指标保持一致：当前值 20% 权重，历史值 80% 权重
+     */
+    private static final double ALPHA = 0.2;
+
+    /**
+     * 尚无延迟样本但已有进行中请求时使用的惩罚延迟（纳秒）
+     * 避免新实例在首个请求返回前被持续选中
+     */
+    private static final double UNSAMPLED_PENALTY_NANOS = 1_000_000_000.0;
+
+    /**
+     * 失败样本的惩罚倍数：按 max(实际延迟, 当前 EWMA × 倍数) 计入
+     */
+    private static final double FAILURE_PENALTY_FACTOR = 2.0;
+
+    /**
+     * Key: serverId, Value: 实例负载
+     */
+    private final ConcurrentHashMap<String, ServerLoad> loads = new ConcurrentHashMap<>();
+
+    /**
+     * 请求开始
+     *
+     * @param serverId 服务ID
+     */
+    public void onStart(String serverId) {
+        loads.computeIfAbsent(serverId, id -> new ServerLoad()).inFlight.incrementAndGet();
+    }
+
+    /**
+     * 请求结束（成功、失败或取消）
+     *
+     * @param serverId 服务ID
+     */
+    public void onComplete(String serverId) {
+        ServerLoad load = loads.get(serverId);
+        if (load != null) {
+            load.inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * 记录一次调用延迟，使用 CAS 更新 EWMA
+     *
+     * @param serverId     服务ID
+     * @param latencyNanos 延迟（纳秒）
+     */
+    public void recordLatency(String serverId, long latencyNanos) {
+        update(serverId, latencyNanos, false);
+    }
+
+    /**
+     * 记录一次失败调用，按惩罚延迟更新 EWMA
+     * 惩罚延迟 = max(实际延迟, 当前 EWMA × {@value #FAILURE_PENALTY_FACTOR})，尚无样本时取 1 秒
+     *
+     * @param serverId     服务ID
+     * @param latencyNanos 实际延迟（纳秒）
+     */
+    public void recordFailure(String serverId, long latencyNanos) {
+        update(serverId, latencyNanos, true);
+    }
+
+    private void update(String serverId, long latencyNanos, boolean failed) {
+        ServerLoad load = loads.get(serverId);
+        if (load == null) {
+            return;
+        }
+
+        AtomicLong ewma = load.ewmaLatencyBits;
+        while (true) {
+            long currentBits = ewma.get();
+            double current = Double.longBitsToDouble(currentBits);
+            double sample = latencyNanos;
+            if (failed) {
+                sample = Math.max(sample, current == 0.0 ? UNSAMPLED_PENALTY_NANOS : current * FAILURE_PENALTY_FACTOR);
+            }
+            double updated = current == 0.0 ? sample : ALPHA * sample + (1 - ALPHA) * current;
+            if (ewma.compareAndSet(currentBits, Double.doubleToRawLongBits(updated))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 获取 EWMA 延迟
+     *
+     * @param serverId 服务ID
+     * @return EWMA 延迟（纳秒），尚无样本返回 0
+     */
+    public double getEwmaLatency(String serverId) {
+        ServerLoad load = loads.get(serverId);
+        return load == null ? 0.0 : Double.longBitsToDouble(load.ewmaLatencyBits.get());
+    }
+
+    /**
+     * 计算负载得分：EWMA 延迟 × (进行中请求数 + 1)，得分越低越空闲
+     *
+     * @param serverId 服务ID
+     * @return 负载得分
+     */
+    public double getLoadScore(String serverId) {
+        ServerLoad load = loads.get(serverId);
+        if (load == null) {
+            return 0.0;
+        }
+
+        int inFlight = load.inFlight.get();
+        double latency = Double.longBitsToDouble(load.ewmaLatencyBits.get());
+        if (latency == 0.0) {
+            latency = inFlight == 0 ? 0.0 : UNSAMPLED_PENALTY_NANOS;
+        }
+        return latency * (inFlight + 1);
+    }
+
+    /**
+     * 获取进行中的请求数
+     *
+     * @param serverId 服务ID
+     * @return 进行中的请求数，未知实例返回 0
+     */
+    public int getInFlight(String serverId) {
+        ServerLoad load = loads.get(serverId);
+        return load == null ? 0 : load.inFlight.get();
+    }
+
+    /**
+     * 移除实例负载（服务注销时调用）
+     *
+     * @param serverId 服务ID
+     */
+    public void remove(String serverId) {
+        loads.remove(serverId);
+    }
+
+    /**
+     * 单个实例的负载状态
+     */
+    private static final class ServerLoad {
+
+        /**
+         * 进行中的请求数
+         */
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        /**
+         * EWMA 延迟（纳秒），以 double 的位模式存储
+         */
+        private final AtomicLong ewmaLatencyBits = new AtomicLong(Double.doubleToRawLongBits(0.0));
+    }
+}
@@ -0,0 +1,50 @@
+package org.cloudnook.mcp.domain.server.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 服务实例并发隔离（bulkhead）配置
+ * 注册时指定，未指定的字段使用 mcp.gateway.bulkhead 下的默认值；
+ * 指定的 maxConcurrency、queueTimeoutMs 必须为正数，maxQueueSize 不能为负数（0 表示不排队，直接拒绝）
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class McpBulkheadConfig {
+
+    /**
+     * 最大并发调用数
+     */
+    private Integer maxConcurrency;
+
+    /**
+     * 并发已满时最多排队等待的调用数，0 表示直接拒绝
+     */
+    private Integer maxQueueSize;
+
+    /**
+     * 排队等待超时（毫秒），超时后拒绝
+     */
+    private Long queueTimeoutMs;
+
+    /**
+     * 校验注册时指定的字段
+     *
+     * @throws IllegalArgumentException 指定的字段超出取值范围
+     */
+    public void validate() {
+        if (maxConcurrency != null && maxConcurrency <= 0) {
+            throw new IllegalArgumentException("bulkhead.maxConcurrency 必须大于 0: " + maxConcurrency);
+        }
+        if (maxQueueSize != null && maxQueueSize < 0) {
+            throw new IllegalArgumentException("bulkhead.maxQueueSize 不能小于 0: " + maxQueueSize);
+        }
+        if (queueTimeoutMs != null && queueTimeoutMs <= 0) {
+            throw new IllegalArgumentException("bulkhead.queueTimeoutMs 必须大于 0: " + queueTimeoutMs);
+        }
+    }
+}
@@ -53,4 +53,9 @@ public class McpServer {
      */
     private String version;
 
+    /**
+     * 并发隔离配置（可选，未指定时使用默认配置）
+     */
+    private McpBulkheadConfig bulkhead;
+
 }
@@ -5,6 +5,8 @@ import io.modelcontextprotocol.client.McpAsyncClient;
 import org.cloudnook.mcp.domain.server.model.McpServer;
 import reactor.core.publisher.Mono;
 
+import java.util.function.Function;
+
 /**
  * @Author: the-way
  * @Verson: v1.0
@@ -27,7 +29,17 @@ public interface McpClientManager {
     Mono<McpAsyncClient> getClient(String serverId);
 
     /**
-     * 断开连接
+     * 从连接池租用一个客户端执行操作
+     * 操作结束（成功、失败或取消）后自动归还
+     *
+     * @param serverId 服务ID
+     * @param action   使用客户端的操作
+     * @return 操作结果
+     */
+    <T> Mono<T> withClient(String serverId, Function<McpAsyncClient, Mono<T>> action);
+
+    /**
+     * 断开连接（等待进行中请求完成后关闭）
      */
     void disconnect(String serverId);
 
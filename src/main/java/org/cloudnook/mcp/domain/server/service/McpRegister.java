@@ -38,7 +38,7 @@ public interface McpRegister {
     /**
      * 获取所有服务信息
      *
-     * @return 所有服务实例列表
+     * @return 所有服务实例列表（只读）
      */
     List<McpServer> getAllServers();
 
@@ -54,7 +54,7 @@ public interface McpRegister {
      * 根据服务名称获取所有服务实例的ID
      *
      * @param serverName 服务名称
-     * @return 服务实例ID列表
+     * @return 服务实例ID列表（只读）
      */
     List<String> getServerIdsByName(String serverName);
 
@@ -62,7 +62,7 @@ public interface McpRegister {
      * 根据服务名称获取所有服务实例
      *
      * @param serverName 服务名称
-     * @return 服务实例列表
+     * @return 服务实例列表（只读）
      */
     List<McpServer> getServersByName(String serverName);
 
@@ -0,0 +1,71 @@
+package org.cloudnook.mcp.infrastructure.common.exception;
+
+import lombok.Getter;
+
+/**
+ * 网关拒绝异常
+ * 请求在网关内被拒绝（限流、并发隔离、连接池繁忙、熔断、重连中），没有到达后端，
+ * 只计入拒绝数，不计入服务实例的失败请求和错误率
+ *
+ * 说明：
+ * - 并发隔离（bulkhead）的拒绝使用单独的错误码 4291，与自适应限流和连接池繁忙的 429 区分
+ */
+@Getter
+public class RejectedException extends BusinessException {
+
+    /**
+     * 拒绝原因
+     */
+    private final Reason reason;
+
+    public RejectedException(Reason reason, String message) {
+        super(reason.getCode(), message);
+        this.reason = reason;
+    }
+
+    /**
+     * 拒绝原因
+     */
+    @Getter
+    public enum Reason {
+
+        /**
+         * 自适应并发限制
+         */
+        CONCURRENCY_LIMITED("429"),
+
+        /**
+         * 并发隔离已满（并发和排队均已满）
+         */
+        BULKHEAD_FULL("4291"),
+
+        /**
+         * 并发隔离排队超时
+         */
+        BULKHEAD_TIMEOUT("4291"),
+
+        /**
+         * 连接池繁忙（STDIO 进程数和单连接并发均已满）
+         */
+        POOL_BUSY("429"),
+
+        /**
+         * 熔断中
+         */
+        CIRCUIT_OPEN("503"),
+
+        /**
+         * 连接池没有可用连接，正在重连
+         */
+        RECONNECTING("503");
+
+        /**
+         * 错误码
+         */
+        private final String code;
+
+        Reason(String code) {
+            this.code = code;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package org.cloudnook.mcp.infrastructure.common.result;
 
 import lombok.Data;
+import org.cloudnook.mcp.infrastructure.common.exception.BusinessException;
 
 import java.io.Serializable;
 
@@ -85,6 +86,16 @@ public class Result<T> implements Serializable {
         return new Result<>(code, message, null);
     }
 
+    /**
+     * 失败响应（业务异常保留错误码）
+     */
+    public static <T> Result<T> error(Throwable e) {
+        if (e instanceof BusinessException businessException) {
+            return new Result<>(businessException.getCode(), businessException.getMessage(), null);
+        }
+        return error(e.getMessage());
+    }
+
     /**
      * 设置 traceId
      */
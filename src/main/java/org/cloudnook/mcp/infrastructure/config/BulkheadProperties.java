@@ -0,0 +1,37 @@
+package org.cloudnook.mcp.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * MCP 服务实例并发隔离（bulkhead）配置属性
+ * 作为默认值，注册服务时可通过 bulkhead 字段逐个覆盖
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mcp.gateway.bulkhead")
+public class BulkheadProperties {
+
+    /**
+     * 是否启用并发隔离
+     */
+    private boolean enabled = true;
+
+    /**
+     * 单个服务实例的最大并发调用数，小于等于 0 表示不限制
+     */
+    private int maxConcurrency = 64;
+
+    /**
+     * 并发已满时最多排队等待的调用数，0 表示直接拒绝
+     */
+    private int maxQueueSize = 128;
+
+    /**
+     * 排队等待超时
+     */
+    private Duration queueTimeout = Duration.ofSeconds(1);
+}
@@ -0,0 +1,26 @@
+package org.cloudnook.mcp.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * MCP 能力目录缓存配置属性
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mcp.gateway.catalog-cache")
+public class CatalogCacheProperties {
+
+    /**
+     * 是否启用目录缓存
+     */
+    private boolean enabled = true;
+
+    /**
+     * 缓存过期时间（list_changed 通知之外的兜底失效）
+     */
+    private Duration ttl = Duration.ofMinutes(5);
+}
@@ -0,0 +1,51 @@
+package org.cloudnook.mcp.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * MCP 服务实例熔断器配置属性
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mcp.gateway.circuit-breaker")
+public class CircuitBreakerProperties {
+
+    /**
+     * 是否启用熔断器
+     */
+    private boolean enabled = true;
+
+    /**
+     * 失败率阈值（0-1），窗口内失败率达到该值时打开
+     */
+    private double failureRateThreshold = 0.5;
+
+    /**
+     * 窗口内的最少调用数，不足时不打开
+     */
+    private int minimumCalls = 20;
+
+    /**
+     * 失败率统计窗口
+     */
+    private Duration window = Duration.ofSeconds(10);
+
+    /**
+     * 窗口的分桶数
+     */
+    private int windowBuckets = 10;
+
+    /**
+     * 打开后的冷却时间，之后进入半开
+     */
+    private Duration openDuration = Duration.ofSeconds(10);
+
+    /**
+     * 半开状态的探测调用数，全部成功后关闭
+     */
+    private int halfOpenCalls = 3;
+}
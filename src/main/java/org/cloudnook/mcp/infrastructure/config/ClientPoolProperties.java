@@ -0,0 +1,119 @@
+package org.cloudnook.mcp.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MCP 客户端连接池配置属性
+ * 每个已注册的服务实例各自维护一个连接池
+ * 顶层配置作用于 HTTP 类传输，STDIO 传输（每个连接对应一个子进程）使用 stdio 下的配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mcp.gateway.client-pool")
+public class ClientPoolProperties {
+
+    /**
+     * 最小连接数（注册时预热，收缩时保留）
+     */
+    private int minSize = 1;
+
+    /**
+     * 最大连接数
+     */
+    private int maxSize = 4;
+
+    /**
+     * 单个连接的繁忙阈值：所有连接的进行中请求数都达到该值时扩容
+     */
+    private int maxConcurrencyPerClient = 32;
+
+    /**
+     * 空闲超时：超过该时长未被使用的连接在收缩时关闭
+     */
+    private Duration idleTimeout = Duration.ofMinutes(5);
+
+    /**
+     * 空闲收缩检查间隔
+     */
+    private Duration shrinkInterval = Duration.ofSeconds(30);
+
+    /**
+     * 重连初始退避时长（之后按指数增长并加入随机抖动）
+     */
+    private Duration reconnectInitialBackoff = Duration.ofMillis(500);
+
+    /**
+     * 重连最大退避时长
+     */
+    private Duration reconnectMaxBackoff = Duration.ofSeconds(30);
+
+    /**
+     * 注销时等待进行中请求完成的最长时间，超时后强制关闭
+     */
+    private Duration drainTimeout = Duration.ofSeconds(30);
+
+    /**
+     * 连接启动超时：超过该时长仍未完成初始化（含 STDIO 进程启动）的连接在健康检查时剔除
+     */
+    private Duration startupTimeout = Duration.ofSeconds(60);
+
+    /**
+     * STDIO 子进程池配置
+     */
+    private StdioConfig stdio = new StdioConfig();
+
+    /**
+     * STDIO 子进程池配置
+     */
+    @Data
+    public static class StdioConfig {
+
+        /**
+         * 是否允许注册 STDIO 服务
+         * STDIO 服务的 endpoint 是由网关启动的命令行，开启后能调用注册接口的人即可在网关主机上启动进程
+         */
+        private boolean enabled = false;
+
+        /**
+         * 允许启动的可执行文件（与命令行的第一个参数精确匹配，如 npx、/usr/bin/python3）
+         * 为空时不限制
+         */
+        private List<String> allowedCommands = new ArrayList<>();
+
+        /**
+         * 常驻进程数
+         */
+        private int minSize = 1;
+
+        /**
+         * 最大进程数
+         */
+        private int maxSize = 4;
+
+        /**
+         * 热备进程数：始终保持至少这么多空闲进程，避免调用时等待进程启动
+         */
+        private int warmSpares = 1;
+
+        /**
+         * 单个进程的最大并发调用数（硬上限），所有进程都达到上限时拒绝请求
+         */
+        private int maxConcurrencyPerProcess = 8;
+
+        /**
+         * 空闲进程健康检查（ping）间隔，检测崩溃进程并重启
+         */
+        private Duration healthCheckInterval = Duration.ofSeconds(15);
+
+        /**
+         * 健康检查超时
+         */
+        private Duration healthCheckTimeout = Duration.ofSeconds(5);
+    }
+}
@@ -0,0 +1,40 @@
+package org.cloudnook.mcp.infrastructure.config;
+
+import lombok.Data;
+import org.cloudnook.mcp.domain.log.model.McpInvokeLog;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * MCP 请求合并（single-flight）配置属性
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mcp.gateway.coalesce")
+public class CoalesceProperties {
+
+    /**
+     * 是否启用请求合并
+     */
+    private boolean enabled = true;
+
+    /**
+     * 参与合并的调用类型（默认列表查询和 Resource 读取）
+     * Tool 调用可能有副作用，不在此配置，需通过 tools 逐个开启
+     */
+    private Set<McpInvokeLog.InvokeType> types = EnumSet.of(
+            McpInvokeLog.InvokeType.TOOL_LIST,
+            McpInvokeLog.InvokeType.RESOURCE_LIST,
+            McpInvokeLog.InvokeType.PROMPT_LIST,
+            McpInvokeLog.InvokeType.RESOURCE_READ
+    );
+
+    /**
+     * 参与合并的 Tool 名称（仅适用于无副作用的 Tool），"*" 表示全部
+     */
+    private Set<String> tools = new HashSet<>();
+}
@@ -0,0 +1,98 @@
+package org.cloudnook.mcp.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * MCP 服务实例自适应并发限制配置属性
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mcp.gateway.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    /**
+     * 是否启用自适应并发限制
+     */
+    private boolean enabled = true;
+
+    /**
+     * 限制算法
+     */
+    private LimitAlgorithm algorithm = LimitAlgorithm.GRADIENT;
+
+    /**
+     * 初始并发限制
+     */
+    private int initialLimit = 20;
+
+    /**
+     * 最小并发限制
+     */
+    private int minLimit = 4;
+
+    /**
+     * 最大并发限制
+     */
+    private int maxLimit = 200;
+
+    /**
+     * GRADIENT 算法配置
+     */
+    private Gradient gradient = new Gradient();
+
+    /**
+     * AIMD 算法配置
+     */
+    private Aimd aimd = new Aimd();
+
+    /**
+     * 限制算法
+     */
+    public enum LimitAlgorithm {
+        /**
+         * 按当前延迟与长期基准延迟的比值（梯度）缩放限制
+         */
+        GRADIENT,
+        /**
+         * 加性增、乘性减：失败或超过延迟阈值时按比例减小，否则加一
+         */
+        AIMD
+    }
+
+    @Data
+    public static class Gradient {
+
+        /**
+         * 新限制的平滑系数（0-1），越大调整越快
+         */
+        private double smoothing = 0.2;
+
+        /**
+         * 延迟容忍倍数：当前延迟不超过基准延迟的该倍数时不减小限制
+         */
+        private double tolerance = 1.5;
+
+        /**
+         * 长期基准延迟的样本窗口（EWMA 等效样本数）
+         */
+        private int longWindow = 600;
+    }
+
+    @Data
+    public static class Aimd {
+
+        /**
+         * 减小时的比例
+         */
+        private double backoffRatio = 0.9;
+
+        /**
+         * 延迟阈值，超过时视为过载
+         */
+        private Duration latencyThreshold = Duration.ofSeconds(5);
+    }
+}
@@ -0,0 +1,56 @@
+package org.cloudnook.mcp.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * MCP 对冲请求配置属性
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mcp.gateway.hedge")
+public class HedgeProperties {
+
+    /**
+     * 是否启用对冲请求（默认关闭）
+     */
+    private boolean enabled = false;
+
+    /**
+     * 首个请求超过主实例该分位延迟仍未返回时发出对冲请求
+     */
+    private double percentile = 0.95;
+
+    /**
+     * 对冲等待时间下限
+     */
+    private Duration minDelay = Duration.ofMillis(20);
+
+    /**
+     * 对冲等待时间上限
+     */
+    private Duration maxDelay = Duration.ofSeconds(5);
+
+    /**
+     * 主实例最近 1 分钟的最少请求数，不足时分位值不可靠，不对冲
+     */
+    private int minSamples = 20;
+
+    /**
+     * 分位延迟的刷新间隔
+     */
+    private Duration delayRefreshInterval = Duration.ofSeconds(1);
+
+    /**
+     * 对冲预算比例：每个可对冲的请求积累的对冲额度，0.1 表示最多增加 10% 的请求
+     */
+    private double budgetRatio = 0.1;
+
+    /**
+     * 对冲额度上限（允许的突发对冲数）
+     */
+    private int budgetBurst = 10;
+}
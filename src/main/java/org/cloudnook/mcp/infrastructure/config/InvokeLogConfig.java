@@ -0,0 +1,52 @@
+package org.cloudnook.mcp.infrastructure.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.cloudnook.mcp.domain.log.repository.McpInvokeLogRepository;
+import org.cloudnook.mcp.infrastructure.core.log.McpInvokeLogFileRepository;
+import org.cloudnook.mcp.infrastructure.core.log.McpInvokeLogMemoryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * MCP 调用日志仓储配置
+ * 根据 YAML 配置动态选择日志仓储实现
+ */
+@Slf4j
+@Configuration
+public class InvokeLogConfig {
+
+    @Autowired
+    private InvokeLogProperties invokeLogProperties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * 创建日志仓储实例
+     * 根据配置动态选择实现
+     */
+    @Bean
+    @Primary
+    public McpInvokeLogRepository mcpInvokeLogRepository() {
+        InvokeLogProperties.InvokeLogType type = invokeLogProperties.getType();
+
+        log.info("初始化 MCP 调用日志仓储，类型: {}", type);
+
+        switch (type) {
+            case MEMORY:
+                log.info("使用内存调用日志，容量: {}", invokeLogProperties.getCapacity());
+                return new McpInvokeLogMemoryRepository(invokeLogProperties);
+
+            case FILE:
+                log.info("使用文件调用日志，目录: {}", invokeLogProperties.getFile().getDirectory());
+                return new McpInvokeLogFileRepository(invokeLogProperties, objectMapper);
+
+            default:
+                log.warn("未知的调用日志类型，使用默认的内存调用日志");
+                return new McpInvokeLogMemoryRepository(invokeLogProperties);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package org.cloudnook.mcp.infrastructure.config;
+
+import lombok.Data;
+import org.cloudnook.mcp.domain.log.model.McpInvokeLog;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * MCP 调用日志配置属性
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mcp.gateway.invoke-log")
+public class InvokeLogProperties {
+
+    /**
+     * 日志仓储类型
+     */
+    private InvokeLogType type = InvokeLogType.MEMORY;
+
+    /**
+     * 内存日志容量（环形缓冲区槽位数，写满后覆盖最旧的记录）
+     * FILE 类型下为 getAll 单次返回的最大条数
+     */
+    private int capacity = 1000;
+
+    /**
+     * 文件日志配置（当 type=FILE 时使用）
+     */
+    private FileConfig file = new FileConfig();
+
+    /**
+     * 异步写入配置
+     */
+    private Async async = new Async();
+
+    /**
+     * 响应内容记录配置
+     */
+    private Capture capture = new Capture();
+
+    /**
+     * 日志仓储类型枚举
+     */
+    public enum InvokeLogType {
+        MEMORY,
+        FILE
+    }
+
+    /**
+     * 响应内容记录方式
+     */
+    public enum CaptureMode {
+        /**
+         * 不记录响应内容
+         */
+        NONE,
+        /**
+         * 只记录响应 JSON 的 SHA-256
+         */
+        HASH,
+        /**
+         * 记录响应 JSON 的前 max-bytes 字节
+         */
+        TRUNCATE,
+        /**
+         * 记录完整的响应 JSON
+         */
+        FULL
+    }
+
+    /**
+     * 队列满时的处理策略
+     */
+    public enum OverflowPolicy {
+        /**
+         * 丢弃队列中最旧的日志，为新日志腾出位置
+         */
+        DROP_OLDEST,
+        /**
+         * 队列积压超过阈值后对成功日志按比例采样，失败日志始终保留；队列满时丢弃新日志
+         */
+        SAMPLE,
+        /**
+         * 等待队列空位，超过 blockTimeout 后丢弃新日志（会阻塞响应线程，仅在日志不可丢失时使用）
+         */
+        BLOCK
+    }
+
+    @Data
+    public static class Async {
+
+        /**
+         * 是否异步写入（关闭后在响应线程上同步写入）
+         */
+        private boolean enabled = true;
+
+        /**
+         * 队列容量
+         */
+        private int queueCapacity = 8192;
+
+        /**
+         * 每批最多写入的日志条数
+         */
+        private int batchSize = 256;
+
+        /**
+         * 队列满时的处理策略
+         */
+        private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+
+        /**
+         * SAMPLE 策略：队列积压超过该比例后开始采样
+         */
+        private double sampleThreshold = 0.5;
+
+        /**
+         * SAMPLE 策略：采样时每 N 条成功日志保留 1 条
+         */
+        private int sampleRate = 10;
+
+        /**
+         * BLOCK 策略：最长等待时间
+         */
+        private Duration blockTimeout = Duration.ofMillis(50);
+    }
+
+    /**
+     * 响应内容记录配置
+     * 响应在日志写入线程上序列化为紧凑 JSON，TRUNCATE 模式达到上限后即停止序列化
+     */
+    @Data
+    public static class Capture {
+
+        /**
+         * 默认记录方式
+         */
+        private CaptureMode mode = CaptureMode.TRUNCATE;
+
+        /**
+         * TRUNCATE 模式下最多保留的字节数
+         */
+        private DataSize maxBytes = DataSize.ofKilobytes(4);
+
+        /**
+         * 按调用类型覆盖记录方式，如 RESOURCE_READ: HASH
+         */
+        private Map<McpInvokeLog.InvokeType, CaptureMode> types = new EnumMap<>(McpInvokeLog.InvokeType.class);
+
+        /**
+         * 获取指定调用类型的记录方式
+         */
+        public CaptureMode modeOf(McpInvokeLog.InvokeType type) {
+            CaptureMode override = type != null ? types.get(type) : null;
+            return override != null ? override : mode;
+        }
+    }
+
+    /**
+     * 文件日志配置
+     */
+    @Data
+    public static class FileConfig {
+
+        /**
+         * 日志段文件目录
+         */
+        private String directory = "data/invoke-log";
+
+        /**
+         * 单个日志段的最大字节数，超过后滚动到新段
+         */
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+        /**
+         * 单个日志段的最长写入时间，超过后滚动到新段
+         */
+        private Duration rollInterval = Duration.ofHours(1);
+
+        /**
+         * 刷盘（fsync）间隔
+         */
+        private Duration fsyncInterval = Duration.ofSeconds(1);
+
+        /**
+         * 保留时长，最后写入时间早于该时长的日志段会被删除
+         */
+        private Duration retention = Duration.ofDays(7);
+
+        /**
+         * 保留的最大总字节数，超过后从最旧的日志段开始删除
+         */
+        private DataSize retentionSize = DataSize.ofGigabytes(10);
+
+        /**
+         * 过期清理检查间隔
+         */
+        private Duration retentionCheckInterval = Duration.ofMinutes(5);
+
+        /**
+         * 二级索引最多覆盖的记录条数（最新的记录），超出后在段滚动时裁剪最旧的索引项
+         * 更早的记录仍可按页读取，但不再参与按条件和时间范围的查询
+         */
+        private int indexMaxEntries = 1_000_000;
+    }
+}
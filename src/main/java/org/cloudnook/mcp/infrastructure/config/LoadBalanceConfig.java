@@ -0,0 +1,62 @@
+package org.cloudnook.mcp.infrastructure.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.cloudnook.mcp.domain.invoke.service.McpCircuitBreaker;
+import org.cloudnook.mcp.domain.routing.CircuitBreakerLoadBalanceStrategy;
+import org.cloudnook.mcp.domain.routing.LeastRequestsLoadBalanceStrategy;
+import org.cloudnook.mcp.domain.routing.LoadBalanceStrategy;
+import org.cloudnook.mcp.domain.routing.McpOutlierDetector;
+import org.cloudnook.mcp.domain.routing.OutlierEjectionLoadBalanceStrategy;
+import org.cloudnook.mcp.domain.routing.PowerOfTwoChoicesLoadBalanceStrategy;
+import org.cloudnook.mcp.domain.routing.RoundRobinLoadBalanceStrategy;
+import org.cloudnook.mcp.domain.routing.ServerLoadTracker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * MCP 负载均衡配置
+ * 根据 YAML 配置动态选择负载均衡策略
+ */
+@Slf4j
+@Configuration
+public class LoadBalanceConfig {
+
+    @Autowired
+    private LoadBalanceProperties loadBalanceProperties;
+
+    /**
+     * 创建负载均衡策略实例
+     * 根据配置动态选择实现，外层依次包装离群摘除过滤和熔断过滤
+     */
+    @Bean
+    public LoadBalanceStrategy loadBalanceStrategy(ServerLoadTracker serverLoadTracker,
+                                                   McpCircuitBreaker mcpCircuitBreaker,
+                                                   McpOutlierDetector mcpOutlierDetector) {
+        LoadBalanceProperties.StrategyType strategy = loadBalanceProperties.getStrategy();
+
+        log.info("初始化负载均衡策略: {}", strategy);
+
+        LoadBalanceStrategy outlierAware = new OutlierEjectionLoadBalanceStrategy(
+                createStrategy(strategy, serverLoadTracker), mcpOutlierDetector);
+        return new CircuitBreakerLoadBalanceStrategy(outlierAware, mcpCircuitBreaker);
+    }
+
+    private LoadBalanceStrategy createStrategy(LoadBalanceProperties.StrategyType strategy,
+                                               ServerLoadTracker serverLoadTracker) {
+        switch (strategy) {
+            case LEAST_REQUESTS:
+                return new LeastRequestsLoadBalanceStrategy(serverLoadTracker);
+
+            case P2C_EWMA:
+                return new PowerOfTwoChoicesLoadBalanceStrategy(serverLoadTracker);
+
+            case ROUND_ROBIN:
+                return new RoundRobinLoadBalanceStrategy();
+
+            default:
+                log.warn("未知的负载均衡策略，使用默认的轮询策略");
+                return new RoundRobinLoadBalanceStrategy();
+        }
+    }
+}
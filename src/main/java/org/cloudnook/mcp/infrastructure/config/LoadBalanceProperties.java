@@ -0,0 +1,28 @@
+package org.cloudnook.mcp.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * MCP 负载均衡配置属性
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mcp.gateway.load-balance")
+public class LoadBalanceProperties {
+
+    /**
+     * 负载均衡策略
+     */
+    private StrategyType strategy = StrategyType.ROUND_ROBIN;
+
+    /**
+     * 负载均衡策略枚举
+     */
+    public enum StrategyType {
+        ROUND_ROBIN,
+        LEAST_REQUESTS,
+        P2C_EWMA
+    }
+}
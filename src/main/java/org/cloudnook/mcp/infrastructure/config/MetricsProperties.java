@@ -0,0 +1,24 @@
+package org.cloudnook.mcp.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * MCP 监控指标配置属性
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mcp.gateway.metrics")
+public class MetricsProperties {
+
+    /**
+     * 每个服务最多跟踪的目标（tool/resource/prompt）数量，超出时淘汰访问最少的目标
+     */
+    private int maxTargetsPerServer = 64;
+
+    /**
+     * 最多跟踪的客户端数量，超出时淘汰访问最少的客户端
+     */
+    private int maxClients = 256;
+}
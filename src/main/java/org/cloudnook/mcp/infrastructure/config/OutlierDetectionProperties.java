@@ -0,0 +1,71 @@
+package org.cloudnook.mcp.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * MCP 服务实例离群检测配置属性
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mcp.gateway.outlier-detection")
+public class OutlierDetectionProperties {
+
+    /**
+     * 是否启用离群检测
+     */
+    private boolean enabled = true;
+
+    /**
+     * 检测周期
+     */
+    private Duration interval = Duration.ofSeconds(10);
+
+    /**
+     * 统计窗口（按监控指标的 5 秒时间桶取整）
+     */
+    private Duration window = Duration.ofSeconds(30);
+
+    /**
+     * 参与比较的最少实例数（窗口内请求数达标的实例），不足时该组不做检测
+     */
+    private int minHosts = 3;
+
+    /**
+     * 实例窗口内的最少请求数，不足时不参与比较
+     */
+    private int minRequests = 20;
+
+    /**
+     * 平均延迟超过组内中位数的该倍数时判定为延迟离群
+     */
+    private double latencyFactor = 3.0;
+
+    /**
+     * 平均延迟低于该值时不判定为延迟离群（避免毫秒级抖动被放大）
+     */
+    private Duration latencyFloor = Duration.ofMillis(50);
+
+    /**
+     * 错误率比组内中位数高出该值时判定为错误离群
+     */
+    private double errorRateDelta = 0.3;
+
+    /**
+     * 基础摘除时长，实际时长 = 基础时长 × 摘除倍数
+     */
+    private Duration baseEjectionTime = Duration.ofSeconds(30);
+
+    /**
+     * 最长摘除时长
+     */
+    private Duration maxEjectionTime = Duration.ofMinutes(5);
+
+    /**
+     * 每组最多同时摘除的实例比例（0-1）
+     */
+    private double maxEjectionPercent = 0.5;
+}
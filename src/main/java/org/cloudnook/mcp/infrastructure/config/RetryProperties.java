@@ -0,0 +1,39 @@
+package org.cloudnook.mcp.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * MCP Router 失败重试配置属性
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mcp.gateway.retry")
+public class RetryProperties {
+
+    /**
+     * 是否启用失败重试
+     */
+    private boolean enabled = true;
+
+    /**
+     * 最多尝试次数（含首次），每次重试换一个实例
+     */
+    private int maxAttempts = 2;
+
+    /**
+     * 是否同时重试后端 5xx 和请求发出后的传输错误（请求可能已在后端执行，只在工具均幂等时开启）
+     */
+    private boolean retryOnServerError = false;
+
+    /**
+     * 重试预算比例：每个请求为所属服务名积累的重试额度，0.2 表示重试最多占请求数的 20%
+     */
+    private double budgetRatio = 0.2;
+
+    /**
+     * 重试额度上限（允许的突发重试数），启动时预算为满
+     */
+    private int budgetBurst = 10;
+}
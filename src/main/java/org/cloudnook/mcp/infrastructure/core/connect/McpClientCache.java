@@ -4,66 +4,156 @@ package org.cloudnook.mcp.infrastructure.core.connect;
 import io.modelcontextprotocol.client.McpAsyncClient;
 import io.modelcontextprotocol.client.McpClient;
 import io.modelcontextprotocol.client.transport.HttpClientStreamableHttpTransport;
+import io.modelcontextprotocol.client.transport.ServerParameters;
+import io.modelcontextprotocol.client.transport.StdioClientTransport;
+import io.modelcontextprotocol.json.McpJsonMapper;
 import io.modelcontextprotocol.spec.McpClientTransport;
+import io.modelcontextprotocol.spec.McpSchema;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.cloudnook.mcp.domain.invoke.repository.McpCatalogCache;
+import org.cloudnook.mcp.domain.log.model.McpInvokeLog;
+import org.cloudnook.mcp.domain.metrics.repository.McpMetricsRepository;
 import org.cloudnook.mcp.domain.server.model.McpServer;
 import org.cloudnook.mcp.domain.server.model.McpTransportType;
 import org.cloudnook.mcp.domain.server.service.McpClientManager;
 import org.cloudnook.mcp.infrastructure.common.exception.BusinessException;
+import org.cloudnook.mcp.infrastructure.config.ClientPoolProperties;
 import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 /**
  * @Author: the-way
  * @Verson: v1.0
  * @Date: 2026-01-09 19:29
  * @Description: MCP client 缓存管理
+ * 每个服务实例维护一个 {@link McpClientPool}，调用方通过 {@link #withClient} 租用连接
+ * 失败的连接会被剔除并在后台自动重连，不会永久缓存失败结果
+ * STDIO 服务的 endpoint 为启动命令行，每个连接对应一个由网关托管的子进程；
+ * 需开启 mcp.gateway.client-pool.stdio.enabled，并可通过 allowed-commands 限制可启动的程序
  */
+@Slf4j
 @Service
+@RequiredArgsConstructor
 public class McpClientCache implements McpClientManager {
 
     /**
-     * 客户端缓存
+     * 连接池缓存，Key: serverId
      */
-    private static final ConcurrentHashMap<String, Mono<McpAsyncClient>> CLIENTS_HOLDER = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, McpClientPool> CLIENTS_HOLDER = new ConcurrentHashMap<>();
 
+    /**
+     * 最近一次 initialize 返回的服务端信息，Key: serverId
+     */
+    private static final ConcurrentHashMap<String, McpSchema.Implementation> SERVER_INFOS = new ConcurrentHashMap<>();
+
+    private final ClientPoolProperties clientPoolProperties;
+
+    private final McpMetricsRepository metricsRepository;
+
+    private final McpCatalogCache catalogCache;
+
+    /**
+     * 空闲收缩任务
+     */
+    private Disposable shrinkTask;
+
+    /**
+     * 子进程健康检查任务
+     */
+    private Disposable healthCheckTask;
+
+    @PostConstruct
+    public void startShrinkTask() {
+        shrinkTask = Flux.interval(clientPoolProperties.getShrinkInterval())
+                .subscribe(tick -> CLIENTS_HOLDER.values().forEach(McpClientPool::shrinkIdle),
+                        e -> log.error("连接池收缩任务异常", e));
+        healthCheckTask = Flux.interval(clientPoolProperties.getStdio().getHealthCheckInterval())
+                .subscribe(tick -> CLIENTS_HOLDER.values().forEach(McpClientPool::healthCheck),
+                        e -> log.error("连接池健康检查任务异常", e));
+    }
 
     @Override
     public Mono<McpAsyncClient> connect(McpServer mcpServer) {
-        return Mono.<McpAsyncClient>defer(() ->
-            CLIENTS_HOLDER.computeIfAbsent(mcpServer.getId(), id -> createMcpClient(mcpServer).cache())
-        );
+        return Mono.<McpAsyncClient>defer(() -> {
+            // 注册时先校验 STDIO 启动命令，不允许的命令不创建连接池
+            if (McpTransportType.STDIO == mcpServer.getTransportType()) {
+                stdioCommand(mcpServer);
+            }
+            McpClientPool pool = CLIENTS_HOLDER.computeIfAbsent(mcpServer.getId(),
+                    id -> new McpClientPool(mcpServer, clientPoolProperties, this::createMcpClient, metricsRepository,
+                            // 会话全部失败后重连成功，服务端可能已重启，目录以新会话为准
+                            () -> catalogCache.invalidateAll(id)));
+            return pool.warmUp()
+                    .doOnError(e -> {
+                        // 首次连接失败不保留连接池，允许重新注册
+                        if (CLIENTS_HOLDER.remove(mcpServer.getId(), pool)) {
+                            pool.close();
+                        }
+                    });
+        });
     }
 
     @Override
     public Mono<McpAsyncClient> getClient(String serverId) {
-        Mono<McpAsyncClient> mono = CLIENTS_HOLDER.get(serverId);
-        if (mono == null) {
+        McpClientPool pool = CLIENTS_HOLDER.get(serverId);
+        if (pool == null) {
+            return Mono.error(new BusinessException("服务未连接: " + serverId));
+        }
+        return pool.leastBusyClient();
+    }
+
+    @Override
+    public <T> Mono<T> withClient(String serverId, Function<McpAsyncClient, Mono<T>> action) {
+        McpClientPool pool = CLIENTS_HOLDER.get(serverId);
+        if (pool == null) {
             return Mono.error(new BusinessException("服务未连接: " + serverId));
         }
-        return mono;
+        return pool.execute(action);
     }
 
     @Override
     public void disconnect(String serverId) {
-        Mono<McpAsyncClient> mono = CLIENTS_HOLDER.remove(serverId);
-        if (mono != null) {
-            mono.subscribe(McpAsyncClient::close,
-                    e ->{} // 忽略关闭异常
-            );
+        McpClientPool pool = CLIENTS_HOLDER.remove(serverId);
+        SERVER_INFOS.remove(serverId);
+        if (pool != null) {
+            // 等待进行中请求完成后再关闭，新请求在移除后即被拒绝
+            pool.drain();
         }
     }
 
     @Override
+    @PreDestroy
     public void shutdown() {
-        CLIENTS_HOLDER.values().forEach(mono -> {
-            mono.subscribe(McpAsyncClient::close,
-                    e -> {});
-        });
+        if (shrinkTask != null) {
+            shrinkTask.dispose();
+        }
+        if (healthCheckTask != null) {
+            healthCheckTask.dispose();
+        }
+        CLIENTS_HOLDER.values().forEach(McpClientPool::close);
         CLIENTS_HOLDER.clear();
     }
 
+    /**
+     * 获取服务实例的连接池
+     *
+     * @param serverId 服务ID
+     * @return 连接池，未连接时返回 null
+     */
+    public McpClientPool getPool(String serverId) {
+        return CLIENTS_HOLDER.get(serverId);
+    }
+
     private Mono<McpAsyncClient> createMcpClient(McpServer mcpServer) {
         return Mono.<McpAsyncClient>defer(() -> {
             final McpAsyncClient client;
@@ -71,16 +161,21 @@ public class McpClientCache implements McpClientManager {
                 McpClientTransport transport = HttpClientStreamableHttpTransport
                         .builder(mcpServer.getEndpoint())
                         .build();
-                client = McpClient.async(transport)
-                        .build();
+                client = buildClient(mcpServer, transport);
             } else if (McpTransportType.STDIO == mcpServer.getTransportType()) {
-                // todo 未来支持
-                return Mono.error(new BusinessException("stdio 协议暂未支持"));
+                List<String> command = stdioCommand(mcpServer);
+                ServerParameters parameters = ServerParameters.builder(command.get(0))
+                        .args(command.subList(1, command.size()))
+                        .build();
+                StdioClientTransport transport = new StdioClientTransport(parameters, McpJsonMapper.getDefault());
+                transport.setStdErrorHandler(line -> log.debug("[{}] stderr: {}", mcpServer.getId(), line));
+                client = buildClient(mcpServer, transport);
             } else {
                 return Mono.error(new BusinessException("未支持的协议"));
             }
 
             return client.initialize()
+                    .doOnSuccess(result -> onInitialized(mcpServer.getId(), result))
                     .thenReturn(client)
                     .doOnError(t -> {
                         try {
@@ -91,4 +186,121 @@ public class McpClientCache implements McpClientManager {
                     });
         });
     }
+
+    /**
+     * 会话初始化完成：服务端信息（名称、版本）与之前的会话不同时失效目录缓存
+     * 扩容、补充热备等新建会话面对的是同一个服务端，不影响缓存
+     */
+    void onInitialized(String serverId, McpSchema.InitializeResult result) {
+        McpSchema.Implementation current = result != null ? result.serverInfo() : null;
+        if (current == null) {
+            return;
+        }
+        McpSchema.Implementation previous = SERVER_INFOS.put(serverId, current);
+        if (previous != null && !previous.equals(current)) {
+            log.info("服务端信息变化，失效目录缓存: serverId={}, previous={}, current={}", serverId, previous, current);
+            catalogCache.invalidateAll(serverId);
+        }
+    }
+
+    /**
+     * 构建客户端，服务端推送 list_changed 通知时失效对应的目录缓存
+     */
+    private McpAsyncClient buildClient(McpServer mcpServer, McpClientTransport transport) {
+        String serverId = mcpServer.getId();
+        return McpClient.async(transport)
+                .toolsChangeConsumer(tools -> invalidateCatalog(serverId, McpInvokeLog.InvokeType.TOOL_LIST))
+                .resourcesChangeConsumer(resources -> invalidateCatalog(serverId, McpInvokeLog.InvokeType.RESOURCE_LIST))
+                .promptsChangeConsumer(prompts -> invalidateCatalog(serverId, McpInvokeLog.InvokeType.PROMPT_LIST))
+                .build();
+    }
+
+    private Mono<Void> invalidateCatalog(String serverId, McpInvokeLog.InvokeType type) {
+        return Mono.fromRunnable(() -> {
+            log.info("收到 list_changed 通知，失效目录缓存: serverId={}, type={}", serverId, type);
+            catalogCache.invalidate(serverId, type);
+        });
+    }
+
+    /**
+     * 校验并解析 STDIO 服务的启动命令
+     * 未开启 STDIO 服务时不解析命令行；配置了 allowed-commands 时可执行文件必须在列表中
+     *
+     * @return 启动命令（可执行文件和参数）
+     * @throws BusinessException 未开启 STDIO 服务、命令为空或不在允许列表中
+     */
+    List<String> stdioCommand(McpServer mcpServer) {
+        ClientPoolProperties.StdioConfig stdio = clientPoolProperties.getStdio();
+        if (!stdio.isEnabled()) {
+            throw new BusinessException("403", "未开启 STDIO 服务（mcp.gateway.client-pool.stdio.enabled）");
+        }
+        List<String> command = parseCommandLine(mcpServer.getEndpoint());
+        if (command.isEmpty()) {
+            throw new BusinessException("400", "stdio 启动命令不能为空");
+        }
+        List<String> allowed = stdio.getAllowedCommands();
+        if (allowed != null && !allowed.isEmpty() && !allowed.contains(command.get(0))) {
+            throw new BusinessException("403", "stdio 启动命令不在允许列表中: " + command.get(0));
+        }
+        return command;
+    }
+
+    /**
+     * 解析 STDIO 启动命令行，按空白分隔，支持单引号、双引号包裹含空格的参数
+     * 引号外的反斜杠转义下一个字符；双引号内只转义双引号和反斜杠；单引号内不转义
+     */
+    static List<String> parseCommandLine(String commandLine) {
+        List<String> tokens = new ArrayList<>();
+        if (commandLine == null) {
+            return tokens;
+        }
+
+        StringBuilder current = new StringBuilder();
+        boolean inToken = false;
+        char quote = 0;
+        for (int i = 0; i < commandLine.length(); i++) {
+            char c = commandLine.charAt(i);
+            if (quote == '\'') {
+                if (c == quote) {
+                    quote = 0;
+                } else {
+                    current.append(c);
+                }
+            } else if (quote == '"') {
+                if (c == '\\' && i + 1 < commandLine.length()
+                        && (commandLine.charAt(i + 1) == '"' || commandLine.charAt(i + 1) == '\\')) {
+                    current.append(commandLine.charAt(++i));
+                } else if (c == quote) {
+                    quote = 0;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '\\') {
+                if (i + 1 >= commandLine.length()) {
+                    throw new BusinessException("stdio 启动命令以转义符结尾: " + commandLine);
+                }
+                current.append(commandLine.charAt(++i));
+                inToken = true;
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+                inToken = true;
+            } else if (Character.isWhitespace(c)) {
+                if (inToken) {
+                    tokens.add(current.toString());
+                    current.setLength(0);
+                    inToken = false;
+                }
+            } else {
+                current.append(c);
+                inToken = true;
+            }
+        }
+        if (quote != 0) {
+            throw new BusinessException("stdio 启动命令引号不匹配: " + commandLine);
+        }
+        if (inToken) {
+            tokens.add(current.toString());
+        }
+        return tokens;
+    }
 }
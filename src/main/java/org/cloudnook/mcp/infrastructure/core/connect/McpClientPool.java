@@ -0,0 +1,615 @@
+package org.cloudnook.mcp.infrastructure.core.connect;
+
+import io.modelcontextprotocol.client.McpAsyncClient;
+import io.modelcontextprotocol.spec.McpError;
+import lombok.extern.slf4j.Slf4j;
+import org.cloudnook.mcp.domain.metrics.repository.McpMetricsRepository;
+import org.cloudnook.mcp.domain.server.model.McpServer;
+import org.cloudnook.mcp.domain.server.model.McpTransportType;
+import org.cloudnook.mcp.infrastructure.common.exception.BusinessException;
+import org.cloudnook.mcp.infrastructure.common.exception.RejectedException;
+import org.cloudnook.mcp.infrastructure.config.ClientPoolProperties;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 单个服务实例的 MCP 客户端连接池
+ * 持有多个已初始化的 McpAsyncClient（每个对应一个独立会话；STDIO 传输下对应一个子进程），按最少进行中请求选择
+ *
+ * 特点：
+ * - 预热：创建时建立 minSize + warmSpares 个连接
+ * - 扩容：所有连接都达到并发阈值且未达 maxSize 时新建连接；空闲连接少于 warmSpares 时后台补充热备
+ * - 并发上限：STDIO 的单进程并发为硬上限，所有进程都满载时快速拒绝
+ * - 收缩：超过保留数量的空闲连接在超时后关闭
+ * - 故障剔除：初始化失败或传输层异常的连接立即移出连接池，不再缓存失败结果
+ * - 自动重连：连接数低于 minSize 时后台按指数退避（带随机抖动）重连；无可用连接期间快速拒绝请求
+ * - 健康检查：启用时定期 ping 空闲连接，崩溃的进程被剔除并重启；超过启动超时仍未完成初始化的连接被剔除
+ * - 优雅下线：注销时拒绝新请求，最后一个进行中请求归还时关闭（最长等待 drainTimeout）
+ */
+@Slf4j
+public class McpClientPool {
+
+    private final McpServer server;
+
+    private final Settings settings;
+
+    /**
+     * 客户端工厂，返回完成 initialize 的客户端
+     */
+    private final Function<McpServer, Mono<McpAsyncClient>> clientFactory;
+
+    private final McpMetricsRepository metricsRepository;
+
+    /**
+     * 失败后重连成功的回调
+     */
+    private final Runnable reconnectListener;
+
+    /**
+     * 池内连接（写时复制，读取无锁）
+     */
+    private volatile List<PooledClient> clients = List.of();
+
+    private volatile boolean closed;
+
+    /**
+     * 下线等待中最后一个进行中请求归还时完成，未在下线等待时为 null
+     */
+    private volatile Sinks.Empty<Void> drained;
+
+    /**
+     * 当前重连任务，为 null 表示未在重连
+     */
+    private Disposable reconnectTask;
+
+    /**
+     * 连续重连失败次数，用于计算退避时长
+     */
+    private int reconnectAttempt;
+
+    public McpClientPool(McpServer server,
+                         ClientPoolProperties properties,
+                         Function<McpServer, Mono<McpAsyncClient>> clientFactory,
+                         McpMetricsRepository metricsRepository,
+                         Runnable reconnectListener) {
+        this.server = server;
+        this.settings = Settings.of(properties, server.getTransportType());
+        this.clientFactory = clientFactory;
+        this.metricsRepository = metricsRepository;
+        this.reconnectListener = reconnectListener;
+    }
+
+    /**
+     * 预热连接池，建立 minSize + warmSpares 个连接
+     *
+     * @return 第一个连接，用于校验服务可达
+     */
+    public synchronized Mono<McpAsyncClient> warmUp() {
+        if (clients.isEmpty()) {
+            for (int i = 0; i < settings.retainSize; i++) {
+                PooledClient pooled = addClient(clientFactory.apply(server).cache());
+                // 第一个之外的预热连接后台建立
+                if (i > 0) {
+                    pooled.client.subscribe(client -> {}, e -> onClientFailure(pooled, e));
+                }
+            }
+        }
+        PooledClient first = clients.isEmpty() ? null : clients.get(0);
+        if (first == null) {
+            return Mono.error(unavailable());
+        }
+        return first.client.doOnError(e -> onClientFailure(first, e));
+    }
+
+    /**
+     * 租用一个连接执行操作，操作结束（成功、失败或取消）后归还
+     */
+    public <T> Mono<T> execute(Function<McpAsyncClient, Mono<T>> action) {
+        return Mono.defer(() -> {
+            PooledClient pooled = acquire();
+            if (pooled == null) {
+                return Mono.error(unavailable());
+            }
+            ensureWarmSpares();
+            return pooled.client
+                    .doOnError(e -> onClientFailure(pooled, e))
+                    .flatMap(client -> action.apply(client)
+                            .doOnError(e -> {
+                                if (isConnectionFailure(e)) {
+                                    onClientFailure(pooled, e);
+                                }
+                            }))
+                    .doFinally(signal -> release(pooled));
+        });
+    }
+
+    /**
+     * 获取当前最空闲的连接（不计入租用）
+     */
+    public Mono<McpAsyncClient> leastBusyClient() {
+        PooledClient pooled = selectLeastBusy(clients);
+        if (pooled == null) {
+            return Mono.error(unavailable());
+        }
+        return pooled.client;
+    }
+
+    /**
+     * 关闭超出保留数量且空闲超时的连接
+     */
+    public void shrinkIdle() {
+        List<PooledClient> snapshot = clients;
+        if (closed || snapshot.size() <= settings.retainSize) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        for (PooledClient pooled : snapshot) {
+            if (clients.size() <= settings.retainSize) {
+                return;
+            }
+            if (now - pooled.lastUsedNanos >= settings.idleTimeoutNanos && pooled.retire()) {
+                removeClient(pooled);
+                log.info("关闭空闲连接: serverId={}, poolSize={}", server.getId(), clients.size());
+                closeQuietly(pooled);
+            }
+        }
+    }
+
+    /**
+     * 健康检查：ping 所有空闲连接，失败的连接被剔除并触发重启
+     * 超过启动超时仍未完成初始化的连接同样剔除，避免长期占用连接池名额
+     * 仅在启用健康检查的连接池（STDIO）中生效
+     */
+    public void healthCheck() {
+        if (closed || !settings.healthCheck) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        for (PooledClient pooled : clients) {
+            // 启动较慢但未超时的进程不检查，避免误判
+            if (!pooled.ready) {
+                if (now - pooled.createdNanos >= settings.startupTimeout.toNanos()) {
+                    onClientFailure(pooled, new TimeoutException("连接初始化超时: " + settings.startupTimeout));
+                }
+                continue;
+            }
+            // 仅检查空闲连接，并在检查期间占用，避免被收缩
+            if (pooled.inFlight.get() != 0 || !pooled.tryAcquire(1)) {
+                continue;
+            }
+            pooled.client
+                    .flatMap(McpAsyncClient::ping)
+                    .timeout(settings.healthCheckTimeout)
+                    .doFinally(signal -> release(pooled))
+                    .subscribe(pong -> {}, e -> onClientFailure(pooled, e));
+        }
+        ensureWarmSpares();
+    }
+
+    /**
+     * 优雅下线：立即拒绝新请求，等待进行中请求完成（最长 drainTimeout）后关闭所有连接
+     */
+    public void drain() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            cancelReconnect();
+        }
+
+        if (inFlight() == 0) {
+            closeAll();
+            return;
+        }
+
+        log.info("等待进行中请求完成后下线: serverId={}, inFlight={}", server.getId(), inFlight());
+        Sinks.Empty<Void> signal = Sinks.empty();
+        drained = signal;
+        signal.asMono()
+                .timeout(settings.drainTimeout)
+                .subscribe(null,
+                        e -> {
+                            log.warn("等待进行中请求超时，强制下线: serverId={}, inFlight={}", server.getId(), inFlight());
+                            closeAll();
+                        },
+                        this::closeAll);
+        // 设置信号前已归还的请求不会触发完成
+        if (inFlight() == 0) {
+            signal.tryEmitEmpty();
+        }
+    }
+
+    /**
+     * 立即关闭连接池及所有连接
+     */
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            cancelReconnect();
+        }
+        closeAll();
+    }
+
+    /**
+     * 当前连接数
+     */
+    public int size() {
+        return clients.size();
+    }
+
+    /**
+     * 所有连接的进行中请求总数
+     */
+    public int inFlight() {
+        int total = 0;
+        for (PooledClient pooled : clients) {
+            total += Math.max(0, pooled.inFlight.get());
+        }
+        return total;
+    }
+
+    /**
+     * 是否正在后台重连
+     */
+    public synchronized boolean isReconnecting() {
+        return reconnectTask != null;
+    }
+
+    /**
+     * 租用连接：选择最空闲的连接，必要时扩容
+     * 连接池为空（所有连接均已失败，等待重连）时返回 null；所有连接达到硬上限时抛出繁忙异常
+     */
+    private PooledClient acquire() {
+        while (!closed) {
+            List<PooledClient> snapshot = clients;
+            if (snapshot.isEmpty()) {
+                return null;
+            }
+            PooledClient best = selectLeastBusy(snapshot);
+            if (best == null || best.inFlight.get() >= settings.maxConcurrencyPerClient) {
+                PooledClient grown = snapshot.size() < settings.maxSize ? grow(snapshot) : null;
+                if (grown != null) {
+                    best = grown;
+                } else if (settings.hardLimit && clients == snapshot) {
+                    throw new RejectedException(RejectedException.Reason.POOL_BUSY, "服务实例繁忙: " + server.getId());
+                }
+            }
+            int limit = settings.hardLimit ? settings.maxConcurrencyPerClient : Integer.MAX_VALUE;
+            if (best != null && best.tryAcquire(limit)) {
+                return best;
+            }
+            // 选中的连接刚好被收缩、剔除或占满，重新选择
+        }
+        return null;
+    }
+
+    /**
+     * 扩容一个连接；若其他线程已修改连接池则返回 null 由调用方重新选择
+     */
+    private synchronized PooledClient grow(List<PooledClient> observed) {
+        if (closed || clients != observed || clients.size() >= settings.maxSize) {
+            return null;
+        }
+        PooledClient pooled = addClient(clientFactory.apply(server).cache());
+        log.info("连接池扩容: serverId={}, poolSize={}", server.getId(), clients.size());
+        return pooled;
+    }
+
+    /**
+     * 空闲连接少于热备数量时，后台补充一个热备连接
+     */
+    private void ensureWarmSpares() {
+        if (settings.warmSpares <= 0) {
+            return;
+        }
+
+        List<PooledClient> snapshot = clients;
+        int idle = 0;
+        for (PooledClient pooled : snapshot) {
+            if (pooled.inFlight.get() == 0) {
+                idle++;
+            }
+        }
+        if (idle >= settings.warmSpares || snapshot.size() >= settings.maxSize) {
+            return;
+        }
+
+        PooledClient spare = grow(snapshot);
+        if (spare != null) {
+            spare.client.subscribe(client -> {}, e -> onClientFailure(spare, e));
+        }
+    }
+
+    /**
+     * 归还连接；下线等待中最后一个请求归还时完成下线
+     */
+    private void release(PooledClient pooled) {
+        pooled.release();
+        Sinks.Empty<Void> signal = drained;
+        if (signal != null && inFlight() == 0) {
+            signal.tryEmitEmpty();
+        }
+    }
+
+    /**
+     * 连接失败：剔除连接并在低于 minSize 时触发后台重连
+     */
+    private void onClientFailure(PooledClient pooled, Throwable error) {
+        if (!pooled.markFailed()) {
+            return;
+        }
+
+        removeClient(pooled);
+        closeQuietly(pooled);
+        metricsRepository.recordConnectionFailure(server.getId());
+        log.warn("连接失败，已从连接池剔除: serverId={}, poolSize={}, error={}",
+                server.getId(), clients.size(), error.getMessage());
+
+        scheduleReconnect();
+    }
+
+    /**
+     * 按退避时长调度一次后台重连
+     */
+    private synchronized void scheduleReconnect() {
+        if (closed || reconnectTask != null || clients.size() >= settings.minSize) {
+            return;
+        }
+
+        Duration delay = nextBackoff();
+        log.info("计划重连: serverId={}, attempt={}, delay={}ms", server.getId(), reconnectAttempt + 1, delay.toMillis());
+
+        reconnectTask = Mono.delay(delay)
+                .then(Mono.defer(() -> clientFactory.apply(server)))
+                .subscribe(this::onReconnected, this::onReconnectFailed);
+    }
+
+    private synchronized void onReconnected(McpAsyncClient client) {
+        reconnectTask = null;
+        if (closed) {
+            client.close();
+            return;
+        }
+
+        reconnectAttempt = 0;
+        addClient(Mono.just(client)).ready = true;
+        metricsRepository.recordReconnect(server.getId());
+        log.info("重连成功: serverId={}, poolSize={}", server.getId(), clients.size());
+        reconnectListener.run();
+
+        // 仍低于 minSize 时继续补足
+        scheduleReconnect();
+    }
+
+    private synchronized void onReconnectFailed(Throwable error) {
+        reconnectTask = null;
+        if (closed) {
+            return;
+        }
+
+        reconnectAttempt++;
+        metricsRepository.recordConnectionFailure(server.getId());
+        log.warn("重连失败: serverId={}, attempt={}, error={}", server.getId(), reconnectAttempt, error.getMessage());
+
+        scheduleReconnect();
+    }
+
+    private void cancelReconnect() {
+        if (reconnectTask != null) {
+            reconnectTask.dispose();
+            reconnectTask = null;
+        }
+    }
+
+    private Duration nextBackoff() {
+        return backoff(reconnectAttempt, settings.reconnectInitialBackoffMillis, settings.reconnectMaxBackoffMillis);
+    }
+
+    /**
+     * 指数退避 + 随机抖动：delay = min(initial × 2^attempt, max)，取 [delay/2, delay] 之间的随机值
+     *
+     * @param attempt 连续失败次数（从 0 开始）
+     */
+    static Duration backoff(int attempt, long initialMillis, long maxMillis) {
+        long delay = initialMillis << Math.min(Math.max(0, attempt), 20);
+        if (delay <= 0 || delay > maxMillis) {
+            delay = maxMillis;
+        }
+        long half = delay / 2;
+        return Duration.ofMillis(half + ThreadLocalRandom.current().nextLong(delay - half + 1));
+    }
+
+    private BusinessException unavailable() {
+        if (closed) {
+            return new BusinessException("连接池已关闭: " + server.getId());
+        }
+        return new RejectedException(RejectedException.Reason.RECONNECTING, "服务重连中: " + server.getId());
+    }
+
+    /**
+     * 判断调用异常是否意味着会话不可用
+     * 服务端返回的 JSON-RPC 错误、调用超时以及网关自身的业务异常不视为连接故障
+     */
+    static boolean isConnectionFailure(Throwable error) {
+        return !(error instanceof McpError)
+                && !(error instanceof TimeoutException)
+                && !(error instanceof BusinessException);
+    }
+
+    private void closeAll() {
+        List<PooledClient> snapshot;
+        synchronized (this) {
+            snapshot = clients;
+            clients = List.of();
+        }
+        snapshot.forEach(McpClientPool::closeQuietly);
+        if (!snapshot.isEmpty()) {
+            log.info("连接池已关闭: serverId={}, closedClients={}", server.getId(), snapshot.size());
+        }
+    }
+
+    private synchronized PooledClient addClient(Mono<McpAsyncClient> client) {
+        PooledClient pooled = new PooledClient(client);
+        List<PooledClient> updated = new ArrayList<>(clients.size() + 1);
+        updated.addAll(clients);
+        updated.add(pooled);
+        clients = List.copyOf(updated);
+        return pooled;
+    }
+
+    private synchronized void removeClient(PooledClient pooled) {
+        List<PooledClient> updated = new ArrayList<>(clients);
+        if (updated.remove(pooled)) {
+            clients = List.copyOf(updated);
+        }
+    }
+
+    private static PooledClient selectLeastBusy(List<PooledClient> snapshot) {
+        PooledClient best = null;
+        int min = Integer.MAX_VALUE;
+        for (PooledClient pooled : snapshot) {
+            int inFlight = pooled.inFlight.get();
+            if (inFlight >= 0 && inFlight < min) {
+                min = inFlight;
+                best = pooled;
+            }
+        }
+        return best;
+    }
+
+    private static void closeQuietly(PooledClient pooled) {
+        pooled.client.subscribe(McpAsyncClient::close,
+                e -> {} // 忽略关闭异常
+        );
+    }
+
+    /**
+     * 连接池参数，按传输类型从配置中解析
+     */
+    private static final class Settings {
+
+        private int minSize;
+        private int maxSize;
+        private int warmSpares;
+        private int retainSize;
+        private int maxConcurrencyPerClient;
+        private boolean hardLimit;
+        private long idleTimeoutNanos;
+        private long reconnectInitialBackoffMillis;
+        private long reconnectMaxBackoffMillis;
+        private Duration drainTimeout;
+        private Duration startupTimeout;
+        private boolean healthCheck;
+        private Duration healthCheckTimeout;
+
+        private static Settings of(ClientPoolProperties properties, McpTransportType transportType) {
+            Settings settings = new Settings();
+            if (McpTransportType.STDIO == transportType) {
+                ClientPoolProperties.StdioConfig stdio = properties.getStdio();
+                settings.minSize = Math.max(1, stdio.getMinSize());
+                settings.maxSize = Math.max(settings.minSize, stdio.getMaxSize());
+                settings.warmSpares = Math.max(0, stdio.getWarmSpares());
+                settings.maxConcurrencyPerClient = Math.max(1, stdio.getMaxConcurrencyPerProcess());
+                settings.hardLimit = true;
+                settings.healthCheck = true;
+                settings.healthCheckTimeout = stdio.getHealthCheckTimeout();
+            } else {
+                settings.minSize = Math.max(1, properties.getMinSize());
+                settings.maxSize = Math.max(settings.minSize, properties.getMaxSize());
+                settings.warmSpares = 0;
+                settings.maxConcurrencyPerClient = Math.max(1, properties.getMaxConcurrencyPerClient());
+                settings.hardLimit = false;
+                settings.healthCheck = false;
+            }
+            settings.retainSize = Math.min(settings.maxSize, settings.minSize + settings.warmSpares);
+            settings.idleTimeoutNanos = properties.getIdleTimeout().toNanos();
+            settings.reconnectInitialBackoffMillis = Math.max(1, properties.getReconnectInitialBackoff().toMillis());
+            settings.reconnectMaxBackoffMillis = Math.max(settings.reconnectInitialBackoffMillis,
+                    properties.getReconnectMaxBackoff().toMillis());
+            settings.drainTimeout = properties.getDrainTimeout();
+            settings.startupTimeout = properties.getStartupTimeout();
+            return settings;
+        }
+    }
+
+    /**
+     * 池化连接
+     */
+    private static final class PooledClient {
+
+        /**
+         * 已退役标记，退役后不可再被租用
+         */
+        private static final int RETIRED = Integer.MIN_VALUE;
+
+        private final Mono<McpAsyncClient> client;
+
+        /**
+         * 进行中请求数，RETIRED 表示已退役
+         */
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        /**
+         * 是否已判定失败（保证只剔除一次）
+         */
+        private final AtomicBoolean failed = new AtomicBoolean();
+
+        private final long createdNanos = System.nanoTime();
+
+        private volatile long lastUsedNanos = createdNanos;
+
+        /**
+         * 是否已完成初始化
+         */
+        private volatile boolean ready;
+
+        private PooledClient(Mono<McpAsyncClient> client) {
+            this.client = client.doOnNext(c -> ready = true).cache();
+        }
+
+        /**
+         * 在不超过 limit 的前提下占用一个并发名额
+         */
+        private boolean tryAcquire(int limit) {
+            while (true) {
+                int current = inFlight.get();
+                if (current < 0 || current >= limit) {
+                    return false;
+                }
+                if (inFlight.compareAndSet(current, current + 1)) {
+                    lastUsedNanos = System.nanoTime();
+                    return true;
+                }
+            }
+        }
+
+        private void release() {
+            lastUsedNanos = System.nanoTime();
+            inFlight.decrementAndGet();
+        }
+
+        /**
+         * 仅在空闲时退役
+         */
+        private boolean retire() {
+            return inFlight.compareAndSet(0, RETIRED);
+        }
+
+        private boolean markFailed() {
+            return failed.compareAndSet(false, true);
+        }
+    }
+}
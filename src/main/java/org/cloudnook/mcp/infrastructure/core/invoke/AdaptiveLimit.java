@@ -0,0 +1,47 @@
+package org.cloudnook.mcp.infrastructure.core.invoke;
+
+/**
+ * 自适应并发限制算法
+ * 每次调用结束时输入一个样本，算法据此更新限制；读取和更新限制都无锁，更新以 CAS 替换限制状态
+ */
+abstract class AdaptiveLimit {
+
+    protected final int minLimit;
+
+    protected final int maxLimit;
+
+    AdaptiveLimit(int minLimit, int maxLimit) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+    }
+
+    /**
+     * 当前限制（取整后发布）
+     */
+    abstract int getLimit();
+
+    /**
+     * 算法名称
+     */
+    abstract String name();
+
+    /**
+     * 长期基准延迟（纳秒），算法不维护时返回 0
+     */
+    double baselineNanos() {
+        return 0.0;
+    }
+
+    /**
+     * 输入一个样本
+     *
+     * @param rttNanos 上游往返延迟（纳秒）
+     * @param inFlight 样本产生时的进行中调用数（含本次）
+     * @param dropped  上游是否过载（超时或服务端错误）
+     */
+    abstract void onSample(long rttNanos, int inFlight, boolean dropped);
+
+    protected int clamp(double value) {
+        return (int) Math.max(minLimit, Math.min(maxLimit, value));
+    }
+}
@@ -0,0 +1,50 @@
+package org.cloudnook.mcp.infrastructure.core.invoke;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 加性增、乘性减（AIMD）并发限制
+ * 上游过载或延迟超过阈值时限制按比例减小，否则在进行中调用数接近限制时加一
+ */
+final class AimdLimit extends AdaptiveLimit {
+
+    private final double backoffRatio;
+
+    private final long latencyThresholdNanos;
+
+    private final AtomicInteger limit;
+
+    AimdLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio, long latencyThresholdNanos) {
+        super(minLimit, maxLimit);
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.limit = new AtomicInteger(clamp(initialLimit));
+    }
+
+    @Override
+    int getLimit() {
+        return limit.get();
+    }
+
+    @Override
+    String name() {
+        return "AIMD";
+    }
+
+    @Override
+    void onSample(long rttNanos, int inFlight, boolean dropped) {
+        boolean backoff = dropped || rttNanos > latencyThresholdNanos;
+        int current;
+        int next;
+        do {
+            current = limit.get();
+            if (backoff) {
+                next = clamp(Math.floor(current * backoffRatio));
+            } else if (inFlight * 2 >= current) {
+                next = clamp(current + 1);
+            } else {
+                return;
+            }
+        } while (current != next && !limit.compareAndSet(current, next));
+    }
+}
@@ -0,0 +1,139 @@
+package org.cloudnook.mcp.infrastructure.core.invoke;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 梯度并发限制
+ * 维护长期基准延迟（EWMA），按 基准延迟 × 容忍倍数 / 当前延迟 得到梯度（0.5-1.0），
+ * 新限制 = 当前限制 × 梯度 + √当前限制（排队余量），再按平滑系数向新限制靠拢
+ *
+ * 说明：
+ * - 延迟上升时梯度小于 1，限制成比例收缩；延迟平稳时按排队余量缓慢增长
+ * - 进行中调用数不到限制一半时不增长，避免空闲时限制无限放大
+ * - 基准延迟远高于当前延迟（后端恢复）时逐步下调基准，避免长期保持宽松
+ * - 过载样本（超时、上游 5xx）不参与延迟估计，按最小梯度收缩限制：新限制 = 当前限制 × 0.5，同样按平滑系数靠拢
+ * - 每个样本由当前状态算出新的不可变状态后 CAS 替换，冲突时按最新状态重算
+ */
+final class GradientLimit extends AdaptiveLimit {
+
+    /**
+     * 基准延迟的预热样本数，预热期间取算术平均
+     */
+    private static final int WARMUP_SAMPLES = 10;
+
+    /**
+     * 梯度下限，过载样本直接按该梯度收缩
+     */
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final double smoothing;
+
+    private final double tolerance;
+
+    private final double longDecay;
+
+    /**
+     * 限制状态，每个样本计算出新状态后 CAS 替换
+     */
+    private final AtomicReference<State> state;
+
+    GradientLimit(int initialLimit, int minLimit, int maxLimit, double smoothing, double tolerance, int longWindow) {
+        super(minLimit, maxLimit);
+        this.smoothing = smoothing;
+        this.tolerance = tolerance;
+        this.longDecay = 2.0 / (Math.max(1, longWindow) + 1);
+        int limit = clamp(initialLimit);
+        this.state = new AtomicReference<>(new State(limit, limit, 0.0, 0));
+    }
+
+    @Override
+    int getLimit() {
+        return state.get().limit;
+    }
+
+    @Override
+    String name() {
+        return "GRADIENT";
+    }
+
+    @Override
+    double baselineNanos() {
+        return state.get().longRtt;
+    }
+
+    @Override
+    void onSample(long rttNanos, int inFlight, boolean dropped) {
+        if (!dropped && rttNanos <= 0) {
+            return;
+        }
+
+        State current;
+        State next;
+        do {
+            current = state.get();
+            next = dropped ? backoff(current) : next(current, rttNanos, inFlight);
+        } while (!state.compareAndSet(current, next));
+    }
+
+    /**
+     * 过载样本：按最小梯度收缩，不更新基准延迟
+     */
+    private State backoff(State current) {
+        double estimatedLimit = current.estimatedLimit;
+        double target = estimatedLimit * MIN_GRADIENT;
+        estimatedLimit = Math.max(minLimit, estimatedLimit * (1 - smoothing) + target * smoothing);
+        return new State(estimatedLimit, clamp(estimatedLimit), current.longRtt, current.samples);
+    }
+
+    private State next(State current, double shortRtt, int inFlight) {
+        double longRtt = current.longRtt;
+        long samples = current.samples;
+        double baseline;
+        if (samples < WARMUP_SAMPLES) {
+            baseline = (longRtt * samples + shortRtt) / (samples + 1);
+        } else {
+            baseline = longRtt + (shortRtt - longRtt) * longDecay;
+        }
+        if (baseline / shortRtt > 2.0) {
+            baseline *= 0.95;
+        }
+
+        double estimatedLimit = current.estimatedLimit;
+        if (inFlight < estimatedLimit / 2) {
+            return new State(estimatedLimit, current.limit, baseline, samples + 1);
+        }
+
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, tolerance * baseline / shortRtt));
+        double target = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit,
+                estimatedLimit * (1 - smoothing) + target * smoothing));
+        return new State(estimatedLimit, clamp(estimatedLimit), baseline, samples + 1);
+    }
+
+    /**
+     * 不可变的限制状态
+     */
+    private static final class State {
+
+        /**
+         * 未取整的限制估计值
+         */
+        private final double estimatedLimit;
+
+        private final int limit;
+
+        /**
+         * 长期基准延迟（纳秒）
+         */
+        private final double longRtt;
+
+        private final long samples;
+
+        private State(double estimatedLimit, int limit, double longRtt, long samples) {
+            this.estimatedLimit = estimatedLimit;
+            this.limit = limit;
+            this.longRtt = longRtt;
+            this.samples = samples;
+        }
+    }
+}
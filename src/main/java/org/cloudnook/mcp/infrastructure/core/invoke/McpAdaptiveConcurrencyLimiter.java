@@ -0,0 +1,149 @@
+package org.cloudnook.mcp.infrastructure.core.invoke;
+
+import lombok.RequiredArgsConstructor;
+import org.cloudnook.mcp.domain.invoke.model.McpConcurrencyLimitStats;
+import org.cloudnook.mcp.domain.invoke.service.McpConcurrencyLimiter;
+import org.cloudnook.mcp.infrastructure.common.exception.RejectedException;
+import org.cloudnook.mcp.infrastructure.config.ConcurrencyLimitProperties;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * MCP 服务实例自适应并发限制实现
+ * 每个 serverId 一个进行中计数和一个限制算法（GRADIENT / AIMD），
+ * 调用开始时先占用计数再与当前限制比较（无锁），结束时释放；延迟样本由调用方在上游请求处单独上报
+ *
+ * 说明：
+ * - 样本在并发隔离排队和连接租用之后测量，只含请求发出到响应的时间，排队时间不会让限制收缩
+ * - 超时和上游服务端错误（JSON-RPC 内部错误、HTTP 5xx）作为过载样本；后端返回的业务错误按普通延迟样本；
+ *   没有到达上游的失败（连接失败、网关拒绝）和取消的调用不输入样本
+ */
+@Component
+@RequiredArgsConstructor
+public class McpAdaptiveConcurrencyLimiter implements McpConcurrencyLimiter {
+
+    /**
+     * 限制状态，Key: serverId
+     */
+    private static final ConcurrentHashMap<String, ServerLimiter> LIMITERS = new ConcurrentHashMap<>();
+
+    private final ConcurrencyLimitProperties properties;
+
+    @Override
+    public <T> Mono<T> execute(String serverId, Supplier<Mono<T>> call) {
+        if (!properties.isEnabled()) {
+            return Mono.defer(call);
+        }
+
+        return Mono.defer(() -> {
+            ServerLimiter limiter = LIMITERS.get(serverId);
+            if (limiter == null) {
+                limiter = LIMITERS.computeIfAbsent(serverId, id -> new ServerLimiter(newLimit()));
+            }
+
+            if (!limiter.tryAcquire()) {
+                return Mono.error(new RejectedException(RejectedException.Reason.CONCURRENCY_LIMITED, "服务实例过载，已限流: " + serverId));
+            }
+
+            ServerLimiter acquired = limiter;
+            return Mono.defer(call)
+                    .doFinally(signal -> acquired.release());
+        });
+    }
+
+    @Override
+    public void onSample(String serverId, long rttNanos, Throwable error) {
+        ServerLimiter limiter = LIMITERS.get(serverId);
+        if (limiter == null || !properties.isEnabled()) {
+            return;
+        }
+
+        boolean dropped = error != null && (UpstreamErrors.isTimeout(error) || UpstreamErrors.isServerError(error));
+        if (error != null && !dropped && !UpstreamErrors.isClientError(error)) {
+            return;
+        }
+        limiter.limit.onSample(rttNanos, limiter.inFlight.get(), dropped);
+    }
+
+    @Override
+    public void remove(String serverId) {
+        LIMITERS.remove(serverId);
+    }
+
+    @Override
+    public McpConcurrencyLimitStats getStats(String serverId) {
+        ServerLimiter limiter = LIMITERS.get(serverId);
+        if (limiter == null) {
+            return null;
+        }
+        double baseline = limiter.limit.baselineNanos();
+        return McpConcurrencyLimitStats.builder()
+                .algorithm(limiter.limit.name())
+                .limit(limiter.limit.getLimit())
+                .inFlight(limiter.inFlight.get())
+                .rejected(limiter.rejected.sum())
+                .baselineLatencyMs(baseline > 0 ? baseline / TimeUnit.MILLISECONDS.toNanos(1) : null)
+                .build();
+    }
+
+    private AdaptiveLimit newLimit() {
+        switch (properties.getAlgorithm()) {
+            case AIMD:
+                return new AimdLimit(
+                        properties.getInitialLimit(),
+                        properties.getMinLimit(),
+                        properties.getMaxLimit(),
+                        properties.getAimd().getBackoffRatio(),
+                        properties.getAimd().getLatencyThreshold().toNanos());
+            case GRADIENT:
+            default:
+                return new GradientLimit(
+                        properties.getInitialLimit(),
+                        properties.getMinLimit(),
+                        properties.getMaxLimit(),
+                        properties.getGradient().getSmoothing(),
+                        properties.getGradient().getTolerance(),
+                        properties.getGradient().getLongWindow());
+        }
+    }
+
+    /**
+     * 单个服务实例的限制状态
+     */
+    private static final class ServerLimiter {
+
+        private final AdaptiveLimit limit;
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private final LongAdder rejected = new LongAdder();
+
+        private ServerLimiter(AdaptiveLimit limit) {
+            this.limit = limit;
+        }
+
+        /**
+         * 占用一个名额
+         *
+         * @return 是否占用成功，超过限制时返回 false
+         */
+        private boolean tryAcquire() {
+            if (inFlight.incrementAndGet() > limit.getLimit()) {
+                inFlight.decrementAndGet();
+                rejected.increment();
+                return false;
+            }
+            return true;
+        }
+
+        private void release() {
+            inFlight.decrementAndGet();
+        }
+    }
+}
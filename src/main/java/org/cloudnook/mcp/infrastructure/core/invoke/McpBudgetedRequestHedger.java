@@ -0,0 +1,228 @@
+package org.cloudnook.mcp.infrastructure.core.invoke;
+
+import lombok.RequiredArgsConstructor;
+import org.cloudnook.mcp.domain.invoke.model.McpHedgeStats;
+import org.cloudnook.mcp.domain.invoke.service.McpRequestHedger;
+import org.cloudnook.mcp.infrastructure.config.HedgeProperties;
+import org.cloudnook.mcp.infrastructure.core.metrics.McpMemoryMetrics;
+import org.cloudnook.mcp.infrastructure.core.metrics.SlidingWindow;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * MCP 对冲请求 - 全局预算实现
+ * 对冲等待时间取主实例最近 1 分钟的分位延迟（来自 {@link McpMemoryMetrics} 的滑动窗口直方图，按刷新间隔缓存），
+ * 预算为全局令牌桶：每个可对冲的请求存入 budget-ratio 个令牌，发出一次对冲消耗 1 个
+ *
+ * 说明：
+ * - 令牌以千分之一为单位存放在一个原子计数中，存取都是 CAS，不加锁
+ * - 主实例最近 1 分钟请求数不足 min-samples 时不对冲，也不存入令牌
+ * - 未胜出的请求被取消；经过请求合并时，没有其他调用方共享该请求才会取消到上游
+ */
+@Component
+@RequiredArgsConstructor
+public class McpBudgetedRequestHedger implements McpRequestHedger {
+
+    private static final long MILLI_TOKENS_PER_HEDGE = 1_000;
+
+    /**
+     * 对冲等待时间缓存，Key: serverId
+     */
+    private static final ConcurrentHashMap<String, HedgeDelay> DELAYS = new ConcurrentHashMap<>();
+
+    private final HedgeProperties properties;
+
+    private final McpMemoryMetrics memoryMetrics;
+
+    /**
+     * 对冲预算（千分之一令牌）
+     */
+    private final AtomicLong milliTokens = new AtomicLong();
+
+    private final LongAdder requests = new LongAdder();
+
+    private final LongAdder hedged = new LongAdder();
+
+    private final LongAdder hedgeWins = new LongAdder();
+
+    private final LongAdder wasted = new LongAdder();
+
+    private final LongAdder budgetExhausted = new LongAdder();
+
+    @Override
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    @Override
+    public <T> Mono<T> execute(String primaryId, Supplier<String> hedgeTarget, Function<String, Mono<T>> call) {
+        if (!properties.isEnabled() || hedgeTarget == null) {
+            return Mono.defer(() -> call.apply(primaryId));
+        }
+
+        return Mono.defer(() -> {
+            long delayNanos = hedgeDelayNanos(primaryId);
+            if (delayNanos <= 0) {
+                return call.apply(primaryId);
+            }
+            requests.increment();
+            deposit();
+
+            AtomicReference<Throwable> primaryError = new AtomicReference<>();
+            AtomicBoolean hedgeSent = new AtomicBoolean();
+            Sinks.One<Boolean> primaryFailed = Sinks.one();
+
+            Mono<Attempt<T>> primary = Mono.defer(() -> call.apply(primaryId))
+                    .doOnError(error -> {
+                        primaryError.set(error);
+                        primaryFailed.tryEmitValue(Boolean.TRUE);
+                    })
+                    .map(value -> new Attempt<>(value, false));
+
+            // 主请求在对冲前失败时停止等待，不发出对冲
+            Mono<Attempt<T>> hedge = Mono.delay(Duration.ofNanos(delayNanos))
+                    .takeUntilOther(primaryFailed.asMono())
+                    .flatMap(tick -> {
+                        String hedgeId = hedgeTarget.get();
+                        if (hedgeId == null || hedgeId.equals(primaryId)) {
+                            return Mono.empty();
+                        }
+                        if (!withdraw()) {
+                            budgetExhausted.increment();
+                            return Mono.empty();
+                        }
+                        hedgeSent.set(true);
+                        hedged.increment();
+                        return Mono.defer(() -> call.apply(hedgeId)).map(value -> new Attempt<>(value, true));
+                    });
+
+            return Mono.firstWithValue(primary, hedge)
+                    .doOnSuccess(attempt -> {
+                        if (hedgeSent.get()) {
+                            if (attempt != null && attempt.hedge) {
+                                hedgeWins.increment();
+                            } else {
+                                wasted.increment();
+                            }
+                        }
+                    })
+                    .doOnError(error -> {
+                        if (hedgeSent.get()) {
+                            wasted.increment();
+                        }
+                    })
+                    .onErrorMap(error -> primaryError.get() != null ? primaryError.get() : error)
+                    .map(attempt -> attempt.value);
+        });
+    }
+
+    @Override
+    public void remove(String serverId) {
+        DELAYS.remove(serverId);
+    }
+
+    @Override
+    public McpHedgeStats getStats() {
+        return McpHedgeStats.builder()
+                .requests(requests.sum())
+                .hedged(hedged.sum())
+                .hedgeWins(hedgeWins.sum())
+                .wasted(wasted.sum())
+                .budgetExhausted(budgetExhausted.sum())
+                .build();
+    }
+
+    /**
+     * 获取主实例的对冲等待时间
+     *
+     * @return 等待时间（纳秒），样本不足时返回 0
+     */
+    private long hedgeDelayNanos(String serverId) {
+        long now = System.currentTimeMillis();
+        HedgeDelay cached = DELAYS.get(serverId);
+        if (cached != null && now < cached.expiresAtMillis) {
+            return cached.delayNanos;
+        }
+
+        long delayNanos = 0;
+        SlidingWindow.Totals recent = memoryMetrics.getWindowTotals(serverId, SlidingWindow.ONE_MINUTE);
+        if (recent != null && recent.getRequests() >= properties.getMinSamples()) {
+            long percentile = memoryMetrics.getRecentLatencyPercentile(serverId, properties.getPercentile());
+            delayNanos = Math.min(Math.max(percentile, properties.getMinDelay().toNanos()),
+                    properties.getMaxDelay().toNanos());
+        }
+        DELAYS.put(serverId, new HedgeDelay(delayNanos, now + properties.getDelayRefreshInterval().toMillis()));
+        return delayNanos;
+    }
+
+    /**
+     * 存入一个请求的对冲额度
+     */
+    private void deposit() {
+        long increment = (long) (properties.getBudgetRatio() * MILLI_TOKENS_PER_HEDGE);
+        long max = Math.max(1, properties.getBudgetBurst()) * MILLI_TOKENS_PER_HEDGE;
+        long current;
+        do {
+            current = milliTokens.get();
+            if (current >= max) {
+                return;
+            }
+        } while (!milliTokens.compareAndSet(current, Math.min(max, current + increment)));
+    }
+
+    /**
+     * 取出一次对冲的额度
+     *
+     * @return 预算不足时返回 false
+     */
+    private boolean withdraw() {
+        long current;
+        do {
+            current = milliTokens.get();
+            if (current < MILLI_TOKENS_PER_HEDGE) {
+                return false;
+            }
+        } while (!milliTokens.compareAndSet(current, current - MILLI_TOKENS_PER_HEDGE));
+        return true;
+    }
+
+    /**
+     * 缓存的对冲等待时间
+     */
+    private static final class HedgeDelay {
+
+        private final long delayNanos;
+
+        private final long expiresAtMillis;
+
+        private HedgeDelay(long delayNanos, long expiresAtMillis) {
+            this.delayNanos = delayNanos;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+
+    /**
+     * 单次尝试的结果，标记是否来自对冲请求
+     */
+    private static final class Attempt<T> {
+
+        private final T value;
+
+        private final boolean hedge;
+
+        private Attempt(T value, boolean hedge) {
+            this.value = value;
+            this.hedge = hedge;
+        }
+    }
+}
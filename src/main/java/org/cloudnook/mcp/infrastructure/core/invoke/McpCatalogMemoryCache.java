@@ -0,0 +1,120 @@
+package org.cloudnook.mcp.infrastructure.core.invoke;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.cloudnook.mcp.domain.invoke.repository.McpCatalogCache;
+import org.cloudnook.mcp.domain.log.model.McpInvokeLog;
+import org.cloudnook.mcp.infrastructure.config.CatalogCacheProperties;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * MCP 能力目录缓存 - 内存实现
+ * 每个服务实例维护一份目录，失效时递增版本号，加载结果仅在版本未变化时写入，避免旧结果覆盖失效
+ */
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class McpCatalogMemoryCache implements McpCatalogCache {
+
+    /**
+     * Key: serverId, Value: 服务实例目录
+     */
+    private static final ConcurrentHashMap<String, ServerCatalog> CATALOG_HOLDER = new ConcurrentHashMap<>();
+
+    private final CatalogCacheProperties properties;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(String serverId, McpInvokeLog.InvokeType type) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+
+        ServerCatalog catalog = CATALOG_HOLDER.get(serverId);
+        if (catalog == null) {
+            return null;
+        }
+
+        Entry entry = catalog.entries.get(type);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.expireAtNanos >= 0) {
+            catalog.entries.remove(type, entry);
+            return null;
+        }
+        return (T) entry.value;
+    }
+
+    @Override
+    public <T> Mono<T> load(String serverId, McpInvokeLog.InvokeType type, Supplier<Mono<T>> loader) {
+        if (!properties.isEnabled()) {
+            return Mono.defer(loader);
+        }
+
+        return Mono.defer(() -> {
+            ServerCatalog catalog = CATALOG_HOLDER.computeIfAbsent(serverId, id -> new ServerCatalog());
+            long version = catalog.version.get();
+            return loader.get()
+                    .doOnNext(value -> {
+                        // 加载期间被失效（版本变化或实例已移除）时不写入
+                        if (CATALOG_HOLDER.get(serverId) == catalog && catalog.version.get() == version) {
+                            long expireAtNanos = System.nanoTime() + properties.getTtl().toNanos();
+                            catalog.entries.put(type, new Entry(value, expireAtNanos));
+                        }
+                    });
+        });
+    }
+
+    @Override
+    public void invalidate(String serverId, McpInvokeLog.InvokeType type) {
+        ServerCatalog catalog = CATALOG_HOLDER.get(serverId);
+        if (catalog != null) {
+            catalog.version.incrementAndGet();
+            catalog.entries.remove(type);
+            log.debug("目录缓存已失效: serverId={}, type={}", serverId, type);
+        }
+    }
+
+    @Override
+    public void invalidateAll(String serverId) {
+        ServerCatalog catalog = CATALOG_HOLDER.remove(serverId);
+        if (catalog != null) {
+            catalog.version.incrementAndGet();
+            log.debug("目录缓存已全部失效: serverId={}", serverId);
+        }
+    }
+
+    /**
+     * 服务实例目录
+     */
+    private static final class ServerCatalog {
+
+        /**
+         * 失效版本号
+         */
+        private final AtomicLong version = new AtomicLong();
+
+        private final ConcurrentHashMap<McpInvokeLog.InvokeType, Entry> entries = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * 缓存条目
+     */
+    private static final class Entry {
+
+        private final Object value;
+
+        private final long expireAtNanos;
+
+        private Entry(Object value, long expireAtNanos) {
+            this.value = value;
+            this.expireAtNanos = expireAtNanos;
+        }
+    }
+}
@@ -3,16 +3,21 @@ package org.cloudnook.mcp.infrastructure.core.invoke;
 import io.modelcontextprotocol.client.McpAsyncClient;
 import io.modelcontextprotocol.spec.McpSchema;
 import lombok.RequiredArgsConstructor;
+import org.cloudnook.mcp.domain.invoke.service.McpBulkhead;
+import org.cloudnook.mcp.domain.invoke.service.McpConcurrencyLimiter;
 import org.cloudnook.mcp.domain.invoke.service.McpInvokeDomainService;
 import org.cloudnook.mcp.domain.server.service.McpClientManager;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
 import java.util.Map;
+import java.util.function.Function;
 
 /**
  * MCP Invoke 领域服务实现
  * 封装 MCP 协议的调用，是最后一步发出请求的实现
+ * 所有调用经过服务实例的并发隔离（bulkhead），超出并发和排队上限时快速拒绝
+ * 拿到连接后的请求耗时作为延迟样本上报给自适应并发限制
  *
  * @Author: the-way
  * @Date: 2026-01-13
@@ -23,39 +28,49 @@ public class McpInvokeDomainServiceImpl implements McpInvokeDomainService {
 
     private final McpClientManager mcpClientManager;
 
+    private final McpBulkhead mcpBulkhead;
+
+    private final McpConcurrencyLimiter mcpConcurrencyLimiter;
+
     @Override
     public Mono<McpSchema.ListToolsResult> listTools(String serverId) {
-        return mcpClientManager.getClient(serverId)
-                .flatMap(McpAsyncClient::listTools);
+        return withClient(serverId, McpAsyncClient::listTools);
     }
 
     @Override
     public Mono<McpSchema.ListResourcesResult> listResources(String serverId) {
-        return mcpClientManager.getClient(serverId)
-                .flatMap(McpAsyncClient::listResources);
+        return withClient(serverId, McpAsyncClient::listResources);
     }
 
     @Override
     public Mono<McpSchema.ListPromptsResult> listPrompts(String serverId) {
-        return mcpClientManager.getClient(serverId)
-                .flatMap(McpAsyncClient::listPrompts);
+        return withClient(serverId, McpAsyncClient::listPrompts);
     }
 
     @Override
     public Mono<McpSchema.CallToolResult> callTool(String serverId, String toolName, Map<String, Object> arguments) {
-        return mcpClientManager.getClient(serverId)
-                .flatMap(client -> client.callTool(new McpSchema.CallToolRequest(toolName, arguments)));
+        return withClient(serverId,
+                client -> client.callTool(new McpSchema.CallToolRequest(toolName, arguments)));
     }
 
     @Override
     public Mono<McpSchema.ReadResourceResult> readResource(String serverId, String resourceUri) {
-        return mcpClientManager.getClient(serverId)
-                .flatMap(client -> client.readResource(new McpSchema.ReadResourceRequest(resourceUri)));
+        return withClient(serverId,
+                client -> client.readResource(new McpSchema.ReadResourceRequest(resourceUri)));
     }
 
     @Override
     public Mono<McpSchema.GetPromptResult> getPrompt(String serverId, String promptName, Map<String, Object> arguments) {
-        return mcpClientManager.getClient(serverId)
-                .flatMap(client -> client.getPrompt(new McpSchema.GetPromptRequest(promptName, arguments)));
+        return withClient(serverId,
+                client -> client.getPrompt(new McpSchema.GetPromptRequest(promptName, arguments)));
+    }
+
+    private <T> Mono<T> withClient(String serverId, Function<McpAsyncClient, Mono<T>> action) {
+        return mcpBulkhead.execute(serverId, () -> mcpClientManager.withClient(serverId, client -> Mono.defer(() -> {
+            long startNanos = System.nanoTime();
+            return action.apply(client)
+                    .doOnSuccess(result -> mcpConcurrencyLimiter.onSample(serverId, System.nanoTime() - startNanos, null))
+                    .doOnError(error -> mcpConcurrencyLimiter.onSample(serverId, System.nanoTime() - startNanos, error));
+        })));
     }
 }
@@ -0,0 +1,297 @@
+package org.cloudnook.mcp.infrastructure.core.invoke;
+
+import lombok.RequiredArgsConstructor;
+import org.cloudnook.mcp.domain.invoke.model.McpBulkheadStats;
+import org.cloudnook.mcp.domain.invoke.service.McpBulkhead;
+import org.cloudnook.mcp.domain.server.model.McpBulkheadConfig;
+import org.cloudnook.mcp.domain.server.model.McpServer;
+import org.cloudnook.mcp.infrastructure.common.exception.RejectedException;
+import org.cloudnook.mcp.infrastructure.config.BulkheadProperties;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * MCP 服务实例并发隔离 - 信号量 + 等待队列实现
+ * 每个 serverId 一个计数信号量，名额已满时调用进入 FIFO 等待队列，
+ * 名额释放时直接移交给队首的等待者（不经过空闲状态，避免新调用插队）
+ *
+ * 说明：
+ * - 计数和队列在同一把锁下修改，临界区只有计数和入队/出队操作
+ * - 等待者超时或取消后从队列移除；与移交并发时以先完成的状态为准，名额只释放一次
+ * - 重新注册修改配置时替换为新的隔离状态，已持有旧名额的调用结束后归还到旧状态
+ */
+@Component
+@RequiredArgsConstructor
+public class McpSemaphoreBulkhead implements McpBulkhead {
+
+    /**
+     * 隔离状态，Key: serverId
+     */
+    private static final ConcurrentHashMap<String, ServerBulkhead> BULKHEADS = new ConcurrentHashMap<>();
+
+    private final BulkheadProperties properties;
+
+    @Override
+    public <T> Mono<T> execute(String serverId, Supplier<Mono<T>> call) {
+        if (!properties.isEnabled()) {
+            return Mono.defer(call);
+        }
+
+        return Mono.defer(() -> {
+            ServerBulkhead bulkhead = BULKHEADS.get(serverId);
+            if (bulkhead == null) {
+                bulkhead = BULKHEADS.computeIfAbsent(serverId, id -> new ServerBulkhead(id, settingsOf(null)));
+            }
+            if (bulkhead.settings.maxConcurrency <= 0) {
+                return call.get();
+            }
+            return bulkhead.execute(call);
+        });
+    }
+
+    @Override
+    public void configure(McpServer server) {
+        Settings settings = settingsOf(server.getBulkhead());
+        BULKHEADS.compute(server.getId(), (id, current) ->
+                current != null && current.settings.equals(settings) ? current : new ServerBulkhead(id, settings));
+    }
+
+    @Override
+    public void remove(String serverId) {
+        BULKHEADS.remove(serverId);
+    }
+
+    @Override
+    public McpBulkheadStats getStats(String serverId) {
+        ServerBulkhead bulkhead = BULKHEADS.get(serverId);
+        return bulkhead == null ? null : bulkhead.snapshot();
+    }
+
+    /**
+     * 合并注册配置与默认配置
+     */
+    private Settings settingsOf(McpBulkheadConfig config) {
+        int maxConcurrency = properties.getMaxConcurrency();
+        int maxQueueSize = properties.getMaxQueueSize();
+        Duration queueTimeout = properties.getQueueTimeout();
+        if (config != null) {
+            if (config.getMaxConcurrency() != null) {
+                maxConcurrency = config.getMaxConcurrency();
+            }
+            if (config.getMaxQueueSize() != null) {
+                maxQueueSize = config.getMaxQueueSize();
+            }
+            if (config.getQueueTimeoutMs() != null) {
+                queueTimeout = Duration.ofMillis(config.getQueueTimeoutMs());
+            }
+        }
+        return new Settings(Math.max(0, maxConcurrency), Math.max(0, maxQueueSize), queueTimeout);
+    }
+
+    /**
+     * 隔离配置
+     */
+    private static final class Settings {
+
+        private final int maxConcurrency;
+
+        private final int maxQueueSize;
+
+        private final Duration queueTimeout;
+
+        private Settings(int maxConcurrency, int maxQueueSize, Duration queueTimeout) {
+            this.maxConcurrency = maxConcurrency;
+            this.maxQueueSize = maxQueueSize;
+            this.queueTimeout = queueTimeout;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Settings other)) {
+                return false;
+            }
+            return maxConcurrency == other.maxConcurrency
+                    && maxQueueSize == other.maxQueueSize
+                    && queueTimeout.equals(other.queueTimeout);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * maxConcurrency + maxQueueSize) + queueTimeout.hashCode();
+        }
+    }
+
+    /**
+     * 单个服务实例的隔离状态
+     */
+    private static final class ServerBulkhead {
+
+        private final String serverId;
+
+        private final Settings settings;
+
+        /**
+         * 等待队列（FIFO），在 this 锁下访问
+         */
+        private final ArrayDeque<Lease> waiters = new ArrayDeque<>();
+
+        /**
+         * 已占用的名额数，在 this 锁下修改
+         */
+        private volatile int inFlight;
+
+        private final LongAdder rejected = new LongAdder();
+
+        private final LongAdder timedOut = new LongAdder();
+
+        private ServerBulkhead(String serverId, Settings settings) {
+            this.serverId = serverId;
+            this.settings = settings;
+        }
+
+        private <T> Mono<T> execute(Supplier<Mono<T>> call) {
+            Lease lease;
+            boolean granted;
+            synchronized (this) {
+                if (inFlight < settings.maxConcurrency) {
+                    inFlight++;
+                    lease = new Lease(Lease.GRANTED);
+                    granted = true;
+                } else if (waiters.size() < settings.maxQueueSize) {
+                    lease = new Lease(Lease.WAITING);
+                    waiters.addLast(lease);
+                    granted = false;
+                } else {
+                    lease = null;
+                    granted = false;
+                }
+            }
+
+            if (lease == null) {
+                rejected.increment();
+                return Mono.error(new RejectedException(RejectedException.Reason.BULKHEAD_FULL, "服务实例并发已满: " + serverId));
+            }
+            if (granted) {
+                return run(lease, call);
+            }
+
+            return lease.granted.asMono()
+                    .timeout(settings.queueTimeout, Mono.defer(() -> {
+                        if (abandon(lease)) {
+                            timedOut.increment();
+                            return Mono.error(new RejectedException(RejectedException.Reason.BULKHEAD_TIMEOUT, "服务实例排队超时: " + serverId));
+                        }
+                        // 超时与移交并发，已获得名额
+                        return Mono.empty();
+                    }))
+                    .doOnCancel(() -> {
+                        if (!abandon(lease)) {
+                            release(lease);
+                        }
+                    })
+                    .then(run(lease, call));
+        }
+
+        private <T> Mono<T> run(Lease lease, Supplier<Mono<T>> call) {
+            return Mono.defer(call).doFinally(signal -> release(lease));
+        }
+
+        /**
+         * 放弃等待并移出队列
+         *
+         * @return false 表示已获得名额
+         */
+        private boolean abandon(Lease lease) {
+            if (!lease.state.compareAndSet(Lease.WAITING, Lease.ABANDONED)) {
+                return false;
+            }
+            synchronized (this) {
+                waiters.remove(lease);
+            }
+            return true;
+        }
+
+        /**
+         * 归还名额：优先移交给队首的等待者，队列为空时释放
+         */
+        private void release(Lease lease) {
+            if (!lease.state.compareAndSet(Lease.GRANTED, Lease.RELEASED)) {
+                return;
+            }
+            while (true) {
+                Lease next;
+                synchronized (this) {
+                    next = waiters.pollFirst();
+                    if (next == null) {
+                        inFlight--;
+                        return;
+                    }
+                }
+                if (next.grant()) {
+                    return;
+                }
+            }
+        }
+
+        private McpBulkheadStats snapshot() {
+            int queueDepth;
+            synchronized (this) {
+                queueDepth = waiters.size();
+            }
+            return McpBulkheadStats.builder()
+                    .maxConcurrency(settings.maxConcurrency)
+                    .maxQueueSize(settings.maxQueueSize)
+                    .inFlight(inFlight)
+                    .queueDepth(queueDepth)
+                    .rejected(rejected.sum())
+                    .timedOut(timedOut.sum())
+                    .build();
+        }
+    }
+
+    /**
+     * 单次调用的名额
+     * WAITING -> GRANTED -> RELEASED，或 WAITING -> ABANDONED
+     */
+    private static final class Lease {
+
+        private static final int WAITING = 0;
+
+        private static final int GRANTED = 1;
+
+        private static final int ABANDONED = 2;
+
+        private static final int RELEASED = 3;
+
+        private final AtomicInteger state;
+
+        /**
+         * 排队的调用在获得名额时完成（直接获得名额的调用为 null）
+         */
+        private final Sinks.Empty<Void> granted;
+
+        private Lease(int state) {
+            this.state = new AtomicInteger(state);
+            this.granted = state == WAITING ? Sinks.empty() : null;
+        }
+
+        private boolean grant() {
+            if (!state.compareAndSet(WAITING, GRANTED)) {
+                return false;
+            }
+            granted.tryEmitEmpty();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package org.cloudnook.mcp.infrastructure.core.invoke;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.cloudnook.mcp.domain.invoke.service.McpInvokeCoalescer;
+import org.cloudnook.mcp.domain.log.model.McpInvokeContext;
+import org.cloudnook.mcp.domain.log.model.McpInvokeLog;
+import org.cloudnook.mcp.infrastructure.config.CoalesceProperties;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * MCP 请求合并 - single-flight 实现
+ * 进行中的请求按 (serverId, 调用类型, 目标名称, 参数) 登记，相同请求按引用计数共享同一个上游请求
+ *
+ * 说明：
+ * - 上游结束（成功或失败）时先移除登记再向订阅方传播结果，之后的请求重新发起
+ * - 单个调用方取消不会取消共享的上游请求；最后一个调用方取消时取消上游并移除登记，
+ *   释放上游占用的并发隔离、并发限制和连接
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class McpSingleFlightCoalescer implements McpInvokeCoalescer {
+
+    /**
+     * 通配符：全部 Tool 参与合并
+     */
+    private static final String ALL_TOOLS = "*";
+
+    /**
+     * 进行中的请求，Key: 请求标识，Value: 共享的上游请求
+     */
+    private static final ConcurrentHashMap<FlightKey, Mono<?>> IN_FLIGHT = new ConcurrentHashMap<>();
+
+    private final CoalesceProperties properties;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> execute(McpInvokeContext context, Supplier<Mono<T>> call) {
+        if (!isCoalescible(context)) {
+            return Mono.defer(call);
+        }
+
+        return Mono.defer(() -> {
+            FlightKey key = new FlightKey(context);
+            Mono<T>[] created = new Mono[1];
+            Mono<T> shared = (Mono<T>) IN_FLIGHT.computeIfAbsent(key, k -> {
+                created[0] = Mono.defer(call)
+                        .doOnTerminate(() -> IN_FLIGHT.remove(k, created[0]))
+                        .doOnCancel(() -> IN_FLIGHT.remove(k, created[0]))
+                        .flux()
+                        .publish()
+                        .refCount(1)
+                        .singleOrEmpty();
+                return created[0];
+            });
+
+            if (shared != created[0]) {
+                context.setCoalesced(true);
+                if (log.isDebugEnabled()) {
+                    log.debug("合并进行中的请求: serverId={}, type={}, target={}",
+                            context.getServerId(), context.getType(), context.getTargetName());
+                }
+            }
+            return shared;
+        });
+    }
+
+    /**
+     * 判断请求是否参与合并
+     */
+    private boolean isCoalescible(McpInvokeContext context) {
+        if (!properties.isEnabled()) {
+            return false;
+        }
+        if (McpInvokeLog.InvokeType.TOOL_CALL == context.getType()) {
+            return properties.getTools().contains(ALL_TOOLS)
+                    || properties.getTools().contains(context.getTargetName());
+        }
+        return properties.getTypes().contains(context.getType());
+    }
+
+    /**
+     * 请求标识
+     * 哈希值在创建时计算一次，相等比较使用完整参数，避免哈希冲突导致错误合并
+     */
+    private static final class FlightKey {
+
+        private final String serverId;
+
+        private final McpInvokeLog.InvokeType type;
+
+        private final String targetName;
+
+        private final Map<String, Object> arguments;
+
+        private final int hash;
+
+        private FlightKey(McpInvokeContext context) {
+            this.serverId = context.getServerId();
+            this.type = context.getType();
+            this.targetName = context.getTargetName();
+            this.arguments = context.getArguments() == null ? Map.of() : context.getArguments();
+            this.hash = Objects.hash(serverId, type, targetName, arguments);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof FlightKey other)) {
+                return false;
+            }
+            return hash == other.hash
+                    && type == other.type
+                    && Objects.equals(serverId, other.serverId)
+                    && Objects.equals(targetName, other.targetName)
+                    && Objects.equals(arguments, other.arguments);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
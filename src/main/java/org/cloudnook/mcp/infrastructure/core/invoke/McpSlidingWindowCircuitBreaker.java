@@ -0,0 +1,404 @@
+package org.cloudnook.mcp.infrastructure.core.invoke;
+
+import io.modelcontextprotocol.spec.McpError;
+import io.modelcontextprotocol.spec.McpSchema;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.cloudnook.mcp.domain.invoke.model.CircuitState;
+import org.cloudnook.mcp.domain.invoke.model.McpCircuitBreakerStats;
+import org.cloudnook.mcp.domain.invoke.service.McpCircuitBreaker;
+import org.cloudnook.mcp.infrastructure.common.exception.RejectedException;
+import org.cloudnook.mcp.infrastructure.config.CircuitBreakerProperties;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * MCP 服务实例熔断器 - 滑动时间窗口实现
+ * 每个 serverId 一个熔断器，按时间分桶统计调用数和失败数，窗口内调用数达到下限且失败率达到阈值时打开
+ *
+ * 说明：
+ * - 关闭状态下放行只读取一个 volatile 状态；打开状态下拒绝不分配、不加锁
+ * - 状态切换在熔断器锁内进行，每次切换递增代数，过期代数的探测结果被忽略
+ * - 半开状态最多放行 half-open-calls 个探测调用，全部成功后关闭并清空窗口，任一失败重新打开
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class McpSlidingWindowCircuitBreaker implements McpCircuitBreaker {
+
+    /**
+     * 关闭状态下放行的调用凭证
+     */
+    private static final int CLOSED_TICKET = 0;
+
+    /**
+     * 拒绝
+     */
+    private static final int REJECTED = -1;
+
+    /**
+     * 熔断状态，Key: serverId
+     */
+    private static final ConcurrentHashMap<String, ServerCircuit> CIRCUITS = new ConcurrentHashMap<>();
+
+    private final CircuitBreakerProperties properties;
+
+    @Override
+    public <T> Mono<T> execute(String serverId, Supplier<Mono<T>> call) {
+        if (!properties.isEnabled()) {
+            return Mono.defer(call);
+        }
+
+        return Mono.defer(() -> {
+            ServerCircuit circuit = CIRCUITS.get(serverId);
+            if (circuit == null) {
+                circuit = CIRCUITS.computeIfAbsent(serverId, id -> new ServerCircuit(id, properties));
+            }
+
+            int ticket = circuit.tryAcquire(System.currentTimeMillis());
+            if (ticket == REJECTED) {
+                return Mono.error(new RejectedException(RejectedException.Reason.CIRCUIT_OPEN, "服务实例熔断中: " + serverId));
+            }
+
+            ServerCircuit acquired = circuit;
+            return Mono.defer(call)
+                    .doOnSuccess(result -> acquired.onSuccess(ticket))
+                    .doOnError(error -> acquired.onError(ticket, error))
+                    .doOnCancel(() -> acquired.release(ticket));
+        });
+    }
+
+    @Override
+    public boolean isCallPermitted(String serverId) {
+        if (!properties.isEnabled()) {
+            return true;
+        }
+        ServerCircuit circuit = CIRCUITS.get(serverId);
+        return circuit == null || circuit.isCallPermitted(System.currentTimeMillis());
+    }
+
+    @Override
+    public CircuitState getState(String serverId) {
+        ServerCircuit circuit = CIRCUITS.get(serverId);
+        return circuit == null ? CircuitState.CLOSED : circuit.state;
+    }
+
+    @Override
+    public void remove(String serverId) {
+        CIRCUITS.remove(serverId);
+    }
+
+    @Override
+    public McpCircuitBreakerStats getStats(String serverId) {
+        ServerCircuit circuit = CIRCUITS.get(serverId);
+        return circuit == null ? null : circuit.snapshot(System.currentTimeMillis());
+    }
+
+    /**
+     * 判断失败是否计入熔断统计
+     * 网关自身的拒绝（重连中除外）、后端正常返回的 JSON-RPC 业务错误（参数错误、方法或资源不存在等）不代表实例故障
+     */
+    private static boolean isIgnored(Throwable error) {
+        if (error instanceof RejectedException rejected) {
+            return rejected.getReason() != RejectedException.Reason.RECONNECTING;
+        }
+        if (error instanceof McpError mcpError && mcpError.getJsonRpcError() != null) {
+            Integer code = mcpError.getJsonRpcError().code();
+            return code != null && code != McpSchema.ErrorCodes.INTERNAL_ERROR;
+        }
+        return false;
+    }
+
+    /**
+     * 单个服务实例的熔断器
+     */
+    private static final class ServerCircuit {
+
+        private final String serverId;
+
+        private final double failureRateThreshold;
+
+        private final int minimumCalls;
+
+        private final long openMillis;
+
+        private final int halfOpenCalls;
+
+        private final FailureWindow window;
+
+        private volatile CircuitState state = CircuitState.CLOSED;
+
+        /**
+         * 状态代数，每次切换递增（从 1 开始，0 保留给关闭状态的凭证）
+         */
+        private volatile int generation = 1;
+
+        private volatile long openedAtMillis;
+
+        /**
+         * 半开状态已发出的探测调用数
+         */
+        private final AtomicInteger probesIssued = new AtomicInteger();
+
+        /**
+         * 半开状态成功的探测调用数，在锁内修改
+         */
+        private int probesSucceeded;
+
+        private final LongAdder rejected = new LongAdder();
+
+        private long openCount;
+
+        private ServerCircuit(String serverId, CircuitBreakerProperties properties) {
+            this.serverId = serverId;
+            this.failureRateThreshold = properties.getFailureRateThreshold();
+            this.minimumCalls = Math.max(1, properties.getMinimumCalls());
+            this.openMillis = properties.getOpenDuration().toMillis();
+            this.halfOpenCalls = Math.max(1, properties.getHalfOpenCalls());
+            this.window = new FailureWindow(properties.getWindow().toMillis(), properties.getWindowBuckets());
+        }
+
+        /**
+         * 申请调用
+         *
+         * @return 关闭状态返回 CLOSED_TICKET，半开探测返回当前代数，拒绝返回 REJECTED
+         */
+        private int tryAcquire(long now) {
+            CircuitState current = state;
+            if (current == CircuitState.CLOSED) {
+                return CLOSED_TICKET;
+            }
+            if (current == CircuitState.OPEN) {
+                if (now - openedAtMillis < openMillis) {
+                    rejected.increment();
+                    return REJECTED;
+                }
+                synchronized (this) {
+                    if (state == CircuitState.OPEN && now - openedAtMillis >= openMillis) {
+                        transitionTo(CircuitState.HALF_OPEN, now);
+                    }
+                }
+                current = state;
+                if (current == CircuitState.CLOSED) {
+                    return CLOSED_TICKET;
+                }
+                if (current == CircuitState.OPEN) {
+                    rejected.increment();
+                    return REJECTED;
+                }
+            }
+
+            int ticket = generation;
+            if (probesIssued.incrementAndGet() > halfOpenCalls) {
+                probesIssued.decrementAndGet();
+                rejected.increment();
+                return REJECTED;
+            }
+            return ticket;
+        }
+
+        private boolean isCallPermitted(long now) {
+            switch (state) {
+                case OPEN:
+                    return now - openedAtMillis >= openMillis;
+                case HALF_OPEN:
+                    return probesIssued.get() < halfOpenCalls;
+                case CLOSED:
+                default:
+                    return true;
+            }
+        }
+
+        private void onSuccess(int ticket) {
+            long now = System.currentTimeMillis();
+            if (ticket == CLOSED_TICKET) {
+                window.record(now, true);
+                return;
+            }
+            synchronized (this) {
+                if (state == CircuitState.HALF_OPEN && generation == ticket && ++probesSucceeded >= halfOpenCalls) {
+                    transitionTo(CircuitState.CLOSED, now);
+                }
+            }
+        }
+
+        private void onError(int ticket, Throwable error) {
+            if (isIgnored(error)) {
+                release(ticket);
+                return;
+            }
+
+            long now = System.currentTimeMillis();
+            if (ticket == CLOSED_TICKET) {
+                window.record(now, false);
+                if (state == CircuitState.CLOSED && shouldOpen(now)) {
+                    synchronized (this) {
+                        if (state == CircuitState.CLOSED) {
+                            transitionTo(CircuitState.OPEN, now);
+                        }
+                    }
+                }
+                return;
+            }
+            synchronized (this) {
+                if (state == CircuitState.HALF_OPEN && generation == ticket) {
+                    transitionTo(CircuitState.OPEN, now);
+                }
+            }
+        }
+
+        /**
+         * 调用取消或结果不计入统计时归还探测名额
+         */
+        private void release(int ticket) {
+            if (ticket != CLOSED_TICKET && generation == ticket) {
+                probesIssued.decrementAndGet();
+            }
+        }
+
+        private boolean shouldOpen(long now) {
+            long[] totals = window.sum(now);
+            return totals[0] >= minimumCalls && totals[1] >= totals[0] * failureRateThreshold;
+        }
+
+        /**
+         * 状态切换，调用方持有锁
+         */
+        private void transitionTo(CircuitState target, long now) {
+            CircuitState previous = state;
+            switch (target) {
+                case OPEN:
+                    openedAtMillis = now;
+                    openCount++;
+                    break;
+                case HALF_OPEN:
+                    probesIssued.set(0);
+                    probesSucceeded = 0;
+                    break;
+                case CLOSED:
+                default:
+                    window.reset();
+                    break;
+            }
+            generation++;
+            state = target;
+
+            if (target == CircuitState.OPEN) {
+                log.warn("熔断器打开: serverId={}, from={}", serverId, previous);
+            } else {
+                log.info("熔断器状态切换: serverId={}, {} -> {}", serverId, previous, target);
+            }
+        }
+
+        private McpCircuitBreakerStats snapshot(long now) {
+            long[] totals = window.sum(now);
+            long opened = openedAtMillis;
+            long count;
+            synchronized (this) {
+                count = openCount;
+            }
+            return McpCircuitBreakerStats.builder()
+                    .state(state)
+                    .windowCalls(totals[0])
+                    .windowFailures(totals[1])
+                    .failureRate(totals[0] == 0 ? 0.0 : (double) totals[1] / totals[0])
+                    .openedAt(opened > 0 ? Instant.ofEpochMilli(opened) : null)
+                    .rejected(rejected.sum())
+                    .openCount(count)
+                    .build();
+        }
+    }
+
+    /**
+     * 失败率滑动窗口
+     * 环形分桶，每个桶对象带所属时间片编号且编号不可变；进入新时间片时用 CAS 换入一个新桶，
+     * 旧桶不清零，并发写入不会抹掉其他线程在新时间片的计数
+     */
+    static final class FailureWindow {
+
+        private final long bucketMillis;
+
+        private final int buckets;
+
+        private final AtomicReferenceArray<Bucket> slots;
+
+        FailureWindow(long windowMillis, int buckets) {
+            this.buckets = Math.max(1, buckets);
+            this.bucketMillis = Math.max(1, windowMillis / this.buckets);
+            this.slots = new AtomicReferenceArray<>(this.buckets);
+        }
+
+        void record(long now, boolean success) {
+            long epoch = now / bucketMillis;
+            int index = (int) (epoch % buckets);
+
+            Bucket bucket = slots.get(index);
+            while (bucket == null || bucket.epoch < epoch) {
+                Bucket fresh = new Bucket(epoch);
+                if (slots.compareAndSet(index, bucket, fresh)) {
+                    bucket = fresh;
+                } else {
+                    bucket = slots.get(index);
+                }
+            }
+            if (bucket.epoch != epoch) {
+                // 时钟回拨或线程在时间片切换前读到旧时间，丢弃样本
+                return;
+            }
+            bucket.calls.incrementAndGet();
+            if (!success) {
+                bucket.failures.incrementAndGet();
+            }
+        }
+
+        /**
+         * 汇总窗口
+         *
+         * @return [调用数, 失败数]
+         */
+        long[] sum(long now) {
+            long epoch = now / bucketMillis;
+            long oldest = epoch - buckets + 1;
+            long totalCalls = 0;
+            long totalFailures = 0;
+            for (int i = 0; i < buckets; i++) {
+                Bucket bucket = slots.get(i);
+                if (bucket != null && bucket.epoch >= oldest && bucket.epoch <= epoch) {
+                    totalCalls += bucket.calls.get();
+                    totalFailures += bucket.failures.get();
+                }
+            }
+            return new long[]{totalCalls, totalFailures};
+        }
+
+        void reset() {
+            for (int i = 0; i < buckets; i++) {
+                slots.set(i, null);
+            }
+        }
+    }
+
+    /**
+     * 单个时间片的计数
+     */
+    private static final class Bucket {
+
+        private final long epoch;
+
+        private final AtomicLong calls = new AtomicLong();
+
+        private final AtomicLong failures = new AtomicLong();
+
+        private Bucket(long epoch) {
+            this.epoch = epoch;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package org.cloudnook.mcp.infrastructure.core.invoke;
+
+import io.modelcontextprotocol.spec.McpTransportException;
+import io.modelcontextprotocol.spec.McpTransportSessionNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.cloudnook.mcp.domain.invoke.model.McpRetryStats;
+import org.cloudnook.mcp.domain.invoke.service.McpRetryBudget;
+import org.cloudnook.mcp.infrastructure.common.exception.RejectedException;
+import org.cloudnook.mcp.infrastructure.config.RetryProperties;
+import org.springframework.stereotype.Component;
+
+import java.net.ConnectException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * MCP 重试策略与预算 - 令牌桶实现
+ * 每个服务名一个令牌桶：每个请求存入 budget-ratio 个令牌，每次重试消耗 1 个，上限 budget-burst；
+ * 令牌以千分之一为单位存放在一个原子计数中，存取都是 CAS
+ *
+ * 说明：
+ * - 错误沿 cause 链判断，默认只重试能确定请求未发出的失败，避免非幂等的工具调用在后端执行两次
+ * - 开启 retry-on-server-error 后，后端 5xx 按传输异常或 {@link UpstreamErrors} 的规则识别
+ */
+@Component
+@RequiredArgsConstructor
+public class McpTokenBucketRetryBudget implements McpRetryBudget {
+
+    private static final long MILLI_TOKENS_PER_RETRY = 1_000;
+
+    /**
+     * 重试预算，Key: serverName
+     */
+    private static final ConcurrentHashMap<String, Budget> BUDGETS = new ConcurrentHashMap<>();
+
+    private final RetryProperties properties;
+
+    @Override
+    public boolean isEnabled() {
+        return properties.isEnabled() && properties.getMaxAttempts() > 1;
+    }
+
+    @Override
+    public int getMaxAttempts() {
+        return properties.isEnabled() ? Math.max(1, properties.getMaxAttempts()) : 1;
+    }
+
+    @Override
+    public boolean isRetryable(Throwable error) {
+        return UpstreamErrors.anyCause(error, current -> isNotSent(current)
+                || properties.isRetryOnServerError()
+                && (current instanceof McpTransportException || UpstreamErrors.isHttpServerError(current)));
+    }
+
+    /**
+     * 判断失败是否发生在请求发出之前
+     * 连接建立失败、后端在发送时不认识会话（404，请求未执行）、本实例熔断中或连接池重连中
+     */
+    private static boolean isNotSent(Throwable error) {
+        if (error instanceof RejectedException rejected) {
+            return rejected.getReason() == RejectedException.Reason.CIRCUIT_OPEN
+                    || rejected.getReason() == RejectedException.Reason.RECONNECTING;
+        }
+        return error instanceof ConnectException || error instanceof McpTransportSessionNotFoundException;
+    }
+
+    @Override
+    public void onRequest(String serverName) {
+        budgetOf(serverName).deposit();
+    }
+
+    @Override
+    public boolean tryAcquireRetry(String serverName) {
+        return budgetOf(serverName).withdraw();
+    }
+
+    @Override
+    public void remove(String serverName) {
+        BUDGETS.remove(serverName);
+    }
+
+    @Override
+    public McpRetryStats getStats(String serverName) {
+        Budget budget = BUDGETS.get(serverName);
+        if (budget == null) {
+            return null;
+        }
+        return McpRetryStats.builder()
+                .serverName(serverName)
+                .requests(budget.requests.sum())
+                .retries(budget.retries.sum())
+                .budgetExhausted(budget.exhausted.sum())
+                .budgetRemaining((double) budget.milliTokens.get() / MILLI_TOKENS_PER_RETRY)
+                .build();
+    }
+
+    private Budget budgetOf(String serverName) {
+        Budget budget = BUDGETS.get(serverName);
+        if (budget == null) {
+            budget = BUDGETS.computeIfAbsent(serverName, name -> new Budget(
+                    (long) (properties.getBudgetRatio() * MILLI_TOKENS_PER_RETRY),
+                    Math.max(1, properties.getBudgetBurst()) * MILLI_TOKENS_PER_RETRY));
+        }
+        return budget;
+    }
+
+    /**
+     * 单个服务名的令牌桶
+     */
+    private static final class Budget {
+
+        private final long increment;
+
+        private final long max;
+
+        /**
+         * 剩余额度（千分之一令牌），初始为满
+         */
+        private final AtomicLong milliTokens;
+
+        private final LongAdder requests = new LongAdder();
+
+        private final LongAdder retries = new LongAdder();
+
+        private final LongAdder exhausted = new LongAdder();
+
+        private Budget(long increment, long max) {
+            this.increment = increment;
+            this.max = max;
+            this.milliTokens = new AtomicLong(max);
+        }
+
+        private void deposit() {
+            requests.increment();
+            long current;
+            do {
+                current = milliTokens.get();
+                if (current >= max) {
+                    return;
+                }
+            } while (!milliTokens.compareAndSet(current, Math.min(max, current + increment)));
+        }
+
+        private boolean withdraw() {
+            long current;
+            do {
+                current = milliTokens.get();
+                if (current < MILLI_TOKENS_PER_RETRY) {
+                    exhausted.increment();
+                    return false;
+                }
+            } while (!milliTokens.compareAndSet(current, current - MILLI_TOKENS_PER_RETRY));
+            retries.increment();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package org.cloudnook.mcp.infrastructure.core.invoke;
+
+import io.modelcontextprotocol.spec.McpError;
+import io.modelcontextprotocol.spec.McpSchema;
+
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * 上游调用错误分类
+ * 错误沿 cause 链判断，传输层异常常被包装在 McpError 或 BusinessException 中
+ *
+ * 说明：
+ * - 后端 5xx 按异常信息中的状态码识别；Streamable HTTP 传输对 400/404 以外的非 2xx 响应
+ *   只抛出不带状态码的 "Failed to send message"，同样按后端错误处理
+ */
+final class UpstreamErrors {
+
+    /**
+     * 异常信息中的 5xx 状态码，如 "status code: 502"、"status=503"
+     */
+    private static final Pattern SERVER_ERROR_STATUS = Pattern.compile("(?i)status(?:\\s*code)?\\s*[:=]?\\s*5\\d\\d\\b");
+
+    /**
+     * Streamable HTTP 传输收到非 2xx 响应时的异常信息前缀
+     */
+    private static final String HTTP_ERROR_RESPONSE = "Failed to send message: ";
+
+    /**
+     * 最多检查的 cause 层数
+     */
+    private static final int MAX_CAUSE_DEPTH = 8;
+
+    private UpstreamErrors() {
+    }
+
+    /**
+     * 沿 cause 链查找满足条件的异常
+     */
+    static boolean anyCause(Throwable error, Predicate<Throwable> predicate) {
+        Throwable current = error;
+        for (int depth = 0; current != null && depth < MAX_CAUSE_DEPTH; depth++) {
+            if (predicate.test(current)) {
+                return true;
+            }
+            current = current.getCause() == current ? null : current.getCause();
+        }
+        return false;
+    }
+
+    /**
+     * 上游在请求超时内没有响应
+     */
+    static boolean isTimeout(Throwable error) {
+        return anyCause(error, TimeoutException.class::isInstance);
+    }
+
+    /**
+     * 上游返回了服务端错误：JSON-RPC 内部错误或 HTTP 5xx
+     */
+    static boolean isServerError(Throwable error) {
+        return anyCause(error, current -> isInternalError(current) || isHttpServerError(current));
+    }
+
+    /**
+     * 上游正常返回的 JSON-RPC 业务错误（参数错误、方法或资源不存在等）
+     */
+    static boolean isClientError(Throwable error) {
+        return anyCause(error, current -> current instanceof McpError mcpError
+                && mcpError.getJsonRpcError() != null
+                && !isInternalError(current));
+    }
+
+    /**
+     * 异常信息表明上游返回了 HTTP 5xx（或传输层未给出状态码的非 2xx 响应）
+     */
+    static boolean isHttpServerError(Throwable error) {
+        String message = error.getMessage();
+        return message != null && (SERVER_ERROR_STATUS.matcher(message).find()
+                || message.startsWith(HTTP_ERROR_RESPONSE));
+    }
+
+    private static boolean isInternalError(Throwable error) {
+        if (error instanceof McpError mcpError && mcpError.getJsonRpcError() != null) {
+            Integer code = mcpError.getJsonRpcError().code();
+            return code == null || code == McpSchema.ErrorCodes.INTERNAL_ERROR;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,277 @@
+package org.cloudnook.mcp.infrastructure.core.log;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.cloudnook.mcp.domain.log.model.McpInvokeLog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * 调用日志二进制编解码
+ *
+ * 帧格式：[int 长度][int CRC32C][记录][int 长度]
+ * - 头部长度用于顺序扫描，尾部长度与头部长度一致时才认为帧完整
+ * - CRC 用于启动时识别未写完整的尾部记录
+ *
+ * 记录格式：版本号后依次写入各字段，字符串为 [int 字节数][UTF-8]（-1 表示 null），
+ * 枚举按名称写入，参数为 JSON；新版本只在末尾追加字段，旧版本记录仍可读取
+ */
+@Slf4j
+final class InvokeLogCodec {
+
+    /**
+     * 帧头（长度 + CRC）字节数
+     */
+    static final int HEADER_BYTES = 8;
+
+    /**
+     * 帧头和帧尾的总字节数
+     */
+    static final int FRAME_OVERHEAD = HEADER_BYTES + 4;
+
+    private static final byte VERSION = 3;
+
+    private static final byte FLAG_CACHE_HIT = 1;
+
+    private static final byte FLAG_COALESCED = 1 << 1;
+
+    private static final byte FLAG_RESPONSE_TRUNCATED = 1 << 2;
+
+    private static final TypeReference<Map<String, Object>> ARGUMENTS_TYPE = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper;
+
+    private final CRC32C crc = new CRC32C();
+
+    InvokeLogCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    // ==================== 编码 ====================
+
+    /**
+     * 将一条日志编码为完整的帧追加到缓冲区，缓冲区不足时扩容
+     * 非线程安全，由写入方串行调用
+     *
+     * @return 追加后的缓冲区（可能为新分配的缓冲区）
+     */
+    ByteBuffer encodeFrame(McpInvokeLog log, ByteBuffer buffer) {
+        byte[] callId = utf8(log.getCallId());
+        byte[] source = utf8(log.getSource() != null ? log.getSource().name() : null);
+        byte[] serverId = utf8(log.getServerId());
+        byte[] serverName = utf8(log.getServerName());
+        byte[] type = utf8(log.getType() != null ? log.getType().name() : null);
+        byte[] targetName = utf8(log.getTargetName());
+        byte[] arguments = json(log.getArguments());
+        byte[] response = utf8(log.getResponse());
+        byte[] status = utf8(log.getStatus() != null ? log.getStatus().name() : null);
+        byte[] errorMessage = utf8(log.getErrorMessage());
+        byte[] clientId = utf8(log.getClientId());
+        byte[] responseHash = utf8(log.getResponseHash());
+
+        int length = 1 + 1 + 8 + 8 + 4
+                + sizeOf(callId) + sizeOf(source) + sizeOf(serverId) + sizeOf(serverName) + sizeOf(type)
+                + sizeOf(targetName) + sizeOf(arguments) + sizeOf(response) + sizeOf(status)
+                + sizeOf(errorMessage) + sizeOf(clientId) + sizeOf(responseHash) + 4;
+
+        buffer = ensureCapacity(buffer, length + FRAME_OVERHEAD);
+        int frameStart = buffer.position();
+        buffer.putInt(length);
+        buffer.putInt(0);
+        int recordStart = buffer.position();
+
+        byte flags = 0;
+        if (Boolean.TRUE.equals(log.getCacheHit())) {
+            flags |= FLAG_CACHE_HIT;
+        }
+        if (Boolean.TRUE.equals(log.getCoalesced())) {
+            flags |= FLAG_COALESCED;
+        }
+        if (Boolean.TRUE.equals(log.getResponseTruncated())) {
+            flags |= FLAG_RESPONSE_TRUNCATED;
+        }
+        buffer.put(VERSION);
+        buffer.put(flags);
+        buffer.putLong(log.getDurationMs() != null ? log.getDurationMs() : -1L);
+        Instant timestamp = log.getTimestamp();
+        buffer.putLong(timestamp != null ? timestamp.getEpochSecond() : Long.MIN_VALUE);
+        buffer.putInt(timestamp != null ? timestamp.getNano() : 0);
+        putBytes(buffer, callId);
+        putBytes(buffer, source);
+        putBytes(buffer, serverId);
+        putBytes(buffer, serverName);
+        putBytes(buffer, type);
+        putBytes(buffer, targetName);
+        putBytes(buffer, arguments);
+        putBytes(buffer, response);
+        putBytes(buffer, status);
+        putBytes(buffer, errorMessage);
+        putBytes(buffer, clientId);
+        putBytes(buffer, responseHash);
+        buffer.putInt(log.getAttempt() != null ? log.getAttempt() : 0);
+
+        buffer.putInt(frameStart + 4, checksum(buffer, recordStart, length));
+        buffer.putInt(length);
+        return buffer;
+    }
+
+    // ==================== 解码 ====================
+
+    /**
+     * 从帧起始位置解码一条日志
+     */
+    McpInvokeLog decodeFrame(ByteBuffer buffer, int frameStart) {
+        int length = buffer.getInt(frameStart);
+        ByteBuffer record = buffer.duplicate();
+        record.limit(frameStart + HEADER_BYTES + length).position(frameStart + HEADER_BYTES);
+
+        byte version = record.get();
+        byte flags = record.get();
+        long durationMs = record.getLong();
+        long epochSecond = record.getLong();
+        int nano = record.getInt();
+
+        McpInvokeLog.McpInvokeLogBuilder builder = McpInvokeLog.builder()
+                .durationMs(durationMs >= 0 ? durationMs : null)
+                .timestamp(epochSecond != Long.MIN_VALUE ? Instant.ofEpochSecond(epochSecond, nano) : null)
+                .cacheHit((flags & FLAG_CACHE_HIT) != 0)
+                .coalesced((flags & FLAG_COALESCED) != 0)
+                .responseTruncated((flags & FLAG_RESPONSE_TRUNCATED) != 0)
+                .callId(getString(record))
+                .source(toEnum(McpInvokeLog.InvokeSource.class, getString(record)))
+                .serverId(getString(record))
+                .serverName(getString(record))
+                .type(toEnum(McpInvokeLog.InvokeType.class, getString(record)))
+                .targetName(getString(record))
+                .arguments(fromJson(getBytes(record)))
+                .response(getString(record))
+                .status(toEnum(McpInvokeLog.InvokeStatus.class, getString(record)))
+                .errorMessage(getString(record))
+                .clientId(getString(record));
+        if (version >= 2) {
+            builder.responseHash(getString(record));
+        }
+        if (version >= 3) {
+            int attempt = record.getInt();
+            builder.attempt(attempt > 0 ? attempt : null);
+        }
+        return builder.build();
+    }
+
+    /**
+     * 校验帧是否完整：长度在范围内、首尾长度一致，可选校验 CRC
+     *
+     * @return 帧的总字节数，不完整时返回 -1
+     */
+    int validFrameSize(ByteBuffer buffer, int frameStart, int limit, boolean verifyChecksum) {
+        if (limit - frameStart < FRAME_OVERHEAD) {
+            return -1;
+        }
+        int length = buffer.getInt(frameStart);
+        if (length <= 0 || length > limit - frameStart - FRAME_OVERHEAD) {
+            return -1;
+        }
+        if (buffer.getInt(frameStart + HEADER_BYTES + length) != length) {
+            return -1;
+        }
+        if (verifyChecksum && buffer.getInt(frameStart + 4) != checksum(buffer, frameStart + HEADER_BYTES, length)) {
+            return -1;
+        }
+        return length + FRAME_OVERHEAD;
+    }
+
+    // ==================== 私有方法 ====================
+
+    private int checksum(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer slice = buffer.duplicate();
+        slice.limit(offset + length).position(offset);
+        crc.reset();
+        crc.update(slice);
+        return (int) crc.getValue();
+    }
+
+    private byte[] json(Map<String, Object> arguments) {
+        if (arguments == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsBytes(arguments);
+        } catch (IOException e) {
+            log.warn("调用参数序列化失败，日志中不保留参数: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private Map<String, Object> fromJson(byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(bytes, ARGUMENTS_TYPE);
+        } catch (IOException e) {
+            log.warn("调用参数反序列化失败: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static <E extends Enum<E>> E toEnum(Class<E> type, String name) {
+        if (name == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static byte[] utf8(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int sizeOf(byte[] bytes) {
+        return 4 + (bytes != null ? bytes.length : 0);
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static byte[] getBytes(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = getBytes(buffer);
+        return bytes != null ? new String(bytes, StandardCharsets.UTF_8) : null;
+    }
+
+    private static ByteBuffer ensureCapacity(ByteBuffer buffer, int required) {
+        if (buffer.remaining() >= required) {
+            return buffer;
+        }
+        int capacity = Math.max(buffer.capacity() * 2, buffer.position() + required);
+        ByteBuffer expanded = ByteBuffer.allocate(capacity);
+        buffer.flip();
+        expanded.put(buffer);
+        return expanded;
+    }
+}
@@ -0,0 +1,490 @@
+package org.cloudnook.mcp.infrastructure.core.log;
+
+import org.cloudnook.mcp.domain.log.model.McpInvokeLog;
+import org.cloudnook.mcp.domain.log.model.McpInvokeLogPage;
+import org.cloudnook.mcp.domain.log.model.McpInvokeLogQuery;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 调用日志二级索引
+ * 随日志写入增量维护，按序号（写入顺序）组织，供日志仓储按条件查询
+ *
+ * 索引内容：
+ * - 服务ID、来源、目标名称、状态：每个取值一个递增的序号列表（倒排表）
+ * - 时间：按分钟分桶，记录每个桶内的最小和最大序号，把时间范围转换为序号范围
+ *
+ * 查询时选择最短的倒排表从新到旧遍历，其余条件通过二分查找判断，只加载命中的记录；
+ * 游标即上一页最后一条记录的序号
+ *
+ * 内存：每条记录在每个倒排表中占一个 long，仓储按配置的条数上限裁剪最旧的索引项
+ */
+final class InvokeLogIndex {
+
+    private static final long BUCKET_MILLIS = 60_000L;
+
+    /**
+     * 每次持有读锁收集的候选序号数
+     */
+    private static final int MIN_BATCH = 16;
+
+    private static final int MAX_BATCH = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, PostingList> byServerId = new HashMap<>();
+
+    private final Map<McpInvokeLog.InvokeSource, PostingList> bySource = new EnumMap<>(McpInvokeLog.InvokeSource.class);
+
+    private final Map<String, PostingList> byTargetName = new HashMap<>();
+
+    private final Map<McpInvokeLog.InvokeStatus, PostingList> byStatus = new EnumMap<>(McpInvokeLog.InvokeStatus.class);
+
+    /**
+     * 分钟桶 -> [最小序号, 最大序号]
+     */
+    private final NavigableMap<Long, long[]> timeBuckets = new TreeMap<>();
+
+    /**
+     * 按序号加载记录，记录已被覆盖或删除时返回 null
+     */
+    interface Loader {
+        McpInvokeLog load(long sequence);
+    }
+
+    // ==================== 写入 ====================
+
+    void add(long sequence, McpInvokeLog log) {
+        add(sequence, Entry.of(log));
+    }
+
+    void add(long sequence, Entry entry) {
+        lock.writeLock().lock();
+        try {
+            if (entry.serverId != null) {
+                byServerId.computeIfAbsent(entry.serverId, k -> new PostingList()).add(sequence);
+            }
+            if (entry.source != null) {
+                bySource.computeIfAbsent(entry.source, k -> new PostingList()).add(sequence);
+            }
+            if (entry.targetName != null) {
+                byTargetName.computeIfAbsent(entry.targetName, k -> new PostingList()).add(sequence);
+            }
+            if (entry.status != null) {
+                byStatus.computeIfAbsent(entry.status, k -> new PostingList()).add(sequence);
+            }
+            if (entry.timestamp != null) {
+                long[] range = timeBuckets.computeIfAbsent(bucketOf(entry.timestamp),
+                        k -> new long[]{sequence, sequence});
+                range[0] = Math.min(range[0], sequence);
+                range[1] = Math.max(range[1], sequence);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 移除小于指定序号的索引项（记录被覆盖或段被删除后调用）
+     */
+    void trimBefore(long oldest) {
+        lock.writeLock().lock();
+        try {
+            trim(byServerId, oldest);
+            trim(bySource, oldest);
+            trim(byTargetName, oldest);
+            trim(byStatus, oldest);
+            timeBuckets.values().removeIf(range -> range[1] < oldest);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            byServerId.clear();
+            bySource.clear();
+            byTargetName.clear();
+            byStatus.clear();
+            timeBuckets.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ==================== 查询 ====================
+
+    /**
+     * 按条件查询
+     * 读锁内只在倒排表上收集一批候选序号（无时间条件时页码跳过也在倒排表上完成），
+     * 释放读锁后再加载记录和判断时间条件，慢查询不阻塞日志写入
+     *
+     * @param query  查询条件
+     * @param oldest 仍然有效的最旧序号
+     * @param newest 最新序号
+     * @param loader 记录加载
+     */
+    McpInvokeLogPage search(McpInvokeLogQuery query, long oldest, long newest, Loader loader) {
+        int size = query.getSize();
+        if (size <= 0 || query.getPage() < 0 || newest < oldest) {
+            return emptyPage();
+        }
+
+        Scan scan = new Scan(query, Math.min(MAX_BATCH, Math.max(MIN_BATCH, size)));
+        lock.readLock().lock();
+        try {
+            if (!scan.prepare(this, query, oldest, newest)) {
+                return emptyPage();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<McpInvokeLog> items = new ArrayList<>(size);
+        long last = -1;
+        while (items.size() < size) {
+            lock.readLock().lock();
+            try {
+                scan.collect();
+            } finally {
+                lock.readLock().unlock();
+            }
+            if (scan.count == 0) {
+                break;
+            }
+            for (int i = 0; i < scan.count && items.size() < size; i++) {
+                long sequence = scan.batch[i];
+                McpInvokeLog log = loader.load(sequence);
+                if (log == null || !inTimeRange(log, query)) {
+                    continue;
+                }
+                if (scan.skip > 0) {
+                    scan.skip--;
+                    continue;
+                }
+                items.add(log);
+                last = sequence;
+            }
+        }
+
+        return McpInvokeLogPage.builder()
+                .items(items)
+                .nextCursor(items.size() == size ? last : null)
+                .build();
+    }
+
+    // ==================== 私有方法 ====================
+
+    private static <K> boolean addList(List<PostingList> lists, Map<K, PostingList> index, K key) {
+        if (key == null) {
+            return true;
+        }
+        PostingList list = index.get(key);
+        if (list == null || list.size() == 0) {
+            return false;
+        }
+        lists.add(list);
+        return true;
+    }
+
+    private static boolean containsAll(List<PostingList> lists, PostingList driver, long sequence) {
+        for (PostingList list : lists) {
+            if (list != driver && !list.contains(sequence)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 时间范围对应的序号范围，范围内没有记录时返回 null
+     */
+    private long[] sequenceRange(Instant from, Instant to) {
+        long fromBucket = from != null ? bucketOf(from) : Long.MIN_VALUE;
+        long toBucket = to != null ? bucketOf(to.minusNanos(1)) : Long.MAX_VALUE;
+        if (fromBucket > toBucket) {
+            return null;
+        }
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (long[] range : timeBuckets.subMap(fromBucket, true, toBucket, true).values()) {
+            min = Math.min(min, range[0]);
+            max = Math.max(max, range[1]);
+        }
+        return min <= max ? new long[]{min, max} : null;
+    }
+
+    private static boolean inTimeRange(McpInvokeLog log, McpInvokeLogQuery query) {
+        if (query.getFrom() == null && query.getTo() == null) {
+            return true;
+        }
+        Instant timestamp = log.getTimestamp();
+        if (timestamp == null) {
+            return false;
+        }
+        return (query.getFrom() == null || !timestamp.isBefore(query.getFrom()))
+                && (query.getTo() == null || timestamp.isBefore(query.getTo()));
+    }
+
+    private static long bucketOf(Instant timestamp) {
+        return Math.floorDiv(timestamp.toEpochMilli(), BUCKET_MILLIS);
+    }
+
+    private static <K> void trim(Map<K, PostingList> index, long oldest) {
+        Iterator<PostingList> iterator = index.values().iterator();
+        while (iterator.hasNext()) {
+            PostingList list = iterator.next();
+            list.trimBefore(oldest);
+            if (list.size() == 0) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static McpInvokeLogPage emptyPage() {
+        return McpInvokeLogPage.builder()
+                .items(Collections.emptyList())
+                .build();
+    }
+
+    /**
+     * 一次查询的扫描状态：条件对应的倒排表、剩余的序号范围和待跳过的条数
+     * prepare 和 collect 都在读锁内调用；倒排表只在写锁内修改，按序号（而非位置）续扫，裁剪和压缩不影响结果
+     */
+    private static final class Scan {
+
+        private final boolean timeFiltered;
+
+        private final long[] batch;
+
+        private final List<PostingList> lists = new ArrayList<>(4);
+
+        private PostingList driver;
+
+        private long lower;
+
+        private long upper;
+
+        /**
+         * 待跳过的匹配条数：无时间条件时在 collect 中消耗，有时间条件时需加载记录后判断
+         */
+        private long skip;
+
+        /**
+         * 本批候选序号数
+         */
+        private int count;
+
+        private Scan(McpInvokeLogQuery query, int batchSize) {
+            this.timeFiltered = query.getFrom() != null || query.getTo() != null;
+            this.batch = new long[batchSize];
+            this.skip = query.getCursor() == null ? (long) query.getPage() * query.getSize() : 0;
+        }
+
+        /**
+         * 解析条件对应的倒排表和序号范围，没有可能命中的记录时返回 false
+         */
+        private boolean prepare(InvokeLogIndex index, McpInvokeLogQuery query, long oldest, long newest) {
+            if (!addList(lists, index.byServerId, query.getServerId())
+                    || !addList(lists, index.bySource, query.getSource())
+                    || !addList(lists, index.byTargetName, query.getTargetName())
+                    || !addList(lists, index.byStatus, query.getStatus())) {
+                return false;
+            }
+
+            upper = newest;
+            lower = oldest;
+            if (query.getCursor() != null) {
+                upper = Math.min(upper, query.getCursor() - 1);
+            }
+            if (timeFiltered) {
+                long[] range = index.sequenceRange(query.getFrom(), query.getTo());
+                if (range == null) {
+                    return false;
+                }
+                lower = Math.max(lower, range[0]);
+                upper = Math.min(upper, range[1]);
+            }
+
+            if (lists.isEmpty()) {
+                // 无索引条件：序号连续，页码直接换算为序号
+                if (!timeFiltered) {
+                    upper -= skip;
+                    skip = 0;
+                }
+                return true;
+            }
+            driver = lists.get(0);
+            for (PostingList list : lists) {
+                if (list.size() < driver.size()) {
+                    driver = list;
+                }
+            }
+            // 单个索引条件：倒排表中的位置直接换算
+            if (lists.size() == 1 && !timeFiltered && skip > 0) {
+                int position = driver.floorIndex(upper) - (int) Math.min(skip, Integer.MAX_VALUE);
+                upper = position >= driver.head ? driver.values[position] : lower - 1;
+                skip = 0;
+            }
+            return true;
+        }
+
+        /**
+         * 从 upper 向旧收集下一批候选序号
+         */
+        private void collect() {
+            count = 0;
+            if (upper < lower) {
+                return;
+            }
+            if (driver == null) {
+                while (count < batch.length && upper >= lower) {
+                    batch[count++] = upper--;
+                }
+                return;
+            }
+            int position = driver.floorIndex(upper);
+            for (; position >= driver.head && count < batch.length; position--) {
+                long sequence = driver.values[position];
+                if (sequence < lower) {
+                    break;
+                }
+                upper = sequence - 1;
+                if (!containsAll(lists, driver, sequence)) {
+                    continue;
+                }
+                if (!timeFiltered && skip > 0) {
+                    skip--;
+                    continue;
+                }
+                batch[count++] = sequence;
+            }
+            if (position < driver.head || (position >= driver.head && driver.values[position] < lower)) {
+                upper = lower - 1;
+            }
+        }
+    }
+
+    /**
+     * 一条记录的索引字段，段索引文件按此格式保存，恢复时不必解码完整记录
+     */
+    static final class Entry {
+
+        final String serverId;
+
+        final McpInvokeLog.InvokeSource source;
+
+        final String targetName;
+
+        final McpInvokeLog.InvokeStatus status;
+
+        final Instant timestamp;
+
+        Entry(String serverId, McpInvokeLog.InvokeSource source, String targetName,
+              McpInvokeLog.InvokeStatus status, Instant timestamp) {
+            this.serverId = serverId;
+            this.source = source;
+            this.targetName = targetName;
+            this.status = status;
+            this.timestamp = timestamp;
+        }
+
+        static Entry of(McpInvokeLog log) {
+            return new Entry(log.getServerId(), log.getSource(), log.getTargetName(), log.getStatus(), log.getTimestamp());
+        }
+    }
+
+    /**
+     * 递增的序号列表
+     * 有效范围为 [head, tail)，裁剪时移动 head，积累过多后压缩
+     */
+    private static final class PostingList {
+
+        private static final int MIN_CAPACITY = 16;
+
+        private long[] values = new long[MIN_CAPACITY];
+
+        private int head;
+
+        private int tail;
+
+        int size() {
+            return tail - head;
+        }
+
+        /**
+         * 追加序号；并发写入时序号可能略微乱序，向前插入保持有序
+         */
+        void add(long sequence) {
+            if (tail == values.length) {
+                if (head > values.length / 2) {
+                    compact();
+                } else {
+                    values = Arrays.copyOf(values, values.length * 2);
+                }
+            }
+            int position = tail++;
+            while (position > head && values[position - 1] > sequence) {
+                values[position] = values[position - 1];
+                position--;
+            }
+            values[position] = sequence;
+        }
+
+        /**
+         * 最后一个小于等于 sequence 的位置，不存在时返回 head - 1
+         */
+        int floorIndex(long sequence) {
+            int low = head;
+            int high = tail - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (values[mid] <= sequence) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return high;
+        }
+
+        boolean contains(long sequence) {
+            int position = floorIndex(sequence);
+            return position >= head && values[position] == sequence;
+        }
+
+        /**
+         * 裁剪后剩余元素不足容量的四分之一时缩小数组，释放被裁剪部分占用的内存
+         */
+        void trimBefore(long oldest) {
+            head = floorIndex(oldest - 1) + 1;
+            if (head == tail) {
+                head = 0;
+                tail = 0;
+            }
+            if (values.length > MIN_CAPACITY && size() < values.length / 4) {
+                values = Arrays.copyOfRange(values, head, head + Math.max(MIN_CAPACITY, size() * 2));
+                tail -= head;
+                head = 0;
+            }
+        }
+
+        private void compact() {
+            System.arraycopy(values, head, values, 0, tail - head);
+            tail -= head;
+            head = 0;
+        }
+    }
+}
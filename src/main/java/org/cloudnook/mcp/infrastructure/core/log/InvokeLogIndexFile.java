@@ -0,0 +1,237 @@
+package org.cloudnook.mcp.infrastructure.core.log;
+
+import lombok.extern.slf4j.Slf4j;
+import org.cloudnook.mcp.domain.log.model.McpInvokeLog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * 段索引文件
+ * 段封存时在段文件旁写入 {@code <序号>.idx}，保存各记录的起始偏移和二级索引字段；
+ * 启动时读取索引文件即可恢复段的记录偏移和二级索引，不必逐条解码段文件
+ *
+ * 格式：
+ * - 头部：[magic][版本][段文件字节数 long][段文件修改时间 long][已写入字节数 long][记录数 int]
+ * - 偏移：[int] × 记录数
+ * - 字符串表：[int 个数]，各字符串为 [int 字节数][UTF-8]，服务ID、目标名称和枚举名称都引用表中的下标
+ * - 索引字段：每条记录 [服务ID][来源][目标名称][状态] 四个下标（-1 表示 null）和 [时间戳毫秒 long]
+ * - 尾部：CRC32C
+ *
+ * 段文件的大小或修改时间与索引文件记录的不一致、或校验失败时，索引文件视为无效，由仓储回退到扫描段文件
+ */
+@Slf4j
+final class InvokeLogIndexFile {
+
+    static final String SUFFIX = ".idx";
+
+    private static final int MAGIC = 0x4D4C4958;
+
+    private static final byte VERSION = 1;
+
+    private static final int HEADER_BYTES = 4 + 1 + 8 + 8 + 8 + 4;
+
+    private static final long NULL_TIMESTAMP = Long.MIN_VALUE;
+
+    private InvokeLogIndexFile() {
+    }
+
+    static String fileName(long baseSequence) {
+        return String.format("%020d%s", baseSequence, SUFFIX);
+    }
+
+    /**
+     * 写入段索引文件（先写临时文件再原子替换）
+     *
+     * @param path           索引文件路径
+     * @param segmentBytes   段文件的字节数
+     * @param modifiedMillis 段文件的修改时间
+     * @param extent         段的已写入范围
+     * @param entries        段内各记录的索引字段，与 extent 中的记录一一对应
+     */
+    static void write(Path path, long segmentBytes, long modifiedMillis,
+                      InvokeLogSegment.Extent extent, List<InvokeLogIndex.Entry> entries) throws IOException {
+        if (entries.size() != extent.count) {
+            throw new IllegalArgumentException("索引字段数与记录数不一致: " + entries.size() + " != " + extent.count);
+        }
+        Map<String, Integer> strings = new HashMap<>();
+        List<String> table = new ArrayList<>();
+        int[] refs = new int[extent.count * 4];
+        for (int i = 0; i < extent.count; i++) {
+            InvokeLogIndex.Entry entry = entries.get(i);
+            refs[i * 4] = ref(strings, table, entry.serverId);
+            refs[i * 4 + 1] = ref(strings, table, entry.source != null ? entry.source.name() : null);
+            refs[i * 4 + 2] = ref(strings, table, entry.targetName);
+            refs[i * 4 + 3] = ref(strings, table, entry.status != null ? entry.status.name() : null);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(HEADER_BYTES + extent.count * 32);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeLong(segmentBytes);
+        out.writeLong(modifiedMillis);
+        out.writeLong(extent.size);
+        out.writeInt(extent.count);
+        for (int i = 0; i < extent.count; i++) {
+            out.writeInt(extent.offsets[i]);
+        }
+        out.writeInt(table.size());
+        for (String value : table) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(utf8.length);
+            out.write(utf8);
+        }
+        for (int i = 0; i < extent.count; i++) {
+            for (int j = 0; j < 4; j++) {
+                out.writeInt(refs[i * 4 + j]);
+            }
+            Instant timestamp = entries.get(i).timestamp;
+            out.writeLong(timestamp != null ? timestamp.toEpochMilli() : NULL_TIMESTAMP);
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(bytes.toByteArray());
+        out.writeInt((int) crc.getValue());
+        out.flush();
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.write(temp, bytes.toByteArray());
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 读取段索引文件，文件不存在或与段文件不一致时返回 null
+     *
+     * @param path           索引文件路径
+     * @param segmentBytes   段文件当前的字节数
+     * @param modifiedMillis 段文件当前的修改时间
+     * @param withEntries    是否读取索引字段（超出索引条数上限的段只需要记录偏移）
+     */
+    static Snapshot read(Path path, long segmentBytes, long modifiedMillis, boolean withEntries) {
+        byte[] content;
+        try {
+            content = Files.readAllBytes(path);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.warn("调用日志段索引文件读取失败: {}", path, e);
+            return null;
+        }
+        if (content.length < HEADER_BYTES + 4) {
+            return invalid(path, "文件过短");
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(content, 0, content.length - 4);
+        ByteBuffer buffer = ByteBuffer.wrap(content);
+        if (buffer.getInt(content.length - 4) != (int) crc.getValue()) {
+            return invalid(path, "校验失败");
+        }
+        buffer.limit(content.length - 4);
+
+        try {
+            if (buffer.getInt() != MAGIC || buffer.get() != VERSION) {
+                return invalid(path, "格式不匹配");
+            }
+            if (buffer.getLong() != segmentBytes || buffer.getLong() != modifiedMillis) {
+                return invalid(path, "段文件已变化");
+            }
+            long size = buffer.getLong();
+            int count = buffer.getInt();
+            if (size < 0 || size > segmentBytes || count < 0 || count > buffer.remaining() / 4) {
+                return invalid(path, "记录范围无效");
+            }
+            int[] offsets = new int[count];
+            for (int i = 0; i < count; i++) {
+                offsets[i] = buffer.getInt();
+            }
+            InvokeLogSegment.Extent extent = new InvokeLogSegment.Extent(size, count, offsets);
+            if (!withEntries) {
+                return new Snapshot(extent, null);
+            }
+
+            String[] table = new String[buffer.getInt()];
+            for (int i = 0; i < table.length; i++) {
+                byte[] utf8 = new byte[buffer.getInt()];
+                buffer.get(utf8);
+                table[i] = new String(utf8, StandardCharsets.UTF_8);
+            }
+            List<InvokeLogIndex.Entry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String serverId = lookup(table, buffer.getInt());
+                String source = lookup(table, buffer.getInt());
+                String targetName = lookup(table, buffer.getInt());
+                String status = lookup(table, buffer.getInt());
+                long millis = buffer.getLong();
+                entries.add(new InvokeLogIndex.Entry(serverId,
+                        toEnum(McpInvokeLog.InvokeSource.class, source),
+                        targetName,
+                        toEnum(McpInvokeLog.InvokeStatus.class, status),
+                        millis != NULL_TIMESTAMP ? Instant.ofEpochMilli(millis) : null));
+            }
+            return new Snapshot(extent, entries);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException e) {
+            return invalid(path, "内容不完整");
+        }
+    }
+
+    // ==================== 私有方法 ====================
+
+    private static int ref(Map<String, Integer> strings, List<String> table, String value) {
+        if (value == null) {
+            return -1;
+        }
+        return strings.computeIfAbsent(value, k -> {
+            table.add(k);
+            return table.size() - 1;
+        });
+    }
+
+    private static String lookup(String[] table, int ref) {
+        return ref < 0 ? null : table[ref];
+    }
+
+    private static <E extends Enum<E>> E toEnum(Class<E> type, String name) {
+        if (name == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static Snapshot invalid(Path path, String reason) {
+        log.warn("调用日志段索引文件无效（{}），回退到扫描段文件: {}", reason, path);
+        return null;
+    }
+
+    /**
+     * 从索引文件恢复的段内容：记录偏移和索引字段（未读取时为 null）
+     */
+    static final class Snapshot {
+
+        final InvokeLogSegment.Extent extent;
+
+        final List<InvokeLogIndex.Entry> entries;
+
+        Snapshot(InvokeLogSegment.Extent extent, List<InvokeLogIndex.Entry> entries) {
+            this.extent = extent;
+            this.entries = entries;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package org.cloudnook.mcp.infrastructure.core.log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * 调用日志段文件
+ * 文件名为段内第一条记录的序号（20 位补零），只追加写入；封存后旁边可能有同名的段索引文件（见 {@link InvokeLogIndexFile}）
+ *
+ * 写入由仓储串行执行，每批写完后发布新的 {@link Extent}；
+ * 读取通过只读内存映射进行，只访问已发布范围内的字节，按记录偏移直接定位
+ */
+final class InvokeLogSegment {
+
+    static final String SUFFIX = ".log";
+
+    private final Path path;
+
+    /**
+     * 段内第一条记录的序号
+     */
+    private final long baseSequence;
+
+    /**
+     * 段的创建时间（毫秒），用于按时间滚动
+     */
+    private final long createdMillis;
+
+    /**
+     * 写入通道，段被封存后为 null
+     */
+    private FileChannel channel;
+
+    /**
+     * 已写入的范围
+     */
+    private volatile Extent extent;
+
+    /**
+     * 最后写入时间（毫秒），用于过期删除
+     */
+    private volatile long lastModifiedMillis;
+
+    /**
+     * 只读映射，按需创建，段增长后重新映射
+     */
+    private MappedByteBuffer mapped;
+
+    InvokeLogSegment(Path path, long baseSequence, long createdMillis, Extent extent, long lastModifiedMillis) {
+        this.path = path;
+        this.baseSequence = baseSequence;
+        this.createdMillis = createdMillis;
+        this.extent = extent;
+        this.lastModifiedMillis = lastModifiedMillis;
+    }
+
+    static String fileName(long baseSequence) {
+        return String.format("%020d%s", baseSequence, SUFFIX);
+    }
+
+    /**
+     * 打开写入通道（追加写）
+     */
+    void openForAppend() throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.position(extent.size);
+    }
+
+    /**
+     * 追加一批已编码的帧并发布新的范围
+     *
+     * @param frames       编码后的帧（position 到 limit）
+     * @param frameOffsets 各帧在 frames 中的起始位置
+     * @param count        帧数
+     */
+    void append(ByteBuffer frames, int[] frameOffsets, int count, long nowMillis) throws IOException {
+        Extent current = extent;
+        int base = (int) current.size - frames.position();
+        int[] offsets = current.offsets;
+        if (offsets.length < current.count + count) {
+            offsets = Arrays.copyOf(offsets, Math.max(offsets.length * 2, current.count + count));
+        }
+        for (int i = 0; i < count; i++) {
+            offsets[current.count + i] = base + frameOffsets[i];
+        }
+
+        int bytes = frames.remaining();
+        while (frames.hasRemaining()) {
+            channel.write(frames);
+        }
+        extent = new Extent(current.size + bytes, current.count + count, offsets);
+        lastModifiedMillis = nowMillis;
+    }
+
+    /**
+     * 刷盘
+     */
+    void force() throws IOException {
+        if (channel != null) {
+            channel.force(false);
+        }
+    }
+
+    /**
+     * 封存：刷盘并关闭写入通道
+     */
+    void seal() throws IOException {
+        if (channel != null) {
+            channel.force(false);
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * 获取已发布范围的只读视图
+     * 返回的缓冲区 limit 为调用时已发布的字节数，文件删除后已映射的视图仍可读
+     *
+     * @param extent 读取时的范围快照
+     */
+    synchronized ByteBuffer view(Extent extent) throws IOException {
+        if (mapped == null || mapped.capacity() < extent.size) {
+            try (FileChannel reader = FileChannel.open(path, StandardOpenOption.READ)) {
+                mapped = reader.map(FileChannel.MapMode.READ_ONLY, 0, extent.size);
+            }
+        }
+        ByteBuffer view = mapped.duplicate();
+        view.limit((int) extent.size);
+        return view;
+    }
+
+    void delete() throws IOException {
+        seal();
+        Files.deleteIfExists(path);
+        Files.deleteIfExists(getIndexPath());
+    }
+
+    boolean isSealed() {
+        return channel == null;
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    /**
+     * 段索引文件路径
+     */
+    Path getIndexPath() {
+        return path.resolveSibling(InvokeLogIndexFile.fileName(baseSequence));
+    }
+
+    long getBaseSequence() {
+        return baseSequence;
+    }
+
+    long getCreatedMillis() {
+        return createdMillis;
+    }
+
+    long getLastModifiedMillis() {
+        return lastModifiedMillis;
+    }
+
+    Extent getExtent() {
+        return extent;
+    }
+
+    /**
+     * 段的已写入范围：字节数、记录数和各记录的起始偏移，一起发布以保证读取时一致
+     * offsets 只追加，前 count 个元素在发布后不再修改
+     */
+    static final class Extent {
+
+        final long size;
+
+        final int count;
+
+        final int[] offsets;
+
+        Extent(long size, int count, int[] offsets) {
+            this.size = size;
+            this.count = count;
+            this.offsets = offsets;
+        }
+
+        static Extent empty() {
+            return new Extent(0, 0, new int[64]);
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package org.cloudnook.mcp.infrastructure.core.log;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.cloudnook.mcp.domain.log.model.McpInvokeContext;
+import org.cloudnook.mcp.domain.log.model.McpInvokeLog;
+import org.cloudnook.mcp.domain.log.repository.McpInvokeLogRepository;
+import org.cloudnook.mcp.domain.log.service.McpInvokeLogPublisher;
+import org.cloudnook.mcp.infrastructure.config.InvokeLogProperties;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * MCP Invoke 调用日志发布 - 异步批量实现
+ *
+ * 响应线程只把调用上下文、结果引用和耗时放入有界队列（多生产者），
+ * 单个后台线程批量取出，构建日志（按 capture 配置序列化响应结果）后批量写入日志仓储
+ *
+ * 队列满时按 mcp.gateway.invoke-log.async.overflow-policy 处理，丢弃的日志计入计数器
+ */
+@Slf4j
+@Service
+public class McpAsyncInvokeLogPublisher implements McpInvokeLogPublisher {
+
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    private final McpInvokeLogRepository mcpInvokeLogRepository;
+
+    private final InvokeLogProperties.Async properties;
+
+    private final BlockingQueue<PendingLog> queue;
+
+    /**
+     * 响应内容记录（异步时在写入线程上序列化，关闭异步时在调用线程上序列化）
+     */
+    private final ResponseCapture responseCapture;
+
+    /**
+     * SAMPLE 策略开始采样的队列长度
+     */
+    private final int sampleThreshold;
+
+    /**
+     * SAMPLE 策略的采样序号
+     */
+    private final AtomicLong sampleSequence = new AtomicLong();
+
+    /**
+     * 已提交（进入队列或同步写入）的日志数
+     */
+    private final LongAdder published = new LongAdder();
+
+    /**
+     * 已写入仓储的日志数
+     */
+    private final LongAdder written = new LongAdder();
+
+    /**
+     * 因队列满丢弃的日志数
+     */
+    private final LongAdder droppedOverflow = new LongAdder();
+
+    /**
+     * 因采样丢弃的日志数
+     */
+    private final LongAdder droppedSampled = new LongAdder();
+
+    private volatile boolean running;
+
+    private Thread drainer;
+
+    public McpAsyncInvokeLogPublisher(McpInvokeLogRepository mcpInvokeLogRepository,
+                                      InvokeLogProperties invokeLogProperties,
+                                      ObjectMapper objectMapper) {
+        this.mcpInvokeLogRepository = mcpInvokeLogRepository;
+        this.properties = invokeLogProperties.getAsync();
+        this.responseCapture = new ResponseCapture(invokeLogProperties.getCapture(), objectMapper);
+        int capacity = Math.max(1, properties.getQueueCapacity());
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.sampleThreshold = (int) (capacity * properties.getSampleThreshold());
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        running = true;
+        drainer = new Thread(this::drainLoop, "mcp-invoke-log-drainer");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (drainer != null) {
+            drainer.interrupt();
+            try {
+                drainer.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // 写入剩余日志
+        flush();
+    }
+
+    @Override
+    public void publish(McpInvokeContext context, Object result, String errorMessage) {
+        PendingLog pending = new PendingLog(context, result, errorMessage, System.nanoTime());
+        if (!properties.isEnabled()) {
+            published.increment();
+            write(List.of(pending));
+            return;
+        }
+
+        boolean accepted;
+        switch (properties.getOverflowPolicy()) {
+            case SAMPLE:
+                accepted = offerSampled(pending);
+                break;
+            case BLOCK:
+                accepted = offerBlocking(pending);
+                break;
+            case DROP_OLDEST:
+            default:
+                accepted = offerDropOldest(pending);
+                break;
+        }
+        if (accepted) {
+            published.increment();
+        }
+    }
+
+    /**
+     * 队列满时丢弃最旧的日志
+     */
+    private boolean offerDropOldest(PendingLog pending) {
+        while (!queue.offer(pending)) {
+            if (queue.poll() != null) {
+                droppedOverflow.increment();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 积压超过阈值后成功日志按比例采样，失败日志始终保留；队列满时丢弃新日志
+     */
+    private boolean offerSampled(PendingLog pending) {
+        if (pending.errorMessage == null && queue.size() >= sampleThreshold
+                && sampleSequence.getAndIncrement() % Math.max(1, properties.getSampleRate()) != 0) {
+            droppedSampled.increment();
+            return false;
+        }
+        if (!queue.offer(pending)) {
+            droppedOverflow.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 等待队列空位，超时后丢弃新日志
+     */
+    private boolean offerBlocking(PendingLog pending) {
+        try {
+            if (queue.offer(pending, properties.getBlockTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        droppedOverflow.increment();
+        return false;
+    }
+
+    private void drainLoop() {
+        int batchSize = Math.max(1, properties.getBatchSize());
+        List<PendingLog> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                PendingLog first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                // shutdown 时由 flush 写入剩余日志
+                break;
+            } catch (Exception e) {
+                log.error("调用日志批量写入失败: {} 条", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush() {
+        List<PendingLog> remaining = new ArrayList<>(queue.size());
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            write(remaining);
+        }
+    }
+
+    private void write(List<PendingLog> batch) {
+        List<McpInvokeLog> logs = new ArrayList<>(batch.size());
+        for (PendingLog pending : batch) {
+            logs.add(pending.toInvokeLog(responseCapture));
+        }
+        mcpInvokeLogRepository.addAll(logs);
+        written.add(logs.size());
+    }
+
+    // ==================== 计数器 ====================
+
+    public long getPublished() {
+        return published.sum();
+    }
+
+    public long getWritten() {
+        return written.sum();
+    }
+
+    public long getDroppedOverflow() {
+        return droppedOverflow.sum();
+    }
+
+    public long getDroppedSampled() {
+        return droppedSampled.sum();
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * 待写入的日志：只持有引用和结束时间，序列化在后台线程完成
+     */
+    private static final class PendingLog {
+
+        private final McpInvokeContext context;
+
+        private final Object result;
+
+        private final String errorMessage;
+
+        private final long endNanos;
+
+        private PendingLog(McpInvokeContext context, Object result, String errorMessage, long endNanos) {
+            this.context = context;
+            this.result = result;
+            this.errorMessage = errorMessage;
+            this.endNanos = endNanos;
+        }
+
+        private McpInvokeLog toInvokeLog(ResponseCapture responseCapture) {
+            long durationMs = TimeUnit.NANOSECONDS.toMillis(endNanos - context.getStartNanos());
+
+            McpInvokeLog.McpInvokeLogBuilder builder = McpInvokeLog.builder()
+                    .callId(context.getCallId())
+                    .source(context.getSource())
+                    .serverId(context.getServerId())
+                    .type(context.getType())
+                    .targetName(context.getTargetName())
+                    .arguments(context.getArguments())
+                    .status(errorMessage == null ? McpInvokeLog.InvokeStatus.SUCCESS : McpInvokeLog.InvokeStatus.FAILURE)
+                    .errorMessage(errorMessage)
+                    .durationMs(durationMs)
+                    .cacheHit(context.isCacheHit())
+                    .coalesced(context.isCoalesced())
+                    .timestamp(context.getStartTime())
+                    .clientId(context.getClientId())
+                    .attempt(context.getAttempt());
+            responseCapture.apply(builder, context.getType(), result);
+            return builder.build();
+        }
+    }
+}
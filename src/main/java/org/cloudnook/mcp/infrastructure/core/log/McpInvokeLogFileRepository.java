@@ -0,0 +1,584 @@
+package org.cloudnook.mcp.infrastructure.core.log;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.cloudnook.mcp.domain.log.model.McpInvokeLog;
+import org.cloudnook.mcp.domain.log.model.McpInvokeLogPage;
+import org.cloudnook.mcp.domain.log.model.McpInvokeLogQuery;
+import org.cloudnook.mcp.domain.log.repository.McpInvokeLogRepository;
+import org.cloudnook.mcp.infrastructure.config.InvokeLogProperties;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * MCP Invoke 调用日志仓储 - 文件实现
+ * 按段追加写入磁盘，保留数天的调用历史用于事后排查
+ *
+ * 特点：
+ * - 存储：目录下多个只追加的段文件，每条记录为带长度前缀和 CRC 的帧（见 {@link InvokeLogCodec}）
+ * - 滚动：当前段超过 segment-size 或写入时间超过 roll-interval 后封存，新建段继续写入
+ * - 刷盘：按 fsync-interval 周期刷盘，滚动和关闭时也会刷盘
+ * - 保留：按 retention 时长和 retention-size 总大小删除最旧的已封存段
+ * - 读取：每个段记录各条记录的起始偏移，按序号二分定位段后通过内存映射直接读取
+ * - 索引：服务ID、来源、目标名称、状态、时间的二级索引（{@link InvokeLogIndex}）常驻内存，条件查询不扫描文件；
+ *   只覆盖最新的 index-max-entries 条记录，段滚动时裁剪更早的索引项
+ * - 段索引文件：段封存时写入记录偏移和索引字段（{@link InvokeLogIndexFile}），启动时据此恢复，不逐条解码
+ * - 恢复：已封存段读取段索引文件，缺失或失效时扫描段文件并补写；最后一个段扫描解码，截断未写完整的尾部记录；
+ *   已封存段损坏时只停止索引，不改写文件
+ * - 线程安全：写入串行执行（异步日志管道下只有一个写入线程），读取不加写锁
+ *
+ * 由 InvokeLogConfig 在 type=FILE 时创建
+ */
+@Slf4j
+public class McpInvokeLogFileRepository implements McpInvokeLogRepository {
+
+    /**
+     * 单个段的字节数上限（读取使用 int 偏移）
+     */
+    private static final long MAX_SEGMENT_BYTES = 1L << 30;
+
+    private static final int INITIAL_BUFFER_BYTES = 64 * 1024;
+
+    private final InvokeLogProperties.FileConfig properties;
+
+    private final int readLimit;
+
+    private final int indexMaxEntries;
+
+    private final long segmentBytes;
+
+    private final Path directory;
+
+    private final InvokeLogCodec codec;
+
+    /**
+     * 写锁，保证追加、滚动、刷盘、清理串行执行
+     */
+    private final Object writeLock = new Object();
+
+    /**
+     * 当前所有段（旧到新，最后一个为写入段），写时复制
+     */
+    private volatile List<InvokeLogSegment> segments;
+
+    /**
+     * 编码缓冲区，仅在写锁内使用
+     */
+    private ByteBuffer encodeBuffer = ByteBuffer.allocate(INITIAL_BUFFER_BYTES);
+
+    /**
+     * 本批各帧在编码缓冲区中的起始位置，仅在写锁内使用
+     */
+    private int[] frameOffsets = new int[256];
+
+    /**
+     * 二级索引
+     */
+    private final InvokeLogIndex index = new InvokeLogIndex();
+
+    /**
+     * 写入段中各记录的索引字段，段封存时写入段索引文件，仅在写锁内使用
+     */
+    private List<InvokeLogIndex.Entry> activeEntries = new ArrayList<>();
+
+    /**
+     * 下一条记录的序号
+     */
+    private long nextSequence;
+
+    /**
+     * 上次刷盘后是否有新写入
+     */
+    private boolean dirty;
+
+    private Disposable fsyncTask;
+
+    private Disposable retentionTask;
+
+    public McpInvokeLogFileRepository(InvokeLogProperties invokeLogProperties, ObjectMapper objectMapper) {
+        this.properties = invokeLogProperties.getFile();
+        this.readLimit = Math.max(1, invokeLogProperties.getCapacity());
+        this.indexMaxEntries = Math.max(1, properties.getIndexMaxEntries());
+        this.segmentBytes = Math.min(MAX_SEGMENT_BYTES, Math.max(1, properties.getSegmentSize().toBytes()));
+        this.directory = Paths.get(properties.getDirectory());
+        this.codec = new InvokeLogCodec(objectMapper);
+        try {
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("调用日志目录初始化失败: " + directory, e);
+        }
+    }
+
+    @PostConstruct
+    public void startTasks() {
+        fsyncTask = Flux.interval(properties.getFsyncInterval(), Schedulers.boundedElastic())
+                .subscribe(tick -> fsync(), e -> log.error("调用日志刷盘任务异常", e));
+        retentionTask = Flux.interval(properties.getRetentionCheckInterval(), Schedulers.boundedElastic())
+                .subscribe(tick -> applyRetention(System.currentTimeMillis()), e -> log.error("调用日志清理任务异常", e));
+    }
+
+    @PreDestroy
+    public void close() {
+        if (fsyncTask != null) {
+            fsyncTask.dispose();
+        }
+        if (retentionTask != null) {
+            retentionTask.dispose();
+        }
+        synchronized (writeLock) {
+            try {
+                activeSegment().seal();
+            } catch (IOException e) {
+                log.error("调用日志关闭失败", e);
+            }
+        }
+    }
+
+    // ==================== 写入 ====================
+
+    @Override
+    public void add(McpInvokeLog log) {
+        addAll(Collections.singletonList(log));
+    }
+
+    @Override
+    public void addAll(List<McpInvokeLog> logs) {
+        if (logs.isEmpty()) {
+            return;
+        }
+        synchronized (writeLock) {
+            ByteBuffer buffer = encodeBuffer;
+            buffer.clear();
+            if (frameOffsets.length < logs.size()) {
+                frameOffsets = Arrays.copyOf(frameOffsets, logs.size());
+            }
+            for (int i = 0; i < logs.size(); i++) {
+                frameOffsets[i] = buffer.position();
+                buffer = codec.encodeFrame(logs.get(i), buffer);
+            }
+            encodeBuffer = buffer;
+            buffer.flip();
+
+            long now = System.currentTimeMillis();
+            try {
+                InvokeLogSegment active = activeSegment();
+                if (shouldRoll(active, buffer.remaining(), now)) {
+                    active = roll(now);
+                }
+                active.append(buffer, frameOffsets, logs.size(), now);
+                for (McpInvokeLog invokeLog : logs) {
+                    InvokeLogIndex.Entry entry = InvokeLogIndex.Entry.of(invokeLog);
+                    activeEntries.add(entry);
+                    index.add(nextSequence++, entry);
+                }
+                dirty = true;
+            } catch (IOException e) {
+                throw new UncheckedIOException("调用日志写入失败", e);
+            }
+        }
+    }
+
+    private boolean shouldRoll(InvokeLogSegment active, int incomingBytes, long nowMillis) {
+        long size = active.getExtent().size;
+        if (size == 0) {
+            return false;
+        }
+        return size + incomingBytes > segmentBytes
+                || nowMillis - active.getCreatedMillis() >= properties.getRollInterval().toMillis();
+    }
+
+    /**
+     * 封存当前段并写入段索引文件，创建新段，裁剪超出上限的索引项，调用方需持有写锁
+     */
+    private InvokeLogSegment roll(long nowMillis) throws IOException {
+        InvokeLogSegment sealed = activeSegment();
+        sealed.seal();
+        writeIndexFile(sealed, activeEntries);
+        activeEntries = new ArrayList<>();
+
+        InvokeLogSegment next = createSegment(nextSequence, nowMillis);
+        List<InvokeLogSegment> updated = new ArrayList<>(segments);
+        updated.add(next);
+        segments = Collections.unmodifiableList(updated);
+        dirty = false;
+        index.trimBefore(nextSequence - indexMaxEntries);
+        return next;
+    }
+
+    /**
+     * 写入已封存段的段索引文件，失败时只记录日志，下次启动时回退到扫描该段
+     */
+    private void writeIndexFile(InvokeLogSegment segment, List<InvokeLogIndex.Entry> entries) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(segment.getPath(), BasicFileAttributes.class);
+            InvokeLogIndexFile.write(segment.getIndexPath(), attributes.size(),
+                    attributes.lastModifiedTime().toMillis(), segment.getExtent(), entries);
+        } catch (IOException | RuntimeException e) {
+            log.warn("调用日志段索引文件写入失败，下次启动时将扫描该段: {}", segment.getIndexPath(), e);
+        }
+    }
+
+    private InvokeLogSegment createSegment(long baseSequence, long nowMillis) throws IOException {
+        Path path = directory.resolve(InvokeLogSegment.fileName(baseSequence));
+        InvokeLogSegment segment = new InvokeLogSegment(path, baseSequence, nowMillis,
+                InvokeLogSegment.Extent.empty(), nowMillis);
+        segment.openForAppend();
+        return segment;
+    }
+
+    private InvokeLogSegment activeSegment() {
+        List<InvokeLogSegment> current = segments;
+        return current.get(current.size() - 1);
+    }
+
+    // ==================== 刷盘与清理 ====================
+
+    /**
+     * 周期刷盘，没有新写入时跳过
+     */
+    void fsync() {
+        synchronized (writeLock) {
+            if (!dirty) {
+                return;
+            }
+            try {
+                activeSegment().force();
+                dirty = false;
+            } catch (IOException e) {
+                log.error("调用日志刷盘失败", e);
+            }
+        }
+    }
+
+    /**
+     * 删除过期或超出总大小的已封存段（从最旧的开始）
+     */
+    void applyRetention(long nowMillis) {
+        synchronized (writeLock) {
+            List<InvokeLogSegment> current = segments;
+            long expireBefore = nowMillis - properties.getRetention().toMillis();
+            long maxBytes = properties.getRetentionSize().toBytes();
+            long totalBytes = 0;
+            for (InvokeLogSegment segment : current) {
+                totalBytes += segment.getExtent().size;
+            }
+
+            int removed = 0;
+            for (InvokeLogSegment segment : current) {
+                if (!segment.isSealed()) {
+                    break;
+                }
+                if (segment.getLastModifiedMillis() >= expireBefore && totalBytes <= maxBytes) {
+                    break;
+                }
+                try {
+                    segment.delete();
+                } catch (IOException e) {
+                    log.warn("调用日志段删除失败: {}", segment.getPath(), e);
+                    break;
+                }
+                totalBytes -= segment.getExtent().size;
+                removed++;
+            }
+
+            if (removed > 0) {
+                List<InvokeLogSegment> remaining = new ArrayList<>(current.subList(removed, current.size()));
+                segments = Collections.unmodifiableList(remaining);
+                index.trimBefore(remaining.get(0).getBaseSequence());
+                log.info("调用日志清理: 删除 {} 个过期段", removed);
+            }
+        }
+    }
+
+    // ==================== 读取 ====================
+
+    @Override
+    public List<McpInvokeLog> getAll() {
+        return getPage(0, readLimit);
+    }
+
+    @Override
+    public List<McpInvokeLog> getPage(int page, int size) {
+        return query(McpInvokeLogQuery.builder().page(page).size(size).build()).getItems();
+    }
+
+    @Override
+    public List<McpInvokeLog> getPageBySource(McpInvokeLog.InvokeSource source, int page, int size) {
+        return query(McpInvokeLogQuery.builder().source(source).page(page).size(size).build()).getItems();
+    }
+
+    @Override
+    public List<McpInvokeLog> getPageByServerId(String serverId, int page, int size) {
+        return query(McpInvokeLogQuery.builder().serverId(serverId).page(page).size(size).build()).getItems();
+    }
+
+    @Override
+    public McpInvokeLogPage query(McpInvokeLogQuery query) {
+        List<InvokeLogSegment> current = segments;
+        InvokeLogSegment first = current.get(0);
+        InvokeLogSegment last = current.get(current.size() - 1);
+        long newest = last.getBaseSequence() + last.getExtent().count - 1;
+        return index.search(query, first.getBaseSequence(), newest, sequence -> load(current, sequence));
+    }
+
+    @Override
+    public void clear() {
+        synchronized (writeLock) {
+            try {
+                for (InvokeLogSegment segment : segments) {
+                    segment.delete();
+                }
+                index.clear();
+                activeEntries = new ArrayList<>();
+                segments = Collections.singletonList(createSegment(nextSequence, System.currentTimeMillis()));
+                dirty = false;
+            } catch (IOException e) {
+                throw new UncheckedIOException("调用日志清空失败", e);
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        long total = 0;
+        for (InvokeLogSegment segment : segments) {
+            total += segment.getExtent().count;
+        }
+        return (int) Math.min(Integer.MAX_VALUE, total);
+    }
+
+    /**
+     * 按序号读取记录：二分查找所在段，按偏移解码
+     */
+    private McpInvokeLog load(List<InvokeLogSegment> current, long sequence) {
+        int low = 0;
+        int high = current.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (current.get(mid).getBaseSequence() <= sequence) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        InvokeLogSegment segment = current.get(low);
+        InvokeLogSegment.Extent extent = segment.getExtent();
+        long position = sequence - segment.getBaseSequence();
+        if (position < 0 || position >= extent.count) {
+            return null;
+        }
+        ByteBuffer view = view(segment, extent);
+        return view != null ? codec.decodeFrame(view, extent.offsets[(int) position]) : null;
+    }
+
+    /**
+     * 获取段的只读视图，段在读取前已被清理时返回 null
+     */
+    private ByteBuffer view(InvokeLogSegment segment, InvokeLogSegment.Extent extent) {
+        if (extent.size == 0) {
+            return null;
+        }
+        try {
+            return segment.view(extent);
+        } catch (IOException e) {
+            log.debug("调用日志段已不可读: {}", segment.getPath());
+            return null;
+        }
+    }
+
+    // ==================== 启动恢复 ====================
+
+    /**
+     * 扫描目录中的段文件，恢复记录偏移、下一个序号和二级索引
+     * 只有最后一个段可能存在未写完整的记录，对其校验 CRC 并截断；
+     * 已封存段优先从段索引文件恢复，且只为索引上限内的段读取索引字段
+     */
+    private void recover() throws IOException {
+        Files.createDirectories(directory);
+
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream.filter(path -> path.getFileName().toString().matches("\\d{20}\\" + InvokeLogSegment.SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+        deleteOrphanIndexFiles();
+
+        long now = System.currentTimeMillis();
+        if (files.isEmpty()) {
+            segments = Collections.singletonList(createSegment(0, now));
+            log.info("调用日志恢复完成: 目录={}, 段数=1, 记录数=0", directory);
+            return;
+        }
+
+        // 写入段：截断未写完整的尾部，逐条解码索引字段
+        int lastIndex = files.size() - 1;
+        InvokeLogSegment last = openSegment(files.get(lastIndex), scan(files.get(lastIndex), true));
+        Files.deleteIfExists(last.getIndexPath());
+        List<InvokeLogIndex.Entry> lastEntries = decodeEntries(last);
+        nextSequence = last.getBaseSequence() + last.getExtent().count;
+        long indexFrom = nextSequence - indexMaxEntries;
+
+        // 已封存段：只有包含索引范围内记录的段需要索引字段
+        List<InvokeLogSegment> recovered = new ArrayList<>(files.size() + 1);
+        List<List<InvokeLogIndex.Entry>> entries = new ArrayList<>(files.size());
+        for (int i = 0; i < lastIndex; i++) {
+            List<InvokeLogIndex.Entry> sealedEntries = new ArrayList<>();
+            boolean indexed = baseSequenceOf(files.get(i + 1)) > indexFrom;
+            recovered.add(recoverSealed(files.get(i), indexed, sealedEntries));
+            entries.add(sealedEntries);
+        }
+        recovered.add(last);
+        entries.add(lastEntries);
+
+        if (last.getExtent().size < segmentBytes) {
+            last.openForAppend();
+            activeEntries = lastEntries;
+        } else {
+            writeIndexFile(last, lastEntries);
+            recovered.add(createSegment(nextSequence, now));
+        }
+        segments = Collections.unmodifiableList(recovered);
+
+        // 按序号从旧到新重建二级索引
+        for (int i = 0; i < entries.size(); i++) {
+            long baseSequence = recovered.get(i).getBaseSequence();
+            List<InvokeLogIndex.Entry> segmentEntries = entries.get(i);
+            for (int j = (int) Math.max(0, Math.min(segmentEntries.size(), indexFrom - baseSequence));
+                 j < segmentEntries.size(); j++) {
+                index.add(baseSequence + j, segmentEntries.get(j));
+            }
+        }
+
+        log.info("调用日志恢复完成: 目录={}, 段数={}, 记录数={}", directory, segments.size(), size());
+    }
+
+    /**
+     * 恢复已封存段：段索引文件有效时直接使用，否则扫描段文件，需要索引字段时逐条解码并补写段索引文件
+     *
+     * @param entries 输出段内各记录的索引字段（不需要时保持为空）
+     */
+    private InvokeLogSegment recoverSealed(Path path, boolean withEntries,
+                                           List<InvokeLogIndex.Entry> entries) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        Path indexPath = path.resolveSibling(InvokeLogIndexFile.fileName(baseSequenceOf(path)));
+        InvokeLogIndexFile.Snapshot snapshot = InvokeLogIndexFile.read(indexPath, attributes.size(),
+                attributes.lastModifiedTime().toMillis(), withEntries);
+        if (snapshot != null) {
+            if (withEntries) {
+                entries.addAll(snapshot.entries);
+            }
+            return openSegment(path, snapshot.extent);
+        }
+
+        InvokeLogSegment segment = openSegment(path, scan(path, false));
+        if (withEntries) {
+            entries.addAll(decodeEntries(segment));
+            writeIndexFile(segment, entries);
+        }
+        return segment;
+    }
+
+    private InvokeLogSegment openSegment(Path path, InvokeLogSegment.Extent extent) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        return new InvokeLogSegment(path, baseSequenceOf(path), attributes.creationTime().toMillis(),
+                extent, attributes.lastModifiedTime().toMillis());
+    }
+
+    /**
+     * 逐条解码段内记录的索引字段
+     */
+    private List<InvokeLogIndex.Entry> decodeEntries(InvokeLogSegment segment) {
+        InvokeLogSegment.Extent extent = segment.getExtent();
+        List<InvokeLogIndex.Entry> entries = new ArrayList<>(extent.count);
+        ByteBuffer view = view(segment, extent);
+        for (int i = 0; view != null && i < extent.count; i++) {
+            entries.add(InvokeLogIndex.Entry.of(codec.decodeFrame(view, extent.offsets[i])));
+        }
+        return entries;
+    }
+
+    /**
+     * 删除段文件已不存在的段索引文件和未完成的临时文件（删除段或写入索引文件时进程退出）
+     */
+    private void deleteOrphanIndexFiles() throws IOException {
+        List<Path> orphans;
+        try (Stream<Path> stream = Files.list(directory)) {
+            orphans = stream.filter(path -> {
+                String name = path.getFileName().toString();
+                if (name.matches("\\d{20}\\" + InvokeLogIndexFile.SUFFIX + "\\.tmp")) {
+                    return true;
+                }
+                return name.matches("\\d{20}\\" + InvokeLogIndexFile.SUFFIX)
+                        && !Files.exists(path.resolveSibling(InvokeLogSegment.fileName(baseSequenceOf(path))));
+            }).toList();
+        }
+        for (Path orphan : orphans) {
+            Files.deleteIfExists(orphan);
+        }
+    }
+
+    private static long baseSequenceOf(Path path) {
+        return Long.parseLong(path.getFileName().toString().substring(0, 20));
+    }
+
+    /**
+     * 顺序扫描段文件中的完整帧
+     * 最后一个段（崩溃时的写入段）截断到最后一条完整记录；已封存的段只读，遇到损坏的帧时停止索引该段，不改写文件
+     */
+    private InvokeLogSegment.Extent scan(Path path, boolean last) throws IOException {
+        StandardOpenOption[] options = last
+                ? new StandardOpenOption[]{StandardOpenOption.READ, StandardOpenOption.WRITE}
+                : new StandardOpenOption[]{StandardOpenOption.READ};
+        try (FileChannel channel = FileChannel.open(path, options)) {
+            long fileSize = Math.min(channel.size(), Integer.MAX_VALUE);
+            if (fileSize == 0) {
+                return InvokeLogSegment.Extent.empty();
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            int limit = (int) fileSize;
+            int position = 0;
+            int count = 0;
+            int[] offsets = new int[1024];
+            while (position < limit) {
+                int frameSize = codec.validFrameSize(buffer, position, limit, last);
+                if (frameSize < 0) {
+                    break;
+                }
+                if (count == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, count * 2);
+                }
+                offsets[count++] = position;
+                position += frameSize;
+            }
+            if (position < channel.size()) {
+                if (last) {
+                    log.warn("调用日志段尾部不完整，截断 {} 字节: {}", channel.size() - position, path);
+                    channel.truncate(position);
+                } else {
+                    log.error("调用日志已封存段在偏移 {} 处损坏，之后的 {} 字节不再索引（文件保持不变）: {}",
+                            position, channel.size() - position, path);
+                }
+            }
+            return new InvokeLogSegment.Extent(position, count, offsets);
+        }
+    }
+}
@@ -1,23 +1,28 @@
 package org.cloudnook.mcp.infrastructure.core.log;
 
 import org.cloudnook.mcp.domain.log.model.McpInvokeLog;
+import org.cloudnook.mcp.domain.log.model.McpInvokeLogPage;
+import org.cloudnook.mcp.domain.log.model.McpInvokeLogQuery;
 import org.cloudnook.mcp.domain.log.repository.McpInvokeLogRepository;
-import org.springframework.stereotype.Component;
+import org.cloudnook.mcp.infrastructure.config.InvokeLogProperties;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.ConcurrentLinkedDeque;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * MCP Invoke 调用日志仓储 - 内存实现
- * 使用 ConcurrentLinkedDeque 存储，支持高并发写入
+ * 使用预分配的无锁环形缓冲区存储，写满后覆盖最旧的记录
  *
  * 特点：
- * - 容量限制：最多 100 条记录（LRU 淘汰）
+ * - 容量限制：由 mcp.gateway.invoke-log.capacity 配置
+ * - 由 InvokeLogConfig 在 type=MEMORY 时创建
  * - 顺序：LIFO（最新的在前）
- * - 线程安全：使用并发队列
+ * - 线程安全：写入通过全局序号分配槽位，O(1) 无锁；读取按序号校验槽位，跳过正在写入或已被覆盖的记录
+ * - 分页读取只访问目标页涉及的槽位，不复制整个缓冲区
+ * - 条件查询通过 {@link InvokeLogIndex} 定位，索引写入需要加锁，被覆盖的记录定期从索引中裁剪
  *
  * 适用场景：
  * - 开发测试环境
@@ -27,84 +32,184 @@ import java.util.stream.Collectors;
  * @Author: the-way
  * @Date: 2026-01-13
  */
-@Component
 public class McpInvokeLogMemoryRepository implements McpInvokeLogRepository {
 
+    private final int capacity;
+
+    /**
+     * 槽位（预分配）
+     */
+    private final AtomicReferenceArray<Slot> slots;
+
     /**
-     * 最大记录数
+     * 下一条记录的序号
      */
-    private static final int MAX_SIZE = 100;
+    private final AtomicLong nextSequence = new AtomicLong();
 
     /**
-     * 日志记录（使用 Deque 保持 LIFO 顺序）
+     * 清空时的序号，小于该序号的记录视为已清除
      */
-    private final ConcurrentLinkedDeque<McpInvokeLog> logs = new ConcurrentLinkedDeque<>();
+    private volatile long clearedSequence;
+
+    /**
+     * 二级索引
+     */
+    private final InvokeLogIndex index = new InvokeLogIndex();
+
+    /**
+     * 裁剪索引的间隔（按写入条数）
+     */
+    private final int trimInterval;
+
+    /**
+     * 上次裁剪索引时的序号
+     */
+    private volatile long lastTrimSequence;
+
+    public McpInvokeLogMemoryRepository(InvokeLogProperties properties) {
+        this.capacity = Math.max(1, properties.getCapacity());
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.trimInterval = Math.max(1, capacity / 4);
+    }
 
     @Override
     public void add(McpInvokeLog log) {
-        logs.addFirst(log);
+        long sequence = nextSequence.getAndIncrement();
+        write(sequence, log);
+        index.add(sequence, log);
+        trimIndex(sequence);
+    }
+
+    @Override
+    public void addAll(List<McpInvokeLog> logs) {
+        if (logs.isEmpty()) {
+            return;
+        }
+        // 一次性分配连续序号，超出容量的部分只保留最新的 capacity 条
+        long first = nextSequence.getAndAdd(logs.size());
+        int skip = Math.max(0, logs.size() - capacity);
+        for (int i = skip; i < logs.size(); i++) {
+            write(first + i, logs.get(i));
+            index.add(first + i, logs.get(i));
+        }
+        trimIndex(first + logs.size() - 1);
+    }
+
+    private void write(long sequence, McpInvokeLog log) {
+        int index = indexOf(sequence);
+        Slot slot = new Slot(sequence, log);
 
-        // 超出限制时删除最旧的记录
-        while (logs.size() > MAX_SIZE) {
-            logs.removeLast();
+        // 只覆盖更旧的记录，避免写入较慢的线程覆盖已绕过一圈的新记录
+        Slot current = slots.get(index);
+        while (current == null || current.sequence < sequence) {
+            if (slots.compareAndSet(index, current, slot)) {
+                return;
+            }
+            current = slots.get(index);
         }
     }
 
     @Override
     public List<McpInvokeLog> getAll() {
-        return new ArrayList<>(logs);
+        return getPage(0, capacity);
     }
 
     @Override
     public List<McpInvokeLog> getPage(int page, int size) {
-        List<McpInvokeLog> all = new ArrayList<>(logs);
-        int start = page * size;
-        if (start >= all.size()) {
+        if (page < 0 || size <= 0) {
             return Collections.emptyList();
         }
-        int end = Math.min(start + size, all.size());
-        return all.subList(start, end);
+
+        long newest = nextSequence.get() - 1;
+        long oldest = oldestSequence(newest);
+        long from = newest - (long) page * size;
+        if (from < oldest) {
+            return Collections.emptyList();
+        }
+
+        long to = Math.max(oldest, from - size + 1);
+        List<McpInvokeLog> result = new ArrayList<>((int) (from - to + 1));
+        for (long sequence = from; sequence >= to; sequence--) {
+            McpInvokeLog log = read(sequence);
+            if (log != null) {
+                result.add(log);
+            }
+        }
+        return result;
     }
 
     @Override
     public List<McpInvokeLog> getPageBySource(McpInvokeLog.InvokeSource source, int page, int size) {
-        // 过滤出指定来源的日志记录
-        List<McpInvokeLog> filtered = logs.stream()
-                .filter(log -> source.equals(log.getSource()))
-                .collect(Collectors.toList());
-
-        // 分页
-        int start = page * size;
-        if (start >= filtered.size()) {
-            return Collections.emptyList();
-        }
-        int end = Math.min(start + size, filtered.size());
-        return filtered.subList(start, end);
+        return query(McpInvokeLogQuery.builder().source(source).page(page).size(size).build()).getItems();
     }
 
     @Override
     public List<McpInvokeLog> getPageByServerId(String serverId, int page, int size) {
-        // 过滤出指定服务的日志记录
-        List<McpInvokeLog> filtered = logs.stream()
-                .filter(log -> serverId.equals(log.getServerId()))
-                .collect(Collectors.toList());
-
-        // 分页
-        int start = page * size;
-        if (start >= filtered.size()) {
-            return Collections.emptyList();
-        }
-        int end = Math.min(start + size, filtered.size());
-        return filtered.subList(start, end);
+        return query(McpInvokeLogQuery.builder().serverId(serverId).page(page).size(size).build()).getItems();
+    }
+
+    @Override
+    public McpInvokeLogPage query(McpInvokeLogQuery query) {
+        long newest = nextSequence.get() - 1;
+        return index.search(query, oldestSequence(newest), newest, this::read);
     }
 
     @Override
     public void clear() {
-        logs.clear();
+        clearedSequence = nextSequence.get();
+        for (int i = 0; i < capacity; i++) {
+            slots.set(i, null);
+        }
+        index.clear();
     }
 
     @Override
     public int size() {
-        return logs.size();
+        long newest = nextSequence.get() - 1;
+        return (int) (newest - oldestSequence(newest) + 1);
+    }
+
+    /**
+     * 每写入 trimInterval 条记录，从索引中移除已被覆盖的序号
+     */
+    private void trimIndex(long newest) {
+        if (newest - lastTrimSequence >= trimInterval) {
+            lastTrimSequence = newest;
+            index.trimBefore(oldestSequence(newest));
+        }
+    }
+
+    /**
+     * 读取指定序号的记录，槽位尚未写入或已被覆盖时返回 null
+     */
+    private McpInvokeLog read(long sequence) {
+        Slot slot = slots.get(indexOf(sequence));
+        return slot != null && slot.sequence == sequence ? slot.log : null;
+    }
+
+    /**
+     * 缓冲区中仍可能存在的最旧序号
+     */
+    private long oldestSequence(long newest) {
+        return Math.max(clearedSequence, newest - capacity + 1);
+    }
+
+    private int indexOf(long sequence) {
+        return (int) (sequence % capacity);
+    }
+
+    /**
+     * 槽位内容，序号用于校验记录是否仍有效
+     */
+    private static final class Slot {
+
+        private final long sequence;
+
+        private final McpInvokeLog log;
+
+        private Slot(long sequence, McpInvokeLog log) {
+            this.sequence = sequence;
+            this.log = log;
+        }
     }
 }
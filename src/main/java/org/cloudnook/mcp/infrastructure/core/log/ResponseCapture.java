@@ -0,0 +1,173 @@
+package org.cloudnook.mcp.infrastructure.core.log;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.cloudnook.mcp.domain.log.model.McpInvokeLog;
+import org.cloudnook.mcp.infrastructure.config.InvokeLogProperties;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+/**
+ * 调用日志响应内容记录
+ * 按 mcp.gateway.invoke-log.capture 配置把响应序列化为紧凑 JSON 并写入日志
+ *
+ * - NONE：不序列化
+ * - HASH：序列化流直接进入摘要计算，不保留内容
+ * - TRUNCATE：写满 max-bytes 后中止序列化，大响应（如 base64 内容）不会完整生成
+ * - FULL：完整序列化
+ *
+ * 每次调用使用独立的输出流和摘要，无共享状态
+ */
+@Slf4j
+final class ResponseCapture {
+
+    private final InvokeLogProperties.Capture properties;
+
+    private final ObjectMapper objectMapper;
+
+    private final int maxBytes;
+
+    ResponseCapture(InvokeLogProperties.Capture properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.maxBytes = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(0, properties.getMaxBytes().toBytes()));
+    }
+
+    /**
+     * 按调用类型的记录方式写入响应内容
+     */
+    void apply(McpInvokeLog.McpInvokeLogBuilder builder, McpInvokeLog.InvokeType type, Object result) {
+        if (result == null) {
+            return;
+        }
+        switch (properties.modeOf(type)) {
+            case NONE:
+                break;
+            case HASH:
+                builder.responseHash(hash(result));
+                break;
+            case FULL:
+                builder.response(serialize(result, Integer.MAX_VALUE - 8, builder));
+                break;
+            case TRUNCATE:
+            default:
+                builder.response(serialize(result, maxBytes, builder));
+                break;
+        }
+    }
+
+    private String serialize(Object result, int limit, McpInvokeLog.McpInvokeLogBuilder builder) {
+        BoundedOutputStream out = new BoundedOutputStream(limit);
+        try {
+            objectMapper.writeValue(out, result);
+        } catch (IOException e) {
+            if (!out.overflow) {
+                // 无法序列化为 JSON 时退回 toString
+                log.debug("响应序列化失败，使用 toString: {}", e.getMessage());
+                out = new BoundedOutputStream(limit);
+                out.writeQuietly(String.valueOf(result).getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        builder.responseTruncated(out.overflow);
+        return out.toUtf8String();
+    }
+
+    private String hash(Object result) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (DigestOutputStream out = new DigestOutputStream(OutputStream.nullOutputStream(), digest)) {
+                objectMapper.writeValue(out, result);
+            } catch (IOException e) {
+                digest.reset();
+                digest.update(String.valueOf(result).getBytes(StandardCharsets.UTF_8));
+            }
+            return "sha256:" + HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 超过上限后丢弃后续内容并中止序列化
+     */
+    private static final class BoundedOutputStream extends OutputStream {
+
+        private final int limit;
+
+        private byte[] buffer = new byte[256];
+
+        private int count;
+
+        private boolean overflow;
+
+        private BoundedOutputStream(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            int accepted = Math.min(length, limit - count);
+            if (accepted > 0) {
+                if (count + accepted > buffer.length) {
+                    buffer = Arrays.copyOf(buffer, Math.min(limit, Math.max(buffer.length * 2, count + accepted)));
+                }
+                System.arraycopy(bytes, offset, buffer, count, accepted);
+                count += accepted;
+            }
+            if (accepted < length) {
+                overflow = true;
+                throw new IOException("响应超过记录上限");
+            }
+        }
+
+        private void writeQuietly(byte[] bytes) {
+            try {
+                write(bytes, 0, bytes.length);
+            } catch (IOException ignored) {
+                // 已截断
+            }
+        }
+
+        /**
+         * 转为字符串，截断时去掉末尾不完整的 UTF-8 字符
+         */
+        private String toUtf8String() {
+            int length = count;
+            if (overflow) {
+                int lead = length - 1;
+                while (lead >= 0 && (buffer[lead] & 0xC0) == 0x80) {
+                    lead--;
+                }
+                if (lead >= 0 && lead + utf8Length(buffer[lead]) > length) {
+                    length = lead;
+                }
+            }
+            return new String(buffer, 0, length, StandardCharsets.UTF_8);
+        }
+
+        private static int utf8Length(byte lead) {
+            if ((lead & 0x80) == 0) {
+                return 1;
+            }
+            if ((lead & 0xE0) == 0xC0) {
+                return 2;
+            }
+            if ((lead & 0xF0) == 0xE0) {
+                return 3;
+            }
+            return 4;
+        }
+    }
+}
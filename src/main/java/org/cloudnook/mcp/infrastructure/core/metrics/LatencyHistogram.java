@@ -0,0 +1,174 @@
+package org.cloudnook.mcp.infrastructure.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 并发延迟直方图（log-linear，固定内存）
+ * 按 2 的幂划分区间，每个区间再线性划分为 {@value #SUB_BUCKETS} 个子桶，相对误差不超过 1/{@value #SUB_BUCKETS}（约 3%）
+ *
+ * 特点：
+ * - 固定内存：桶数量在创建时确定，与样本数量无关
+ * - 无锁无分配：记录只做一次原子自增
+ * - 超出量程的样本计入最后一个桶
+ */
+public final class LatencyHistogram {
+
+    /**
+     * 每个 2 的幂区间的子桶位数
+     */
+    private static final int SUB_BUCKET_BITS = 5;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * 最大量程的指数：2^42 纳秒，约 73 分钟
+     */
+    private static final int MAX_EXPONENT = 42;
+
+    private static final int BUCKET_COUNT = SUB_BUCKETS + (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    /**
+     * 样本总和
+     */
+    private final LongAdder sum = new LongAdder();
+
+    /**
+     * 记录一个样本
+     *
+     * @param valueNanos 延迟（纳秒），负值按 0 处理
+     */
+    public void record(long valueNanos) {
+        counts.incrementAndGet(indexOf(valueNanos));
+        sum.add(Math.max(0, valueNanos));
+    }
+
+    /**
+     * 计算多个分位值
+     * 各分位值基于同一份计数快照，单位与记录时一致；无样本时全部返回 0
+     *
+     * @param quantiles 分位（0-1），需按升序传入
+     * @return 对应分位值（取所在桶的上界）
+     */
+    public long[] percentiles(double... quantiles) {
+        long[] snapshot = new long[BUCKET_COUNT];
+        long total = addCountsTo(snapshot);
+        return percentilesOf(snapshot, total, quantiles);
+    }
+
+    /**
+     * 将各桶计数累加到 target（用于合并多个直方图）
+     *
+     * @param target 由 {@link #newCounts()} 创建的计数数组
+     * @return 本直方图的样本数
+     */
+    long addCountsTo(long[] target) {
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long count = counts.get(i);
+            target[i] += count;
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * 新建一个可容纳全部桶计数的数组
+     */
+    static long[] newCounts() {
+        return new long[BUCKET_COUNT];
+    }
+
+    /**
+     * 按计数快照计算分位值
+     *
+     * @param snapshot  各桶计数
+     * @param total     样本总数
+     * @param quantiles 分位（0-1），需按升序传入
+     * @return 对应分位值（取所在桶的上界），无样本时全部返回 0
+     */
+    static long[] percentilesOf(long[] snapshot, long total, double... quantiles) {
+        long[] result = new long[quantiles.length];
+        if (total == 0) {
+            return result;
+        }
+
+        int bucket = 0;
+        long seen = snapshot[0];
+        for (int q = 0; q < quantiles.length; q++) {
+            long rank = Math.max(1, (long) Math.ceil(quantiles[q] * total));
+            while (seen < rank && bucket < BUCKET_COUNT - 1) {
+                seen += snapshot[++bucket];
+            }
+            result[q] = upperBoundOf(bucket);
+        }
+        return result;
+    }
+
+    /**
+     * 按给定上界计算累计计数（用于导出固定边界的直方图）
+     * 样本按所在桶的上界归入边界，边界附近的误差与桶精度一致
+     *
+     * @param upperBounds 升序排列的上界
+     * @param out         输出数组，长度与 upperBounds 相同
+     * @return 样本总数（即 +Inf 桶的计数）
+     */
+    public long cumulativeCounts(long[] upperBounds, long[] out) {
+        long total = 0;
+        int bound = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long upper = upperBoundOf(i);
+            while (bound < upperBounds.length && upper > upperBounds[bound]) {
+                out[bound++] = total;
+            }
+            total += counts.get(i);
+        }
+        while (bound < upperBounds.length) {
+            out[bound++] = total;
+        }
+        return total;
+    }
+
+    /**
+     * 样本总和
+     */
+    public long sum() {
+        return sum.sum();
+    }
+
+    /**
+     * 样本总数
+     */
+    public long count() {
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) Math.max(0, value);
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + subBucket;
+    }
+
+    private static long upperBoundOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+        int subBucket = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        long lower = (long) (SUB_BUCKETS + subBucket) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
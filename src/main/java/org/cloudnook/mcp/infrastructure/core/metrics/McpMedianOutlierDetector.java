@@ -0,0 +1,277 @@
+package org.cloudnook.mcp.infrastructure.core.metrics;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.cloudnook.mcp.domain.metrics.model.McpOutlierStats;
+import org.cloudnook.mcp.domain.routing.McpOutlierDetector;
+import org.cloudnook.mcp.domain.server.model.McpServer;
+import org.cloudnook.mcp.domain.server.service.McpRegister;
+import org.cloudnook.mcp.infrastructure.config.OutlierDetectionProperties;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * MCP 服务实例离群检测 - 组内中位数实现
+ * 后台任务按周期读取 {@link McpMemoryMetrics} 的滑动时间窗口，按服务名分组，
+ * 平均延迟超过组内中位数若干倍或错误率明显高于中位数的实例被临时摘除
+ *
+ * 说明：
+ * - 摘除时长 = 基础时长 × 摘除倍数（不超过最长时长），每次摘除倍数加一，之后每个正常的检测周期减一
+ * - 实例恢复后的一个统计窗口内不参与检测，窗口里还留着摘除前的数据
+ * - 路由读取只比较一个 volatile 时间戳，检测状态只由检测任务修改
+ * - 错误率只来自到达后端的请求：网关自身的限流、并发隔离和熔断拒绝不进入时间窗口，
+ *   被本地限流的实例不会因此被当作离群实例摘除
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class McpMedianOutlierDetector implements McpOutlierDetector {
+
+    private static final String REASON_LATENCY = "LATENCY";
+
+    private static final String REASON_ERROR_RATE = "ERROR_RATE";
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    /**
+     * 检测状态，Key: serverId
+     */
+    private static final ConcurrentHashMap<String, HostState> HOSTS = new ConcurrentHashMap<>();
+
+    private final OutlierDetectionProperties properties;
+
+    private final McpMemoryMetrics memoryMetrics;
+
+    private final McpRegister mcpRegister;
+
+    /**
+     * 周期检测任务
+     */
+    private Disposable detectTask;
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        detectTask = Flux.interval(properties.getInterval())
+                .subscribe(tick -> detect(System.currentTimeMillis()),
+                        e -> log.error("离群检测任务异常", e));
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (detectTask != null) {
+            detectTask.dispose();
+        }
+    }
+
+    @Override
+    public boolean isEjected(String serverId) {
+        if (!properties.isEnabled()) {
+            return false;
+        }
+        HostState host = HOSTS.get(serverId);
+        return host != null && host.isEjected(System.currentTimeMillis());
+    }
+
+    @Override
+    public void remove(String serverId) {
+        HOSTS.remove(serverId);
+    }
+
+    @Override
+    public McpOutlierStats getStats(String serverId) {
+        HostState host = HOSTS.get(serverId);
+        if (host == null) {
+            return null;
+        }
+        long ejectedUntil = host.ejectedUntilMillis;
+        return McpOutlierStats.builder()
+                .ejected(host.isEjected(System.currentTimeMillis()))
+                .reason(host.reason)
+                .ejectedUntil(ejectedUntil > 0 ? Instant.ofEpochMilli(ejectedUntil) : null)
+                .ejectionMultiplier(host.multiplier)
+                .ejections(host.ejections)
+                .windowLatencyMs(host.windowLatencyMs)
+                .windowErrorRate(host.windowErrorRate)
+                .groupMedianLatencyMs(host.groupMedianLatencyMs)
+                .build();
+    }
+
+    /**
+     * 执行一轮检测
+     *
+     * @param nowMillis 当前时间（毫秒），决定摘除起止时间
+     */
+    void detect(long nowMillis) {
+        int buckets = Math.max(1, (int) (properties.getWindow().toMillis() / SlidingWindow.BUCKET_MILLIS));
+
+        Map<String, List<McpServer>> groups = new LinkedHashMap<>();
+        for (McpServer server : mcpRegister.getAllServers()) {
+            groups.computeIfAbsent(server.getName(), name -> new ArrayList<>()).add(server);
+        }
+
+        for (Map.Entry<String, List<McpServer>> group : groups.entrySet()) {
+            try {
+                detectGroup(group.getKey(), group.getValue(), buckets, nowMillis);
+            } catch (Exception e) {
+                log.error("离群检测失败: serverName={}", group.getKey(), e);
+            }
+        }
+    }
+
+    private void detectGroup(String serverName, List<McpServer> servers, int buckets, long nowMillis) {
+        if (servers.size() < properties.getMinHosts()) {
+            return;
+        }
+
+        int ejected = 0;
+        List<Sample> samples = new ArrayList<>(servers.size());
+        for (McpServer server : servers) {
+            HostState host = HOSTS.computeIfAbsent(server.getId(), id -> new HostState());
+            if (host.isEjected(nowMillis)) {
+                ejected++;
+                continue;
+            }
+            if (nowMillis < host.graceUntilMillis) {
+                continue;
+            }
+            SlidingWindow.Totals totals = memoryMetrics.getWindowTotals(server.getId(), buckets);
+            if (totals == null || totals.getRequests() < Math.max(1, properties.getMinRequests())) {
+                continue;
+            }
+            samples.add(new Sample(server.getId(), host,
+                    (double) totals.getLatencySumNanos() / totals.getRequests(),
+                    (double) totals.getFailures() / totals.getRequests()));
+        }
+        if (samples.size() < properties.getMinHosts()) {
+            return;
+        }
+
+        double medianLatency = median(samples.stream().mapToDouble(sample -> sample.latencyNanos).toArray());
+        double medianErrorRate = median(samples.stream().mapToDouble(sample -> sample.errorRate).toArray());
+        double latencyFloor = properties.getLatencyFloor().toNanos();
+
+        List<Sample> outliers = new ArrayList<>();
+        for (Sample sample : samples) {
+            sample.host.windowLatencyMs = sample.latencyNanos / NANOS_PER_MILLI;
+            sample.host.windowErrorRate = sample.errorRate;
+            sample.host.groupMedianLatencyMs = medianLatency / NANOS_PER_MILLI;
+
+            if (sample.errorRate - medianErrorRate >= properties.getErrorRateDelta()) {
+                sample.reason = REASON_ERROR_RATE;
+            } else if (sample.latencyNanos >= latencyFloor
+                    && sample.latencyNanos > medianLatency * properties.getLatencyFactor()) {
+                sample.reason = REASON_LATENCY;
+            }
+
+            if (sample.reason != null) {
+                outliers.add(sample);
+            } else if (sample.host.multiplier > 0) {
+                // 正常的检测周期回落摘除倍数
+                sample.host.multiplier--;
+            }
+        }
+
+        // 错误离群优先，其次按延迟从高到低
+        outliers.sort(Comparator.comparing((Sample sample) -> !REASON_ERROR_RATE.equals(sample.reason))
+                .thenComparing(sample -> -sample.latencyNanos));
+        int maxEjected = (int) (servers.size() * properties.getMaxEjectionPercent());
+        for (Sample outlier : outliers) {
+            if (ejected >= maxEjected) {
+                log.warn("离群实例已达摘除上限，保留: serverName={}, serverId={}, reason={}",
+                        serverName, outlier.serverId, outlier.reason);
+                continue;
+            }
+            eject(serverName, outlier, medianLatency, nowMillis);
+            ejected++;
+        }
+    }
+
+    private void eject(String serverName, Sample outlier, double medianLatency, long nowMillis) {
+        HostState host = outlier.host;
+        host.multiplier++;
+        long duration = Math.min(properties.getBaseEjectionTime().toMillis() * host.multiplier,
+                Math.max(properties.getBaseEjectionTime().toMillis(), properties.getMaxEjectionTime().toMillis()));
+        host.reason = outlier.reason;
+        host.ejections++;
+        host.graceUntilMillis = nowMillis + duration + properties.getWindow().toMillis();
+        host.ejectedUntilMillis = nowMillis + duration;
+
+        log.warn("实例离群，临时摘除: serverName={}, serverId={}, reason={}, latency={}ms, median={}ms, errorRate={}, duration={}ms",
+                serverName, outlier.serverId, outlier.reason,
+                Math.round(outlier.latencyNanos / NANOS_PER_MILLI), Math.round(medianLatency / NANOS_PER_MILLI),
+                String.format("%.2f", outlier.errorRate), duration);
+    }
+
+    private static double median(double[] values) {
+        Arrays.sort(values);
+        int middle = values.length / 2;
+        return values.length % 2 == 1 ? values[middle] : (values[middle - 1] + values[middle]) / 2;
+    }
+
+    /**
+     * 单个实例的检测状态
+     */
+    private static final class HostState {
+
+        private volatile long ejectedUntilMillis;
+
+        /**
+         * 恢复后的观察期截止时间，之前不参与检测
+         */
+        private long graceUntilMillis;
+
+        private volatile int multiplier;
+
+        private volatile long ejections;
+
+        private volatile String reason;
+
+        private volatile Double windowLatencyMs;
+
+        private volatile Double windowErrorRate;
+
+        private volatile Double groupMedianLatencyMs;
+
+        private boolean isEjected(long nowMillis) {
+            return ejectedUntilMillis > nowMillis;
+        }
+    }
+
+    /**
+     * 单个实例在本轮检测中的窗口数据
+     */
+    private static final class Sample {
+
+        private final String serverId;
+
+        private final HostState host;
+
+        private final double latencyNanos;
+
+        private final double errorRate;
+
+        private String reason;
+
+        private Sample(String serverId, HostState host, double latencyNanos, double errorRate) {
+            this.serverId = serverId;
+            this.host = host;
+            this.latencyNanos = latencyNanos;
+            this.errorRate = errorRate;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package org.cloudnook.mcp.infrastructure.core.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.cloudnook.mcp.domain.log.model.McpInvokeLog;
+import org.cloudnook.mcp.domain.metrics.model.McpDimensionMetrics;
+import org.cloudnook.mcp.domain.metrics.repository.McpDimensionMetricsRepository;
+import org.cloudnook.mcp.infrastructure.config.MetricsProperties;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * MCP 维度监控指标仓储 - 内存实现
+ * 每个服务一张目标 Top-K 表，客户端共用一张 Top-K 表
+ */
+@Slf4j
+@Repository
+public class McpMemoryDimensionMetrics implements McpDimensionMetricsRepository {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.99};
+
+    /**
+     * Key: serverId, Value: 目标 Top-K 表
+     */
+    private static final ConcurrentHashMap<String, TopKTable<TargetKey>> TARGETS_HOLDER = new ConcurrentHashMap<>();
+
+    private final MetricsProperties properties;
+
+    /**
+     * 客户端 Top-K 表
+     */
+    private final TopKTable<String> clients;
+
+    public McpMemoryDimensionMetrics(MetricsProperties properties) {
+        this.properties = properties;
+        this.clients = new TopKTable<>(properties.getMaxClients());
+    }
+
+    @Override
+    public void recordTarget(String serverId, McpInvokeLog.InvokeType type, String targetName,
+                             long latencyNanos, boolean success) {
+        TopKTable<TargetKey> targets = TARGETS_HOLDER.get(serverId);
+        if (targets == null) {
+            targets = TARGETS_HOLDER.computeIfAbsent(serverId,
+                    id -> new TopKTable<>(properties.getMaxTargetsPerServer()));
+        }
+        targets.record(new TargetKey(type, targetName), latencyNanos, success);
+    }
+
+    @Override
+    public void recordClient(String clientId, long latencyNanos, boolean success) {
+        if (clientId == null || clientId.isBlank()) {
+            return;
+        }
+        clients.record(clientId, latencyNanos, success);
+    }
+
+    @Override
+    public List<McpDimensionMetrics> getTopTargets(String serverId, int limit) {
+        TopKTable<TargetKey> targets = TARGETS_HOLDER.get(serverId);
+        if (targets == null) {
+            return List.of();
+        }
+        return targets.top(limit).stream()
+                .map(e -> toMetrics(e.getValue())
+                        .serverId(serverId)
+                        .type(e.getKey().type)
+                        .targetName(e.getKey().targetName)
+                        .build())
+                .toList();
+    }
+
+    @Override
+    public List<McpDimensionMetrics> getTopClients(int limit) {
+        return clients.top(limit).stream()
+                .map(e -> toMetrics(e.getValue())
+                        .clientId(e.getKey())
+                        .build())
+                .toList();
+    }
+
+    @Override
+    public void removeTargets(String serverId) {
+        if (TARGETS_HOLDER.remove(serverId) != null) {
+            log.info("目标维度指标已移除: serverId={}", serverId);
+        }
+    }
+
+    /**
+     * 以 OpenMetrics 格式写出目标维度和客户端维度的请求计数（不含直方图，控制序列数量）
+     *
+     * @param writer 输出
+     */
+    public void writeOpenMetrics(OpenMetricsWriter writer) throws IOException {
+        writer.family("mcp_gateway_target_requests", "counter",
+                "MCP requests per tracked target (top-K per server)");
+        for (Map.Entry<String, TopKTable<TargetKey>> server : TARGETS_HOLDER.entrySet()) {
+            for (Map.Entry<TargetKey, TopKTable.Entry> target : server.getValue().entries()) {
+                TopKTable.Entry entry = target.getValue();
+                long failures = entry.failures();
+                writer.sample("mcp_gateway_target_requests_total", entry.requests() - failures,
+                        "server_id", server.getKey(), "type", target.getKey().type.name(),
+                        "target", target.getKey().targetName, "outcome", "success");
+                writer.sample("mcp_gateway_target_requests_total", failures,
+                        "server_id", server.getKey(), "type", target.getKey().type.name(),
+                        "target", target.getKey().targetName, "outcome", "failure");
+            }
+        }
+
+        writer.family("mcp_gateway_client_requests", "counter",
+                "MCP requests per tracked client id (top-K)");
+        for (Map.Entry<String, TopKTable.Entry> client : clients.entries()) {
+            TopKTable.Entry entry = client.getValue();
+            long failures = entry.failures();
+            writer.sample("mcp_gateway_client_requests_total", entry.requests() - failures,
+                    "client_id", client.getKey(), "outcome", "success");
+            writer.sample("mcp_gateway_client_requests_total", failures,
+                    "client_id", client.getKey(), "outcome", "failure");
+        }
+    }
+
+    private static McpDimensionMetrics.McpDimensionMetricsBuilder toMetrics(TopKTable.Entry entry) {
+        long requests = entry.requests();
+        long[] percentiles = entry.latencyHistogram().percentiles(PERCENTILES);
+        return McpDimensionMetrics.builder()
+                .rankCount(entry.rankCount())
+                .totalRequests(requests)
+                .failedRequests(entry.failures())
+                .avgLatency(requests == 0 ? 0.0 : entry.latencySumNanos() / NANOS_PER_MILLI / requests)
+                .p50Latency(percentiles[0] / NANOS_PER_MILLI)
+                .p90Latency(percentiles[1] / NANOS_PER_MILLI)
+                .p99Latency(percentiles[2] / NANOS_PER_MILLI);
+    }
+
+    /**
+     * 目标维度键
+     */
+    private static final class TargetKey {
+
+        private final McpInvokeLog.InvokeType type;
+
+        private final String targetName;
+
+        private final int hash;
+
+        private TargetKey(McpInvokeLog.InvokeType type, String targetName) {
+            this.type = type;
+            this.targetName = targetName;
+            this.hash = Objects.hash(type, targetName);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TargetKey other)) {
+                return false;
+            }
+            return type == other.type && Objects.equals(targetName, other.targetName);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -7,14 +7,22 @@ import org.cloudnook.mcp.domain.server.service.McpRegister;
 import org.cloudnook.mcp.domain.metrics.repository.McpMetricsRepository;
 import org.springframework.stereotype.Repository;
 
+import java.io.IOException;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * MCP 监控指标仓储 - 内存实现
- * 使用 ConcurrentHashMap 存储服务监控数据
+ * 每个服务维护一组无锁记录单元（LongAdder 计数 + 原子 min/max/EWMA + 延迟直方图 + 滑动时间窗口），读取时生成 {@link McpServerMetrics} 快照
+ *
+ * 说明：
+ * - 写入路径不加锁、不装箱，热点服务的并发请求不会在同一把锁上串行
+ * - 快照各字段分别读取，字段之间不保证同一时刻（监控场景可接受）
  *
  * @Author: the-way
  * @Date: 2026-01-13
@@ -24,9 +32,38 @@ import java.util.concurrent.ConcurrentHashMap;
 public class McpMemoryMetrics implements McpMetricsRepository {
 
     /**
-     * Key: serverId, Value: 服务监控指标
+     * EWMA 平滑因子，0.2 表示给当前值 20% 权重，历史值 80% 权重
+     */
+    private static final double EWMA_ALPHA = 0.2;
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    /**
+     * 快照中输出的延迟分位
+     */
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.99, 0.999};
+
+    /**
+     * 导出直方图的桶上界（秒）
+     */
+    private static final String[] EXPORT_BUCKET_LABELS = {
+            "0.005", "0.01", "0.025", "0.05", "0.1", "0.25", "0.5", "1.0", "2.5", "5.0", "10.0", "30.0", "60.0"
+    };
+
+    private static final long[] EXPORT_BUCKET_NANOS = new long[EXPORT_BUCKET_LABELS.length];
+
+    static {
+        for (int i = 0; i < EXPORT_BUCKET_LABELS.length; i++) {
+            EXPORT_BUCKET_NANOS[i] = (long) (Double.parseDouble(EXPORT_BUCKET_LABELS[i]) * 1_000_000_000L);
+        }
+    }
+
+    /**
+     * Key: serverId, Value: 服务指标记录单元
      */
-    private static final ConcurrentHashMap<String, McpServerMetrics> METRICS_HOLDER = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, ServerRecorder> METRICS_HOLDER = new ConcurrentHashMap<>();
 
     private final McpRegister mcpRegister;
 
@@ -48,99 +85,334 @@ public class McpMemoryMetrics implements McpMetricsRepository {
             return;
         }
 
-        // 构建监控指标对象
-        McpServerMetrics metrics = McpServerMetrics.builder()
-                .serverId(baseServer.getId())
-                .serverName(baseServer.getName())
-                // 初始化监控指标
-                .totalRequests(0L)
-                .successRequests(0L)
-                .failedRequests(0L)
-                .avgLatency(0.0)
-                .minLatency(null)
-                .maxLatency(null)
-                .registerTime(Instant.now())
-                .lastHeartbeat(Instant.now())
-                .uptime(0L)
-                .build();
-
-        METRICS_HOLDER.put(serverId, metrics);
+        METRICS_HOLDER.putIfAbsent(serverId, new ServerRecorder(baseServer.getId(), baseServer.getName()));
         log.info("监控指标初始化成功: serverId={}, name={}", serverId, baseServer.getName());
     }
 
     @Override
-    public void recordRequest(String serverId, long latency, boolean success) {
-        METRICS_HOLDER.computeIfPresent(serverId, (id, metrics) -> {
-            // 更新请求数
-            metrics.setTotalRequests(metrics.getTotalRequests() + 1);
-
-            if (success) {
-                metrics.setSuccessRequests(metrics.getSuccessRequests() + 1);
-            } else {
-                metrics.setFailedRequests(metrics.getFailedRequests() + 1);
-            }
+    public void recordRequest(String serverId, long latencyNanos, boolean success) {
+        ServerRecorder recorder = METRICS_HOLDER.get(serverId);
+        if (recorder == null) {
+            return;
+        }
 
-            // 更新延迟指标
-            updateLatencyMetrics(metrics, latency);
+        // 更新请求数
+        recorder.totalRequests.increment();
+        if (success) {
+            recorder.successRequests.increment();
+        } else {
+            recorder.failedRequests.increment();
+        }
 
-            // 更新心跳
-            metrics.setLastHeartbeat(Instant.now());
+        // 更新延迟指标
+        long now = System.currentTimeMillis();
+        recorder.recordLatency(now, latencyNanos);
 
-            return metrics;
-        });
+        // 更新时间窗口
+        recorder.window.record(now, success, latencyNanos);
+
+        // 更新心跳
+        recorder.touchHeartbeat(now);
 
         if (log.isDebugEnabled()) {
-            log.debug("记录请求指标: serverId={}, latency={}ms, success={}", serverId, latency, success);
+            log.debug("记录请求指标: serverId={}, latency={}ns, success={}", serverId, latencyNanos, success);
+        }
+    }
+
+    @Override
+    public void recordCacheHit(String serverId) {
+        ServerRecorder recorder = METRICS_HOLDER.get(serverId);
+        if (recorder == null) {
+            return;
+        }
+
+        recorder.totalRequests.increment();
+        recorder.successRequests.increment();
+        recorder.cacheHits.increment();
+    }
+
+    @Override
+    public void recordRejection(String serverId) {
+        ServerRecorder recorder = METRICS_HOLDER.get(serverId);
+        if (recorder != null) {
+            recorder.rejectedRequests.increment();
         }
     }
 
     @Override
     public void updateHeartbeat(String serverId) {
-        METRICS_HOLDER.computeIfPresent(serverId, (id, metrics) -> {
-            metrics.setLastHeartbeat(Instant.now());
-            return metrics;
-        });
+        ServerRecorder recorder = METRICS_HOLDER.get(serverId);
+        if (recorder != null) {
+            recorder.touchHeartbeat(System.currentTimeMillis());
+        }
+    }
+
+    @Override
+    public void recordConnectionFailure(String serverId) {
+        ServerRecorder recorder = METRICS_HOLDER.get(serverId);
+        if (recorder != null) {
+            recorder.lastFailureMillis = System.currentTimeMillis();
+        }
+    }
+
+    @Override
+    public void recordReconnect(String serverId) {
+        ServerRecorder recorder = METRICS_HOLDER.get(serverId);
+        if (recorder != null) {
+            recorder.reconnectCount.increment();
+        }
     }
 
     @Override
     public McpServerMetrics getServerMetrics(String serverId) {
-        return METRICS_HOLDER.get(serverId);
+        ServerRecorder recorder = METRICS_HOLDER.get(serverId);
+        return recorder != null ? recorder.snapshot() : null;
     }
 
     @Override
     public List<McpServerMetrics> getAllServerMetrics() {
-        return new ArrayList<>(METRICS_HOLDER.values());
+        List<McpServerMetrics> result = new ArrayList<>(METRICS_HOLDER.size());
+        for (ServerRecorder recorder : METRICS_HOLDER.values()) {
+            result.add(recorder.snapshot());
+        }
+        return result;
     }
 
     @Override
     public void removeMetrics(String serverId) {
-        McpServerMetrics removed = METRICS_HOLDER.remove(serverId);
+        ServerRecorder removed = METRICS_HOLDER.remove(serverId);
         if (removed != null) {
-            log.info("监控指标已移除: serverId={}, name={}", serverId, removed.getServerName());
+            log.info("监控指标已移除: serverId={}, name={}", serverId, removed.serverName);
         }
     }
 
     /**
-     * 更新延迟指标
-     * 使用 EWMA (Exponentially Weighted Moving Average) 算法计算平均延迟
+     * 汇总服务最近若干个时间窗口桶，供离群检测等需要原始计数的组件读取，不生成快照
+     *
+     * @param serverId 服务ID
+     * @param buckets  桶数，每个桶 {@value SlidingWindow#BUCKET_MILLIS} 毫秒
+     * @return 窗口汇总，服务不存在时返回 null
+     */
+    public SlidingWindow.Totals getWindowTotals(String serverId, int buckets) {
+        ServerRecorder recorder = METRICS_HOLDER.get(serverId);
+        return recorder != null ? recorder.window.sum(System.currentTimeMillis(), buckets) : null;
+    }
+
+    /**
+     * 计算服务最近 1 分钟的延迟分位值（滑动窗口直方图，不含缓存命中），延迟变化后一个窗口内即可反映
+     *
+     * @param serverId 服务ID
+     * @param quantile 分位（0-1）
+     * @return 分位值（纳秒），服务不存在或窗口内无样本时返回 0
+     */
+    public long getRecentLatencyPercentile(String serverId, double quantile) {
+        ServerRecorder recorder = METRICS_HOLDER.get(serverId);
+        return recorder != null ? recorder.recentLatency.percentiles(System.currentTimeMillis(), quantile)[0] : 0;
+    }
+
+    /**
+     * 以 OpenMetrics 格式写出所有服务的指标，直接读取记录单元，不生成快照
      *
-     * @param metrics 服务监控指标
-     * @param latency 当前延迟
+     * @param writer 输出
      */
-    private void updateLatencyMetrics(McpServerMetrics metrics, long latency) {
-        // 更新最大最小值
-        if (metrics.getMinLatency() == null || latency < metrics.getMinLatency()) {
-            metrics.setMinLatency(latency);
+    public void writeOpenMetrics(OpenMetricsWriter writer) throws IOException {
+        writer.family("mcp_gateway_requests", "counter", "MCP requests handled by the gateway, including cache hits");
+        for (ServerRecorder recorder : METRICS_HOLDER.values()) {
+            writer.sample("mcp_gateway_requests_total", recorder.successRequests.sum(),
+                    "server_id", recorder.serverId, "server_name", recorder.serverName, "outcome", "success");
+            writer.sample("mcp_gateway_requests_total", recorder.failedRequests.sum(),
+                    "server_id", recorder.serverId, "server_name", recorder.serverName, "outcome", "failure");
         }
-        if (metrics.getMaxLatency() == null || latency > metrics.getMaxLatency()) {
-            metrics.setMaxLatency(latency);
+
+        writer.family("mcp_gateway_rejected_requests", "counter",
+                "MCP requests rejected by the gateway before reaching the backend (limits, bulkhead, circuit breaker)");
+        for (ServerRecorder recorder : METRICS_HOLDER.values()) {
+            writer.sample("mcp_gateway_rejected_requests_total", recorder.rejectedRequests.sum(),
+                    "server_id", recorder.serverId, "server_name", recorder.serverName);
+        }
+
+        writer.family("mcp_gateway_cache_hits", "counter", "MCP requests served from the gateway catalog cache");
+        for (ServerRecorder recorder : METRICS_HOLDER.values()) {
+            writer.sample("mcp_gateway_cache_hits_total", recorder.cacheHits.sum(),
+                    "server_id", recorder.serverId, "server_name", recorder.serverName);
         }
 
-        // 使用 EWMA 更新平均延迟
-        // alpha 是平滑因子，0.2 表示给当前值 20% 权重，历史值 80% 权重
-        double alpha = 0.2;
-        double currentAvg = metrics.getAvgLatency() != null ? metrics.getAvgLatency() : latency;
-        double newAvg = alpha * latency + (1 - alpha) * currentAvg;
-        metrics.setAvgLatency(newAvg);
+        writer.family("mcp_gateway_reconnects", "counter", "Successful MCP client reconnects");
+        for (ServerRecorder recorder : METRICS_HOLDER.values()) {
+            writer.sample("mcp_gateway_reconnects_total", recorder.reconnectCount.sum(),
+                    "server_id", recorder.serverId, "server_name", recorder.serverName);
+        }
+
+        writer.family("mcp_gateway_request_duration_seconds", "histogram", "Backend MCP request latency");
+        long[] cumulative = new long[EXPORT_BUCKET_NANOS.length];
+        for (ServerRecorder recorder : METRICS_HOLDER.values()) {
+            long count = recorder.latencyHistogram.cumulativeCounts(EXPORT_BUCKET_NANOS, cumulative);
+            for (int i = 0; i < cumulative.length; i++) {
+                writer.sample("mcp_gateway_request_duration_seconds_bucket", cumulative[i],
+                        "server_id", recorder.serverId, "server_name", recorder.serverName,
+                        "le", EXPORT_BUCKET_LABELS[i]);
+            }
+            writer.sample("mcp_gateway_request_duration_seconds_bucket", count,
+                    "server_id", recorder.serverId, "server_name", recorder.serverName, "le", "+Inf");
+            writer.sample("mcp_gateway_request_duration_seconds_count", count,
+                    "server_id", recorder.serverId, "server_name", recorder.serverName);
+            writer.sample("mcp_gateway_request_duration_seconds_sum",
+                    recorder.latencyHistogram.sum() / NANOS_PER_SECOND,
+                    "server_id", recorder.serverId, "server_name", recorder.serverName);
+        }
+    }
+
+    /**
+     * 单个服务的指标记录单元
+     */
+    private static final class ServerRecorder {
+
+        /**
+         * 尚无延迟样本
+         */
+        private static final long NO_SAMPLE = Double.doubleToRawLongBits(Double.NaN);
+
+        private final String serverId;
+
+        private final String serverName;
+
+        private final long registerTimeMillis = System.currentTimeMillis();
+
+        // ========== 请求指标 ==========
+
+        private final LongAdder totalRequests = new LongAdder();
+
+        private final LongAdder successRequests = new LongAdder();
+
+        private final LongAdder failedRequests = new LongAdder();
+
+        private final LongAdder cacheHits = new LongAdder();
+
+        private final LongAdder rejectedRequests = new LongAdder();
+
+        // ========== 延迟指标（纳秒） ==========
+
+        private final AtomicLong minLatency = new AtomicLong(Long.MAX_VALUE);
+
+        private final AtomicLong maxLatency = new AtomicLong(Long.MIN_VALUE);
+
+        /**
+         * EWMA 平均延迟（double 的位表示）
+         */
+        private final AtomicLong ewmaLatencyBits = new AtomicLong(NO_SAMPLE);
+
+        private final LatencyHistogram latencyHistogram = new LatencyHistogram();
+
+        /**
+         * 最近 1 分钟的延迟直方图
+         */
+        private final WindowedLatencyHistogram recentLatency = new WindowedLatencyHistogram();
+
+        // ========== 窗口指标（不含缓存命中） ==========
+
+        private final SlidingWindow window = new SlidingWindow();
+
+        // ========== 连接指标 ==========
+
+        private final LongAdder reconnectCount = new LongAdder();
+
+        /**
+         * 最近一次连接失败时间（毫秒时间戳，0 表示无）
+         */
+        private volatile long lastFailureMillis;
+
+        // ========== 时间指标 ==========
+
+        private volatile long lastHeartbeatMillis = registerTimeMillis;
+
+        private ServerRecorder(String serverId, String serverName) {
+            this.serverId = serverId;
+            this.serverName = serverName;
+        }
+
+        /**
+         * 更新延迟指标
+         * 最大最小值只在需要更新时 CAS；平均延迟使用 EWMA (Exponentially Weighted Moving Average)，首个样本直接作为初始值
+         * 所有样本计入延迟直方图（累计）和最近 1 分钟的窗口直方图，用于计算分位值
+         */
+        private void recordLatency(long now, long latency) {
+            latencyHistogram.record(latency);
+            recentLatency.record(now, latency);
+
+            long min = minLatency.get();
+            while (latency < min && !minLatency.compareAndSet(min, latency)) {
+                min = minLatency.get();
+            }
+            long max = maxLatency.get();
+            while (latency > max && !maxLatency.compareAndSet(max, latency)) {
+                max = maxLatency.get();
+            }
+
+            while (true) {
+                long currentBits = ewmaLatencyBits.get();
+                double newAvg = currentBits == NO_SAMPLE
+                        ? latency
+                        : EWMA_ALPHA * latency + (1 - EWMA_ALPHA) * Double.longBitsToDouble(currentBits);
+                if (ewmaLatencyBits.compareAndSet(currentBits, Double.doubleToRawLongBits(newAvg))) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * 更新心跳，同一毫秒内不重复写入，减少热点服务上的缓存行争用
+         */
+        private void touchHeartbeat(long now) {
+            if (now != lastHeartbeatMillis) {
+                lastHeartbeatMillis = now;
+            }
+        }
+
+        /**
+         * 生成指标快照
+         */
+        private McpServerMetrics snapshot() {
+            long now = System.currentTimeMillis();
+            long min = minLatency.get();
+            long max = maxLatency.get();
+            long ewmaBits = ewmaLatencyBits.get();
+            long lastFailure = lastFailureMillis;
+            long[] percentiles = latencyHistogram.percentiles(PERCENTILES);
+
+            return McpServerMetrics.builder()
+                    .serverId(serverId)
+                    .serverName(serverName)
+                    .totalRequests(totalRequests.sum())
+                    .successRequests(successRequests.sum())
+                    .failedRequests(failedRequests.sum())
+                    .cacheHits(cacheHits.sum())
+                    .rejectedRequests(rejectedRequests.sum())
+                    .avgLatency(ewmaBits == NO_SAMPLE ? 0.0 : Double.longBitsToDouble(ewmaBits) / NANOS_PER_MILLI)
+                    .minLatency(min == Long.MAX_VALUE ? null : TimeUnit.NANOSECONDS.toMillis(min))
+                    .maxLatency(max == Long.MIN_VALUE ? null : TimeUnit.NANOSECONDS.toMillis(max))
+                    .p50Latency(percentiles[0] / NANOS_PER_MILLI)
+                    .p90Latency(percentiles[1] / NANOS_PER_MILLI)
+                    .p99Latency(percentiles[2] / NANOS_PER_MILLI)
+                    .p999Latency(percentiles[3] / NANOS_PER_MILLI)
+                    .window1m(windowStats(now, SlidingWindow.ONE_MINUTE))
+                    .window5m(windowStats(now, SlidingWindow.FIVE_MINUTES))
+                    .window15m(windowStats(now, SlidingWindow.FIFTEEN_MINUTES))
+                    .reconnectCount(reconnectCount.sum())
+                    .lastFailureTime(lastFailure == 0 ? null : Instant.ofEpochMilli(lastFailure))
+                    .registerTime(Instant.ofEpochMilli(registerTimeMillis))
+                    .lastHeartbeat(Instant.ofEpochMilli(lastHeartbeatMillis))
+                    .uptime((now - registerTimeMillis) / 1000)
+                    .build();
+        }
+
+        private McpServerMetrics.WindowStats windowStats(long now, int buckets) {
+            SlidingWindow.Totals totals = window.sum(now, buckets);
+            return McpServerMetrics.WindowStats.builder()
+                    .requests(totals.getRequests())
+                    .failedRequests(totals.getFailures())
+                    .avgLatency(totals.getRequests() == 0 ? 0.0
+                            : totals.getLatencySumNanos() / NANOS_PER_MILLI / totals.getRequests())
+                    .build();
+        }
     }
 }
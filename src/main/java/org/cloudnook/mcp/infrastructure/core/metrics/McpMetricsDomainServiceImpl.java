@@ -3,12 +3,12 @@ package org.cloudnook.mcp.infrastructure.core.metrics;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.cloudnook.mcp.domain.log.model.McpInvokeContext;
+import org.cloudnook.mcp.domain.metrics.repository.McpDimensionMetricsRepository;
 import org.cloudnook.mcp.domain.metrics.repository.McpMetricsRepository;
 import org.cloudnook.mcp.domain.metrics.service.McpMetricsDomainService;
+import org.cloudnook.mcp.infrastructure.common.exception.RejectedException;
 import org.springframework.stereotype.Service;
 
-import java.time.Instant;
-
 /**
  * MCP Metrics 领域服务实现
  * 负责监控指标的收集和更新
@@ -23,36 +23,63 @@ public class McpMetricsDomainServiceImpl implements McpMetricsDomainService {
 
     private final McpMetricsRepository metricsRepository;
 
+    private final McpDimensionMetricsRepository dimensionMetricsRepository;
+
     @Override
     public void recordSuccess(McpInvokeContext context, Object result) {
         log.debug("记录成功调用: serverId={}, type={}, target={}",
                 context.getServerId(), context.getType(), context.getTargetName());
 
-        long latency = calculateLatency(context.getStartTime());
+        // 缓存命中不访问后端，仅计数
+        if (context.isCacheHit()) {
+            metricsRepository.recordCacheHit(context.getServerId());
+            return;
+        }
+
+        long latencyNanos = calculateLatency(context);
 
         // 收集监控指标
-        metricsRepository.recordRequest(context.getServerId(), latency, true);
+        metricsRepository.recordRequest(context.getServerId(), latencyNanos, true);
+        recordDimensions(context, latencyNanos, true);
 
-        log.debug("监控指标记录完成: latency={}ms", latency);
+        log.debug("监控指标记录完成: latency={}ns", latencyNanos);
     }
 
     @Override
     public void recordFailure(McpInvokeContext context, Throwable error) {
+        // 网关拒绝没有到达后端，只计拒绝数，不影响错误率、健康状态和离群检测
+        if (error instanceof RejectedException) {
+            log.debug("记录网关拒绝: serverId={}, type={}, target={}, error={}",
+                    context.getServerId(), context.getType(), context.getTargetName(), error.getMessage());
+            metricsRepository.recordRejection(context.getServerId());
+            return;
+        }
+
         log.warn("记录失败调用: serverId={}, type={}, target={}, error={}",
                 context.getServerId(), context.getType(), context.getTargetName(), error.getMessage());
 
-        long latency = calculateLatency(context.getStartTime());
+        long latencyNanos = calculateLatency(context);
 
         // 收集监控指标
-        metricsRepository.recordRequest(context.getServerId(), latency, false);
+        metricsRepository.recordRequest(context.getServerId(), latencyNanos, false);
+        recordDimensions(context, latencyNanos, false);
 
-        log.debug("监控指标记录完成: latency={}ms", latency);
+        log.debug("监控指标记录完成: latency={}ns", latencyNanos);
+    }
+
+    /**
+     * 收集目标维度和客户端维度指标
+     */
+    private void recordDimensions(McpInvokeContext context, long latencyNanos, boolean success) {
+        dimensionMetricsRepository.recordTarget(context.getServerId(), context.getType(), context.getTargetName(),
+                latencyNanos, success);
+        dimensionMetricsRepository.recordClient(context.getClientId(), latencyNanos, success);
     }
 
     /**
-     * 计算调用延迟
+     * 计算调用延迟（纳秒）
      */
-    private long calculateLatency(Instant startTime) {
-        return Instant.now().toEpochMilli() - startTime.toEpochMilli();
+    private long calculateLatency(McpInvokeContext context) {
+        return System.nanoTime() - context.getStartNanos();
     }
 }
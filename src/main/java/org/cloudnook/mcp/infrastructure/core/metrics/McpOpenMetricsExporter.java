@@ -0,0 +1,301 @@
+package org.cloudnook.mcp.infrastructure.core.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.cloudnook.mcp.domain.invoke.model.McpBulkheadStats;
+import org.cloudnook.mcp.domain.invoke.model.McpCircuitBreakerStats;
+import org.cloudnook.mcp.domain.invoke.model.McpConcurrencyLimitStats;
+import org.cloudnook.mcp.domain.invoke.model.McpHedgeStats;
+import org.cloudnook.mcp.domain.invoke.model.McpRetryStats;
+import org.cloudnook.mcp.domain.invoke.service.McpBulkhead;
+import org.cloudnook.mcp.domain.invoke.service.McpCircuitBreaker;
+import org.cloudnook.mcp.domain.invoke.service.McpConcurrencyLimiter;
+import org.cloudnook.mcp.domain.invoke.service.McpRequestHedger;
+import org.cloudnook.mcp.domain.invoke.service.McpRetryBudget;
+import org.cloudnook.mcp.domain.metrics.model.McpOutlierStats;
+import org.cloudnook.mcp.domain.metrics.service.McpMetricsExporter;
+import org.cloudnook.mcp.domain.routing.McpOutlierDetector;
+import org.cloudnook.mcp.domain.routing.ServerLoadTracker;
+import org.cloudnook.mcp.domain.server.model.McpServer;
+import org.cloudnook.mcp.domain.server.service.McpRegister;
+import org.cloudnook.mcp.infrastructure.core.connect.McpClientCache;
+import org.cloudnook.mcp.infrastructure.core.connect.McpClientPool;
+import org.cloudnook.mcp.infrastructure.core.log.McpAsyncInvokeLogPublisher;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * MCP 监控指标导出 - OpenMetrics 实现
+ * 直接从各记录单元（请求计数、延迟直方图、负载追踪、连接池）读取并写出，不构建 VO 或快照
+ */
+@Service
+@RequiredArgsConstructor
+public class McpOpenMetricsExporter implements McpMetricsExporter {
+
+    private final McpMemoryMetrics memoryMetrics;
+
+    private final McpMemoryDimensionMetrics dimensionMetrics;
+
+    private final McpRegister mcpRegister;
+
+    private final ServerLoadTracker serverLoadTracker;
+
+    private final McpClientCache mcpClientCache;
+
+    private final McpAsyncInvokeLogPublisher invokeLogPublisher;
+
+    private final McpBulkhead mcpBulkhead;
+
+    private final McpConcurrencyLimiter mcpConcurrencyLimiter;
+
+    private final McpCircuitBreaker mcpCircuitBreaker;
+
+    private final McpOutlierDetector mcpOutlierDetector;
+
+    private final McpRequestHedger mcpRequestHedger;
+
+    private final McpRetryBudget mcpRetryBudget;
+
+    @Override
+    public String contentType() {
+        return OpenMetricsWriter.CONTENT_TYPE;
+    }
+
+    @Override
+    public void export(Writer writer) throws IOException {
+        OpenMetricsWriter metrics = new OpenMetricsWriter(writer);
+
+        // 请求计数、延迟直方图
+        memoryMetrics.writeOpenMetrics(metrics);
+
+        // 进行中请求、连接池
+        List<McpServer> servers = mcpRegister.getAllServers();
+        writeLoad(metrics, servers);
+
+        // 并发隔离
+        writeBulkhead(metrics, servers);
+
+        // 自适应并发限制
+        writeConcurrencyLimit(metrics, servers);
+
+        // 熔断
+        writeCircuitBreaker(metrics, servers);
+
+        // 离群摘除
+        writeOutlier(metrics, servers);
+
+        // 对冲请求
+        writeHedge(metrics);
+
+        // 失败重试
+        writeRetry(metrics, servers);
+
+        // 目标维度、客户端维度
+        dimensionMetrics.writeOpenMetrics(metrics);
+
+        // 调用日志管道
+        writeInvokeLog(metrics);
+
+        metrics.eof();
+    }
+
+    private void writeLoad(OpenMetricsWriter metrics, List<McpServer> servers) throws IOException {
+        metrics.family("mcp_gateway_in_flight_requests", "gauge", "MCP requests currently in flight per server");
+        for (McpServer server : servers) {
+            metrics.sample("mcp_gateway_in_flight_requests", serverLoadTracker.getInFlight(server.getId()),
+                    "server_id", server.getId(), "server_name", server.getName());
+        }
+
+        metrics.family("mcp_gateway_pool_connections", "gauge", "Open MCP client sessions in the connection pool");
+        for (McpServer server : servers) {
+            McpClientPool pool = mcpClientCache.getPool(server.getId());
+            if (pool != null) {
+                metrics.sample("mcp_gateway_pool_connections", pool.size(),
+                        "server_id", server.getId(), "server_name", server.getName());
+            }
+        }
+
+        metrics.family("mcp_gateway_pool_in_flight", "gauge", "Requests currently leased on pooled MCP sessions");
+        for (McpServer server : servers) {
+            McpClientPool pool = mcpClientCache.getPool(server.getId());
+            if (pool != null) {
+                metrics.sample("mcp_gateway_pool_in_flight", pool.inFlight(),
+                        "server_id", server.getId(), "server_name", server.getName());
+            }
+        }
+
+        metrics.family("mcp_gateway_pool_reconnecting", "gauge", "1 if the connection pool is reconnecting in the background");
+        for (McpServer server : servers) {
+            McpClientPool pool = mcpClientCache.getPool(server.getId());
+            if (pool != null) {
+                metrics.sample("mcp_gateway_pool_reconnecting", pool.isReconnecting() ? 1 : 0,
+                        "server_id", server.getId(), "server_name", server.getName());
+            }
+        }
+    }
+
+    private void writeBulkhead(OpenMetricsWriter metrics, List<McpServer> servers) throws IOException {
+        List<McpBulkheadStats> stats = servers.stream().map(server -> mcpBulkhead.getStats(server.getId())).toList();
+
+        metrics.family("mcp_gateway_bulkhead_limit", "gauge", "Maximum concurrent calls allowed per server (0 = unlimited)");
+        for (int i = 0; i < servers.size(); i++) {
+            if (stats.get(i) != null) {
+                metrics.sample("mcp_gateway_bulkhead_limit", stats.get(i).getMaxConcurrency(),
+                        "server_id", servers.get(i).getId(), "server_name", servers.get(i).getName());
+            }
+        }
+
+        metrics.family("mcp_gateway_bulkhead_queue_depth", "gauge", "Calls waiting for a bulkhead permit per server");
+        for (int i = 0; i < servers.size(); i++) {
+            if (stats.get(i) != null) {
+                metrics.sample("mcp_gateway_bulkhead_queue_depth", stats.get(i).getQueueDepth(),
+                        "server_id", servers.get(i).getId(), "server_name", servers.get(i).getName());
+            }
+        }
+
+        metrics.family("mcp_gateway_bulkhead_rejected", "counter", "Calls rejected by the bulkhead per server");
+        for (int i = 0; i < servers.size(); i++) {
+            if (stats.get(i) != null) {
+                metrics.sample("mcp_gateway_bulkhead_rejected_total", stats.get(i).getRejected(),
+                        "server_id", servers.get(i).getId(), "server_name", servers.get(i).getName(), "reason", "full");
+                metrics.sample("mcp_gateway_bulkhead_rejected_total", stats.get(i).getTimedOut(),
+                        "server_id", servers.get(i).getId(), "server_name", servers.get(i).getName(), "reason", "timeout");
+            }
+        }
+    }
+
+    private void writeConcurrencyLimit(OpenMetricsWriter metrics, List<McpServer> servers) throws IOException {
+        List<McpConcurrencyLimitStats> stats = servers.stream()
+                .map(server -> mcpConcurrencyLimiter.getStats(server.getId()))
+                .toList();
+
+        metrics.family("mcp_gateway_concurrency_limit", "gauge", "Current adaptive concurrency limit per server");
+        for (int i = 0; i < servers.size(); i++) {
+            if (stats.get(i) != null) {
+                metrics.sample("mcp_gateway_concurrency_limit", stats.get(i).getLimit(),
+                        "server_id", servers.get(i).getId(), "server_name", servers.get(i).getName());
+            }
+        }
+
+        metrics.family("mcp_gateway_concurrency_limited", "counter", "Calls shed by the adaptive concurrency limit per server");
+        for (int i = 0; i < servers.size(); i++) {
+            if (stats.get(i) != null) {
+                metrics.sample("mcp_gateway_concurrency_limited_total", stats.get(i).getRejected(),
+                        "server_id", servers.get(i).getId(), "server_name", servers.get(i).getName());
+            }
+        }
+    }
+
+    private void writeCircuitBreaker(OpenMetricsWriter metrics, List<McpServer> servers) throws IOException {
+        List<McpCircuitBreakerStats> stats = servers.stream()
+                .map(server -> mcpCircuitBreaker.getStats(server.getId()))
+                .toList();
+
+        metrics.family("mcp_gateway_circuit_state", "gauge", "Circuit breaker state per server (0 = closed, 1 = open, 2 = half-open)");
+        for (int i = 0; i < servers.size(); i++) {
+            if (stats.get(i) != null) {
+                metrics.sample("mcp_gateway_circuit_state", stats.get(i).getState().ordinal(),
+                        "server_id", servers.get(i).getId(), "server_name", servers.get(i).getName());
+            }
+        }
+
+        metrics.family("mcp_gateway_circuit_rejected", "counter", "Calls rejected by an open circuit breaker per server");
+        for (int i = 0; i < servers.size(); i++) {
+            if (stats.get(i) != null) {
+                metrics.sample("mcp_gateway_circuit_rejected_total", stats.get(i).getRejected(),
+                        "server_id", servers.get(i).getId(), "server_name", servers.get(i).getName());
+            }
+        }
+
+        metrics.family("mcp_gateway_circuit_opened", "counter", "Times the circuit breaker has opened per server");
+        for (int i = 0; i < servers.size(); i++) {
+            if (stats.get(i) != null) {
+                metrics.sample("mcp_gateway_circuit_opened_total", stats.get(i).getOpenCount(),
+                        "server_id", servers.get(i).getId(), "server_name", servers.get(i).getName());
+            }
+        }
+    }
+
+    private void writeOutlier(OpenMetricsWriter metrics, List<McpServer> servers) throws IOException {
+        List<McpOutlierStats> stats = servers.stream()
+                .map(server -> mcpOutlierDetector.getStats(server.getId()))
+                .toList();
+
+        metrics.family("mcp_gateway_outlier_ejected", "gauge", "1 if the server is currently ejected by outlier detection");
+        for (int i = 0; i < servers.size(); i++) {
+            if (stats.get(i) != null) {
+                metrics.sample("mcp_gateway_outlier_ejected", stats.get(i).isEjected() ? 1 : 0,
+                        "server_id", servers.get(i).getId(), "server_name", servers.get(i).getName());
+            }
+        }
+
+        metrics.family("mcp_gateway_outlier_ejections", "counter", "Times the server has been ejected by outlier detection");
+        for (int i = 0; i < servers.size(); i++) {
+            if (stats.get(i) != null) {
+                metrics.sample("mcp_gateway_outlier_ejections_total", stats.get(i).getEjections(),
+                        "server_id", servers.get(i).getId(), "server_name", servers.get(i).getName());
+            }
+        }
+    }
+
+    private void writeHedge(OpenMetricsWriter metrics) throws IOException {
+        McpHedgeStats stats = mcpRequestHedger.getStats();
+
+        metrics.family("mcp_gateway_hedge_eligible", "counter", "Router reads that could be hedged");
+        metrics.sample("mcp_gateway_hedge_eligible_total", stats.getRequests());
+
+        metrics.family("mcp_gateway_hedged", "counter", "Hedge requests sent to a second server");
+        metrics.sample("mcp_gateway_hedged_total", stats.getHedged());
+
+        metrics.family("mcp_gateway_hedge_wins", "counter", "Hedge requests whose response was used");
+        metrics.sample("mcp_gateway_hedge_wins_total", stats.getHedgeWins());
+
+        metrics.family("mcp_gateway_hedge_wasted", "counter", "Hedge requests whose response was not used");
+        metrics.sample("mcp_gateway_hedge_wasted_total", stats.getWasted());
+
+        metrics.family("mcp_gateway_hedge_budget_exhausted", "counter", "Hedges skipped because the hedge budget was empty");
+        metrics.sample("mcp_gateway_hedge_budget_exhausted_total", stats.getBudgetExhausted());
+    }
+
+    private void writeRetry(OpenMetricsWriter metrics, List<McpServer> servers) throws IOException {
+        List<McpRetryStats> stats = servers.stream()
+                .map(McpServer::getName)
+                .distinct()
+                .map(mcpRetryBudget::getStats)
+                .filter(Objects::nonNull)
+                .toList();
+
+        metrics.family("mcp_gateway_retries", "counter", "Router tool calls retried on another server");
+        for (McpRetryStats stat : stats) {
+            metrics.sample("mcp_gateway_retries_total", stat.getRetries(), "server_name", stat.getServerName());
+        }
+
+        metrics.family("mcp_gateway_retry_budget_exhausted", "counter", "Retryable failures not retried because the retry budget was empty");
+        for (McpRetryStats stat : stats) {
+            metrics.sample("mcp_gateway_retry_budget_exhausted_total", stat.getBudgetExhausted(), "server_name", stat.getServerName());
+        }
+
+        metrics.family("mcp_gateway_retry_budget_remaining", "gauge", "Retries currently available in the retry budget");
+        for (McpRetryStats stat : stats) {
+            metrics.sample("mcp_gateway_retry_budget_remaining", stat.getBudgetRemaining(), "server_name", stat.getServerName());
+        }
+    }
+
+    private void writeInvokeLog(OpenMetricsWriter metrics) throws IOException {
+        metrics.family("mcp_gateway_invoke_log_records", "counter", "Invoke log records accepted by the async pipeline");
+        metrics.sample("mcp_gateway_invoke_log_records_total", invokeLogPublisher.getPublished());
+
+        metrics.family("mcp_gateway_invoke_log_written", "counter", "Invoke log records written to the log repository");
+        metrics.sample("mcp_gateway_invoke_log_written_total", invokeLogPublisher.getWritten());
+
+        metrics.family("mcp_gateway_invoke_log_dropped", "counter", "Invoke log records dropped by the overflow policy");
+        metrics.sample("mcp_gateway_invoke_log_dropped_total", invokeLogPublisher.getDroppedOverflow(), "reason", "overflow");
+        metrics.sample("mcp_gateway_invoke_log_dropped_total", invokeLogPublisher.getDroppedSampled(), "reason", "sampled");
+
+        metrics.family("mcp_gateway_invoke_log_queue_depth", "gauge", "Invoke log records waiting to be written");
+        metrics.sample("mcp_gateway_invoke_log_queue_depth", invokeLogPublisher.getQueueDepth());
+    }
+}
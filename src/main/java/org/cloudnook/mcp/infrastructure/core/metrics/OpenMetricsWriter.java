@@ -0,0 +1,112 @@
+package org.cloudnook.mcp.infrastructure.core.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * OpenMetrics 文本格式输出
+ * 直接写入输出流，不构建中间对象；同一指标族的样本需连续写出
+ *
+ * 格式参考：https://github.com/OpenObservability/OpenMetrics/blob/main/specification/OpenMetrics.md
+ */
+public final class OpenMetricsWriter {
+
+    /**
+     * OpenMetrics 响应类型
+     */
+    public static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+
+    private final Writer out;
+
+    public OpenMetricsWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * 写出指标族声明
+     *
+     * @param name 指标族名称（counter 不带 _total 后缀）
+     * @param type counter/gauge/histogram
+     * @param help 说明
+     */
+    public void family(String name, String type, String help) throws IOException {
+        out.write("# TYPE ");
+        out.write(name);
+        out.write(' ');
+        out.write(type);
+        out.write("\n# HELP ");
+        out.write(name);
+        out.write(' ');
+        out.write(help);
+        out.write('\n');
+    }
+
+    /**
+     * 写出整数样本
+     *
+     * @param name   样本名称
+     * @param value  样本值
+     * @param labels 标签，按 name, value, name, value... 交替传入
+     */
+    public void sample(String name, long value, String... labels) throws IOException {
+        writeNameAndLabels(name, labels);
+        out.write(Long.toString(value));
+        out.write('\n');
+    }
+
+    /**
+     * 写出浮点样本
+     */
+    public void sample(String name, double value, String... labels) throws IOException {
+        writeNameAndLabels(name, labels);
+        out.write(Double.toString(value));
+        out.write('\n');
+    }
+
+    /**
+     * 写出结束标记
+     */
+    public void eof() throws IOException {
+        out.write("# EOF\n");
+        out.flush();
+    }
+
+    private void writeNameAndLabels(String name, String[] labels) throws IOException {
+        out.write(name);
+        if (labels.length > 0) {
+            out.write('{');
+            for (int i = 0; i + 1 < labels.length; i += 2) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                out.write(labels[i]);
+                out.write("=\"");
+                writeEscaped(labels[i + 1]);
+                out.write('"');
+            }
+            out.write('}');
+        }
+        out.write(' ');
+    }
+
+    /**
+     * 转义标签值中的反斜杠、双引号和换行
+     */
+    private void writeEscaped(String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\') {
+                out.write("\\\\");
+            } else if (c == '"') {
+                out.write("\\\"");
+            } else if (c == '\n') {
+                out.write("\\n");
+            } else {
+                out.write(c);
+            }
+        }
+    }
+}
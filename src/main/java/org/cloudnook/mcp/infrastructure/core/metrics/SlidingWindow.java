@@ -0,0 +1,137 @@
+package org.cloudnook.mcp.infrastructure.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 滑动时间窗口计数器
+ * 以 {@value #BUCKET_MILLIS} 毫秒为一个桶的环形数组，覆盖最近 15 分钟，可按任意桶数汇总（1m/5m/15m）
+ *
+ * 说明：
+ * - 每个桶记录所属时间片编号，写入时发现时间片过期则由 CAS 胜出的线程清零后复用
+ * - 清零与并发写入之间可能丢失极少量样本，监控场景可接受
+ * - 固定内存，记录路径无锁无分配
+ */
+public final class SlidingWindow {
+
+    /**
+     * 单个桶的时长（毫秒）
+     */
+    public static final long BUCKET_MILLIS = 5_000;
+
+    /**
+     * 1 分钟窗口的桶数
+     */
+    public static final int ONE_MINUTE = 12;
+
+    /**
+     * 5 分钟窗口的桶数
+     */
+    public static final int FIVE_MINUTES = 60;
+
+    /**
+     * 15 分钟窗口的桶数（即环形数组长度）
+     */
+    public static final int FIFTEEN_MINUTES = 180;
+
+    private static final int BUCKETS = FIFTEEN_MINUTES;
+
+    /**
+     * 每个桶所属的时间片编号
+     */
+    private final AtomicLongArray epochs = new AtomicLongArray(BUCKETS);
+
+    private final AtomicLongArray requests = new AtomicLongArray(BUCKETS);
+
+    private final AtomicLongArray failures = new AtomicLongArray(BUCKETS);
+
+    /**
+     * 延迟总和（纳秒）
+     */
+    private final AtomicLongArray latencySums = new AtomicLongArray(BUCKETS);
+
+    public SlidingWindow() {
+        for (int i = 0; i < BUCKETS; i++) {
+            epochs.set(i, -1);
+        }
+    }
+
+    /**
+     * 记录一次请求
+     *
+     * @param nowMillis    当前时间（毫秒）
+     * @param success      是否成功
+     * @param latencyNanos 延迟（纳秒）
+     */
+    public void record(long nowMillis, boolean success, long latencyNanos) {
+        long epoch = nowMillis / BUCKET_MILLIS;
+        int index = (int) (epoch % BUCKETS);
+
+        long current = epochs.get(index);
+        if (current < epoch && epochs.compareAndSet(index, current, epoch)) {
+            requests.set(index, 0);
+            failures.set(index, 0);
+            latencySums.set(index, 0);
+        }
+
+        requests.incrementAndGet(index);
+        if (!success) {
+            failures.incrementAndGet(index);
+        }
+        latencySums.addAndGet(index, latencyNanos);
+    }
+
+    /**
+     * 汇总最近若干个桶（包含当前未满的桶）
+     *
+     * @param nowMillis 当前时间（毫秒）
+     * @param buckets   桶数，如 {@link #ONE_MINUTE}
+     * @return 窗口汇总
+     */
+    public Totals sum(long nowMillis, int buckets) {
+        long epoch = nowMillis / BUCKET_MILLIS;
+        long oldest = epoch - Math.min(buckets, BUCKETS) + 1;
+
+        long totalRequests = 0;
+        long totalFailures = 0;
+        long totalLatency = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            long bucketEpoch = epochs.get(i);
+            if (bucketEpoch >= oldest && bucketEpoch <= epoch) {
+                totalRequests += requests.get(i);
+                totalFailures += failures.get(i);
+                totalLatency += latencySums.get(i);
+            }
+        }
+        return new Totals(totalRequests, totalFailures, totalLatency);
+    }
+
+    /**
+     * 窗口汇总
+     */
+    public static final class Totals {
+
+        private final long requests;
+
+        private final long failures;
+
+        private final long latencySumNanos;
+
+        private Totals(long requests, long failures, long latencySumNanos) {
+            this.requests = requests;
+            this.failures = failures;
+            this.latencySumNanos = latencySumNanos;
+        }
+
+        public long getRequests() {
+            return requests;
+        }
+
+        public long getFailures() {
+            return failures;
+        }
+
+        public long getLatencySumNanos() {
+            return latencySumNanos;
+        }
+    }
+}
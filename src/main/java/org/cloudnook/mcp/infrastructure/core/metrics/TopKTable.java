@@ -0,0 +1,149 @@
+package org.cloudnook.mcp.infrastructure.core.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 有界的 Top-K 指标表（Space-Saving 算法）
+ * 最多跟踪 capacity 个键，表满时新键替换排序权重最小的键，并继承其权重
+ *
+ * 说明：
+ * - 已跟踪键的记录路径无锁（ConcurrentHashMap 读取 + LongAdder/直方图）
+ * - 仅新键进入时加锁并扫描一次表，键数量不会超过 capacity，避免无界的工具名或客户端耗尽内存
+ * - 权重可能高估，但高估量不超过继承值；高频键不会被低频新键挤出
+ */
+public final class TopKTable<K> {
+
+    private final int capacity;
+
+    private final ConcurrentHashMap<K, Entry> entries = new ConcurrentHashMap<>();
+
+    public TopKTable(int capacity) {
+        this.capacity = Math.max(1, capacity);
+    }
+
+    /**
+     * 记录一次请求
+     *
+     * @param key          维度键
+     * @param latencyNanos 延迟（纳秒）
+     * @param success      是否成功
+     */
+    public void record(K key, long latencyNanos, boolean success) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            entry = admit(key);
+        }
+        entry.record(latencyNanos, success);
+    }
+
+    /**
+     * 按排序权重降序返回前 limit 个键
+     */
+    public List<Map.Entry<K, Entry>> top(int limit) {
+        List<Map.Entry<K, Entry>> snapshot = new ArrayList<>(entries.entrySet());
+        snapshot.sort(Comparator.comparingLong((Map.Entry<K, Entry> e) -> e.getValue().rankCount()).reversed());
+        return snapshot.subList(0, Math.min(Math.max(0, limit), snapshot.size()));
+    }
+
+    /**
+     * 当前跟踪的键（只读视图，不排序、不复制）
+     */
+    public Iterable<Map.Entry<K, Entry>> entries() {
+        return entries.entrySet();
+    }
+
+    /**
+     * 当前跟踪的键数量
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * 新键进入：表未满直接加入，表满时替换权重最小的键
+     */
+    private synchronized Entry admit(K key) {
+        Entry existing = entries.get(key);
+        if (existing != null) {
+            return existing;
+        }
+
+        long inherited = 0;
+        if (entries.size() >= capacity) {
+            K victim = null;
+            long min = Long.MAX_VALUE;
+            for (Map.Entry<K, Entry> e : entries.entrySet()) {
+                long count = e.getValue().rankCount();
+                if (count < min) {
+                    min = count;
+                    victim = e.getKey();
+                }
+            }
+            if (victim != null) {
+                entries.remove(victim);
+                inherited = min;
+            }
+        }
+
+        Entry entry = new Entry(inherited);
+        entries.put(key, entry);
+        return entry;
+    }
+
+    /**
+     * 单个键的指标记录单元
+     */
+    public static final class Entry {
+
+        /**
+         * 继承的权重（Space-Saving 高估上限）
+         */
+        private final long inherited;
+
+        private final LongAdder requests = new LongAdder();
+
+        private final LongAdder failures = new LongAdder();
+
+        private final LongAdder latencySumNanos = new LongAdder();
+
+        private final LatencyHistogram latencyHistogram = new LatencyHistogram();
+
+        private Entry(long inherited) {
+            this.inherited = inherited;
+        }
+
+        private void record(long latencyNanos, boolean success) {
+            requests.increment();
+            if (!success) {
+                failures.increment();
+            }
+            latencySumNanos.add(latencyNanos);
+            latencyHistogram.record(latencyNanos);
+        }
+
+        public long rankCount() {
+            return inherited + requests.sum();
+        }
+
+        public long requests() {
+            return requests.sum();
+        }
+
+        public long failures() {
+            return failures.sum();
+        }
+
+        public long latencySumNanos() {
+            return latencySumNanos.sum();
+        }
+
+        public LatencyHistogram latencyHistogram() {
+            return latencyHistogram;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package org.cloudnook.mcp.infrastructure.core.metrics;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 滑动时间窗口延迟直方图
+ * 环形数组，每个时间片一个 {@link LatencyHistogram}，分位值只合并窗口内的时间片，能跟上延迟的变化
+ *
+ * 说明：
+ * - 进入新时间片时用 CAS 换入一个新的直方图，不清零旧对象，并发写入不会抹掉其他线程的样本
+ * - 换入前读到旧时间片的写入落在旧对象上，只会丢失这一个样本
+ * - 每个时间片的直方图约 10KB，只在时间片切换时分配
+ */
+public final class WindowedLatencyHistogram {
+
+    /**
+     * 默认时间片时长（毫秒）
+     */
+    public static final long DEFAULT_SLICE_MILLIS = 10_000;
+
+    /**
+     * 默认时间片数（与 1 分钟滑动窗口对齐）
+     */
+    public static final int DEFAULT_SLICES = 6;
+
+    private final long sliceMillis;
+
+    private final int sliceCount;
+
+    private final AtomicReferenceArray<Slice> slices;
+
+    public WindowedLatencyHistogram() {
+        this(DEFAULT_SLICE_MILLIS, DEFAULT_SLICES);
+    }
+
+    public WindowedLatencyHistogram(long sliceMillis, int sliceCount) {
+        this.sliceMillis = Math.max(1, sliceMillis);
+        this.sliceCount = Math.max(1, sliceCount);
+        this.slices = new AtomicReferenceArray<>(this.sliceCount);
+    }
+
+    /**
+     * 记录一个样本
+     *
+     * @param nowMillis  当前时间（毫秒）
+     * @param valueNanos 延迟（纳秒）
+     */
+    public void record(long nowMillis, long valueNanos) {
+        long epoch = nowMillis / sliceMillis;
+        int index = (int) (epoch % sliceCount);
+
+        Slice slice = slices.get(index);
+        if (slice == null || slice.epoch < epoch) {
+            Slice fresh = new Slice(epoch);
+            slice = slices.compareAndSet(index, slice, fresh) ? fresh : slices.get(index);
+        }
+        slice.histogram.record(valueNanos);
+    }
+
+    /**
+     * 计算窗口内的分位值
+     *
+     * @param nowMillis 当前时间（毫秒）
+     * @param quantiles 分位（0-1），需按升序传入
+     * @return 对应分位值（纳秒），窗口内无样本时全部返回 0
+     */
+    public long[] percentiles(long nowMillis, double... quantiles) {
+        long epoch = nowMillis / sliceMillis;
+        long oldest = epoch - sliceCount + 1;
+
+        long[] counts = LatencyHistogram.newCounts();
+        long total = 0;
+        for (int i = 0; i < sliceCount; i++) {
+            Slice slice = slices.get(i);
+            if (slice != null && slice.epoch >= oldest && slice.epoch <= epoch) {
+                total += slice.histogram.addCountsTo(counts);
+            }
+        }
+        return LatencyHistogram.percentilesOf(counts, total, quantiles);
+    }
+
+    /**
+     * 单个时间片
+     */
+    private static final class Slice {
+
+        private final long epoch;
+
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        private Slice(long epoch) {
+            this.epoch = epoch;
+        }
+    }
+}
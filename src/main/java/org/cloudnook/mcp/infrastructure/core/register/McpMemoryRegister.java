@@ -8,12 +8,16 @@ import org.springframework.stereotype.Service;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
 
 
 /**
  * 内存级别的 MCP 服务注册中心
  * 支持同一服务名称下多个服务实例的注册与管理
+ *
+ * 读写分离：
+ * - 写：注册/注销串行执行，修改 MCP_SERVER_HOLDER 后重新发布路由快照
+ * - 读：路由查询只读取 volatile 路由快照，不加锁、不复制
+ * - 索引：serverId -> 实例的二级索引随路由快照一起发布，按 ID 查询为 O(1)
  */
 @Slf4j
 @Service
@@ -22,10 +26,20 @@ public class McpMemoryRegister implements McpRegister {
     /**
      * 存储 服务名称 -> 服务实例列表 的映射
      * Key: 服务名称
-     * Value: 该服务名称下的所有服务实例列表
+     * Value: 该服务名称下的所有服务实例列表（不可变，写时复制）
      */
     private static final ConcurrentHashMap<String, List<McpServer>> MCP_SERVER_HOLDER = new ConcurrentHashMap<>();
 
+    /**
+     * 写锁，保证注册数据的修改与路由快照的发布顺序一致
+     */
+    private static final Object WRITE_LOCK = new Object();
+
+    /**
+     * 当前发布的路由快照
+     */
+    private static volatile McpRoutingTable routingTable = McpRoutingTable.EMPTY;
+
     @Override
     public boolean register(McpServer mcpServer) {
         if (mcpServer == null || mcpServer.getName() == null || mcpServer.getId() == null) {
@@ -35,25 +49,35 @@ public class McpMemoryRegister implements McpRegister {
         String serverName = mcpServer.getName();
         String serverId = mcpServer.getId();
 
-        // 使用 compute 保证原子性操作
-        MCP_SERVER_HOLDER.compute(serverName, (key, servers) -> {
-            if (servers == null) {
-                servers = new ArrayList<>();
+        synchronized (WRITE_LOCK) {
+            // serverId 全局唯一（写锁内当前快照即最新数据）
+            if (routingTable.getServerById(serverId) != null) {
+                throw new BusinessException("服务已存在: " + serverId);
             }
 
-            // 检查是否已存在相同 serverId 的实例
-            boolean exists = servers.stream()
-                    .anyMatch(server -> serverId.equals(server.getId()));
+            MCP_SERVER_HOLDER.compute(serverName, (key, servers) -> {
+                if (servers == null) {
+                    servers = List.of();
+                }
 
-            if (exists) {
-                throw new BusinessException("服务已存在: " + serverId);
-            }
+                // 检查是否已存在相同 serverId 的实例
+                boolean exists = servers.stream()
+                        .anyMatch(server -> serverId.equals(server.getId()));
+
+                if (exists) {
+                    throw new BusinessException("服务已存在: " + serverId);
+                }
 
-            // 添加新实例
-            servers.add(mcpServer);
-            log.info("成功注册服务: 服务名称={}, 服务ID={}", serverName, serverId);
-            return servers;
-        });
+                // 添加新实例
+                List<McpServer> updated = new ArrayList<>(servers.size() + 1);
+                updated.addAll(servers);
+                updated.add(mcpServer);
+                log.info("成功注册服务: 服务名称={}, 服务ID={}", serverName, serverId);
+                return List.copyOf(updated);
+            });
+
+            publishRoutingTable();
+        }
 
         return true;
     }
@@ -64,29 +88,34 @@ public class McpMemoryRegister implements McpRegister {
             throw new BusinessException("服务名称或服务ID不能为空");
         }
 
-        // 使用 AtomicReference 保存被移除的服务实例
+        // 保存被移除的服务实例
         final McpServer[] removedServer = {null};
 
-        MCP_SERVER_HOLDER.computeIfPresent(serverName, (key, servers) -> {
-            // 先查找要移除的服务
-            Optional<McpServer> serverToRemove = servers.stream()
-                    .filter(server -> serverId.equals(server.getId()))
-                    .findFirst();
-
-            if (serverToRemove.isPresent()) {
-                removedServer[0] = serverToRemove.get();
-                servers.remove(removedServer[0]);
-                log.info("成功注销服务: 服务名称={}, 服务ID={}", serverName, serverId);
-                // 如果列表为空，返回 null 以移除该 key
-                return servers.isEmpty() ? null : servers;
+        synchronized (WRITE_LOCK) {
+            MCP_SERVER_HOLDER.computeIfPresent(serverName, (key, servers) -> {
+                // 先查找要移除的服务
+                Optional<McpServer> serverToRemove = servers.stream()
+                        .filter(server -> serverId.equals(server.getId()))
+                        .findFirst();
+
+                if (serverToRemove.isPresent()) {
+                    removedServer[0] = serverToRemove.get();
+                    List<McpServer> updated = new ArrayList<>(servers);
+                    updated.remove(removedServer[0]);
+                    log.info("成功注销服务: 服务名称={}, 服务ID={}", serverName, serverId);
+                    // 如果列表为空，返回 null 以移除该 key
+                    return updated.isEmpty() ? null : List.copyOf(updated);
+                }
+
+                throw new BusinessException("服务未找到: " + serverId);
+            });
+
+            // 如果服务名称不存在或服务未找到
+            if (removedServer[0] == null) {
+                throw new BusinessException("服务未找到: " + serverName);
             }
 
-            throw new BusinessException("服务未找到: " + serverId);
-        });
-
-        // 如果服务名称不存在或服务未找到
-        if (removedServer[0] == null) {
-            throw new BusinessException("服务未找到: " + serverName);
+            publishRoutingTable();
         }
 
         return removedServer[0];
@@ -98,22 +127,21 @@ public class McpMemoryRegister implements McpRegister {
             throw new BusinessException("服务名称或服务ID不能为空");
         }
 
-        List<McpServer> servers = MCP_SERVER_HOLDER.get(serverName);
-        if (servers == null || servers.isEmpty()) {
-            throw new BusinessException("服务未找到: " + serverName);
+        McpRoutingTable table = routingTable;
+        McpServer server = table.getServerById(serverId);
+        if (server == null || !serverName.equals(server.getName())) {
+            if (table.getServers(serverName).isEmpty()) {
+                throw new BusinessException("服务未找到: " + serverName);
+            }
+            throw new BusinessException("服务未找到: " + serverId);
         }
 
-        return servers.stream()
-                .filter(server -> serverId.equals(server.getId()))
-                .findFirst()
-                .orElseThrow(() -> new BusinessException("服务未找到: " + serverId));
+        return server;
     }
 
     @Override
     public List<McpServer> getAllServers() {
-        return MCP_SERVER_HOLDER.values().stream()
-                .flatMap(List::stream)
-                .collect(Collectors.toList());
+        return routingTable.getAllServers();
     }
 
     @Override
@@ -122,21 +150,34 @@ public class McpMemoryRegister implements McpRegister {
             throw new BusinessException("服务ID不能为空");
         }
 
-        return MCP_SERVER_HOLDER.values().stream()
-                .flatMap(List::stream)
-                .filter(server -> serverId.equals(server.getId()))
-                .findFirst()
-                .orElseThrow(() -> new BusinessException("服务未找到: " + serverId));
+        McpServer server = routingTable.getServerById(serverId);
+        if (server == null) {
+            throw new BusinessException("服务未找到: " + serverId);
+        }
+
+        return server;
     }
 
     /**
      * 清空所有注册信息（主要用于测试）
      */
     public void clear() {
-        MCP_SERVER_HOLDER.clear();
+        synchronized (WRITE_LOCK) {
+            MCP_SERVER_HOLDER.clear();
+            publishRoutingTable();
+        }
         log.info("已清空所有服务注册信息");
     }
 
+    /**
+     * 获取当前发布的路由快照
+     *
+     * @return 不可变路由快照
+     */
+    public McpRoutingTable getRoutingTable() {
+        return routingTable;
+    }
+
     /**
      * 获取当前注册统计信息
      */
@@ -152,13 +193,14 @@ public class McpMemoryRegister implements McpRegister {
         Map<String, Integer> serverCounts = new HashMap<>();
         MCP_SERVER_HOLDER.forEach((name, servers) -> serverCounts.put(name, servers.size()));
         stats.put("serverCounts", serverCounts);
+        stats.put("routingTableVersion", routingTable.getVersion());
 
         return stats;
     }
 
     /**
      * 根据服务名称获取所有服务实例
-     * 提供给负载均衡模块使用
+     * 提供给负载均衡模块使用，直接返回路由快照中的不可变列表
      */
     @Override
     public List<McpServer> getServersByName(String serverName) {
@@ -166,16 +208,26 @@ public class McpMemoryRegister implements McpRegister {
             return Collections.emptyList();
         }
 
-        List<McpServer> servers = MCP_SERVER_HOLDER.get(serverName);
-        return servers == null ? Collections.emptyList() : new ArrayList<>(servers);
+        return routingTable.getServers(serverName);
     }
 
     @Override
     public List<String> getServerIdsByName(String serverName) {
-        List<McpServer> servers = getServersByName(serverName);
-        return servers.stream()
-                .map(McpServer::getId)
-                .collect(Collectors.toList());
+        if (serverName == null) {
+            return Collections.emptyList();
+        }
+
+        return routingTable.getServerIds(serverName);
+    }
+
+    /**
+     * 基于当前注册数据重建并发布路由快照
+     * 调用方需持有 WRITE_LOCK
+     */
+    private static void publishRoutingTable() {
+        McpRoutingTable current = routingTable;
+        routingTable = McpRoutingTable.build(current.getVersion() + 1, MCP_SERVER_HOLDER);
+        log.debug("路由快照已发布: version={}", routingTable.getVersion());
     }
 
 }
@@ -0,0 +1,135 @@
+package org.cloudnook.mcp.infrastructure.core.register;
+
+import org.cloudnook.mcp.domain.server.model.McpServer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 路由快照
+ * 注册中心在每次注册/注销后构建的不可变路由表（服务名称 -> 实例数组，服务ID -> 实例）
+ *
+ * 特点：
+ * - 不可变：所有集合在构建时一次性生成，读取方可直接返回，无需复制
+ * - 版本化：每次发布递增版本号，便于调用方判断路由表是否变化
+ * - 一致性：名称视图与 serverId 索引来自同一份数据、随同一个快照发布，任何读取方都不会看到两者不一致
+ */
+public final class McpRoutingTable {
+
+    /**
+     * 空路由表
+     */
+    static final McpRoutingTable EMPTY = new McpRoutingTable(0L, Map.of(), Map.of(), Map.of(), List.of());
+
+    /**
+     * 版本号
+     */
+    private final long version;
+
+    /**
+     * 服务名称 -> 服务实例列表（不可变）
+     */
+    private final Map<String, List<McpServer>> serversByName;
+
+    /**
+     * 服务名称 -> 服务实例ID列表（不可变）
+     */
+    private final Map<String, List<String>> serverIdsByName;
+
+    /**
+     * 服务ID -> 服务实例（不可变二级索引）
+     */
+    private final Map<String, McpServer> serversById;
+
+    /**
+     * 所有服务实例（不可变）
+     */
+    private final List<McpServer> allServers;
+
+    private McpRoutingTable(long version,
+                            Map<String, List<McpServer>> serversByName,
+                            Map<String, List<String>> serverIdsByName,
+                            Map<String, McpServer> serversById,
+                            List<McpServer> allServers) {
+        this.version = version;
+        this.serversByName = serversByName;
+        this.serverIdsByName = serverIdsByName;
+        this.serversById = serversById;
+        this.allServers = allServers;
+    }
+
+    /**
+     * 根据注册数据构建路由表
+     *
+     * @param version 版本号
+     * @param holder  服务名称 -> 服务实例列表
+     * @return 不可变路由表
+     */
+    static McpRoutingTable build(long version, Map<String, List<McpServer>> holder) {
+        Map<String, List<McpServer>> serversByName = new HashMap<>(holder.size() * 2);
+        Map<String, List<String>> serverIdsByName = new HashMap<>(holder.size() * 2);
+        Map<String, McpServer> serversById = new HashMap<>();
+        List<McpServer> allServers = new ArrayList<>();
+
+        holder.forEach((name, servers) -> {
+            McpServer[] instances = servers.toArray(new McpServer[0]);
+            String[] ids = new String[instances.length];
+            for (int i = 0; i < instances.length; i++) {
+                ids[i] = instances[i].getId();
+                serversById.put(ids[i], instances[i]);
+            }
+            serversByName.put(name, List.of(instances));
+            serverIdsByName.put(name, List.of(ids));
+            allServers.addAll(servers);
+        });
+
+        return new McpRoutingTable(version,
+                Map.copyOf(serversByName),
+                Map.copyOf(serverIdsByName),
+                Map.copyOf(serversById),
+                List.copyOf(allServers));
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 根据服务名称获取服务实例
+     *
+     * @param serverName 服务名称
+     * @return 服务实例列表，不存在时返回空列表
+     */
+    public List<McpServer> getServers(String serverName) {
+        return serversByName.getOrDefault(serverName, List.of());
+    }
+
+    /**
+     * 根据服务名称获取服务实例ID
+     *
+     * @param serverName 服务名称
+     * @return 服务实例ID列表，不存在时返回空列表
+     */
+    public List<String> getServerIds(String serverName) {
+        return serverIdsByName.getOrDefault(serverName, List.of());
+    }
+
+    /**
+     * 根据服务ID获取服务实例，O(1)
+     *
+     * @param serverId 服务ID
+     * @return 服务实例，不存在时返回 null
+     */
+    public McpServer getServerById(String serverId) {
+        return serversById.get(serverId);
+    }
+
+    /**
+     * 获取所有服务实例
+     */
+    public List<McpServer> getAllServers() {
+        return allServers;
+    }
+}
@@ -2,11 +2,21 @@ package org.cloudnook.mcp.infrastructure.core.server;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.cloudnook.mcp.domain.invoke.repository.McpCatalogCache;
+import org.cloudnook.mcp.domain.invoke.service.McpBulkhead;
+import org.cloudnook.mcp.domain.invoke.service.McpCircuitBreaker;
+import org.cloudnook.mcp.domain.invoke.service.McpConcurrencyLimiter;
+import org.cloudnook.mcp.domain.invoke.service.McpRequestHedger;
+import org.cloudnook.mcp.domain.invoke.service.McpRetryBudget;
+import org.cloudnook.mcp.domain.routing.McpOutlierDetector;
 import org.cloudnook.mcp.domain.server.model.McpServer;
 import org.cloudnook.mcp.domain.server.service.McpClientManager;
+import org.cloudnook.mcp.domain.metrics.repository.McpDimensionMetricsRepository;
 import org.cloudnook.mcp.domain.metrics.repository.McpMetricsRepository;
+import org.cloudnook.mcp.domain.routing.ServerLoadTracker;
 import org.cloudnook.mcp.domain.server.service.McpRegister;
 import org.cloudnook.mcp.domain.server.service.McpServerDomainService;
+import org.cloudnook.mcp.infrastructure.common.exception.BusinessException;
 import org.cloudnook.mcp.infrastructure.common.result.Result;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
@@ -40,6 +50,51 @@ public class McpServerDomainServiceImpl implements McpServerDomainService {
      */
     private final McpMetricsRepository metricsRepository;
 
+    /**
+     * 维度监控指标仓储
+     */
+    private final McpDimensionMetricsRepository dimensionMetricsRepository;
+
+    /**
+     * 实例负载追踪
+     */
+    private final ServerLoadTracker serverLoadTracker;
+
+    /**
+     * 能力目录缓存
+     */
+    private final McpCatalogCache catalogCache;
+
+    /**
+     * 并发隔离
+     */
+    private final McpBulkhead mcpBulkhead;
+
+    /**
+     * 自适应并发限制
+     */
+    private final McpConcurrencyLimiter mcpConcurrencyLimiter;
+
+    /**
+     * 熔断器
+     */
+    private final McpCircuitBreaker mcpCircuitBreaker;
+
+    /**
+     * 离群检测
+     */
+    private final McpOutlierDetector mcpOutlierDetector;
+
+    /**
+     * 对冲请求
+     */
+    private final McpRequestHedger mcpRequestHedger;
+
+    /**
+     * 重试预算
+     */
+    private final McpRetryBudget mcpRetryBudget;
+
     @Override
     public Mono<Result<McpServer>> register(McpServer mcpServer) {
         // 验证传输
@@ -49,6 +104,9 @@ public class McpServerDomainServiceImpl implements McpServerDomainService {
                     try {
                         mcpRegister.register(mcpServer);
 
+                        // 注册成功后再配置并发隔离，重复注册被拒绝时不影响已有实例的隔离配置
+                        mcpBulkhead.configure(mcpServer);
+
                         // 初始化监控指标
                         metricsRepository.initMetrics(mcpServer.getName(), mcpServer.getId());
 
@@ -58,22 +116,37 @@ public class McpServerDomainServiceImpl implements McpServerDomainService {
                     }
                 })
                 .onErrorResume(e -> {
-                    // 连接失败
+                    // 注册校验失败（如不允许的 STDIO 命令）保留错误码，其余视为连接失败
+                    if (e instanceof BusinessException) {
+                        return Mono.just(Result.<McpServer>error(e));
+                    }
                     return Mono.just(Result.error(mcpServer.getName() + " 连接失败"));
                 });
     }
 
     @Override
     public McpServer unregister(String serverName, String serverId) {
-        // 断开连接
-        mcpClientManager.disconnect(serverId);
-
-        // 注销服务
+        // 先从路由表注销，不再接收新流量
         McpServer unregistered = mcpRegister.unregister(serverName, serverId);
 
+        // 断开连接（等待进行中请求完成后关闭）
+        mcpClientManager.disconnect(serverId);
+
         // 清除监控指标
         if (unregistered != null) {
             metricsRepository.removeMetrics(serverId);
+            dimensionMetricsRepository.removeTargets(serverId);
+            serverLoadTracker.remove(serverId);
+            catalogCache.invalidateAll(serverId);
+            mcpBulkhead.remove(serverId);
+            mcpConcurrencyLimiter.remove(serverId);
+            mcpCircuitBreaker.remove(serverId);
+            mcpOutlierDetector.remove(serverId);
+            mcpRequestHedger.remove(serverId);
+            List<McpServer> remaining = mcpRegister.getServersByName(serverName);
+            if (remaining == null || remaining.isEmpty()) {
+                mcpRetryBudget.remove(serverName);
+            }
         }
 
         return unregistered;
@@ -5,13 +5,15 @@ import io.modelcontextprotocol.spec.McpSchema;
 import lombok.RequiredArgsConstructor;
 import org.cloudnook.mcp.application.service.McpInvokeAppService;
 import org.cloudnook.mcp.domain.log.model.McpInvokeLog;
+import org.cloudnook.mcp.domain.log.model.McpInvokeLogPage;
+import org.cloudnook.mcp.domain.log.model.McpInvokeLogQuery;
 import org.cloudnook.mcp.infrastructure.common.result.Result;
 import org.cloudnook.mcp.interfaces.dto.inspector.PromptGetRequest;
 import org.cloudnook.mcp.interfaces.dto.inspector.ToolCallRequest;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Mono;
 
-import java.util.List;
+import java.time.Instant;
 
 /**
  * @Author: the-way
@@ -27,6 +29,11 @@ import java.util.List;
 @RequiredArgsConstructor
 public class McpServerInspectorController {
 
+    /**
+     * 调用历史单页最大条数
+     */
+    private static final int MAX_HISTORY_PAGE_SIZE = 500;
+
     private final McpInvokeAppService mcpInvokeAppService;
 
     // ==================== 资源列表查询 ====================
@@ -38,7 +45,7 @@ public class McpServerInspectorController {
     public Mono<Result<McpSchema.ListToolsResult>> listTools(@PathVariable String serverId) {
         return mcpInvokeAppService.listTools(serverId, McpInvokeLog.InvokeSource.INSPECTOR)
                 .map(Result::success)
-                .onErrorResume(e -> Mono.just(Result.error(e.getMessage())));
+                .onErrorResume(e -> Mono.just(Result.error(e)));
     }
 
     /**
@@ -48,7 +55,7 @@ public class McpServerInspectorController {
     public Mono<Result<McpSchema.ListResourcesResult>> listResources(@PathVariable String serverId) {
         return mcpInvokeAppService.listResources(serverId, McpInvokeLog.InvokeSource.INSPECTOR)
                 .map(Result::success)
-                .onErrorResume(e -> Mono.just(Result.error(e.getMessage())));
+                .onErrorResume(e -> Mono.just(Result.error(e)));
     }
 
     /**
@@ -58,7 +65,7 @@ public class McpServerInspectorController {
     public Mono<Result<McpSchema.ListPromptsResult>> listPrompts(@PathVariable String serverId) {
         return mcpInvokeAppService.listPrompts(serverId, McpInvokeLog.InvokeSource.INSPECTOR)
                 .map(Result::success)
-                .onErrorResume(e -> Mono.just(Result.error(e.getMessage())));
+                .onErrorResume(e -> Mono.just(Result.error(e)));
     }
 
     // ==================== Tool 调试 ====================
@@ -79,7 +86,7 @@ public class McpServerInspectorController {
                     null
                 )
                 .map(Result::success)
-                .onErrorResume(e -> Mono.just(Result.error(e.getMessage())));
+                .onErrorResume(e -> Mono.just(Result.error(e)));
     }
 
     // ==================== Resource 调试 ====================
@@ -96,7 +103,7 @@ public class McpServerInspectorController {
     ) {
         return mcpInvokeAppService.readResource(serverId, uri, McpInvokeLog.InvokeSource.INSPECTOR)
                 .map(Result::success)
-                .onErrorResume(e -> Mono.just(Result.error(e.getMessage())));
+                .onErrorResume(e -> Mono.just(Result.error(e)));
     }
 
     // ==================== Prompt 调试 ====================
@@ -116,34 +123,49 @@ public class McpServerInspectorController {
                     McpInvokeLog.InvokeSource.INSPECTOR
                 )
                 .map(Result::success)
-                .onErrorResume(e -> Mono.just(Result.error(e.getMessage())));
+                .onErrorResume(e -> Mono.just(Result.error(e)));
     }
 
     // ==================== 调用历史 ====================
 
     /**
      * 查询调用历史（全局）
+     * 过滤条件均可选；翻页时传入上一页返回的 nextCursor，未传时按 page 跳过
+     *
+     * 示例: GET /inspector/history?source=ROUTER&targetName=get_weather&status=FAILURE&from=2026-01-13T00:00:00Z&size=20
      */
     @GetMapping("/history")
-    public Result<List<McpInvokeLog>> getHistory(
+    public Result<McpInvokeLogPage> getHistory(
+            @RequestParam(required = false) McpInvokeLog.InvokeSource source,
+            @RequestParam(required = false) String targetName,
+            @RequestParam(required = false) McpInvokeLog.InvokeStatus status,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to,
+            @RequestParam(required = false) Long cursor,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size
     ) {
-        // TODO: 实现查询逻辑
-        return Result.success(List.of());
+        return Result.success(mcpInvokeAppService.queryHistory(
+                buildQuery(null, source, targetName, status, from, to, cursor, page, size)));
     }
 
     /**
      * 查询指定服务的调用历史
      */
     @GetMapping("/{serverId}/history")
-    public Result<List<McpInvokeLog>> getHistoryByServerId(
+    public Result<McpInvokeLogPage> getHistoryByServerId(
             @PathVariable String serverId,
+            @RequestParam(required = false) McpInvokeLog.InvokeSource source,
+            @RequestParam(required = false) String targetName,
+            @RequestParam(required = false) McpInvokeLog.InvokeStatus status,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to,
+            @RequestParam(required = false) Long cursor,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size
     ) {
-        // TODO: 实现查询逻辑
-        return Result.success(List.of());
+        return Result.success(mcpInvokeAppService.queryHistory(
+                buildQuery(serverId, source, targetName, status, from, to, cursor, page, size)));
     }
 
     /**
@@ -151,7 +173,31 @@ public class McpServerInspectorController {
      */
     @DeleteMapping("/history")
     public Result<Void> clearHistory() {
-        // TODO: 实现清空逻辑
+        mcpInvokeAppService.clearHistory();
         return Result.success();
     }
+
+    private McpInvokeLogQuery buildQuery(
+            String serverId,
+            McpInvokeLog.InvokeSource source,
+            String targetName,
+            McpInvokeLog.InvokeStatus status,
+            Instant from,
+            Instant to,
+            Long cursor,
+            int page,
+            int size
+    ) {
+        return McpInvokeLogQuery.builder()
+                .serverId(serverId)
+                .source(source)
+                .targetName(targetName)
+                .status(status)
+                .from(from)
+                .to(to)
+                .cursor(cursor)
+                .page(page)
+                .size(Math.min(Math.max(size, 1), MAX_HISTORY_PAGE_SIZE))
+                .build();
+    }
 }
@@ -0,0 +1,32 @@
+package org.cloudnook.mcp.interfaces.api.monitor;
+
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.cloudnook.mcp.application.service.McpServerAppService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * MCP 监控指标抓取接口
+ * 以 OpenMetrics 文本格式输出网关指标，供 Prometheus 抓取
+ */
+@RestController
+@RequiredArgsConstructor
+public class McpMetricsController {
+
+    private final McpServerAppService mcpServerAppService;
+
+    /**
+     * 抓取全部指标
+     * 直接写入响应流，不经过 Result 包装
+     */
+    @GetMapping("/metrics")
+    public void scrape(HttpServletResponse response) throws IOException {
+        response.setContentType(mcpServerAppService.getMetricsContentType());
+        Writer writer = response.getWriter();
+        mcpServerAppService.exportMetrics(writer);
+    }
+}
@@ -3,6 +3,7 @@ package org.cloudnook.mcp.interfaces.api.monitor;
 import lombok.RequiredArgsConstructor;
 import org.cloudnook.mcp.application.service.McpServerAppService;
 import org.cloudnook.mcp.infrastructure.common.result.Result;
+import org.cloudnook.mcp.interfaces.dto.monitor.DimensionMetricsVO;
 import org.cloudnook.mcp.interfaces.dto.monitor.ServerDetailVO;
 import org.cloudnook.mcp.interfaces.dto.monitor.ServerMonitorSummaryVO;
 import org.springframework.web.bind.annotation.*;
@@ -56,4 +57,32 @@ public class McpMonitorController {
         return Result.success(detail);
     }
 
+    /**
+     * 获取服务访问最多的目标（tool/resource/prompt）监控数据
+     *
+     * @param serverId 服务ID
+     * @param limit    返回数量
+     * @return 目标监控数据
+     */
+    @GetMapping("/{serverId}/targets")
+    public Result<List<DimensionMetricsVO>> getTopTargets(
+            @PathVariable String serverId,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        return Result.success(mcpServerAppService.getTopTargets(serverId, limit));
+    }
+
+    /**
+     * 获取访问最多的客户端监控数据（按 X-Client-ID 统计）
+     *
+     * @param limit 返回数量
+     * @return 客户端监控数据
+     */
+    @GetMapping("/clients")
+    public Result<List<DimensionMetricsVO>> getTopClients(
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        return Result.success(mcpServerAppService.getTopClients(limit));
+    }
+
 }
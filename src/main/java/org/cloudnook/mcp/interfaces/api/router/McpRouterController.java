@@ -39,7 +39,7 @@ public class McpRouterController {
     public Mono<Result<McpSchema.ListToolsResult>> listTools(@PathVariable String serverName) {
         return mcpRouterAppService.listTools(serverName)
                 .map(Result::success)
-                .onErrorResume(e -> Mono.just(Result.error(e.getMessage())));
+                .onErrorResume(e -> Mono.just(Result.error(e)));
     }
 
     /**
@@ -49,7 +49,7 @@ public class McpRouterController {
     public Mono<Result<McpSchema.ListResourcesResult>> listResources(@PathVariable String serverName) {
         return mcpRouterAppService.listResources(serverName)
                 .map(Result::success)
-                .onErrorResume(e -> Mono.just(Result.error(e.getMessage())));
+                .onErrorResume(e -> Mono.just(Result.error(e)));
     }
 
     /**
@@ -59,7 +59,7 @@ public class McpRouterController {
     public Mono<Result<McpSchema.ListPromptsResult>> listPrompts(@PathVariable String serverName) {
         return mcpRouterAppService.listPrompts(serverName)
                 .map(Result::success)
-                .onErrorResume(e -> Mono.just(Result.error(e.getMessage())));
+                .onErrorResume(e -> Mono.just(Result.error(e)));
     }
 
     // ==================== Tool 调用 ====================
@@ -85,7 +85,7 @@ public class McpRouterController {
                     clientId
                 )
                 .map(Result::success)
-                .onErrorResume(e -> Mono.just(Result.error(e.getMessage())));
+                .onErrorResume(e -> Mono.just(Result.error(e)));
     }
 
     // ==================== Resource 调用 ====================
@@ -104,7 +104,7 @@ public class McpRouterController {
     ) {
         return mcpRouterAppService.readResource(serverName, resourceUri)
                 .map(Result::success)
-                .onErrorResume(e -> Mono.just(Result.error(e.getMessage())));
+                .onErrorResume(e -> Mono.just(Result.error(e)));
     }
 
     // ==================== Prompt 调用 ====================
@@ -127,6 +127,6 @@ public class McpRouterController {
                     request.getArguments()
                 )
                 .map(Result::success)
-                .onErrorResume(e -> Mono.just(Result.error(e.getMessage())));
+                .onErrorResume(e -> Mono.just(Result.error(e)));
     }
 }
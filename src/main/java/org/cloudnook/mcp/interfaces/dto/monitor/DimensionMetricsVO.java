@@ -0,0 +1,102 @@
+package org.cloudnook.mcp.interfaces.dto.monitor;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.cloudnook.mcp.domain.metrics.model.McpDimensionMetrics;
+
+/**
+ * 维度监控指标 VO
+ * 用于展示单个目标（tool/resource/prompt）或客户端的调用指标
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class DimensionMetricsVO {
+
+    /**
+     * 服务ID（仅目标维度）
+     */
+    private String serverId;
+
+    /**
+     * 调用类型（仅目标维度）
+     */
+    private String type;
+
+    /**
+     * 目标名称（仅目标维度）
+     */
+    private String targetName;
+
+    /**
+     * 客户端ID（仅客户端维度）
+     */
+    private String clientId;
+
+    // ==================== 请求指标 ====================
+
+    /**
+     * Top-K 排序权重（可能高估，高估量 = rankCount - totalRequests）
+     */
+    private Long rankCount;
+
+    /**
+     * 开始跟踪以来的请求数
+     */
+    private Long totalRequests;
+
+    /**
+     * 开始跟踪以来的失败请求数
+     */
+    private Long failedRequests;
+
+    /**
+     * 成功率（百分比）
+     */
+    private Double successRate;
+
+    // ==================== 延迟指标 ====================
+
+    /**
+     * 平均延迟（毫秒）
+     */
+    private Double avgLatency;
+
+    /**
+     * P50 延迟（毫秒）
+     */
+    private Double p50Latency;
+
+    /**
+     * P90 延迟（毫秒）
+     */
+    private Double p90Latency;
+
+    /**
+     * P99 延迟（毫秒）
+     */
+    private Double p99Latency;
+
+    /**
+     * 从 McpDimensionMetrics 转换
+     */
+    public static DimensionMetricsVO from(McpDimensionMetrics metrics) {
+        return DimensionMetricsVO.builder()
+                .serverId(metrics.getServerId())
+                .type(metrics.getType() != null ? metrics.getType().name() : null)
+                .targetName(metrics.getTargetName())
+                .clientId(metrics.getClientId())
+                .rankCount(metrics.getRankCount())
+                .totalRequests(metrics.getTotalRequests())
+                .failedRequests(metrics.getFailedRequests())
+                .successRate(metrics.getSuccessRate())
+                .avgLatency(metrics.getAvgLatency())
+                .p50Latency(metrics.getP50Latency())
+                .p90Latency(metrics.getP90Latency())
+                .p99Latency(metrics.getP99Latency())
+                .build();
+    }
+}
@@ -4,6 +4,10 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.cloudnook.mcp.domain.invoke.model.McpBulkheadStats;
+import org.cloudnook.mcp.domain.invoke.model.McpCircuitBreakerStats;
+import org.cloudnook.mcp.domain.invoke.model.McpConcurrencyLimitStats;
+import org.cloudnook.mcp.domain.metrics.model.McpOutlierStats;
 import org.cloudnook.mcp.domain.metrics.model.McpServerMetrics;
 import org.cloudnook.mcp.domain.server.model.McpServer;
 import org.cloudnook.mcp.domain.server.model.HealthStatus;
@@ -94,12 +98,22 @@ public class ServerDetailVO {
     private Long failedRequests;
 
     /**
-     * 成功率（百分比）
+     * 缓存命中数
+     */
+    private Long cacheHits;
+
+    /**
+     * 网关拒绝数（限流、并发隔离、熔断等，不计入失败率）
+     */
+    private Long rejectedRequests;
+
+    /**
+     * 成功率（百分比，最近 1 分钟）
      */
     private Double successRate;
 
     /**
-     * 失败率（百分比）
+     * 失败率（百分比，最近 1 分钟）
      */
     private Double failureRate;
 
@@ -120,6 +134,55 @@ public class ServerDetailVO {
      */
     private Long maxLatency;
 
+    /**
+     * P50 延迟（毫秒）
+     */
+    private Double p50Latency;
+
+    /**
+     * P90 延迟（毫秒）
+     */
+    private Double p90Latency;
+
+    /**
+     * P99 延迟（毫秒）
+     */
+    private Double p99Latency;
+
+    /**
+     * P99.9 延迟（毫秒）
+     */
+    private Double p999Latency;
+
+    // ==================== 窗口指标 ====================
+
+    /**
+     * 最近 1 分钟统计
+     */
+    private McpServerMetrics.WindowStats window1m;
+
+    /**
+     * 最近 5 分钟统计
+     */
+    private McpServerMetrics.WindowStats window5m;
+
+    /**
+     * 最近 15 分钟统计
+     */
+    private McpServerMetrics.WindowStats window15m;
+
+    // ==================== 连接指标 ====================
+
+    /**
+     * 重连成功次数
+     */
+    private Long reconnectCount;
+
+    /**
+     * 最近一次连接失败时间（格式化）
+     */
+    private String lastFailureTime;
+
     // ==================== 时间指标 ====================
 
     /**
@@ -132,6 +195,28 @@ public class ServerDetailVO {
      */
     private Integer activeConnections;
 
+    // ==================== 并发隔离 ====================
+
+    /**
+     * 并发隔离状态：并发上限、进行中、排队数、拒绝数
+     */
+    private McpBulkheadStats bulkhead;
+
+    /**
+     * 自适应并发限制状态：当前限制、进行中、拒绝数、基准延迟
+     */
+    private McpConcurrencyLimitStats concurrencyLimit;
+
+    /**
+     * 熔断状态：状态、窗口调用数和失败率、打开时间、拒绝数（尚无调用时为 null）
+     */
+    private McpCircuitBreakerStats circuitBreaker;
+
+    /**
+     * 离群检测状态：是否被摘除、摘除原因和截止时间、窗口延迟与组内中位数（尚未参与检测时为 null）
+     */
+    private McpOutlierStats outlier;
+
     /**
      * 从 McpServer 和 McpServerMetrics 创建详情 VO
      *
@@ -163,6 +248,8 @@ public class ServerDetailVO {
                 .totalRequests(metrics != null ? metrics.getTotalRequests() : 0L)
                 .successRequests(metrics != null ? metrics.getSuccessRequests() : 0L)
                 .failedRequests(metrics != null ? metrics.getFailedRequests() : 0L)
+                .cacheHits(metrics != null && metrics.getCacheHits() != null ? metrics.getCacheHits() : 0L)
+                .rejectedRequests(metrics != null && metrics.getRejectedRequests() != null ? metrics.getRejectedRequests() : 0L)
                 .successRate(metrics != null ? metrics.getSuccessRate() : 0.0)
                 .failureRate(metrics != null ? metrics.getFailureRate() : 0.0)
 
@@ -170,6 +257,21 @@ public class ServerDetailVO {
                 .avgLatency(metrics != null ? metrics.getAvgLatency() : 0.0)
                 .minLatency(metrics != null && metrics.getMinLatency() != null ? metrics.getMinLatency() : 0L)
                 .maxLatency(metrics != null && metrics.getMaxLatency() != null ? metrics.getMaxLatency() : 0L)
+                .p50Latency(metrics != null && metrics.getP50Latency() != null ? metrics.getP50Latency() : 0.0)
+                .p90Latency(metrics != null && metrics.getP90Latency() != null ? metrics.getP90Latency() : 0.0)
+                .p99Latency(metrics != null && metrics.getP99Latency() != null ? metrics.getP99Latency() : 0.0)
+                .p999Latency(metrics != null && metrics.getP999Latency() != null ? metrics.getP999Latency() : 0.0)
+
+                // 窗口指标
+                .window1m(metrics != null ? metrics.getWindow1m() : null)
+                .window5m(metrics != null ? metrics.getWindow5m() : null)
+                .window15m(metrics != null ? metrics.getWindow15m() : null)
+
+                // 连接指标
+                .reconnectCount(metrics != null && metrics.getReconnectCount() != null ? metrics.getReconnectCount() : 0L)
+                .lastFailureTime(metrics != null && metrics.getLastFailureTime() != null
+                        ? metrics.getLastFailureTime().atZone(java.time.ZoneId.systemDefault()).format(formatter)
+                        : "N/A")
 
                 // 时间指标
                 .lastHeartbeat(metrics != null && metrics.getLastHeartbeat() != null
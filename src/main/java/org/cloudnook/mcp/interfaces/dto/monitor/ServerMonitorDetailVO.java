@@ -62,6 +62,26 @@ public class ServerMonitorDetailVO {
      */
     private Long maxLatency;
 
+    /**
+     * P50 延迟（毫秒）
+     */
+    private Double p50Latency;
+
+    /**
+     * P90 延迟（毫秒）
+     */
+    private Double p90Latency;
+
+    /**
+     * P99 延迟（毫秒）
+     */
+    private Double p99Latency;
+
+    /**
+     * P99.9 延迟（毫秒）
+     */
+    private Double p999Latency;
+
     /**
      * 运行时长（秒）
      */
@@ -78,12 +98,12 @@ public class ServerMonitorDetailVO {
     private String lastHeartbeat;
 
     /**
-     * 成功率（百分比）
+     * 成功率（百分比，最近 1 分钟）
      */
     private Double successRate;
 
     /**
-     * 失败率（百分比）
+     * 失败率（百分比，最近 1 分钟）
      */
     private Double failureRate;
 
@@ -100,6 +120,10 @@ public class ServerMonitorDetailVO {
                 .avgLatency(metrics.getAvgLatency())
                 .minLatency(metrics.getMinLatency())
                 .maxLatency(metrics.getMaxLatency())
+                .p50Latency(metrics.getP50Latency())
+                .p90Latency(metrics.getP90Latency())
+                .p99Latency(metrics.getP99Latency())
+                .p999Latency(metrics.getP999Latency())
                 .uptime(metrics.getUptime())
                 .registerTime(metrics.getRegisterTime() != null ? metrics.getRegisterTime().toString() : null)
                 .lastHeartbeat(metrics.getLastHeartbeat() != null ? metrics.getLastHeartbeat().toString() : null)
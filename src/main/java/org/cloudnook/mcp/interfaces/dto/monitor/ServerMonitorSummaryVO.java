@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.cloudnook.mcp.domain.invoke.model.CircuitState;
 import org.cloudnook.mcp.domain.metrics.model.McpServerMetrics;
 import org.cloudnook.mcp.domain.server.model.McpServer;
 import org.cloudnook.mcp.domain.server.model.HealthStatus;
@@ -75,10 +76,25 @@ public class ServerMonitorSummaryVO {
     private Long uptime;
 
     /**
-     * 成功率（百分比）
+     * 成功率（百分比，最近 1 分钟）
      */
     private Double successRate;
 
+    /**
+     * 当前自适应并发限制（尚无调用时为 null）
+     */
+    private Integer concurrencyLimit;
+
+    /**
+     * 熔断状态
+     */
+    private CircuitState circuitState;
+
+    /**
+     * 是否被离群检测临时摘除
+     */
+    private Boolean ejected;
+
     /**
      * 从 McpServer 和 McpServerMetrics 创建 VO
      *
@@ -2,6 +2,7 @@ package org.cloudnook.mcp.interfaces.dto.server;
 
 
 import lombok.Data;
+import org.cloudnook.mcp.domain.server.model.McpBulkheadConfig;
 import org.cloudnook.mcp.domain.server.model.McpTransportType;
 
 /**
@@ -29,7 +30,7 @@ public class McpServerRegisterReq {
     private McpTransportType transportType;
 
     /**
-     * 接入点
+     * 接入点（HTTP 类传输为 URL，STDIO 传输为启动命令行，如 "npx -y @modelcontextprotocol/server-everything"）
      */
     private String endpoint;
 
@@ -37,4 +38,9 @@ public class McpServerRegisterReq {
      * 版本号（可选）
      */
     private String version;
+
+    /**
+     * 并发隔离配置（可选）：最大并发数、最大排队数、排队超时（毫秒），未指定的字段使用默认配置
+     */
+    private McpBulkheadConfig bulkhead;
 }
@@ -0,0 +1,141 @@
+package org.cloudnook.mcp.application.service;
+
+import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.McpTransportException;
+import org.cloudnook.mcp.domain.invoke.service.McpRequestHedger;
+import org.cloudnook.mcp.domain.routing.LoadBalanceStrategy;
+import org.cloudnook.mcp.domain.routing.RoundRobinLoadBalanceStrategy;
+import org.cloudnook.mcp.domain.server.model.McpServer;
+import org.cloudnook.mcp.domain.server.service.McpRegister;
+import org.cloudnook.mcp.infrastructure.config.HedgeProperties;
+import org.cloudnook.mcp.infrastructure.config.RetryProperties;
+import org.cloudnook.mcp.infrastructure.core.invoke.McpBudgetedRequestHedger;
+import org.cloudnook.mcp.infrastructure.core.invoke.McpTokenBucketRetryBudget;
+import org.cloudnook.mcp.infrastructure.core.metrics.McpMemoryMetrics;
+import org.cloudnook.mcp.infrastructure.core.register.McpMemoryRegister;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * McpRouterAppService 测试
+ * 验证 Tool 调用只在请求未发出时换实例重试，请求发出后的传输错误直接返回；
+ * 启用对冲时轮询策略仍然均匀分配主实例
+ */
+class McpRouterAppServiceTest {
+
+    private static final String SERVER_NAME = "router-retry-test";
+
+    private static final McpSchema.CallToolResult OK = McpSchema.CallToolResult.builder()
+            .addTextContent("ok")
+            .build();
+
+    private final McpServer first = McpServer.builder().id("router-retry-1").name(SERVER_NAME).build();
+
+    private final McpServer second = McpServer.builder().id("router-retry-2").name(SERVER_NAME).build();
+
+    private final McpInvokeAppService invokeAppService = mock(McpInvokeAppService.class);
+
+    private final McpRegister register = mock(McpRegister.class);
+
+    private final LoadBalanceStrategy strategy = mock(LoadBalanceStrategy.class);
+
+    private final McpTokenBucketRetryBudget retryBudget = new McpTokenBucketRetryBudget(new RetryProperties());
+
+    private final McpRouterAppService router = new McpRouterAppService(
+            invokeAppService, register, strategy, mock(McpRequestHedger.class), retryBudget);
+
+    @BeforeEach
+    void setUp() {
+        when(register.getServersByName(SERVER_NAME)).thenReturn(List.of(first, second));
+        when(strategy.select(anyList())).thenAnswer(invocation -> {
+            List<McpServer> servers = invocation.getArgument(0);
+            return servers.get(0);
+        });
+        when(invokeAppService.callTool(eq(second.getId()), anyString(), anyMap(), any(), any(), anyString(), anyInt()))
+                .thenReturn(Mono.just(OK));
+    }
+
+    @AfterEach
+    void tearDown() {
+        retryBudget.remove(SERVER_NAME);
+    }
+
+    @Test
+    void retriesOnAnotherInstanceWhenConnectionIsRefused() {
+        failFirstWith(new McpTransportException(new ConnectException("Connection refused")));
+
+        assertSame(OK, callTool());
+        verify(invokeAppService).callTool(eq(second.getId()), anyString(), anyMap(), any(), any(), anyString(), eq(2));
+    }
+
+    @Test
+    void doesNotRetryTransportErrorAfterTheRequestWasSent() {
+        McpTransportException sent = new McpTransportException("Sending request failed", new IOException("Connection reset"));
+        failFirstWith(sent);
+
+        McpTransportException error = assertThrows(McpTransportException.class, this::callTool);
+        assertSame(sent, error);
+        verify(invokeAppService, never()).callTool(eq(second.getId()), anyString(), anyMap(), any(), any(), anyString(), anyInt());
+    }
+
+    @Test
+    void doesNotRetryUpstreamErrorResponse() {
+        failFirstWith(new RuntimeException("Failed to send message: DummyEvent[responseInfo=...]"));
+
+        assertThrows(RuntimeException.class, this::callTool);
+        verify(invokeAppService, never()).callTool(eq(second.getId()), anyString(), anyMap(), any(), any(), anyString(), anyInt());
+    }
+
+    @Test
+    void hedgingKeepsRoundRobinSpreadEven() {
+        HedgeProperties hedgeProperties = new HedgeProperties();
+        hedgeProperties.setEnabled(true);
+        McpMemoryRegister memoryRegister = new McpMemoryRegister();
+        McpBudgetedRequestHedger hedger = new McpBudgetedRequestHedger(hedgeProperties, new McpMemoryMetrics(memoryRegister));
+        McpRouterAppService hedgingRouter = new McpRouterAppService(
+                invokeAppService, register, new RoundRobinLoadBalanceStrategy(), hedger, retryBudget);
+
+        List<McpServer> servers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            servers.add(McpServer.builder().id("router-hedge-" + i).name("router-hedge").build());
+        }
+        when(register.getServersByName("router-hedge")).thenReturn(servers);
+        Map<String, Integer> primaries = new HashMap<>();
+        when(invokeAppService.readResource(anyString(), anyString(), any())).thenAnswer(invocation -> {
+            primaries.merge(invocation.getArgument(0), 1, Integer::sum);
+            return Mono.just(new McpSchema.ReadResourceResult(List.of()));
+        });
+
+        for (int i = 0; i < 100; i++) {
+            hedgingRouter.readResource("router-hedge", "file:///spread").block(Duration.ofSeconds(1));
+        }
+
+        for (McpServer server : servers) {
+            assertEquals(25, primaries.get(server.getId()), server.getId());
+        }
+    }
+
+    private void failFirstWith(Throwable error) {
+        when(invokeAppService.callTool(eq(first.getId()), anyString(), anyMap(), any(), any(), anyString(), anyInt()))
+                .thenReturn(Mono.error(error));
+    }
+
+    private McpSchema.CallToolResult callTool() {
+        return router.callTool(SERVER_NAME, "echo", Map.of("text", "hi"), "client-1")
+                .block(Duration.ofSeconds(1));
+    }
+}
@@ -0,0 +1,64 @@
+package org.cloudnook.mcp.domain.routing;
+
+import org.cloudnook.mcp.domain.server.model.McpServer;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PowerOfTwoChoicesLoadBalanceStrategy 测试
+ * 验证快速失败的实例不会因为延迟低而被优先选中
+ */
+class PowerOfTwoChoicesLoadBalanceStrategyTest {
+
+    private final ServerLoadTracker tracker = new ServerLoadTracker();
+
+    private final PowerOfTwoChoicesLoadBalanceStrategy strategy = new PowerOfTwoChoicesLoadBalanceStrategy(tracker);
+
+    private final McpServer healthy = McpServer.builder().id("p2c-healthy").name("p2c").build();
+
+    private final McpServer failing = McpServer.builder().id("p2c-failing").name("p2c").build();
+
+    @Test
+    void avoidsFastFailingInstance() {
+        // 两个实例起初延迟相同
+        for (int i = 0; i < 10; i++) {
+            complete(healthy, 50, false);
+            complete(failing, 50, false);
+        }
+
+        // 之后一个实例持续在 1ms 内失败（连接被拒绝）
+        for (int i = 0; i < 10; i++) {
+            complete(healthy, 50, false);
+            complete(failing, 1, true);
+        }
+
+        assertTrue(tracker.getEwmaLatency(failing.getId()) > tracker.getEwmaLatency(healthy.getId()));
+        for (int i = 0; i < 100; i++) {
+            assertSame(healthy, strategy.select(List.of(healthy, failing)));
+        }
+    }
+
+    @Test
+    void failureWithoutHistoryIsPenalized() {
+        complete(healthy, 200, false);
+        complete(failing, 1, true);
+
+        assertEquals(TimeUnit.SECONDS.toNanos(1), tracker.getEwmaLatency(failing.getId()));
+        assertSame(healthy, strategy.select(List.of(failing, healthy)));
+    }
+
+    private void complete(McpServer server, long latencyMillis, boolean failed) {
+        tracker.onStart(server.getId());
+        long latencyNanos = TimeUnit.MILLISECONDS.toNanos(latencyMillis);
+        if (failed) {
+            tracker.recordFailure(server.getId(), latencyNanos);
+        } else {
+            tracker.recordLatency(server.getId(), latencyNanos);
+        }
+        tracker.onComplete(server.getId());
+    }
+}
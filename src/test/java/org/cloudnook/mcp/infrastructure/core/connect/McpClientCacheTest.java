@@ -0,0 +1,143 @@
+package org.cloudnook.mcp.infrastructure.core.connect;
+
+import io.modelcontextprotocol.client.McpAsyncClient;
+import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.ProtocolVersions;
+import org.cloudnook.mcp.domain.log.model.McpInvokeLog;
+import org.cloudnook.mcp.domain.server.model.McpServer;
+import org.cloudnook.mcp.domain.server.model.McpTransportType;
+import org.cloudnook.mcp.infrastructure.common.exception.BusinessException;
+import org.cloudnook.mcp.infrastructure.config.CatalogCacheProperties;
+import org.cloudnook.mcp.infrastructure.config.ClientPoolProperties;
+import org.cloudnook.mcp.infrastructure.core.invoke.McpCatalogMemoryCache;
+import org.cloudnook.mcp.infrastructure.core.metrics.McpMemoryMetrics;
+import org.cloudnook.mcp.infrastructure.core.register.McpMemoryRegister;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * McpClientCache 测试
+ * 验证新建会话时目录缓存只在服务端信息变化时失效，STDIO 启动命令行的引号和转义解析，
+ * 以及 STDIO 服务的开关和允许命令列表
+ */
+class McpClientCacheTest {
+
+    private static final String SERVER_ID = "client-cache-test";
+
+    private static final McpSchema.ListToolsResult TOOLS = new McpSchema.ListToolsResult(List.of(), null);
+
+    private final ClientPoolProperties poolProperties = new ClientPoolProperties();
+
+    private final McpCatalogMemoryCache catalogCache = new McpCatalogMemoryCache(new CatalogCacheProperties());
+
+    private final McpMemoryMetrics metrics = new McpMemoryMetrics(new McpMemoryRegister());
+
+    private final McpClientCache clientCache = new McpClientCache(poolProperties, metrics, catalogCache);
+
+    @AfterEach
+    void tearDown() {
+        clientCache.disconnect(SERVER_ID);
+        catalogCache.invalidateAll(SERVER_ID);
+    }
+
+    @Test
+    void growingThePoolKeepsCachedCatalog() {
+        poolProperties.setMaxConcurrencyPerClient(1);
+        McpServer server = McpServer.builder()
+                .id(SERVER_ID)
+                .name(SERVER_ID)
+                .transportType(McpTransportType.STREAMABLE_HTTP)
+                .build();
+        McpClientPool pool = new McpClientPool(server, poolProperties, s -> Mono.fromCallable(() -> {
+            // 每个新会话都完成一次 initialize，服务端不变
+            clientCache.onInitialized(SERVER_ID, initializeResult("1.0.0"));
+            return mock(McpAsyncClient.class);
+        }), metrics, () -> catalogCache.invalidateAll(SERVER_ID));
+
+        pool.warmUp().block(Duration.ofSeconds(1));
+        cacheTools();
+
+        Disposable first = pool.execute(client -> Mono.never()).subscribe();
+        Disposable second = pool.execute(client -> Mono.never()).subscribe();
+        assertEquals(2, pool.size());
+        assertSame(TOOLS, catalogCache.get(SERVER_ID, McpInvokeLog.InvokeType.TOOL_LIST));
+
+        first.dispose();
+        second.dispose();
+        pool.close();
+    }
+
+    @Test
+    void serverVersionChangeInvalidatesCatalog() {
+        clientCache.onInitialized(SERVER_ID, initializeResult("1.0.0"));
+        cacheTools();
+
+        clientCache.onInitialized(SERVER_ID, initializeResult("1.0.0"));
+        assertSame(TOOLS, catalogCache.get(SERVER_ID, McpInvokeLog.InvokeType.TOOL_LIST));
+
+        clientCache.onInitialized(SERVER_ID, initializeResult("1.1.0"));
+        assertNull(catalogCache.get(SERVER_ID, McpInvokeLog.InvokeType.TOOL_LIST));
+    }
+
+    @Test
+    void parsesQuotedAndEscapedCommandLine() {
+        assertEquals(List.of("npx", "-y", "@modelcontextprotocol/server-everything"),
+                McpClientCache.parseCommandLine("  npx   -y\t@modelcontextprotocol/server-everything "));
+        assertEquals(List.of("python3", "/opt/my tools/server.py", "--name", "it's"),
+                McpClientCache.parseCommandLine("python3 '/opt/my tools/server.py' --name \"it's\""));
+        assertEquals(List.of("echo", "a b", "say \"hi\"", "back\\slash", ""),
+                McpClientCache.parseCommandLine("echo a\\ b \"say \\\"hi\\\"\" 'back\\slash' \"\""));
+        assertEquals(List.of("--opt=a b"), McpClientCache.parseCommandLine("--opt=\"a b\""));
+        assertEquals(List.of(), McpClientCache.parseCommandLine("   "));
+
+        assertThrows(BusinessException.class, () -> McpClientCache.parseCommandLine("node 'server.js"));
+        assertThrows(BusinessException.class, () -> McpClientCache.parseCommandLine("node server.js\\"));
+    }
+
+    @Test
+    void stdioServersRequireEnabledAndAllowedCommand() {
+        McpServer server = McpServer.builder()
+                .id(SERVER_ID)
+                .name(SERVER_ID)
+                .transportType(McpTransportType.STDIO)
+                .endpoint("sh -c 'touch /tmp/pwned'")
+                .build();
+
+        // 默认关闭：不解析命令、不创建连接池
+        BusinessException disabled = assertThrows(BusinessException.class,
+                () -> clientCache.connect(server).block(Duration.ofSeconds(1)));
+        assertEquals("403", disabled.getCode());
+        assertNull(clientCache.getPool(SERVER_ID));
+
+        poolProperties.getStdio().setEnabled(true);
+        poolProperties.getStdio().setAllowedCommands(List.of("npx", "/usr/bin/python3"));
+        BusinessException notAllowed = assertThrows(BusinessException.class,
+                () -> clientCache.connect(server).block(Duration.ofSeconds(1)));
+        assertEquals("403", notAllowed.getCode());
+        assertNull(clientCache.getPool(SERVER_ID));
+
+        server.setEndpoint("npx -y @modelcontextprotocol/server-everything");
+        assertEquals(List.of("npx", "-y", "@modelcontextprotocol/server-everything"), clientCache.stdioCommand(server));
+    }
+
+    private void cacheTools() {
+        catalogCache.load(SERVER_ID, McpInvokeLog.InvokeType.TOOL_LIST, () -> Mono.just(TOOLS))
+                .block(Duration.ofSeconds(1));
+        assertSame(TOOLS, catalogCache.get(SERVER_ID, McpInvokeLog.InvokeType.TOOL_LIST));
+    }
+
+    private static McpSchema.InitializeResult initializeResult(String version) {
+        return new McpSchema.InitializeResult(ProtocolVersions.MCP_2025_06_18,
+                McpSchema.ServerCapabilities.builder().build(),
+                new McpSchema.Implementation("test-server", version),
+                null);
+    }
+}
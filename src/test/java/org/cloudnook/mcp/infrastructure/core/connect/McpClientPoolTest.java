@@ -0,0 +1,297 @@
+package org.cloudnook.mcp.infrastructure.core.connect;
+
+import io.modelcontextprotocol.client.McpAsyncClient;
+import io.modelcontextprotocol.spec.McpError;
+import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.McpTransportException;
+import org.cloudnook.mcp.domain.server.model.McpServer;
+import org.cloudnook.mcp.domain.server.model.McpTransportType;
+import org.cloudnook.mcp.infrastructure.common.exception.BusinessException;
+import org.cloudnook.mcp.infrastructure.common.exception.RejectedException;
+import org.cloudnook.mcp.infrastructure.config.ClientPoolProperties;
+import org.cloudnook.mcp.infrastructure.core.metrics.McpMemoryMetrics;
+import org.cloudnook.mcp.infrastructure.core.register.McpMemoryRegister;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * McpClientPool 测试
+ * 验证按最少进行中请求选择连接、繁忙时扩容到 maxSize、STDIO 进程全部满载时拒绝，
+ * 连接故障的识别、重连期间快速拒绝和带抖动的指数退避，以及优雅下线和健康检查剔除
+ */
+class McpClientPoolTest {
+
+    private final ClientPoolProperties properties = new ClientPoolProperties();
+
+    private final McpMemoryMetrics metrics = new McpMemoryMetrics(new McpMemoryRegister());
+
+    private final List<McpAsyncClient> created = new ArrayList<>();
+
+    private final List<Disposable> calls = new ArrayList<>();
+
+    /**
+     * 客户端工厂接下来连续失败的次数
+     */
+    private final AtomicInteger failuresBeforeSuccess = new AtomicInteger();
+
+    private final AtomicInteger factoryCalls = new AtomicInteger();
+
+    /**
+     * 接下来启动后一直不完成初始化的连接数
+     */
+    private final AtomicInteger hangingStartups = new AtomicInteger();
+
+    private McpClientPool pool;
+
+    @AfterEach
+    void tearDown() {
+        calls.forEach(Disposable::dispose);
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Test
+    void picksLeastBusyClient() {
+        properties.setMinSize(2);
+        pool = newPool(McpTransportType.STREAMABLE_HTTP);
+        pool.warmUp().block(Duration.ofSeconds(1));
+        assertEquals(2, pool.size());
+
+        McpAsyncClient first = hold();
+        McpAsyncClient second = hold();
+        assertNotSame(first, second);
+
+        // 两个连接各有一个进行中请求，释放第一个后新请求落在第一个连接上
+        calls.remove(0).dispose();
+        assertSame(first, hold());
+        assertEquals(2, pool.inFlight());
+    }
+
+    @Test
+    void growsUpToMaxSizeWhenEveryClientIsBusy() {
+        properties.setMaxSize(3);
+        properties.setMaxConcurrencyPerClient(1);
+        pool = newPool(McpTransportType.STREAMABLE_HTTP);
+        pool.warmUp().block(Duration.ofSeconds(1));
+
+        hold();
+        hold();
+        hold();
+        assertEquals(3, pool.size());
+        assertEquals(3, created.size());
+
+        // HTTP 的单连接并发只是扩容阈值，达到 maxSize 后继续在最空闲的连接上复用
+        hold();
+        assertEquals(3, pool.size());
+        assertEquals(4, pool.inFlight());
+    }
+
+    @Test
+    void rejectsWhenEveryStdioProcessIsSaturated() {
+        ClientPoolProperties.StdioConfig stdio = properties.getStdio();
+        stdio.setMinSize(1);
+        stdio.setMaxSize(2);
+        stdio.setWarmSpares(0);
+        stdio.setMaxConcurrencyPerProcess(2);
+        pool = newPool(McpTransportType.STDIO);
+        pool.warmUp().block(Duration.ofSeconds(1));
+
+        for (int i = 0; i < 4; i++) {
+            hold();
+        }
+        assertEquals(2, pool.size());
+
+        RejectedException busy = assertThrows(RejectedException.class,
+                () -> pool.execute(client -> Mono.just("late")).block(Duration.ofSeconds(1)));
+        assertEquals(RejectedException.Reason.POOL_BUSY, busy.getReason());
+        assertEquals("429", busy.getCode());
+        assertEquals(4, pool.inFlight());
+
+        // 进程空出名额后恢复
+        calls.remove(0).dispose();
+        assertEquals("ok", pool.execute(client -> Mono.just("ok")).block(Duration.ofSeconds(1)));
+    }
+
+    @Test
+    void rejectsWhileReconnectingAndRecoversAfterRepeatedFailures() throws InterruptedException {
+        properties.setReconnectInitialBackoff(Duration.ofMillis(10));
+        properties.setReconnectMaxBackoff(Duration.ofMillis(40));
+        pool = newPool(McpTransportType.STREAMABLE_HTTP);
+        pool.warmUp().block(Duration.ofSeconds(1));
+
+        // 会话断开后重连连续失败两次
+        failuresBeforeSuccess.set(2);
+        assertThrows(RuntimeException.class,
+                () -> pool.execute(client -> Mono.error(new IOException("Broken pipe"))).block(Duration.ofSeconds(1)));
+        assertEquals(0, pool.size());
+        assertTrue(pool.isReconnecting());
+
+        RejectedException reconnecting = assertThrows(RejectedException.class,
+                () -> pool.execute(client -> Mono.just("x")).block(Duration.ofSeconds(1)));
+        assertEquals(RejectedException.Reason.RECONNECTING, reconnecting.getReason());
+        assertEquals("503", reconnecting.getCode());
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(2).toNanos();
+        while (pool.size() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, pool.size());
+        assertFalse(pool.isReconnecting());
+        assertEquals(4, factoryCalls.get());
+        assertEquals("ok", pool.execute(client -> Mono.just("ok")).block(Duration.ofSeconds(1)));
+    }
+
+    @Test
+    void backoffGrowsExponentiallyWithJitterUpToMax() {
+        long initial = 100;
+        long max = 5_000;
+        for (int attempt = 0; attempt < 30; attempt++) {
+            long expected = Math.min(max, initial << Math.min(attempt, 20));
+            for (int i = 0; i < 200; i++) {
+                long delay = McpClientPool.backoff(attempt, initial, max).toMillis();
+                assertTrue(delay >= expected / 2 && delay <= expected,
+                        "attempt " + attempt + ": " + delay + " not in [" + expected / 2 + ", " + expected + "]");
+            }
+        }
+        long capped = McpClientPool.backoff(Integer.MAX_VALUE, initial, max).toMillis();
+        assertTrue(capped >= max / 2 && capped <= max, "capped: " + capped);
+    }
+
+    @Test
+    void onlyTransportErrorsAreConnectionFailures() {
+        assertTrue(McpClientPool.isConnectionFailure(new IOException("Broken pipe")));
+        assertTrue(McpClientPool.isConnectionFailure(new McpTransportException("Stream closed")));
+
+        assertFalse(McpClientPool.isConnectionFailure(new McpError(new McpSchema.JSONRPCResponse.JSONRPCError(
+                McpSchema.ErrorCodes.INVALID_PARAMS, "bad arguments", null))));
+        assertFalse(McpClientPool.isConnectionFailure(new TimeoutException("Did not observe any item")));
+        assertFalse(McpClientPool.isConnectionFailure(new BusinessException("400", "bad request")));
+        assertFalse(McpClientPool.isConnectionFailure(new RejectedException(RejectedException.Reason.POOL_BUSY, "busy")));
+    }
+
+    @Test
+    void drainClosesWhenLastCallCompletes() {
+        pool = newPool(McpTransportType.STREAMABLE_HTTP);
+        pool.warmUp().block(Duration.ofSeconds(1));
+        McpAsyncClient client = created.get(0);
+
+        Sinks.One<String> upstream = Sinks.one();
+        List<String> results = new ArrayList<>();
+        pool.execute(c -> upstream.asMono()).subscribe(results::add);
+
+        pool.drain();
+        assertThrows(BusinessException.class,
+                () -> pool.execute(c -> Mono.just("late")).block(Duration.ofSeconds(1)));
+        verify(client, never()).close();
+        assertEquals(1, pool.inFlight());
+
+        // 最后一个请求归还时立即关闭，不等待轮询
+        upstream.tryEmitValue("done");
+        assertEquals(List.of("done"), results);
+        verify(client).close();
+        assertEquals(0, pool.size());
+    }
+
+    @Test
+    void drainForceClosesAfterTimeout() throws InterruptedException {
+        properties.setDrainTimeout(Duration.ofMillis(50));
+        pool = newPool(McpTransportType.STREAMABLE_HTTP);
+        pool.warmUp().block(Duration.ofSeconds(1));
+        hold();
+
+        pool.drain();
+        verify(created.get(0), never()).close();
+        verify(created.get(0), timeout(1_000)).close();
+        assertEquals(0, pool.size());
+    }
+
+    @Test
+    void failedPingEvictsClient() {
+        properties.getStdio().setWarmSpares(0);
+        properties.setReconnectInitialBackoff(Duration.ofSeconds(10));
+        pool = newPool(McpTransportType.STDIO);
+        pool.warmUp().block(Duration.ofSeconds(1));
+        McpAsyncClient crashed = created.get(0);
+        when(crashed.ping()).thenReturn(Mono.error(new IOException("Broken pipe")));
+
+        pool.healthCheck();
+
+        assertEquals(0, pool.size());
+        verify(crashed).close();
+        assertTrue(pool.isReconnecting());
+    }
+
+    @Test
+    void healthyPingKeepsClientAndStuckStartupIsRetired() {
+        properties.setStartupTimeout(Duration.ofMillis(50));
+        pool = newPool(McpTransportType.STDIO);
+        // 预热两个进程（常驻 + 热备），后台启动的热备进程一直不完成初始化
+        hangingStartups.set(1);
+        McpAsyncClient first = pool.warmUp().block(Duration.ofSeconds(1));
+        assertNotNull(first);
+        when(first.ping()).thenReturn(Mono.just(new Object()));
+        assertEquals(2, pool.size());
+
+        pool.healthCheck();
+        assertEquals(2, pool.size());
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(1).toNanos();
+        while (pool.size() > 1 && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(Duration.ofMillis(10).toNanos());
+            pool.healthCheck();
+        }
+        assertEquals(1, pool.size());
+        verify(first, atLeastOnce()).ping();
+        verify(first, never()).close();
+    }
+
+    /**
+     * 发起一个不结束的调用，返回它租用的连接
+     */
+    private McpAsyncClient hold() {
+        AtomicReference<McpAsyncClient> leased = new AtomicReference<>();
+        calls.add(pool.execute(client -> {
+            leased.set(client);
+            return Mono.never();
+        }).subscribe());
+        assertNotNull(leased.get());
+        return leased.get();
+    }
+
+    private McpClientPool newPool(McpTransportType transportType) {
+        McpServer server = McpServer.builder()
+                .id("client-pool-test")
+                .name("client-pool-test")
+                .transportType(transportType)
+                .build();
+        return new McpClientPool(server, properties, s -> Mono.defer(() -> {
+            factoryCalls.incrementAndGet();
+            if (hangingStartups.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                return Mono.never();
+            }
+            if (failuresBeforeSuccess.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                return Mono.error(new ConnectException("Connection refused"));
+            }
+            McpAsyncClient client = mock(McpAsyncClient.class);
+            created.add(client);
+            return Mono.just(client);
+        }), metrics, () -> {});
+    }
+}
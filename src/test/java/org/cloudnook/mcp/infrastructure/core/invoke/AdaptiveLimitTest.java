@@ -0,0 +1,204 @@
+package org.cloudnook.mcp.infrastructure.core.invoke;
+
+import io.modelcontextprotocol.spec.McpError;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.cloudnook.mcp.domain.invoke.model.McpConcurrencyLimitStats;
+import org.cloudnook.mcp.infrastructure.common.exception.BusinessException;
+import org.cloudnook.mcp.infrastructure.common.exception.RejectedException;
+import org.cloudnook.mcp.infrastructure.config.ConcurrencyLimitProperties;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.net.ConnectException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 自适应并发限制测试
+ * 验证梯度算法随延迟收缩和恢复、超时时收缩，AIMD 的增减，只有上游过载才退避，以及超过限制时快速拒绝
+ */
+class AdaptiveLimitTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void gradientShrinksWhenLatencyRisesAndRecoversAfterwards() {
+        GradientLimit limit = new GradientLimit(20, 4, 200, 0.2, 1.5, 600);
+
+        // 延迟平稳且满载：限制增长
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(10 * MILLIS, limit.getLimit(), false);
+        }
+        int grown = limit.getLimit();
+        assertTrue(grown > 20, "平稳时应增长: " + grown);
+
+        // 延迟升高到基准的 4 倍：限制收缩
+        for (int i = 0; i < 30; i++) {
+            limit.onSample(40 * MILLIS, limit.getLimit(), false);
+        }
+        int shrunk = limit.getLimit();
+        assertTrue(shrunk < grown / 2, "延迟升高时应收缩: " + grown + " -> " + shrunk);
+
+        // 延迟恢复：限制重新增长
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(10 * MILLIS, limit.getLimit(), false);
+        }
+        assertTrue(limit.getLimit() > shrunk, "延迟恢复后应增长");
+    }
+
+    @Test
+    void gradientShedsLoadWhenEveryCallTimesOut() {
+        GradientLimit limit = new GradientLimit(20, 4, 200, 0.2, 1.5, 600);
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(10 * MILLIS, limit.getLimit(), false);
+        }
+        int healthy = limit.getLimit();
+        double baseline = limit.baselineNanos();
+
+        // 后端开始全部超时：过载样本按比例收缩，直到下限
+        limit.onSample(5_000 * MILLIS, 1, true);
+        assertTrue(limit.getLimit() < healthy, "超时应收缩: " + healthy + " -> " + limit.getLimit());
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(5_000 * MILLIS, 1, true);
+        }
+        assertEquals(4, limit.getLimit());
+        assertEquals(baseline, limit.baselineNanos(), "过载样本不参与基准延迟估计");
+    }
+
+    @Test
+    void gradientLimiterShrinksOnTimeouts() {
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        McpAdaptiveConcurrencyLimiter limiter = new McpAdaptiveConcurrencyLimiter(properties);
+        String serverId = "gradient-timeout-test";
+        try {
+            assertEquals("ok", limiter.execute(serverId, () -> Mono.just("ok")).block());
+            int initial = limiter.getStats(serverId).getLimit();
+            for (int i = 0; i < 10; i++) {
+                limiter.onSample(serverId, 30_000 * MILLIS, new TimeoutException("Did not observe any item"));
+            }
+            assertTrue(limiter.getStats(serverId).getLimit() < initial);
+        } finally {
+            limiter.remove(serverId);
+        }
+    }
+
+    @Test
+    void gradientDoesNotGrowWhileUnderused() {
+        GradientLimit limit = new GradientLimit(20, 4, 200, 0.2, 1.5, 600);
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(10 * MILLIS, 1, false);
+        }
+        assertEquals(20, limit.getLimit());
+    }
+
+    @Test
+    void aimdBacksOffOnFailureOrSlowCallsAndIncreasesUnderLoad() {
+        AimdLimit limit = new AimdLimit(20, 4, 200, 0.5, 100 * MILLIS);
+        limit.onSample(10 * MILLIS, 20, false);
+        assertEquals(21, limit.getLimit());
+        limit.onSample(10 * MILLIS, 20, true);
+        assertEquals(10, limit.getLimit());
+        limit.onSample(200 * MILLIS, 10, false);
+        assertEquals(5, limit.getLimit());
+        limit.onSample(200 * MILLIS, 5, false);
+        assertEquals(4, limit.getLimit());
+    }
+
+    @Test
+    void limiterBacksOffOnlyOnUpstreamOverload() {
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        properties.setAlgorithm(ConcurrencyLimitProperties.LimitAlgorithm.AIMD);
+        properties.getAimd().setBackoffRatio(0.5);
+        properties.setInitialLimit(20);
+        properties.setMinLimit(1);
+        McpAdaptiveConcurrencyLimiter limiter = new McpAdaptiveConcurrencyLimiter(properties);
+        String serverId = "limit-overload-test";
+        try {
+            limiter.execute(serverId, () -> Mono.just("warm")).block();
+            long rtt = 10 * MILLIS;
+
+            // 后端业务错误、连接失败和网关拒绝都不退避
+            limiter.onSample(serverId, rtt, new McpError(new McpSchema.JSONRPCResponse.JSONRPCError(
+                    McpSchema.ErrorCodes.INVALID_PARAMS, "bad arguments", null)));
+            limiter.onSample(serverId, rtt, new RuntimeException(new ConnectException("Connection refused")));
+            limiter.onSample(serverId, rtt, new RejectedException(RejectedException.Reason.BULKHEAD_FULL, "full"));
+            assertEquals(20, limiter.getStats(serverId).getLimit());
+
+            // 超时和上游服务端错误退避
+            limiter.onSample(serverId, rtt, new TimeoutException("Did not observe any item"));
+            assertEquals(10, limiter.getStats(serverId).getLimit());
+            limiter.onSample(serverId, rtt, new McpError(new McpSchema.JSONRPCResponse.JSONRPCError(
+                    McpSchema.ErrorCodes.INTERNAL_ERROR, "tool crashed", null)));
+            assertEquals(5, limiter.getStats(serverId).getLimit());
+            limiter.onSample(serverId, rtt, new RuntimeException("Sending request failed with status code: 502"));
+            assertEquals(2, limiter.getStats(serverId).getLimit());
+        } finally {
+            limiter.remove(serverId);
+        }
+    }
+
+    @Test
+    void concurrentSamplesKeepLimitWithinBounds() throws InterruptedException {
+        AimdLimit limit = new AimdLimit(20, 4, 200, 0.5, 100 * MILLIS);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            boolean slow = t % 2 == 0;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    limit.onSample(slow ? 200 * MILLIS : 10 * MILLIS, 200, false);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(limit.getLimit() >= 4 && limit.getLimit() <= 200);
+
+        // 只增不减时每个样本恰好加一
+        AimdLimit growing = new AimdLimit(4, 4, 1_000_000, 0.5, 100 * MILLIS);
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    growing.onSample(10 * MILLIS, 1_000_000, false);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(4 + 40_000, growing.getLimit());
+    }
+
+    @Test
+    void limiterRejectsBeyondCurrentLimit() {
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        properties.setInitialLimit(2);
+        properties.setMinLimit(1);
+        McpAdaptiveConcurrencyLimiter limiter = new McpAdaptiveConcurrencyLimiter(properties);
+        String serverId = "limit-test";
+        try {
+            Sinks.One<String> first = Sinks.one();
+            Sinks.One<String> second = Sinks.one();
+            limiter.execute(serverId, first::asMono).subscribe();
+            limiter.execute(serverId, second::asMono).subscribe();
+
+            BusinessException rejected = assertThrows(BusinessException.class,
+                    () -> limiter.execute(serverId, () -> Mono.just("x")).block());
+            assertEquals("429", rejected.getCode());
+
+            first.tryEmitValue("a");
+            assertEquals("y", limiter.execute(serverId, () -> Mono.just("y")).block());
+            McpConcurrencyLimitStats stats = limiter.getStats(serverId);
+            assertEquals(1, stats.getInFlight());
+            assertEquals(1, stats.getRejected());
+            assertEquals("GRADIENT", stats.getAlgorithm());
+        } finally {
+            limiter.remove(serverId);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package org.cloudnook.mcp.infrastructure.core.invoke;
+
+import org.cloudnook.mcp.domain.log.model.McpInvokeContext;
+import org.cloudnook.mcp.domain.log.model.McpInvokeLog;
+import org.cloudnook.mcp.domain.server.model.McpServer;
+import org.cloudnook.mcp.infrastructure.config.CoalesceProperties;
+import org.cloudnook.mcp.infrastructure.config.HedgeProperties;
+import org.cloudnook.mcp.infrastructure.core.metrics.McpMemoryMetrics;
+import org.cloudnook.mcp.infrastructure.core.register.McpMemoryRegister;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * McpBudgetedRequestHedger 测试
+ * 验证超过分位延迟后发出对冲并取消慢请求（经过请求合并时同样取消到上游）、主请求先返回时不对冲也不选择对冲实例、
+ * 预算限制和主请求提前失败
+ */
+class McpBudgetedRequestHedgerTest {
+
+    private static final String SERVER_NAME = "hedge-test";
+
+    private static final String PRIMARY = "hedge-primary";
+
+    private static final String SECONDARY = "hedge-secondary";
+
+    private final McpMemoryRegister register = new McpMemoryRegister();
+
+    private final McpMemoryMetrics metrics = new McpMemoryMetrics(register);
+
+    private final HedgeProperties properties = new HedgeProperties();
+
+    private final McpBudgetedRequestHedger hedger = new McpBudgetedRequestHedger(properties, metrics);
+
+    @BeforeEach
+    void setUp() {
+        properties.setEnabled(true);
+        properties.setMinDelay(Duration.ofMillis(1));
+        properties.setBudgetRatio(1.0);
+        register.register(McpServer.builder().id(PRIMARY).name(SERVER_NAME).build());
+        metrics.initMetrics(SERVER_NAME, PRIMARY);
+        for (int i = 0; i < 50; i++) {
+            metrics.recordRequest(PRIMARY, TimeUnit.MILLISECONDS.toNanos(20), true);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        register.unregister(SERVER_NAME, PRIMARY);
+        metrics.removeMetrics(PRIMARY);
+        hedger.remove(PRIMARY);
+    }
+
+    @Test
+    void hedgesSlowPrimaryAndCancelsIt() {
+        AtomicBoolean primaryCancelled = new AtomicBoolean();
+        String result = hedger.execute(PRIMARY, () -> SECONDARY, calls(
+                Mono.<String>never().doOnCancel(() -> primaryCancelled.set(true)),
+                Mono.just("secondary"))).block(Duration.ofSeconds(5));
+
+        assertEquals("secondary", result);
+        assertTrue(primaryCancelled.get());
+        assertEquals(1, hedger.getStats().getHedged());
+        assertEquals(1, hedger.getStats().getHedgeWins());
+    }
+
+    @Test
+    void cancelsCoalescedLoserUpstream() {
+        McpSingleFlightCoalescer coalescer = new McpSingleFlightCoalescer(new CoalesceProperties());
+        AtomicBoolean primaryCancelled = new AtomicBoolean();
+        Mono<String> primaryUpstream = Mono.<String>never().doOnCancel(() -> primaryCancelled.set(true));
+
+        // 与 Router 相同：每次尝试都经过请求合并
+        String result = hedger.execute(PRIMARY, () -> SECONDARY, serverId -> coalescer.execute(
+                McpInvokeContext.builder()
+                        .serverId(serverId)
+                        .type(McpInvokeLog.InvokeType.RESOURCE_READ)
+                        .targetName("file:///hedge")
+                        .build(),
+                () -> PRIMARY.equals(serverId) ? primaryUpstream : Mono.just("secondary")))
+                .block(Duration.ofSeconds(5));
+
+        assertEquals("secondary", result);
+        assertTrue(primaryCancelled.get());
+    }
+
+    @Test
+    void doesNotHedgeFastPrimary() {
+        AtomicBoolean secondaryCalled = new AtomicBoolean();
+        AtomicBoolean targetSelected = new AtomicBoolean();
+        String result = hedger.execute(PRIMARY, () -> {
+            targetSelected.set(true);
+            return SECONDARY;
+        }, calls(
+                Mono.just("primary"),
+                Mono.fromCallable(() -> {
+                    secondaryCalled.set(true);
+                    return "secondary";
+                }))).block(Duration.ofSeconds(5));
+
+        assertEquals("primary", result);
+        assertFalse(secondaryCalled.get());
+        assertFalse(targetSelected.get(), "未发出对冲时不选择对冲实例");
+        assertEquals(1, hedger.getStats().getRequests());
+        assertEquals(0, hedger.getStats().getHedged());
+    }
+
+    @Test
+    void respectsHedgeBudget() {
+        properties.setBudgetRatio(0.5);
+        Function<String, Mono<String>> call = calls(
+                Mono.delay(Duration.ofMillis(300)).thenReturn("primary"),
+                Mono.just("secondary"));
+
+        // 第 1 个请求只积累半个额度，等待主请求
+        assertEquals("primary", hedger.execute(PRIMARY, () -> SECONDARY, call).block(Duration.ofSeconds(5)));
+        assertEquals(1, hedger.getStats().getBudgetExhausted());
+
+        // 第 2 个请求凑满一个额度，发出对冲
+        assertEquals("secondary", hedger.execute(PRIMARY, () -> SECONDARY, call).block(Duration.ofSeconds(5)));
+        assertEquals(1, hedger.getStats().getHedged());
+    }
+
+    @Test
+    void primaryFailureBeforeHedgeIsReturned() {
+        properties.setMinDelay(Duration.ofMillis(500));
+        AtomicBoolean secondaryCalled = new AtomicBoolean();
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+                () -> hedger.execute(PRIMARY, () -> SECONDARY, calls(
+                        Mono.error(new IllegalStateException("primary down")),
+                        Mono.fromCallable(() -> {
+                            secondaryCalled.set(true);
+                            return "secondary";
+                        }))).block(Duration.ofSeconds(5)));
+
+        assertEquals("primary down", error.getMessage());
+        assertFalse(secondaryCalled.get());
+        assertEquals(0, hedger.getStats().getHedged());
+    }
+
+    private static Function<String, Mono<String>> calls(Mono<String> primary, Mono<String> secondary) {
+        return serverId -> PRIMARY.equals(serverId) ? primary : secondary;
+    }
+}
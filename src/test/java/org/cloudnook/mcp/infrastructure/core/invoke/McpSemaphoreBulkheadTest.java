@@ -0,0 +1,151 @@
+package org.cloudnook.mcp.infrastructure.core.invoke;
+
+import org.cloudnook.mcp.domain.invoke.model.McpBulkheadStats;
+import org.cloudnook.mcp.domain.server.model.McpBulkheadConfig;
+import org.cloudnook.mcp.domain.server.model.McpServer;
+import org.cloudnook.mcp.infrastructure.common.exception.BusinessException;
+import org.cloudnook.mcp.infrastructure.config.BulkheadProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * McpSemaphoreBulkhead 测试
+ * 验证并发上限、排队移交、队列已满拒绝、排队超时、不排队时直接拒绝、取消时名额不泄漏，以及注册配置校验
+ */
+class McpSemaphoreBulkheadTest {
+
+    private static final String SERVER_ID = "bulkhead-test";
+
+    private final McpSemaphoreBulkhead bulkhead = new McpSemaphoreBulkhead(new BulkheadProperties());
+
+    @AfterEach
+    void tearDown() {
+        bulkhead.remove(SERVER_ID);
+    }
+
+    @Test
+    void queuesBeyondLimitAndRejectsWhenQueueIsFull() {
+        configure(2, 1, 5_000L);
+        List<Sinks.One<String>> upstream = new ArrayList<>();
+        List<Mono<String>> calls = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Sinks.One<String> sink = Sinks.one();
+            upstream.add(sink);
+            calls.add(bulkhead.execute(SERVER_ID, sink::asMono));
+        }
+
+        List<String> results = new ArrayList<>();
+        calls.forEach(call -> call.subscribe(results::add));
+        assertStats(2, 1);
+
+        BusinessException rejected = assertThrows(BusinessException.class,
+                () -> bulkhead.execute(SERVER_ID, () -> Mono.just("x")).block());
+        assertEquals("4291", rejected.getCode());
+        assertEquals(1, bulkhead.getStats(SERVER_ID).getRejected());
+
+        // 释放一个名额后移交给排队的调用
+        upstream.get(0).tryEmitValue("a");
+        assertStats(2, 0);
+        upstream.get(2).tryEmitValue("c");
+        upstream.get(1).tryEmitValue("b");
+        assertEquals(List.of("a", "c", "b"), results);
+        assertStats(0, 0);
+    }
+
+    @Test
+    void timesOutQueuedCallsAndReleasesPermitsOnCancel() {
+        configure(1, 4, 50L);
+        Sinks.One<String> blocker = Sinks.one();
+        Disposable holder = bulkhead.execute(SERVER_ID, blocker::asMono).subscribe();
+
+        BusinessException timedOut = assertThrows(BusinessException.class,
+                () -> bulkhead.execute(SERVER_ID, () -> Mono.just("late")).block());
+        assertEquals("4291", timedOut.getCode());
+        assertEquals(1, bulkhead.getStats(SERVER_ID).getTimedOut());
+
+        // 排队中取消：从队列移除
+        Disposable queued = bulkhead.execute(SERVER_ID, () -> Mono.just("q")).subscribe();
+        assertStats(1, 1);
+        queued.dispose();
+        assertStats(1, 0);
+
+        // 执行中取消：归还名额
+        holder.dispose();
+        assertStats(0, 0);
+        assertEquals("ok", bulkhead.execute(SERVER_ID, () -> Mono.just("ok")).block());
+    }
+
+    @Test
+    void neverExceedsLimitUnderContention() {
+        configure(4, 1_000, 10_000L);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        Long completed = Flux.range(0, 2_000)
+                .flatMap(i -> bulkhead.execute(SERVER_ID, () -> Mono.fromCallable(() -> {
+                            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                            return i;
+                        })
+                        .delayElement(Duration.ofMillis(i % 3), Schedulers.parallel())
+                        .doOnTerminate(running::decrementAndGet)), 64)
+                .count()
+                .block(Duration.ofSeconds(30));
+
+        assertEquals(2_000L, completed);
+        assertTrue(peak.get() <= 4, "峰值并发 " + peak.get());
+        // 名额在 doFinally 中归还，可能晚于下游收到完成信号
+        long deadline = System.nanoTime() + Duration.ofSeconds(1).toNanos();
+        while (bulkhead.getStats(SERVER_ID).getInFlight() > 0 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertStats(0, 0);
+    }
+
+    @Test
+    void rejectsOutOfRangeRegistrationSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new McpBulkheadConfig(0, 1, 100L).validate());
+        assertThrows(IllegalArgumentException.class, () -> new McpBulkheadConfig(1, -1, 100L).validate());
+        assertThrows(IllegalArgumentException.class, () -> new McpBulkheadConfig(1, 1, 0L).validate());
+        assertDoesNotThrow(() -> new McpBulkheadConfig(4, 8, 100L).validate());
+        assertDoesNotThrow(() -> new McpBulkheadConfig(4, 0, 100L).validate());
+        assertDoesNotThrow(() -> new McpBulkheadConfig(4, null, null).validate());
+    }
+
+    @Test
+    void zeroQueueRejectsImmediately() {
+        configure(1, 0, 5_000L);
+        Disposable holder = bulkhead.execute(SERVER_ID, () -> Mono.never()).subscribe();
+
+        BusinessException rejected = assertThrows(BusinessException.class,
+                () -> bulkhead.execute(SERVER_ID, () -> Mono.just("x")).block(Duration.ofSeconds(1)));
+        assertEquals("4291", rejected.getCode());
+        assertEquals(1, bulkhead.getStats(SERVER_ID).getRejected());
+        assertEquals(0, bulkhead.getStats(SERVER_ID).getTimedOut());
+        holder.dispose();
+    }
+
+    private void configure(int maxConcurrency, int maxQueueSize, long queueTimeoutMs) {
+        bulkhead.configure(McpServer.builder()
+                .id(SERVER_ID)
+                .bulkhead(new McpBulkheadConfig(maxConcurrency, maxQueueSize, queueTimeoutMs))
+                .build());
+    }
+
+    private void assertStats(int inFlight, int queueDepth) {
+        McpBulkheadStats stats = bulkhead.getStats(SERVER_ID);
+        assertEquals(inFlight, stats.getInFlight(), "inFlight");
+        assertEquals(queueDepth, stats.getQueueDepth(), "queueDepth");
+    }
+}
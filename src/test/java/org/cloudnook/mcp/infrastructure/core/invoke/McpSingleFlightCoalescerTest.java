@@ -0,0 +1,91 @@
+package org.cloudnook.mcp.infrastructure.core.invoke;
+
+import org.cloudnook.mcp.domain.log.model.McpInvokeContext;
+import org.cloudnook.mcp.domain.log.model.McpInvokeLog;
+import org.cloudnook.mcp.infrastructure.config.CoalesceProperties;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * McpSingleFlightCoalescer 测试
+ * 验证相同请求共享一个上游、部分调用方取消不影响上游、全部调用方取消时上游被取消
+ */
+class McpSingleFlightCoalescerTest {
+
+    private final McpSingleFlightCoalescer coalescer = new McpSingleFlightCoalescer(new CoalesceProperties());
+
+    @Test
+    void sharesOneUpstreamCall() {
+        AtomicInteger subscriptions = new AtomicInteger();
+        Sinks.One<String> result = Sinks.one();
+        Mono<String> upstream = result.asMono().doOnSubscribe(s -> subscriptions.incrementAndGet());
+
+        McpInvokeContext second = context("shared");
+        Mono<String> first = coalescer.execute(context("shared"), () -> upstream);
+        Mono<String> joined = coalescer.execute(second, () -> upstream);
+
+        StringBuilder values = new StringBuilder();
+        first.subscribe(values::append);
+        joined.subscribe(values::append);
+        result.tryEmitValue("x");
+
+        assertEquals(1, subscriptions.get());
+        assertEquals("xx", values.toString());
+        assertTrue(second.isCoalesced());
+    }
+
+    @Test
+    void cancelsUpstreamWhenEverySubscriberCancels() {
+        AtomicInteger subscriptions = new AtomicInteger();
+        AtomicInteger cancels = new AtomicInteger();
+        Mono<String> upstream = Mono.<String>never()
+                .doOnSubscribe(s -> subscriptions.incrementAndGet())
+                .doOnCancel(cancels::incrementAndGet);
+
+        Disposable first = coalescer.execute(context("cancel"), () -> upstream).subscribe();
+        Disposable second = coalescer.execute(context("cancel"), () -> upstream).subscribe();
+        assertEquals(1, subscriptions.get());
+
+        // 还有调用方在等待时上游继续
+        first.dispose();
+        assertEquals(0, cancels.get());
+
+        second.dispose();
+        assertEquals(1, cancels.get());
+
+        // 取消后移除登记，相同请求重新发起
+        Disposable third = coalescer.execute(context("cancel"), () -> upstream).subscribe();
+        assertEquals(2, subscriptions.get());
+        third.dispose();
+    }
+
+    @Test
+    void errorIsDeliveredToEverySubscriber() {
+        Sinks.One<String> result = Sinks.one();
+        Mono<String> first = coalescer.execute(context("error"), result::asMono);
+        Mono<String> joined = coalescer.execute(context("error"), result::asMono);
+
+        AtomicInteger errors = new AtomicInteger();
+        first.subscribe(v -> { }, e -> errors.incrementAndGet());
+        joined.subscribe(v -> { }, e -> errors.incrementAndGet());
+        result.tryEmitError(new IllegalStateException("down"));
+
+        assertEquals(2, errors.get());
+        assertEquals("y", coalescer.execute(context("error"), () -> Mono.just("y")).block(Duration.ofSeconds(1)));
+    }
+
+    private static McpInvokeContext context(String serverId) {
+        return McpInvokeContext.builder()
+                .serverId(serverId)
+                .type(McpInvokeLog.InvokeType.TOOL_LIST)
+                .targetName("list_tools")
+                .build();
+    }
+}
@@ -0,0 +1,159 @@
+package org.cloudnook.mcp.infrastructure.core.invoke;
+
+import io.modelcontextprotocol.spec.McpError;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.cloudnook.mcp.domain.invoke.model.CircuitState;
+import org.cloudnook.mcp.infrastructure.common.exception.BusinessException;
+import org.cloudnook.mcp.infrastructure.common.exception.RejectedException;
+import org.cloudnook.mcp.infrastructure.config.CircuitBreakerProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * McpSlidingWindowCircuitBreaker 测试
+ * 验证按失败率打开、打开期间快速失败、半开探测恢复、不计入统计的错误，以及窗口换桶时不丢计数
+ */
+class McpSlidingWindowCircuitBreakerTest {
+
+    private static final String SERVER_ID = "circuit-test";
+
+    private final McpSlidingWindowCircuitBreaker breaker = new McpSlidingWindowCircuitBreaker(properties());
+
+    @AfterEach
+    void tearDown() {
+        breaker.remove(SERVER_ID);
+    }
+
+    @Test
+    void opensOnFailureRateAndFailsFast() {
+        succeed();
+        for (int i = 0; i < 3; i++) {
+            fail(new RuntimeException("Connection refused"));
+        }
+        assertEquals(CircuitState.OPEN, breaker.getState(SERVER_ID));
+        assertFalse(breaker.isCallPermitted(SERVER_ID));
+
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        BusinessException rejected = assertThrows(BusinessException.class,
+                () -> breaker.execute(SERVER_ID, () -> Mono.fromCallable(upstreamCalls::incrementAndGet)).block());
+        assertEquals("503", rejected.getCode());
+        assertEquals(0, upstreamCalls.get());
+        assertEquals(1, breaker.getStats(SERVER_ID).getRejected());
+        assertEquals(1, breaker.getStats(SERVER_ID).getOpenCount());
+    }
+
+    @Test
+    void closesAfterSuccessfulProbes() throws InterruptedException {
+        for (int i = 0; i < 4; i++) {
+            fail(new RuntimeException("boom"));
+        }
+        assertEquals(CircuitState.OPEN, breaker.getState(SERVER_ID));
+
+        Thread.sleep(80);
+        assertTrue(breaker.isCallPermitted(SERVER_ID));
+
+        // 半开状态只放行 2 个探测调用，取消的探测归还名额
+        Disposable cancelled = breaker.execute(SERVER_ID, Mono::never).subscribe();
+        assertEquals(CircuitState.HALF_OPEN, breaker.getState(SERVER_ID));
+        cancelled.dispose();
+        Disposable pending = breaker.execute(SERVER_ID, Mono::never).subscribe();
+        succeed();
+        assertThrows(BusinessException.class, () -> breaker.execute(SERVER_ID, () -> Mono.just("x")).block());
+        pending.dispose();
+
+        succeed();
+        assertEquals(CircuitState.CLOSED, breaker.getState(SERVER_ID));
+        assertEquals(0, breaker.getStats(SERVER_ID).getWindowCalls());
+    }
+
+    @Test
+    void probeFailureReopens() throws InterruptedException {
+        for (int i = 0; i < 4; i++) {
+            fail(new RuntimeException("boom"));
+        }
+        Thread.sleep(80);
+        fail(new RuntimeException("still down"));
+        assertEquals(CircuitState.OPEN, breaker.getState(SERVER_ID));
+        assertEquals(2, breaker.getStats(SERVER_ID).getOpenCount());
+    }
+
+    @Test
+    void ignoresThrottlingAndApplicationErrors() {
+        for (int i = 0; i < 10; i++) {
+            fail(new RejectedException(RejectedException.Reason.BULKHEAD_FULL, "服务实例并发已满: " + SERVER_ID));
+            fail(new McpError(new McpSchema.JSONRPCResponse.JSONRPCError(
+                    McpSchema.ErrorCodes.INVALID_PARAMS, "bad arguments", null)));
+        }
+        assertEquals(CircuitState.CLOSED, breaker.getState(SERVER_ID));
+        assertEquals(0, breaker.getStats(SERVER_ID).getWindowFailures());
+
+        for (int i = 0; i < 4; i++) {
+            fail(new McpError(new McpSchema.JSONRPCResponse.JSONRPCError(
+                    McpSchema.ErrorCodes.INTERNAL_ERROR, "crashed", null)));
+        }
+        assertEquals(CircuitState.OPEN, breaker.getState(SERVER_ID));
+    }
+
+    @Test
+    void rollingIntoNewBucketKeepsConcurrentCounts() throws InterruptedException {
+        McpSlidingWindowCircuitBreaker.FailureWindow window = new McpSlidingWindowCircuitBreaker.FailureWindow(1_000, 10);
+        // 旧时间片写满同一个桶，之后多个线程同时进入复用该桶的新时间片
+        long stale = 5_000;
+        long now = stale + 1_000;
+        for (int i = 0; i < 1_000; i++) {
+            window.record(stale, false);
+        }
+
+        int threads = 8;
+        int perThread = 20_000;
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    window.record(now, i % 4 != 0);
+                }
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        long[] totals = window.sum(now);
+        assertEquals((long) threads * perThread, totals[0]);
+        assertEquals((long) threads * perThread / 4, totals[1]);
+    }
+
+    private void succeed() {
+        assertEquals("ok", breaker.execute(SERVER_ID, () -> Mono.just("ok")).block());
+    }
+
+    private void fail(Throwable error) {
+        assertThrows(Throwable.class, () -> breaker.execute(SERVER_ID, () -> Mono.error(error)).block());
+    }
+
+    private static CircuitBreakerProperties properties() {
+        CircuitBreakerProperties properties = new CircuitBreakerProperties();
+        properties.setMinimumCalls(4);
+        properties.setFailureRateThreshold(0.5);
+        properties.setOpenDuration(Duration.ofMillis(50));
+        properties.setHalfOpenCalls(2);
+        return properties;
+    }
+}
@@ -0,0 +1,89 @@
+package org.cloudnook.mcp.infrastructure.core.invoke;
+
+import io.modelcontextprotocol.spec.McpError;
+import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.McpTransportException;
+import io.modelcontextprotocol.spec.McpTransportSessionNotFoundException;
+import org.cloudnook.mcp.infrastructure.common.exception.BusinessException;
+import org.cloudnook.mcp.infrastructure.common.exception.RejectedException;
+import org.cloudnook.mcp.infrastructure.config.RetryProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * McpTokenBucketRetryBudget 测试
+ * 验证只重试请求未发出的失败，以及按服务名的重试预算
+ */
+class McpTokenBucketRetryBudgetTest {
+
+    private static final String SERVER_NAME = "retry-test";
+
+    private final RetryProperties properties = new RetryProperties();
+
+    private final McpTokenBucketRetryBudget budget = new McpTokenBucketRetryBudget(properties);
+
+    @AfterEach
+    void tearDown() {
+        budget.remove(SERVER_NAME);
+    }
+
+    @Test
+    void retriesOnlyFailuresBeforeTheRequestWasSent() {
+        assertTrue(budget.isRetryable(new RuntimeException("connect failed", new ConnectException("Connection refused"))));
+        assertTrue(budget.isRetryable(new McpTransportSessionNotFoundException("session-1")));
+        assertTrue(budget.isRetryable(new RejectedException(RejectedException.Reason.CIRCUIT_OPEN, "服务实例熔断中: x")));
+        assertTrue(budget.isRetryable(new RejectedException(RejectedException.Reason.RECONNECTING, "服务实例重连中: x")));
+
+        // 请求发出后的失败：后端可能已执行
+        assertFalse(budget.isRetryable(new McpTransportException("Sending request failed", new IOException("Connection reset"))));
+        assertFalse(budget.isRetryable(new RuntimeException("Sending request failed with status code: 502")));
+        assertFalse(budget.isRetryable(new RuntimeException("Failed to send message: DummyEvent[responseInfo=...]")));
+        assertFalse(budget.isRetryable(new TimeoutException("Did not observe any item")));
+        assertFalse(budget.isRetryable(new McpError(new McpSchema.JSONRPCResponse.JSONRPCError(
+                McpSchema.ErrorCodes.INTERNAL_ERROR, "tool crashed", null))));
+
+        // 网关拒绝（限流、并发隔离）和没有可用实例不换实例重试
+        assertFalse(budget.isRetryable(new RejectedException(RejectedException.Reason.CONCURRENCY_LIMITED, "服务实例过载，已限流: x")));
+        assertFalse(budget.isRetryable(new RejectedException(RejectedException.Reason.BULKHEAD_FULL, "服务实例并发已满: x")));
+        assertFalse(budget.isRetryable(new BusinessException("503", "服务无可用实例: x")));
+    }
+
+    @Test
+    void retriesServerErrorsOnlyWhenEnabled() {
+        properties.setRetryOnServerError(true);
+        assertTrue(budget.isRetryable(new McpTransportException("Sending request failed", new IOException("Connection reset"))));
+        assertTrue(budget.isRetryable(new RuntimeException("Sending request failed with status code: 502")));
+        assertTrue(budget.isRetryable(new RuntimeException("Failed to send message: DummyEvent[responseInfo=...]")));
+        assertFalse(budget.isRetryable(new TimeoutException("Did not observe any item")));
+    }
+
+    @Test
+    void limitsRetriesToBudget() {
+        properties.setBudgetBurst(2);
+        properties.setBudgetRatio(0.25);
+
+        // 初始额度为满：允许 2 次突发重试
+        budget.onRequest(SERVER_NAME);
+        assertTrue(budget.tryAcquireRetry(SERVER_NAME));
+        assertTrue(budget.tryAcquireRetry(SERVER_NAME));
+        assertFalse(budget.tryAcquireRetry(SERVER_NAME));
+
+        // 之后每 4 个请求积累 1 次重试
+        for (int i = 0; i < 3; i++) {
+            budget.onRequest(SERVER_NAME);
+        }
+        assertFalse(budget.tryAcquireRetry(SERVER_NAME));
+        budget.onRequest(SERVER_NAME);
+        assertTrue(budget.tryAcquireRetry(SERVER_NAME));
+
+        assertEquals(3, budget.getStats(SERVER_NAME).getRetries());
+        assertEquals(2, budget.getStats(SERVER_NAME).getBudgetExhausted());
+        assertEquals(5, budget.getStats(SERVER_NAME).getRequests());
+    }
+}
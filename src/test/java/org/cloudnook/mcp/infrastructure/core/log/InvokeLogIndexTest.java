@@ -0,0 +1,115 @@
+package org.cloudnook.mcp.infrastructure.core.log;
+
+import org.cloudnook.mcp.domain.log.model.McpInvokeLog;
+import org.cloudnook.mcp.domain.log.model.McpInvokeLogPage;
+import org.cloudnook.mcp.domain.log.model.McpInvokeLogQuery;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * InvokeLogIndex 测试
+ * 验证加载记录时不持有读锁（慢查询不阻塞写入），深分页的跳过在倒排表上完成、不加载被跳过的记录
+ */
+class InvokeLogIndexTest {
+
+    private final InvokeLogIndex index = new InvokeLogIndex();
+
+    private final List<McpInvokeLog> logs = new ArrayList<>();
+
+    @Test
+    void slowLoadDoesNotBlockWriter() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            add(i);
+        }
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<McpInvokeLogPage> query = CompletableFuture.supplyAsync(() -> index.search(
+                McpInvokeLogQuery.builder().serverId("server-0").size(2).build(), 0, 9, sequence -> {
+                    loading.countDown();
+                    await(release);
+                    return logs.get((int) sequence);
+                }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        // 查询正在加载记录时写入不被阻塞
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> add(10));
+        writer.get(1, TimeUnit.SECONDS);
+
+        release.countDown();
+        assertEquals(List.of("call-9", "call-6"), callIds(query.get(5, TimeUnit.SECONDS)));
+    }
+
+    @Test
+    void deepPageSkipsWithoutLoading() {
+        for (int i = 0; i < 1_000; i++) {
+            add(i);
+        }
+        AtomicInteger loads = new AtomicInteger();
+        InvokeLogIndex.Loader loader = sequence -> {
+            loads.incrementAndGet();
+            return logs.get((int) sequence);
+        };
+
+        // 两个索引条件的交集：server-1 且失败，即 i % 21 == 7
+        McpInvokeLogPage page = index.search(McpInvokeLogQuery.builder()
+                .serverId("server-1")
+                .status(McpInvokeLog.InvokeStatus.FAILURE)
+                .page(10)
+                .size(3)
+                .build(), 0, 999, loader);
+        assertEquals(List.of("call-364", "call-343", "call-322"), callIds(page));
+        assertEquals(3, loads.get());
+
+        // 续扫游标
+        loads.set(0);
+        McpInvokeLogPage next = index.search(McpInvokeLogQuery.builder()
+                .serverId("server-1")
+                .status(McpInvokeLog.InvokeStatus.FAILURE)
+                .cursor(page.getNextCursor())
+                .size(3)
+                .build(), 0, 999, loader);
+        assertEquals(List.of("call-301", "call-280", "call-259"), callIds(next));
+        assertEquals(3, loads.get());
+
+        // 无索引条件
+        loads.set(0);
+        assertEquals(List.of("call-499", "call-498"), callIds(index.search(
+                McpInvokeLogQuery.builder().page(250).size(2).build(), 0, 999, loader)));
+        assertEquals(2, loads.get());
+    }
+
+    private void add(int i) {
+        McpInvokeLog log = McpInvokeLog.builder()
+                .callId("call-" + i)
+                .serverId("server-" + (i % 3))
+                .source(McpInvokeLog.InvokeSource.ROUTER)
+                .targetName("echo")
+                .status(i % 7 == 0 ? McpInvokeLog.InvokeStatus.FAILURE : McpInvokeLog.InvokeStatus.SUCCESS)
+                .timestamp(Instant.ofEpochSecond(1_700_000_000L + i))
+                .build();
+        logs.add(log);
+        index.add(i, log);
+    }
+
+    private static List<String> callIds(McpInvokeLogPage page) {
+        return page.getItems().stream().map(McpInvokeLog::getCallId).toList();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package org.cloudnook.mcp.infrastructure.core.log;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.cloudnook.mcp.domain.log.model.McpInvokeContext;
+import org.cloudnook.mcp.domain.log.model.McpInvokeLog;
+import org.cloudnook.mcp.domain.log.repository.McpInvokeLogRepository;
+import org.cloudnook.mcp.infrastructure.config.InvokeLogProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * McpAsyncInvokeLogPublisher 测试
+ * 写入线程阻塞在仓储上时，验证各溢出策略保留和丢弃的日志数、SAMPLE 策略始终保留失败日志，以及关闭时不丢失已入队的日志
+ */
+class McpAsyncInvokeLogPublisherTest {
+
+    private final McpInvokeLogRepository repository = mock(McpInvokeLogRepository.class);
+
+    private final List<McpInvokeLog> stored = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * 写入线程进入仓储
+     */
+    private final CountDownLatch writing = new CountDownLatch(1);
+
+    /**
+     * 放行仓储写入
+     */
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final InvokeLogProperties properties = new InvokeLogProperties();
+
+    private McpAsyncInvokeLogPublisher publisher;
+
+    private int sequence;
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(invocation -> {
+            writing.countDown();
+            awaitUninterruptibly(release);
+            stored.addAll(invocation.getArgument(0));
+            return null;
+        }).when(repository).addAll(anyList());
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (publisher != null) {
+            publisher.shutdown();
+        }
+    }
+
+    @Test
+    void dropOldestKeepsNewestLogs() throws Exception {
+        start(InvokeLogProperties.OverflowPolicy.DROP_OLDEST, 4);
+        blockWriter();
+
+        for (int i = 0; i < 10; i++) {
+            publish(null);
+        }
+        assertEquals(4, publisher.getQueueDepth());
+        assertEquals(6, publisher.getDroppedOverflow());
+        assertEquals(0, publisher.getDroppedSampled());
+        assertEquals(11, publisher.getPublished());
+
+        release.countDown();
+        publisher.shutdown();
+        assertEquals(11 - 6, publisher.getWritten());
+        assertEquals(List.of("call-0", "call-7", "call-8", "call-9", "call-10"), callIds());
+    }
+
+    @Test
+    void sampleKeepsFailuresAndSamplesSuccesses() throws Exception {
+        properties.getAsync().setSampleThreshold(0.25);
+        properties.getAsync().setSampleRate(5);
+        start(InvokeLogProperties.OverflowPolicy.SAMPLE, 16);
+        blockWriter();
+
+        // 积压未到阈值（16 × 0.25 = 4）前全部保留
+        for (int i = 0; i < 4; i++) {
+            publish(null);
+        }
+        assertEquals(0, publisher.getDroppedSampled());
+
+        // 超过阈值后成功日志每 5 条保留 1 条，失败日志始终保留
+        for (int i = 0; i < 10; i++) {
+            publish(null);
+            if (i % 4 == 1) {
+                publish("upstream error");
+            }
+        }
+        assertEquals(8, publisher.getDroppedSampled());
+        assertEquals(0, publisher.getDroppedOverflow());
+        assertEquals(1 + 4 + 2 + 3, publisher.getPublished());
+
+        release.countDown();
+        publisher.shutdown();
+        assertEquals(publisher.getPublished(), publisher.getWritten());
+        assertEquals(3, stored.stream()
+                .filter(log -> log.getStatus() == McpInvokeLog.InvokeStatus.FAILURE)
+                .count());
+    }
+
+    @Test
+    void blockWaitsForSpaceAndDropsAfterTimeout() throws Exception {
+        properties.getAsync().setBlockTimeout(Duration.ofMillis(200));
+        start(InvokeLogProperties.OverflowPolicy.BLOCK, 2);
+        blockWriter();
+
+        publish(null);
+        publish(null);
+        long begin = System.nanoTime();
+        publish(null);
+        assertTrue(System.nanoTime() - begin >= TimeUnit.MILLISECONDS.toNanos(200));
+        assertEquals(1, publisher.getDroppedOverflow());
+
+        // 队列腾出空位后等待中的发布被接受
+        properties.getAsync().setBlockTimeout(Duration.ofSeconds(5));
+        CompletableFuture<Void> waiting = CompletableFuture.runAsync(() -> publish(null));
+        assertThrows(TimeoutException.class, () -> waiting.get(100, TimeUnit.MILLISECONDS));
+        release.countDown();
+        waiting.get(5, TimeUnit.SECONDS);
+
+        publisher.shutdown();
+        assertEquals(1, publisher.getDroppedOverflow());
+        assertEquals(4, publisher.getWritten());
+        assertEquals(List.of("call-0", "call-1", "call-2", "call-4"), callIds());
+    }
+
+    @Test
+    void shutdownFlushesQueuedLogs() throws Exception {
+        start(InvokeLogProperties.OverflowPolicy.DROP_OLDEST, 64);
+        blockWriter();
+        for (int i = 0; i < 20; i++) {
+            publish(i % 3 == 0 ? "error" : null);
+        }
+
+        release.countDown();
+        publisher.shutdown();
+        assertEquals(0, publisher.getQueueDepth());
+        assertEquals(21, publisher.getPublished());
+        assertEquals(21, publisher.getWritten());
+        assertEquals(21, stored.size());
+    }
+
+    // ==================== 辅助方法 ====================
+
+    private void start(InvokeLogProperties.OverflowPolicy policy, int queueCapacity) {
+        properties.getAsync().setOverflowPolicy(policy);
+        properties.getAsync().setQueueCapacity(queueCapacity);
+        properties.getAsync().setBatchSize(queueCapacity);
+        publisher = new McpAsyncInvokeLogPublisher(repository, properties, new ObjectMapper());
+        publisher.start();
+    }
+
+    /**
+     * 发布第一条日志并等待写入线程阻塞在仓储上，此后发布的日志都留在队列中
+     */
+    private void blockWriter() throws InterruptedException {
+        publish(null);
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        assertEquals(0, publisher.getQueueDepth());
+    }
+
+    private void publish(String errorMessage) {
+        McpInvokeContext context = McpInvokeContext.builder()
+                .callId("call-" + sequence++)
+                .source(McpInvokeLog.InvokeSource.ROUTER)
+                .serverId("server-1")
+                .type(McpInvokeLog.InvokeType.TOOL_CALL)
+                .targetName("echo")
+                .startTime(Instant.now())
+                .startNanos(System.nanoTime())
+                .build();
+        publisher.publish(context, null, errorMessage);
+    }
+
+    private List<String> callIds() {
+        synchronized (stored) {
+            return stored.stream().map(McpInvokeLog::getCallId).toList();
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    assertTrue(latch.await(5, TimeUnit.SECONDS));
+                    return;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,361 @@
+package org.cloudnook.mcp.infrastructure.core.log;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.cloudnook.mcp.domain.log.model.McpInvokeLog;
+import org.cloudnook.mcp.domain.log.model.McpInvokeLogPage;
+import org.cloudnook.mcp.domain.log.model.McpInvokeLogQuery;
+import org.cloudnook.mcp.infrastructure.config.InvokeLogProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * McpInvokeLogFileRepository 测试
+ * 验证跨段分页、组合条件与游标查询、重启恢复（含尾部截断、已封存段损坏、段索引文件和索引重建）、
+ * 索引条数上限和过期清理
+ */
+class McpInvokeLogFileRepositoryTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void pagesNewestFirstAcrossSegmentsAndKeepsAllFields() throws IOException {
+        McpInvokeLogFileRepository repository = open(DataSize.ofKilobytes(1));
+        try {
+            for (int i = 0; i < 100; i++) {
+                repository.add(log(i));
+            }
+
+            assertTrue(segmentFiles().size() > 1, "小段大小下应滚动出多个段");
+            assertEquals(100, repository.size());
+
+            List<McpInvokeLog> first = repository.getPage(0, 10);
+            assertEquals(10, first.size());
+            assertEquals("call-99", first.get(0).getCallId());
+            assertEquals("call-90", first.get(9).getCallId());
+
+            List<McpInvokeLog> last = repository.getPage(9, 10);
+            assertEquals("call-9", last.get(0).getCallId());
+            assertEquals("call-0", last.get(9).getCallId());
+            assertTrue(repository.getPage(10, 10).isEmpty());
+
+            McpInvokeLog decoded = first.get(0);
+            McpInvokeLog expected = log(99);
+            assertEquals(expected.getServerId(), decoded.getServerId());
+            assertEquals(expected.getSource(), decoded.getSource());
+            assertEquals(expected.getType(), decoded.getType());
+            assertEquals(expected.getStatus(), decoded.getStatus());
+            assertEquals(expected.getArguments(), decoded.getArguments());
+            assertEquals(expected.getResponse(), decoded.getResponse());
+            assertEquals(expected.getErrorMessage(), decoded.getErrorMessage());
+            assertEquals(expected.getDurationMs(), decoded.getDurationMs());
+            assertEquals(expected.getTimestamp(), decoded.getTimestamp());
+            assertEquals(expected.getCacheHit(), decoded.getCacheHit());
+            assertNull(decoded.getClientId());
+            assertEquals(expected.getResponseHash(), decoded.getResponseHash());
+            assertEquals(expected.getResponseTruncated(), decoded.getResponseTruncated());
+            assertEquals(expected.getAttempt(), decoded.getAttempt());
+
+            List<McpInvokeLog> byServer = repository.getPageByServerId("server-1", 1, 5);
+            assertEquals(5, byServer.size());
+            assertTrue(byServer.stream().allMatch(l -> "server-1".equals(l.getServerId())));
+            assertEquals("call-82", byServer.get(0).getCallId());
+        } finally {
+            repository.close();
+        }
+    }
+
+    @Test
+    void queriesCombinedFiltersWithCursorAndRebuildsIndexOnRestart() {
+        McpInvokeLogFileRepository repository = open(DataSize.ofKilobytes(1));
+        for (int i = 0; i < 300; i++) {
+            repository.add(log(i));
+        }
+
+        // server-2 且失败：i % 3 == 2 && i % 7 == 0，即 i % 21 == 14
+        McpInvokeLogQuery query = McpInvokeLogQuery.builder()
+                .serverId("server-2")
+                .status(McpInvokeLog.InvokeStatus.FAILURE)
+                .size(4)
+                .build();
+        List<String> callIds = new ArrayList<>();
+        McpInvokeLogPage page = repository.query(query);
+        while (true) {
+            page.getItems().forEach(l -> callIds.add(l.getCallId()));
+            if (page.getNextCursor() == null) {
+                break;
+            }
+            query.setCursor(page.getNextCursor());
+            page = repository.query(query);
+        }
+        List<String> expected = new ArrayList<>();
+        for (int i = 299; i >= 0; i--) {
+            if (i % 21 == 14) {
+                expected.add("call-" + i);
+            }
+        }
+        assertEquals(expected, callIds);
+
+        // 时间范围 [100, 110) 秒
+        McpInvokeLogPage ranged = repository.query(McpInvokeLogQuery.builder()
+                .from(Instant.ofEpochSecond(1_700_000_100L))
+                .to(Instant.ofEpochSecond(1_700_000_110L))
+                .size(50)
+                .build());
+        assertEquals(10, ranged.getItems().size());
+        assertEquals("call-109", ranged.getItems().get(0).getCallId());
+        assertEquals("call-100", ranged.getItems().get(9).getCallId());
+        repository.close();
+
+        McpInvokeLogFileRepository reopened = open(DataSize.ofKilobytes(1));
+        try {
+            List<McpInvokeLog> byTarget = reopened.query(McpInvokeLogQuery.builder()
+                    .targetName("echo")
+                    .serverId("server-0")
+                    .page(1)
+                    .size(3)
+                    .build()).getItems();
+            assertEquals(List.of("call-288", "call-285", "call-282"),
+                    byTarget.stream().map(McpInvokeLog::getCallId).toList());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void recoversAfterRestartAndTruncatesTornTail() throws IOException {
+        McpInvokeLogFileRepository repository = open(DataSize.ofMegabytes(1));
+        List<McpInvokeLog> batch = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            batch.add(log(i));
+        }
+        repository.addAll(batch);
+        repository.close();
+
+        // 模拟写入中途崩溃：在段尾追加半条记录
+        Path segment = segmentFiles().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 1, 0, 1, 2, 3}));
+        }
+
+        McpInvokeLogFileRepository reopened = open(DataSize.ofMegabytes(1));
+        try {
+            assertEquals(20, reopened.size());
+            reopened.add(log(20));
+            List<McpInvokeLog> page = reopened.getPage(0, 3);
+            assertEquals("call-20", page.get(0).getCallId());
+            assertEquals("call-19", page.get(1).getCallId());
+            assertEquals("call-18", page.get(2).getCallId());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void corruptSealedSegmentIsNotRewritten() throws IOException {
+        McpInvokeLogFileRepository repository = open(DataSize.ofKilobytes(1));
+        for (int i = 0; i < 100; i++) {
+            repository.add(log(i));
+        }
+        repository.close();
+
+        // 破坏第一个已封存段中第二条记录的长度字段
+        List<Path> files = segmentFiles();
+        assertTrue(files.size() > 2);
+        Path sealed = files.get(0);
+        byte[] original = Files.readAllBytes(sealed);
+        int secondFrame = ByteBuffer.wrap(original).getInt(0) + 12;
+        byte[] corrupted = original.clone();
+        ByteBuffer.wrap(corrupted).putInt(secondFrame, Integer.MAX_VALUE);
+        Files.write(sealed, corrupted);
+
+        McpInvokeLogFileRepository reopened = open(DataSize.ofKilobytes(1));
+        try {
+            assertArrayEquals(corrupted, Files.readAllBytes(sealed), "已封存段不应被截断或改写");
+            assertEquals(files, segmentFiles());
+
+            // 损坏帧之前和之后各段的记录仍可读
+            List<McpInvokeLog> all = reopened.getPage(0, 200);
+            List<String> callIds = all.stream().map(McpInvokeLog::getCallId).toList();
+            assertEquals("call-99", callIds.get(0));
+            assertTrue(callIds.contains("call-0"));
+            assertFalse(callIds.contains("call-1"));
+            assertEquals(all.size(), reopened.size());
+
+            reopened.add(log(100));
+            assertEquals("call-100", reopened.getPage(0, 1).get(0).getCallId());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void sealedSegmentsRecoverFromIndexFilesWithoutDecoding() throws IOException {
+        McpInvokeLogFileRepository repository = open(DataSize.ofKilobytes(1));
+        for (int i = 0; i < 100; i++) {
+            repository.add(log(i));
+        }
+        repository.close();
+
+        List<Path> segments = segmentFiles();
+        assertEquals(segments.size() - 1, indexFiles().size(), "除写入段外每个已封存段都有段索引文件");
+
+        // 修改第一个段中记录的服务ID并还原修改时间：段索引文件仍然有效，恢复时不会解码到修改后的内容
+        Path sealed = segments.get(0);
+        FileTime modified = Files.getLastModifiedTime(sealed);
+        byte[] content = Files.readAllBytes(sealed);
+        String text = new String(content, StandardCharsets.ISO_8859_1);
+        int at = text.indexOf("server-1");
+        assertTrue(at >= 0);
+        content[at + "server-".length()] = '9';
+        Files.write(sealed, content);
+        Files.setLastModifiedTime(sealed, modified);
+
+        McpInvokeLogFileRepository reopened = open(DataSize.ofKilobytes(1));
+        try {
+            assertTrue(reopened.getPageByServerId("server-9", 0, 10).isEmpty());
+            assertEquals(List.of("call-99", "call-96", "call-93"), reopened.getPageByServerId("server-0", 0, 3)
+                    .stream().map(McpInvokeLog::getCallId).toList());
+        } finally {
+            reopened.close();
+        }
+
+        // 段索引文件缺失时回退到解码段文件，并补写段索引文件
+        Path indexFile = indexFiles().get(0);
+        Files.delete(indexFile);
+        reopened = open(DataSize.ofKilobytes(1));
+        try {
+            assertEquals(List.of("call-1"), reopened.getPageByServerId("server-9", 0, 10)
+                    .stream().map(McpInvokeLog::getCallId).toList());
+            assertTrue(Files.exists(indexFile));
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void indexCoversOnlyNewestEntries() {
+        McpInvokeLogFileRepository repository = open(DataSize.ofKilobytes(1), 30);
+        for (int i = 0; i < 100; i++) {
+            repository.add(log(i));
+        }
+        // 运行时在段滚动时裁剪，最多多保留一个段
+        List<String> live = serverZeroCallIds(repository);
+        assertFalse(live.contains("call-0"));
+        assertTrue(live.contains("call-99"));
+        repository.close();
+
+        McpInvokeLogFileRepository reopened = open(DataSize.ofKilobytes(1), 30);
+        try {
+            List<String> expected = new ArrayList<>();
+            for (int i = 99; i >= 70; i--) {
+                if (i % 3 == 0) {
+                    expected.add("call-" + i);
+                }
+            }
+            assertEquals(expected, serverZeroCallIds(reopened));
+
+            // 索引范围外的记录仍可按页读取
+            List<McpInvokeLog> all = reopened.getPage(0, 200);
+            assertEquals(100, all.size());
+            assertEquals("call-0", all.get(99).getCallId());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void retentionDeletesOnlySealedSegments() throws IOException {
+        McpInvokeLogFileRepository repository = open(DataSize.ofKilobytes(1));
+        try {
+            for (int i = 0; i < 100; i++) {
+                repository.add(log(i));
+            }
+            int before = segmentFiles().size();
+            assertTrue(before > 1);
+
+            repository.applyRetention(System.currentTimeMillis() + Duration.ofDays(30).toMillis());
+
+            assertEquals(1, segmentFiles().size(), "只保留当前写入段");
+            assertTrue(indexFiles().isEmpty(), "段索引文件随段删除");
+            assertTrue(repository.size() < 100);
+            repository.add(log(100));
+            assertEquals("call-100", repository.getPage(0, 1).get(0).getCallId());
+        } finally {
+            repository.close();
+        }
+    }
+
+    private McpInvokeLogFileRepository open(DataSize segmentSize) {
+        return open(segmentSize, new InvokeLogProperties.FileConfig().getIndexMaxEntries());
+    }
+
+    private McpInvokeLogFileRepository open(DataSize segmentSize, int indexMaxEntries) {
+        InvokeLogProperties properties = new InvokeLogProperties();
+        properties.setType(InvokeLogProperties.InvokeLogType.FILE);
+        properties.getFile().setDirectory(directory.toString());
+        properties.getFile().setSegmentSize(segmentSize);
+        properties.getFile().setIndexMaxEntries(indexMaxEntries);
+        return new McpInvokeLogFileRepository(properties, new ObjectMapper());
+    }
+
+    private static List<String> serverZeroCallIds(McpInvokeLogFileRepository repository) {
+        return repository.getPageByServerId("server-0", 0, 100).stream()
+                .map(McpInvokeLog::getCallId)
+                .toList();
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        return files(".log");
+    }
+
+    private List<Path> indexFiles() throws IOException {
+        return files(".idx");
+    }
+
+    private List<Path> files(String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(suffix)).sorted().toList();
+        }
+    }
+
+    private static McpInvokeLog log(int i) {
+        boolean failed = i % 7 == 0;
+        return McpInvokeLog.builder()
+                .callId("call-" + i)
+                .serverId("server-" + (i % 3))
+                .source(McpInvokeLog.InvokeSource.ROUTER)
+                .type(McpInvokeLog.InvokeType.TOOL_CALL)
+                .targetName("echo")
+                .arguments(Map.of("text", "hello-" + i, "count", i))
+                .response(failed ? null : "CallToolResult[content=hello-" + i + "]")
+                .responseHash(i % 5 == 4 ? "sha256:" + i : null)
+                .responseTruncated(i % 4 == 3)
+                .status(failed ? McpInvokeLog.InvokeStatus.FAILURE : McpInvokeLog.InvokeStatus.SUCCESS)
+                .errorMessage(failed ? "boom-" + i : null)
+                .durationMs((long) i)
+                .cacheHit(i % 2 == 0)
+                .coalesced(false)
+                .attempt(i % 6 == 5 ? 2 : 1)
+                .timestamp(Instant.ofEpochSecond(1_700_000_000L + i, 123_000))
+                .build();
+    }
+}
@@ -0,0 +1,159 @@
+package org.cloudnook.mcp.infrastructure.core.log;
+
+import org.cloudnook.mcp.domain.log.model.McpInvokeLog;
+import org.cloudnook.mcp.domain.log.model.McpInvokeLogQuery;
+import org.cloudnook.mcp.infrastructure.config.InvokeLogProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * McpInvokeLogMemoryRepository 测试
+ * 验证环形缓冲区绕圈覆盖、写入较慢的线程不覆盖更新的记录、超过容量的批量写入、清空后的分页，以及最旧记录处的分页边界
+ */
+class McpInvokeLogMemoryRepositoryTest {
+
+    @Test
+    void wrapAroundOverwritesOldestRecords() {
+        McpInvokeLogMemoryRepository repository = repository(5);
+        for (int i = 0; i < 12; i++) {
+            repository.add(log(i));
+        }
+
+        assertEquals(5, repository.size());
+        assertEquals(List.of("call-11", "call-10", "call-9", "call-8", "call-7"), callIds(repository.getAll()));
+        // 被覆盖的记录也不再出现在条件查询中
+        assertEquals(List.of("call-10", "call-7"), callIds(repository.query(
+                McpInvokeLogQuery.builder().serverId("server-1").size(10).build()).getItems()));
+    }
+
+    @Test
+    void slowWriterDoesNotOverwriteNewerRecord() throws Exception {
+        McpInvokeLogMemoryRepository repository = repository(4);
+        CountDownLatch allocated = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        McpInvokeLog slow = log(-1);
+
+        // 序号已分配、尚未写入槽位的批量写入
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> repository.addAll(new AbstractList<>() {
+            @Override
+            public McpInvokeLog get(int i) {
+                allocated.countDown();
+                await(release);
+                return slow;
+            }
+
+            @Override
+            public int size() {
+                return 1;
+            }
+        }));
+        assertTrue(allocated.await(5, TimeUnit.SECONDS));
+
+        // 其他线程写满一圈，序号 4 落在慢写入的槽位上
+        for (int i = 1; i <= 4; i++) {
+            repository.add(log(i));
+        }
+        release.countDown();
+        writer.get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("call-4", "call-3", "call-2", "call-1"), callIds(repository.getAll()));
+    }
+
+    @Test
+    void addAllLargerThanCapacityKeepsNewest() {
+        McpInvokeLogMemoryRepository repository = repository(4);
+        repository.add(log(0));
+
+        List<McpInvokeLog> batch = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            batch.add(log(i));
+        }
+        repository.addAll(batch);
+
+        assertEquals(4, repository.size());
+        assertEquals(List.of("call-10", "call-9", "call-8", "call-7"), callIds(repository.getAll()));
+        assertEquals(List.of("call-10", "call-7"), callIds(repository.query(
+                McpInvokeLogQuery.builder().serverId("server-1").size(10).build()).getItems()));
+
+        repository.add(log(11));
+        assertEquals(List.of("call-11", "call-10", "call-9", "call-8"), callIds(repository.getAll()));
+    }
+
+    @Test
+    void clearHidesEarlierRecords() {
+        McpInvokeLogMemoryRepository repository = repository(8);
+        for (int i = 0; i < 3; i++) {
+            repository.add(log(i));
+        }
+        repository.clear();
+
+        assertEquals(0, repository.size());
+        assertTrue(repository.getPage(0, 10).isEmpty());
+        assertTrue(repository.query(McpInvokeLogQuery.builder().size(10).build()).getItems().isEmpty());
+
+        repository.add(log(3));
+        repository.add(log(4));
+        assertEquals(2, repository.size());
+        assertEquals(List.of("call-4", "call-3"), callIds(repository.getPage(0, 10)));
+        assertTrue(repository.getPage(1, 2).isEmpty());
+    }
+
+    @Test
+    void pagesStopAtOldestSequence() {
+        McpInvokeLogMemoryRepository repository = repository(6);
+        for (int i = 0; i < 7; i++) {
+            repository.add(log(i));
+        }
+
+        // 缓冲区保留序号 1..6
+        assertEquals(List.of("call-6", "call-5", "call-4"), callIds(repository.getPage(0, 3)));
+        assertEquals(List.of("call-3", "call-2", "call-1"), callIds(repository.getPage(1, 3)));
+        assertTrue(repository.getPage(2, 3).isEmpty());
+
+        // 最后一页不足一页时截断在最旧序号
+        assertEquals(List.of("call-2", "call-1"), callIds(repository.getPage(1, 4)));
+        assertTrue(repository.getPage(-1, 3).isEmpty());
+        assertTrue(repository.getPage(0, 0).isEmpty());
+    }
+
+    // ==================== 辅助方法 ====================
+
+    private static McpInvokeLogMemoryRepository repository(int capacity) {
+        InvokeLogProperties properties = new InvokeLogProperties();
+        properties.setCapacity(capacity);
+        return new McpInvokeLogMemoryRepository(properties);
+    }
+
+    private static McpInvokeLog log(int i) {
+        return McpInvokeLog.builder()
+                .callId("call-" + i)
+                .serverId("server-" + Math.floorMod(i, 3))
+                .source(McpInvokeLog.InvokeSource.ROUTER)
+                .targetName("echo")
+                .status(McpInvokeLog.InvokeStatus.SUCCESS)
+                .timestamp(Instant.ofEpochSecond(1_700_000_000L + i))
+                .build();
+    }
+
+    private static List<String> callIds(List<McpInvokeLog> logs) {
+        return logs.stream().map(McpInvokeLog::getCallId).toList();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
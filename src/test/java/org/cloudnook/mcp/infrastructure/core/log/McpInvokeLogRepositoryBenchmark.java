@@ -0,0 +1,140 @@
+package org.cloudnook.mcp.infrastructure.core.log;
+
+import org.cloudnook.mcp.domain.log.model.McpInvokeLog;
+import org.cloudnook.mcp.infrastructure.config.InvokeLogProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * McpInvokeLogMemoryRepository 基准测试
+ * 4 个写线程持续 add、2 个读线程持续 getPage，对比原 ConcurrentLinkedDeque 实现与环形缓冲区实现
+ *
+ * 运行方式：mvn test-compile 后执行 {@link #main}
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class McpInvokeLogRepositoryBenchmark {
+
+    @Param({"100", "10000"})
+    public int capacity;
+
+    private McpInvokeLogMemoryRepository ring;
+
+    private LegacyRepository legacy;
+
+    private McpInvokeLog log;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        InvokeLogProperties properties = new InvokeLogProperties();
+        properties.setCapacity(capacity);
+        ring = new McpInvokeLogMemoryRepository(properties);
+        legacy = new LegacyRepository(capacity);
+
+        log = McpInvokeLog.builder()
+                .callId("call")
+                .serverId("bench-1")
+                .source(McpInvokeLog.InvokeSource.ROUTER)
+                .type(McpInvokeLog.InvokeType.TOOL_CALL)
+                .targetName("echo")
+                .status(McpInvokeLog.InvokeStatus.SUCCESS)
+                .durationMs(1L)
+                .timestamp(Instant.now())
+                .build();
+
+        for (int i = 0; i < capacity; i++) {
+            ring.add(log);
+            legacy.add(log);
+        }
+    }
+
+    @Benchmark
+    @Group("ring")
+    @GroupThreads(4)
+    public void ringAdd() {
+        ring.add(log);
+    }
+
+    @Benchmark
+    @Group("ring")
+    @GroupThreads(2)
+    public List<McpInvokeLog> ringGetPage() {
+        return ring.getPage(0, 20);
+    }
+
+    @Benchmark
+    @Group("legacy")
+    @GroupThreads(4)
+    public void legacyAdd() {
+        legacy.add(log);
+    }
+
+    @Benchmark
+    @Group("legacy")
+    @GroupThreads(2)
+    public List<McpInvokeLog> legacyGetPage() {
+        return legacy.getPage(0, 20);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(McpInvokeLogRepositoryBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    /**
+     * 原实现：ConcurrentLinkedDeque + 每次写入后按 size() 淘汰，读取时复制整个队列
+     */
+    static final class LegacyRepository {
+
+        private final int maxSize;
+
+        private final ConcurrentLinkedDeque<McpInvokeLog> logs = new ConcurrentLinkedDeque<>();
+
+        LegacyRepository(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        void add(McpInvokeLog log) {
+            logs.addFirst(log);
+            while (logs.size() > maxSize) {
+                logs.removeLast();
+            }
+        }
+
+        List<McpInvokeLog> getPage(int page, int size) {
+            List<McpInvokeLog> all = new ArrayList<>(logs);
+            int start = page * size;
+            if (start >= all.size()) {
+                return Collections.emptyList();
+            }
+            return all.subList(start, Math.min(start + size, all.size()));
+        }
+    }
+}
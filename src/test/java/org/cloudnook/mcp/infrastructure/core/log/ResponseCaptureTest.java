@@ -0,0 +1,59 @@
+package org.cloudnook.mcp.infrastructure.core.log;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.cloudnook.mcp.domain.log.model.McpInvokeLog;
+import org.cloudnook.mcp.infrastructure.config.InvokeLogProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ResponseCapture 测试
+ * 验证各记录方式、按类型覆盖和截断时的 UTF-8 边界处理
+ */
+class ResponseCaptureTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void truncatesAtMaxBytesWithoutSplittingCharacters() {
+        InvokeLogProperties.Capture properties = new InvokeLogProperties.Capture();
+        properties.setMaxBytes(DataSize.ofBytes(16));
+
+        McpInvokeLog log = capture(properties, McpInvokeLog.InvokeType.TOOL_CALL, Map.of("text", "你好你好你好你好"));
+        assertTrue(log.getResponseTruncated());
+        assertTrue(log.getResponse().getBytes(StandardCharsets.UTF_8).length <= 16);
+        assertEquals("{\"text\":\"你好", log.getResponse());
+
+        McpInvokeLog small = capture(properties, McpInvokeLog.InvokeType.TOOL_CALL, Map.of("a", 1));
+        assertFalse(small.getResponseTruncated());
+        assertEquals("{\"a\":1}", small.getResponse());
+    }
+
+    @Test
+    void appliesModeOverridesPerType() {
+        InvokeLogProperties.Capture properties = new InvokeLogProperties.Capture();
+        properties.getTypes().put(McpInvokeLog.InvokeType.RESOURCE_READ, InvokeLogProperties.CaptureMode.HASH);
+        properties.getTypes().put(McpInvokeLog.InvokeType.PROMPT_GET, InvokeLogProperties.CaptureMode.NONE);
+
+        McpInvokeLog hashed = capture(properties, McpInvokeLog.InvokeType.RESOURCE_READ, Map.of("a", 1));
+        assertNull(hashed.getResponse());
+        assertTrue(hashed.getResponseHash().startsWith("sha256:"));
+        assertEquals(hashed.getResponseHash(),
+                capture(properties, McpInvokeLog.InvokeType.RESOURCE_READ, Map.of("a", 1)).getResponseHash());
+
+        McpInvokeLog none = capture(properties, McpInvokeLog.InvokeType.PROMPT_GET, Map.of("a", 1));
+        assertNull(none.getResponse());
+        assertNull(none.getResponseHash());
+    }
+
+    private McpInvokeLog capture(InvokeLogProperties.Capture properties, McpInvokeLog.InvokeType type, Object result) {
+        McpInvokeLog.McpInvokeLogBuilder builder = McpInvokeLog.builder();
+        new ResponseCapture(properties, objectMapper).apply(builder, type, result);
+        return builder.build();
+    }
+}
@@ -0,0 +1,136 @@
+package org.cloudnook.mcp.infrastructure.core.metrics;
+
+import org.cloudnook.mcp.domain.log.model.McpInvokeContext;
+import org.cloudnook.mcp.domain.log.model.McpInvokeLog;
+import org.cloudnook.mcp.domain.metrics.model.McpOutlierStats;
+import org.cloudnook.mcp.domain.server.model.McpServer;
+import org.cloudnook.mcp.infrastructure.common.exception.RejectedException;
+import org.cloudnook.mcp.infrastructure.config.MetricsProperties;
+import org.cloudnook.mcp.infrastructure.config.OutlierDetectionProperties;
+import org.cloudnook.mcp.infrastructure.core.register.McpMemoryRegister;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * McpMedianOutlierDetector 测试
+ * 验证延迟离群和错误离群的摘除、摘除比例上限、连续摘除时长递增，以及网关拒绝不计入错误率
+ */
+class McpMedianOutlierDetectorTest {
+
+    private static final String SERVER_NAME = "outlier-test";
+
+    private final McpMemoryRegister register = new McpMemoryRegister();
+
+    private final McpMemoryMetrics metrics = new McpMemoryMetrics(register);
+
+    private final OutlierDetectionProperties properties = new OutlierDetectionProperties();
+
+    private final McpMedianOutlierDetector detector = new McpMedianOutlierDetector(properties, metrics, register);
+
+    private final List<String> serverIds = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        for (String serverId : serverIds) {
+            register.unregister(SERVER_NAME, serverId);
+            metrics.removeMetrics(serverId);
+            detector.remove(serverId);
+        }
+    }
+
+    @Test
+    void ejectsSlowInstanceWithIncreasingDuration() {
+        String slow = addServer("slow", 200, 0);
+        for (int i = 0; i < 3; i++) {
+            addServer("fast-" + i, 10, 0);
+        }
+
+        long now = System.currentTimeMillis();
+        detector.detect(now);
+        assertTrue(detector.isEjected(slow));
+        serverIds.stream().filter(id -> !id.equals(slow)).forEach(id -> assertFalse(detector.isEjected(id)));
+
+        McpOutlierStats stats = detector.getStats(slow);
+        assertEquals("LATENCY", stats.getReason());
+        assertEquals(1, stats.getEjectionMultiplier());
+        assertEquals(now + Duration.ofSeconds(30).toMillis(), stats.getEjectedUntil().toEpochMilli());
+
+        // 摘除和观察期结束后仍然离群：摘除倍数递增
+        long later = now + Duration.ofSeconds(61).toMillis();
+        detector.detect(later);
+        stats = detector.getStats(slow);
+        assertEquals(2, stats.getEjectionMultiplier());
+        assertEquals(later + Duration.ofSeconds(60).toMillis(), stats.getEjectedUntil().toEpochMilli());
+    }
+
+    @Test
+    void capsEjectedFractionAndPrefersErrorOutliers() {
+        properties.setMaxEjectionPercent(0.25);
+        String failing = addServer("failing", 20, 20);
+        String slow = addServer("slow", 500, 0);
+        for (int i = 0; i < 2; i++) {
+            addServer("fast-" + i, 10, 0);
+        }
+
+        detector.detect(System.currentTimeMillis());
+        assertTrue(detector.isEjected(failing));
+        assertEquals("ERROR_RATE", detector.getStats(failing).getReason());
+        // 4 个实例最多摘除 1 个
+        assertFalse(detector.isEjected(slow));
+    }
+
+    @Test
+    void gatewayRejectionsDoNotMakeAnOutlier() {
+        McpMetricsDomainServiceImpl metricsService =
+                new McpMetricsDomainServiceImpl(metrics, new McpMemoryDimensionMetrics(new MetricsProperties()));
+        String throttled = addServer("throttled", 10, 0);
+        for (int i = 0; i < 2; i++) {
+            addServer("peer-" + i, 10, 0);
+        }
+
+        // 本地限流和并发隔离拒绝了大量请求
+        for (int i = 0; i < 60; i++) {
+            RejectedException.Reason reason = i % 2 == 0
+                    ? RejectedException.Reason.CONCURRENCY_LIMITED
+                    : RejectedException.Reason.BULKHEAD_FULL;
+            metricsService.recordFailure(McpInvokeContext.builder()
+                    .serverId(throttled)
+                    .type(McpInvokeLog.InvokeType.TOOL_CALL)
+                    .targetName("echo")
+                    .startNanos(System.nanoTime())
+                    .build(), new RejectedException(reason, "rejected"));
+        }
+
+        detector.detect(System.currentTimeMillis());
+        assertFalse(detector.isEjected(throttled));
+        assertEquals(0.0, detector.getStats(throttled).getWindowErrorRate());
+        assertEquals(60, metrics.getServerMetrics(throttled).getRejectedRequests());
+    }
+
+        @Test
+    void skipsGroupsWithTooFewInstances() {
+        String slow = addServer("slow", 500, 0);
+        addServer("fast", 10, 0);
+
+        detector.detect(System.currentTimeMillis());
+        assertFalse(detector.isEjected(slow));
+    }
+
+    private String addServer(String suffix, long latencyMillis, int failures) {
+        String serverId = SERVER_NAME + "-" + suffix;
+        register.register(McpServer.builder().id(serverId).name(SERVER_NAME).build());
+        metrics.initMetrics(SERVER_NAME, serverId);
+        serverIds.add(serverId);
+        for (int i = 0; i < 30; i++) {
+            metrics.recordRequest(serverId, TimeUnit.MILLISECONDS.toNanos(latencyMillis), i >= failures);
+        }
+        return serverId;
+    }
+}
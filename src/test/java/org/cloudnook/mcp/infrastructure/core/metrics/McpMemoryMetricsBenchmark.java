@@ -0,0 +1,140 @@
+package org.cloudnook.mcp.infrastructure.core.metrics;
+
+import org.cloudnook.mcp.domain.metrics.model.McpServerMetrics;
+import org.cloudnook.mcp.domain.server.model.McpServer;
+import org.cloudnook.mcp.domain.server.model.McpServerStatus;
+import org.cloudnook.mcp.domain.server.model.McpTransportType;
+import org.cloudnook.mcp.infrastructure.core.register.McpMemoryRegister;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * McpMemoryMetrics.recordRequest 基准测试
+ * 对比原 computeIfPresent + 可变实体的实现与当前无锁记录单元实现，单个热点服务下 1/8/32 线程的吞吐
+ *
+ * 运行方式：mvn test-compile 后执行 {@link #main}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class McpMemoryMetricsBenchmark {
+
+    private static final String SERVER_NAME = "bench";
+    private static final String SERVER_ID = "bench-1";
+
+    private final McpMemoryRegister register = new McpMemoryRegister();
+
+    private McpMemoryMetrics metrics;
+
+    private LegacyMetrics legacyMetrics;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        register.clear();
+        register.register(McpServer.builder()
+                .id(SERVER_ID)
+                .name(SERVER_NAME)
+                .transportType(McpTransportType.STREAMABLE_HTTP)
+                .endpoint("http://localhost/" + SERVER_ID)
+                .status(McpServerStatus.ACTIVE)
+                .build());
+
+        metrics = new McpMemoryMetrics(register);
+        metrics.initMetrics(SERVER_NAME, SERVER_ID);
+
+        legacyMetrics = new LegacyMetrics();
+        legacyMetrics.initMetrics(SERVER_ID);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        metrics.removeMetrics(SERVER_ID);
+        register.clear();
+    }
+
+    @Benchmark
+    public void striped() {
+        metrics.recordRequest(SERVER_ID, ThreadLocalRandom.current().nextLong(1_000_000, 200_000_000), true);
+    }
+
+    @Benchmark
+    public void legacy() {
+        legacyMetrics.recordRequest(SERVER_ID, ThreadLocalRandom.current().nextLong(1, 200), true);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : new int[]{1, 8, 32}) {
+            Options options = new OptionsBuilder()
+                    .include(McpMemoryMetricsBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build();
+            new Runner(options).run();
+        }
+    }
+
+    /**
+     * 原实现：每次请求在 computeIfPresent 中更新可变实体
+     */
+    static final class LegacyMetrics {
+
+        private final ConcurrentHashMap<String, McpServerMetrics> holder = new ConcurrentHashMap<>();
+
+        void initMetrics(String serverId) {
+            holder.put(serverId, McpServerMetrics.builder()
+                    .serverId(serverId)
+                    .totalRequests(0L)
+                    .successRequests(0L)
+                    .failedRequests(0L)
+                    .avgLatency(0.0)
+                    .registerTime(Instant.now())
+                    .lastHeartbeat(Instant.now())
+                    .build());
+        }
+
+        void recordRequest(String serverId, long latency, boolean success) {
+            holder.computeIfPresent(serverId, (id, metrics) -> {
+                metrics.setTotalRequests(metrics.getTotalRequests() + 1);
+                if (success) {
+                    metrics.setSuccessRequests(metrics.getSuccessRequests() + 1);
+                } else {
+                    metrics.setFailedRequests(metrics.getFailedRequests() + 1);
+                }
+
+                if (metrics.getMinLatency() == null || latency < metrics.getMinLatency()) {
+                    metrics.setMinLatency(latency);
+                }
+                if (metrics.getMaxLatency() == null || latency > metrics.getMaxLatency()) {
+                    metrics.setMaxLatency(latency);
+                }
+                double alpha = 0.2;
+                double currentAvg = metrics.getAvgLatency() != null ? metrics.getAvgLatency() : latency;
+                metrics.setAvgLatency(alpha * latency + (1 - alpha) * currentAvg);
+
+                metrics.setLastHeartbeat(Instant.now());
+                return metrics;
+            });
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package org.cloudnook.mcp.infrastructure.core.metrics;
+
+import org.cloudnook.mcp.domain.log.model.McpInvokeContext;
+import org.cloudnook.mcp.domain.log.model.McpInvokeLog;
+import org.cloudnook.mcp.domain.metrics.model.McpServerMetrics;
+import org.cloudnook.mcp.domain.server.model.McpServer;
+import org.cloudnook.mcp.infrastructure.common.exception.RejectedException;
+import org.cloudnook.mcp.infrastructure.config.ConcurrencyLimitProperties;
+import org.cloudnook.mcp.infrastructure.config.MetricsProperties;
+import org.cloudnook.mcp.infrastructure.core.invoke.McpAdaptiveConcurrencyLimiter;
+import org.cloudnook.mcp.infrastructure.core.register.McpMemoryRegister;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * McpMetricsDomainServiceImpl 测试
+ * 验证网关拒绝只计入拒绝数，不改变服务的失败数和错误率
+ */
+class McpMetricsDomainServiceImplTest {
+
+    private static final String SERVER_NAME = "metrics-test";
+
+    private static final String SERVER_ID = "metrics-test-1";
+
+    private final McpMemoryRegister register = new McpMemoryRegister();
+
+    private final McpMemoryMetrics metrics = new McpMemoryMetrics(register);
+
+    private final McpMetricsDomainServiceImpl metricsService =
+            new McpMetricsDomainServiceImpl(metrics, new McpMemoryDimensionMetrics(new MetricsProperties()));
+
+    private final ConcurrencyLimitProperties limitProperties = new ConcurrencyLimitProperties();
+
+    private final McpAdaptiveConcurrencyLimiter limiter = new McpAdaptiveConcurrencyLimiter(limitProperties);
+
+    @BeforeEach
+    void setUp() {
+        limitProperties.setInitialLimit(1);
+        limitProperties.setMinLimit(1);
+        limitProperties.setMaxLimit(1);
+        register.register(McpServer.builder().id(SERVER_ID).name(SERVER_NAME).build());
+        metrics.initMetrics(SERVER_NAME, SERVER_ID);
+    }
+
+    @AfterEach
+    void tearDown() {
+        register.unregister(SERVER_NAME, SERVER_ID);
+        metrics.removeMetrics(SERVER_ID);
+        limiter.remove(SERVER_ID);
+    }
+
+    @Test
+    void limiterRejectionDoesNotMoveErrorRate() {
+        McpInvokeContext ok = context();
+        metricsService.recordSuccess(ok, "ok");
+
+        // 占满唯一的名额，第二个调用被限流
+        Disposable inFlight = limiter.execute(SERVER_ID, Mono::never).subscribe();
+        McpInvokeContext rejected = context();
+        Throwable error = assertThrows(RejectedException.class,
+                () -> limiter.execute(SERVER_ID, () -> Mono.just("late")).block(Duration.ofSeconds(1)));
+        metricsService.recordFailure(rejected, error);
+        inFlight.dispose();
+
+        McpServerMetrics snapshot = metrics.getServerMetrics(SERVER_ID);
+        assertEquals(1, snapshot.getRejectedRequests());
+        assertEquals(1, snapshot.getTotalRequests());
+        assertEquals(0, snapshot.getFailedRequests());
+        assertEquals(0, snapshot.getWindow1m().getFailedRequests());
+        assertEquals(0.0, snapshot.getFailureRate());
+    }
+
+    @Test
+    void upstreamFailureMovesErrorRate() {
+        metricsService.recordSuccess(context(), "ok");
+        metricsService.recordFailure(context(), new IllegalStateException("backend down"));
+
+        McpServerMetrics snapshot = metrics.getServerMetrics(SERVER_ID);
+        assertEquals(0, snapshot.getRejectedRequests());
+        assertEquals(1, snapshot.getFailedRequests());
+        assertEquals(1, snapshot.getWindow1m().getFailedRequests());
+        assertEquals(50.0, snapshot.getFailureRate());
+    }
+
+    private static McpInvokeContext context() {
+        return McpInvokeContext.builder()
+                .serverId(SERVER_ID)
+                .type(McpInvokeLog.InvokeType.TOOL_CALL)
+                .targetName("echo")
+                .startNanos(System.nanoTime())
+                .build();
+    }
+}
@@ -0,0 +1,58 @@
+package org.cloudnook.mcp.infrastructure.core.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * WindowedLatencyHistogram 测试
+ * 验证分位值只反映窗口内的样本，延迟变化后一个窗口内跟上
+ */
+class WindowedLatencyHistogramTest {
+
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(20);
+
+    @Test
+    void tracksLatencyShiftWithinOneWindow() {
+        WindowedLatencyHistogram histogram = new WindowedLatencyHistogram();
+        long start = 1_000_000_000L;
+
+        // 长时间的慢样本
+        for (int i = 0; i < 10_000; i++) {
+            histogram.record(start + i, SLOW);
+        }
+        assertWithinBucket(SLOW, histogram.percentiles(start + 10_000, 0.95)[0]);
+
+        // 延迟下降后，窗口内混合新旧样本
+        long shifted = start + 30_000;
+        for (int i = 0; i < 1_000; i++) {
+            histogram.record(shifted + i, FAST);
+        }
+        assertWithinBucket(SLOW, histogram.percentiles(shifted + 1_000, 0.95)[0]);
+
+        // 旧样本滑出窗口后只剩新的延迟
+        long later = start + 70_000;
+        histogram.record(later, FAST);
+        assertWithinBucket(FAST, histogram.percentiles(later, 0.95)[0]);
+        assertWithinBucket(FAST, histogram.percentiles(later, 0.5)[0]);
+    }
+
+    @Test
+    void emptyWindowReturnsZero() {
+        WindowedLatencyHistogram histogram = new WindowedLatencyHistogram();
+        histogram.record(0, SLOW);
+
+        assertEquals(0, histogram.percentiles(WindowedLatencyHistogram.DEFAULT_SLICE_MILLIS
+                * WindowedLatencyHistogram.DEFAULT_SLICES, 0.95)[0]);
+    }
+
+    private static void assertWithinBucket(long expected, long actual) {
+        // 直方图相对误差约 3%
+        assertTrue(Math.abs(actual - expected) <= expected * 0.04,
+                "expected ~" + expected + " but was " + actual);
+    }
+}
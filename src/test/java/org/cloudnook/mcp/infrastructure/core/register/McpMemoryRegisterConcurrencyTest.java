@@ -0,0 +1,174 @@
+package org.cloudnook.mcp.infrastructure.core.register;
+
+import org.cloudnook.mcp.domain.server.model.McpServer;
+import org.cloudnook.mcp.domain.server.model.McpServerStatus;
+import org.cloudnook.mcp.domain.server.model.McpTransportType;
+import org.cloudnook.mcp.infrastructure.common.exception.BusinessException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * McpMemoryRegister 并发压力测试
+ * 验证并发注册/注销时，服务名称视图与 serverId 索引始终一致
+ */
+class McpMemoryRegisterConcurrencyTest {
+
+    private static final int SERVER_NAMES = 8;
+    private static final int INSTANCES_PER_NAME = 32;
+    private static final int WRITERS = 8;
+    private static final int READERS = 4;
+    private static final int OPERATIONS_PER_WRITER = 5_000;
+
+    private final McpMemoryRegister register = new McpMemoryRegister();
+
+    @BeforeEach
+    void setUp() {
+        register.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        register.clear();
+    }
+
+    @Test
+    void nameViewAndIdIndexNeverDisagreeUnderConcurrentWrites() throws Exception {
+        List<McpServer> candidates = new ArrayList<>();
+        for (int n = 0; n < SERVER_NAMES; n++) {
+            for (int i = 0; i < INSTANCES_PER_NAME; i++) {
+                candidates.add(server("server-" + n, "id-" + n + "-" + i));
+            }
+        }
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong snapshotsChecked = new AtomicLong();
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch writersDone = new CountDownLatch(WRITERS);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int op = 0; op < OPERATIONS_PER_WRITER; op++) {
+                        McpServer server = candidates.get(random.nextInt(candidates.size()));
+                        try {
+                            if (random.nextBoolean()) {
+                                register.register(server);
+                            } else {
+                                register.unregister(server.getName(), server.getId());
+                            }
+                        } catch (BusinessException expected) {
+                            // 重复注册或注销不存在的实例
+                        }
+                    }
+                } catch (Throwable t) {
+                    failures.add(t);
+                } finally {
+                    writersDone.countDown();
+                }
+            }));
+        }
+
+        for (int r = 0; r < READERS; r++) {
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    long lastVersion = -1;
+                    while (running.get()) {
+                        McpRoutingTable table = register.getRoutingTable();
+                        assertTrue(table.getVersion() >= lastVersion, "路由快照版本回退");
+                        lastVersion = table.getVersion();
+                        assertConsistent(table);
+                        snapshotsChecked.incrementAndGet();
+
+                        // 通过公开接口按 ID 查询到的实例必须能在同名视图中找到
+                        McpServer probe = candidates.get(ThreadLocalRandom.current().nextInt(candidates.size()));
+                        McpServer byId = register.getRoutingTable().getServerById(probe.getId());
+                        if (byId != null) {
+                            assertSame(probe, byId);
+                        }
+                    }
+                } catch (Throwable t) {
+                    failures.add(t);
+                }
+            }));
+        }
+
+        threads.forEach(Thread::start);
+        start.countDown();
+        assertTrue(writersDone.await(60, TimeUnit.SECONDS), "写线程未在限定时间内完成");
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+
+        if (!failures.isEmpty()) {
+            fail("并发校验失败", failures.peek());
+        }
+        assertTrue(snapshotsChecked.get() > 0);
+
+        // 静止后两种视图与公开接口完全一致
+        McpRoutingTable table = register.getRoutingTable();
+        assertConsistent(table);
+        for (McpServer candidate : candidates) {
+            McpServer indexed = table.getServerById(candidate.getId());
+            boolean listed = table.getServers(candidate.getName()).contains(candidate);
+            assertEquals(indexed != null, listed, "索引与名称视图不一致: " + candidate.getId());
+            if (indexed != null) {
+                assertSame(candidate, register.getServerById(candidate.getId()));
+                assertSame(candidate, register.getServer(candidate.getName(), candidate.getId()));
+            } else {
+                assertThrows(BusinessException.class, () -> register.getServerById(candidate.getId()));
+            }
+        }
+    }
+
+    @Test
+    void registerRejectsDuplicateServerIdAcrossNames() {
+        register.register(server("server-a", "shared-id"));
+
+        assertThrows(BusinessException.class, () -> register.register(server("server-b", "shared-id")));
+        assertTrue(register.getServersByName("server-b").isEmpty());
+        assertEquals("server-a", register.getServerById("shared-id").getName());
+    }
+
+    /**
+     * 校验单个快照内名称视图与 serverId 索引一致
+     */
+    private static void assertConsistent(McpRoutingTable table) {
+        Set<String> seenIds = new HashSet<>();
+        for (McpServer server : table.getAllServers()) {
+            assertTrue(seenIds.add(server.getId()), "serverId 重复: " + server.getId());
+            assertSame(server, table.getServerById(server.getId()));
+            assertTrue(table.getServers(server.getName()).contains(server));
+            assertTrue(table.getServerIds(server.getName()).contains(server.getId()));
+        }
+    }
+
+    private static McpServer server(String name, String id) {
+        return McpServer.builder()
+                .id(id)
+                .name(name)
+                .transportType(McpTransportType.STREAMABLE_HTTP)
+                .endpoint("http://localhost/" + id)
+                .status(McpServerStatus.ACTIVE)
+                .build();
+    }
+}
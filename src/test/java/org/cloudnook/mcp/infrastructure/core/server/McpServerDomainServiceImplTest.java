@@ -0,0 +1,91 @@
+package org.cloudnook.mcp.infrastructure.core.server;
+
+import io.modelcontextprotocol.client.McpAsyncClient;
+import org.cloudnook.mcp.domain.invoke.repository.McpCatalogCache;
+import org.cloudnook.mcp.domain.invoke.service.McpBulkhead;
+import org.cloudnook.mcp.domain.invoke.service.McpCircuitBreaker;
+import org.cloudnook.mcp.domain.invoke.service.McpConcurrencyLimiter;
+import org.cloudnook.mcp.domain.invoke.service.McpRequestHedger;
+import org.cloudnook.mcp.domain.invoke.service.McpRetryBudget;
+import org.cloudnook.mcp.domain.metrics.repository.McpDimensionMetricsRepository;
+import org.cloudnook.mcp.domain.metrics.repository.McpMetricsRepository;
+import org.cloudnook.mcp.domain.routing.McpOutlierDetector;
+import org.cloudnook.mcp.domain.routing.ServerLoadTracker;
+import org.cloudnook.mcp.domain.server.model.McpBulkheadConfig;
+import org.cloudnook.mcp.domain.server.model.McpServer;
+import org.cloudnook.mcp.domain.server.service.McpClientManager;
+import org.cloudnook.mcp.domain.server.service.McpRegister;
+import org.cloudnook.mcp.infrastructure.common.exception.BusinessException;
+import org.cloudnook.mcp.infrastructure.common.result.Result;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * McpServerDomainServiceImpl 测试
+ * 验证并发隔离只在注册成功后配置，重复注册被拒绝时不改动已有实例的隔离配置，连接前的校验失败保留错误码
+ */
+class McpServerDomainServiceImplTest {
+
+    private final McpRegister register = mock(McpRegister.class);
+
+    private final McpClientManager clientManager = mock(McpClientManager.class);
+
+    private final McpBulkhead bulkhead = mock(McpBulkhead.class);
+
+    private final McpServerDomainServiceImpl service = new McpServerDomainServiceImpl(
+            register, clientManager, mock(McpMetricsRepository.class), mock(McpDimensionMetricsRepository.class),
+            new ServerLoadTracker(), mock(McpCatalogCache.class), bulkhead, mock(McpConcurrencyLimiter.class),
+            mock(McpCircuitBreaker.class), mock(McpOutlierDetector.class), mock(McpRequestHedger.class),
+            mock(McpRetryBudget.class));
+
+    private final McpServer server = McpServer.builder()
+            .id("domain-service-test")
+            .name("domain-service-test")
+            .bulkhead(McpBulkheadConfig.builder().maxConcurrency(2).build())
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        when(clientManager.connect(server)).thenReturn(Mono.just(mock(McpAsyncClient.class)));
+    }
+
+    @Test
+    void configuresBulkheadAfterRegistration() {
+        Result<McpServer> result = service.register(server).block(Duration.ofSeconds(1));
+
+        assertNotNull(result);
+        assertEquals("200", result.getCode());
+        InOrder inOrder = inOrder(register, bulkhead);
+        inOrder.verify(register).register(server);
+        inOrder.verify(bulkhead).configure(server);
+    }
+
+    @Test
+    void rejectedDuplicateKeepsExistingBulkhead() {
+        doThrow(new BusinessException("服务已存在: " + server.getId())).when(register).register(server);
+
+        Result<McpServer> result = service.register(server).block(Duration.ofSeconds(1));
+
+        assertNotNull(result);
+        assertNotEquals("200", result.getCode());
+        verify(bulkhead, never()).configure(any());
+    }
+
+    @Test
+    void keepsCodeOfRejectedConnection() {
+        when(clientManager.connect(server)).thenReturn(Mono.error(new BusinessException("403", "未开启 STDIO 服务")));
+
+        Result<McpServer> result = service.register(server).block(Duration.ofSeconds(1));
+
+        assertNotNull(result);
+        assertEquals("403", result.getCode());
+        verify(register, never()).register(any());
+    }
+}